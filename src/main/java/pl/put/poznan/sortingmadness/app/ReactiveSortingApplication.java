@@ -0,0 +1,27 @@
+package pl.put.poznan.sortingmadness.app;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Nieblokujący wariant aplikacji Sorting Madness, działający na serwerze Netty (Spring WebFlux).
+ * <p>
+ * Udostępnia strumieniowy punkt końcowy "/sort/stream" z pakietu {@code reactive}, w którym żaden wątek
+ * nie jest zajęty przez cały czas odbierania danych, sortowania i wysyłania wyniku. Uruchamiany przez
+ * {@link SortingMadnessApplication} z argumentem {@code --sorting.mode=reactive}.
+ */
+@SpringBootApplication(scanBasePackages = {"pl.put.poznan.sortingmadness.reactive"})
+public class ReactiveSortingApplication {
+
+    /**
+     * Uruchamia aplikację w trybie reaktywnym.
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveSortingApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.run(args);
+    }
+}
@@ -2,6 +2,7 @@ package pl.put.poznan.sortingmadness.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
 
 /**
  * Główna klasa aplikacji dla Sorting Madness.
@@ -21,11 +22,20 @@ public class SortingMadnessApplication {
      * Główna metoda uruchamiająca aplikację Sorting Madness.
      * <p>
      * Metoda używa {@link SpringApplication#run(Class, String...)} do uruchomienia aplikacji
-     * oraz załadowania kontekstu Spring Framework.
+     * oraz załadowania kontekstu Spring Framework. Argument {@code --sorting.mode=reactive} uruchamia zamiast tego
+     * nieblokujący wariant {@link ReactiveSortingApplication}.
      *
      * @param args argumenty wiersza poleceń, które mogą być przekazane do aplikacji
      */
     public static void main(String[] args) {
-        SpringApplication.run(SortingMadnessApplication.class, args);
+        String mode = new SimpleCommandLinePropertySource(args).getProperty("sorting.mode");
+        if (mode == null) {
+            mode = System.getProperty("sorting.mode", "servlet");
+        }
+        if ("reactive".equalsIgnoreCase(mode)) {
+            ReactiveSortingApplication.main(args);
+        } else {
+            SpringApplication.run(SortingMadnessApplication.class, args);
+        }
     }
 }
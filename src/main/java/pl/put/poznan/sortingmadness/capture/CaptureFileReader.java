@@ -0,0 +1,129 @@
+package pl.put.poznan.sortingmadness.capture;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Odczytuje leniwie rekordy zapisane przez {@link CaptureFileWriter}.
+ * <p>
+ * Jeśli wskazano katalog, odczytywane są wszystkie pliki {@value CaptureFileWriter#EXTENSION}
+ * w kolejności nazw, czyli w kolejności ich utworzenia. Ucięty ostatni rekord (np. po awarii
+ * procesu w trakcie zapisu) jest pomijany.
+ */
+public class CaptureFileReader implements Iterator<CapturedRequest>, Closeable {
+
+    private final Iterator<Path> files;
+    private final Inflater inflater = new Inflater();
+    private DataInputStream input;
+    private CapturedRequest next;
+
+    /**
+     * Otwiera plik lub katalog z plikami przechwytywania.
+     *
+     * @param source plik przechwytywania albo katalog z takimi plikami
+     * @throws IOException jeśli źródła nie da się odczytać
+     */
+    public CaptureFileReader(Path source) throws IOException {
+        List<Path> paths;
+        if (Files.isDirectory(source)) {
+            try (Stream<Path> listing = Files.list(source)) {
+                paths = listing.filter(path -> path.getFileName().toString().endsWith(CaptureFileWriter.EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        } else {
+            paths = List.of(source);
+        }
+        this.files = paths.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public CapturedRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CapturedRequest result = next;
+        next = null;
+        return result;
+    }
+
+    private CapturedRequest readNext() throws IOException {
+        while (true) {
+            if (input == null) {
+                if (!files.hasNext()) {
+                    return null;
+                }
+                openFile(files.next());
+            }
+            try {
+                long epochMicros = input.readLong();
+                int durationMicros = input.readInt();
+                int status = input.readShort();
+                String path = input.readUTF();
+                int rawLength = input.readInt();
+                byte[] compressed = new byte[input.readInt()];
+                input.readFully(compressed);
+                return new CapturedRequest(epochMicros, durationMicros, status, path, decompress(compressed, rawLength));
+            } catch (EOFException e) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+    private void openFile(Path file) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        if (input.readInt() != CaptureFileWriter.MAGIC || input.readByte() != CaptureFileWriter.VERSION) {
+            input.close();
+            throw new IOException("Not a traffic capture file: " + file);
+        }
+    }
+
+    private byte[] decompress(byte[] compressed, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] body = new byte[rawLength];
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(body, length, rawLength - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted capture record", e);
+        }
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+        inflater.end();
+    }
+}
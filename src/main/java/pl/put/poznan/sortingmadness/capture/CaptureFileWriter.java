@@ -0,0 +1,208 @@
+package pl.put.poznan.sortingmadness.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Zapisuje przechwycone żądania do rotowanych plików w zwartym formacie binarnym.
+ * <p>
+ * Format pliku: nagłówek {@link #MAGIC} i bajt wersji, a następnie rekordy
+ * {@code [long epochMicros][int durationMicros][short status][UTF path][int rawLength][int compressedLength][bytes]},
+ * gdzie treść żądania skompresowana jest algorytmem Deflate. Zapis odbywa się na osobnym wątku;
+ * wątki obsługujące żądania jedynie umieszczają rekordy w ograniczonej kolejce, a gdy jest ona pełna,
+ * rekord jest odrzucany zamiast spowalniać obsługę żądania.
+ */
+public class CaptureFileWriter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CaptureFileWriter.class);
+
+    /** Sygnatura otwierająca każdy plik przechwytywania. */
+    static final int MAGIC = 0x534D4350; // "SMCP"
+    /** Wersja formatu binarnego. */
+    static final byte VERSION = 1;
+    /** Rozszerzenie plików przechwytywania. */
+    public static final String EXTENSION = ".smcap";
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private volatile boolean running = true;
+    private DataOutputStream output;
+    private long currentFileBytes;
+    private int sequence;
+
+    /**
+     * Tworzy obiekt zapisujący i uruchamia wątek zapisu.
+     *
+     * @param directory     katalog docelowy (tworzony, jeśli nie istnieje)
+     * @param maxFileBytes  rozmiar pliku, po przekroczeniu którego następuje rotacja
+     * @param maxFiles      maksymalna liczba przechowywanych plików; najstarsze są usuwane
+     * @param queueCapacity pojemność kolejki rekordów oczekujących na zapis
+     * @throws IOException jeśli katalogu nie da się utworzyć
+     */
+    public CaptureFileWriter(Path directory, long maxFileBytes, int maxFiles, int queueCapacity) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::drain, "traffic-capture-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Umieszcza rekord w kolejce do zapisu; nie blokuje wywołującego.
+     *
+     * @param request przechwycone żądanie
+     * @return {@code true} jeśli rekord przyjęto, {@code false} jeśli został odrzucony z powodu pełnej kolejki
+     */
+    public boolean submit(CapturedRequest request) {
+        boolean accepted = running && queue.offer(request);
+        if (!accepted) {
+            dropped.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Zwraca liczbę rekordów odrzuconych z powodu pełnej kolejki.
+     *
+     * @return liczba odrzuconych rekordów
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        try {
+            drainQueue();
+        } finally {
+            closeCurrentFile();
+            // Only this thread uses the deflater, so it is released here rather than in close(),
+            // which may give up waiting while a write is still in progress.
+            deflater.end();
+        }
+    }
+
+    private void drainQueue() {
+        while (running || !queue.isEmpty()) {
+            try {
+                CapturedRequest request = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (request != null) {
+                    write(request);
+                } else if (output != null) {
+                    output.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                logger.warn("Failed to write captured request: {}", e.getMessage());
+                closeCurrentFile();
+            }
+        }
+    }
+
+    private void write(CapturedRequest request) throws IOException {
+        if (output == null || currentFileBytes >= maxFileBytes) {
+            rotate();
+        }
+        byte[] compressed = compress(request.getBody());
+        int before = output.size();
+        output.writeLong(request.getEpochMicros());
+        output.writeInt(request.getDurationMicros());
+        output.writeShort(request.getStatus());
+        output.writeUTF(request.getPath());
+        output.writeInt(request.getBody().length);
+        output.writeInt(compressed.length);
+        output.write(compressed);
+        currentFileBytes += output.size() - before;
+    }
+
+    private byte[] compress(byte[] body) {
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+        byte[] buffer = new byte[Math.max(64, body.length / 2)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void rotate() throws IOException {
+        closeCurrentFile();
+        Path file = directory.resolve(String.format("capture-%d-%04d%s", System.currentTimeMillis(), sequence++, EXTENSION));
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        currentFileBytes = output.size();
+        logger.info("Capturing traffic to {}", file);
+        deleteOldFiles();
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeCurrentFile() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close capture file: {}", e.getMessage());
+            }
+            output = null;
+        }
+    }
+
+    /**
+     * Zatrzymuje przyjmowanie rekordów, zapisuje zawartość kolejki i zamyka bieżący plik.
+     * Czeka na wątek zapisu co najwyżej 5 sekund; jeśli nie zdąży, wątek dokończy zapis
+     * i zwolni swoje zasoby samodzielnie.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Capture writer did not finish within 5 s, {} records still queued", queue.size());
+        }
+    }
+}
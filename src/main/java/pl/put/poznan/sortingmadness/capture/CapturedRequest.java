@@ -0,0 +1,50 @@
+package pl.put.poznan.sortingmadness.capture;
+
+/**
+ * Pojedyncze przechwycone żądanie wraz z metadanymi czasowymi.
+ */
+public class CapturedRequest {
+
+    private final long epochMicros;
+    private final int durationMicros;
+    private final int status;
+    private final String path;
+    private final byte[] body;
+
+    /**
+     * Tworzy zapis przechwyconego żądania.
+     *
+     * @param epochMicros    moment przyjęcia żądania w mikrosekundach od epoki Unix
+     * @param durationMicros czas obsługi żądania przez usługę w mikrosekundach
+     * @param status         kod odpowiedzi HTTP
+     * @param path           ścieżka żądania, np. "/sort"
+     * @param body           treść żądania
+     */
+    public CapturedRequest(long epochMicros, int durationMicros, int status, String path, byte[] body) {
+        this.epochMicros = epochMicros;
+        this.durationMicros = durationMicros;
+        this.status = status;
+        this.path = path;
+        this.body = body;
+    }
+
+    public long getEpochMicros() {
+        return epochMicros;
+    }
+
+    public int getDurationMicros() {
+        return durationMicros;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
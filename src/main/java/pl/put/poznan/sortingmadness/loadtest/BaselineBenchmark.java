@@ -0,0 +1,118 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.benchmark.Baseline;
+import pl.put.poznan.sortingmadness.logic.benchmark.BaselineStore;
+import pl.put.poznan.sortingmadness.logic.benchmark.BenchmarkSuite;
+import pl.put.poznan.sortingmadness.logic.benchmark.RegressionAnalyzer;
+import pl.put.poznan.sortingmadness.logic.benchmark.RegressionReport;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uruchamia wbudowany zestaw benchmarków i zapisuje wynik jako linię bazową albo porównuje go z linią bazową.
+ * <p>
+ * Tryb zapisu ({@code --record=true}) tworzy plik linii bazowej, który należy dołączyć do repozytorium.
+ * W trybie porównania (domyślnym) zapisywany jest raport Markdown, a program kończy się kodem 1,
+ * jeśli którykolwiek przypadek zwolnił ponad próg.
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.main-class=pl.put.poznan.sortingmadness.loadtest.BaselineBenchmark \
+ *     -Dspring-boot.run.arguments="--threshold=0.10 --report=target/benchmark-report.md"
+ * </pre>
+ * Dostępne opcje: {@code --record}, {@code --baseline}, {@code --report}, {@code --output}, {@code --algorithms},
+ * {@code --shapes}, {@code --sizes}, {@code --quadratic-max-size}, {@code --warmup}, {@code --measurement},
+ * {@code --seed}, {@code --revision}, {@code --threshold} oraz {@code --alpha}.
+ */
+public class BaselineBenchmark {
+
+    private final Map<String, String> options;
+
+    /**
+     * Tworzy narzędzie z opcjami w postaci {@code --nazwa=wartość}.
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public BaselineBenchmark(String[] args) {
+        this.options = LoadGenerator.parseOptions(args);
+    }
+
+    /**
+     * Uruchamia benchmark z wiersza poleceń.
+     *
+     * @param args argumenty wiersza poleceń
+     * @throws Exception w przypadku błędu odczytu lub zapisu plików
+     */
+    public static void main(String[] args) throws Exception {
+        System.exit(new BaselineBenchmark(args).run());
+    }
+
+    /**
+     * Wykonuje pomiary, a następnie zapisuje linię bazową lub raport z porównania.
+     *
+     * @return kod wyjścia: 0 gdy nie wykryto regresji, 1 w przeciwnym razie
+     * @throws Exception w przypadku błędu odczytu lub zapisu plików
+     */
+    public int run() throws Exception {
+        BaselineStore store = new BaselineStore();
+        Path baselineFile = Paths.get(options.getOrDefault("baseline", "benchmarks/baselines/baseline.json"));
+        boolean record = Boolean.parseBoolean(options.getOrDefault("record", "false"));
+        Baseline previous = record ? null : store.load(baselineFile);
+
+        List<String> algorithms = split(options.getOrDefault("algorithms", String.join(",", SortingMadness.ALGORITHMS)));
+        List<DatasetShape> shapes = new ArrayList<>();
+        for (String shape : split(options.getOrDefault("shapes", "RANDOM,SORTED,REVERSED,NEARLY_SORTED,FEW_UNIQUE"))) {
+            shapes.add(DatasetShape.valueOf(shape.toUpperCase()));
+        }
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : split(options.getOrDefault("sizes", "1000,50000"))) {
+            sizes.add(Integer.parseInt(size));
+        }
+
+        BenchmarkSuite suite = new BenchmarkSuite(new SortingMadness(),
+                Integer.parseInt(options.getOrDefault("warmup", "5")),
+                Integer.parseInt(options.getOrDefault("measurement", "15")),
+                Integer.parseInt(options.getOrDefault("quadratic-max-size", "2000")));
+        Baseline current = suite.run(algorithms, shapes, sizes, Long.parseLong(options.getOrDefault("seed", "42")));
+        current.setRevision(options.get("revision"));
+
+        if (record) {
+            store.save(current, baselineFile);
+            System.out.println("Baseline written to " + baselineFile);
+            return 0;
+        }
+        if (options.containsKey("output")) {
+            store.save(current, Paths.get(options.get("output")));
+        }
+
+        RegressionReport report = new RegressionAnalyzer(
+                Double.parseDouble(options.getOrDefault("threshold", "0.10")),
+                Double.parseDouble(options.getOrDefault("alpha", "0.01"))).compare(previous, current);
+        Path reportFile = Paths.get(options.getOrDefault("report", "target/benchmark-report.md"));
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String markdown = report.toMarkdown();
+        Files.write(reportFile, markdown.getBytes(StandardCharsets.UTF_8));
+        System.out.println(markdown);
+        System.out.println("Report written to " + reportFile);
+        return report.hasRegressions() ? 1 : 0;
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,124 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram opóźnień o stałej precyzji względnej, w stylu HdrHistogram.
+ * <p>
+ * Zakres wartości dzielony jest na przedziały będące kolejnymi potęgami dwójki, a każdy z nich na
+ * {@value #SUB_BUCKETS} równych pod-przedziałów. Daje to błąd względny poniżej 1% niezależnie od
+ * rzędu wielkości wartości, przy stałym zużyciu pamięci. Rejestracja jest bezpieczna wątkowo
+ * i nie wymaga blokad, dzięki czemu może być wywoływana z wątków klienta HTTP.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 64 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAGNITUDES + 1) * SUB_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Rejestruje pojedynczą wartość.
+     *
+     * @param value wartość nieujemna (np. opóźnienie w mikrosekundach); wartości ujemne traktowane są jak 0
+     */
+    public void record(long value) {
+        long sanitized = Math.max(0, value);
+        counts.incrementAndGet(indexOf(sanitized));
+        totalCount.incrementAndGet();
+        sum.addAndGet(sanitized);
+        max.accumulateAndGet(sanitized, Math::max);
+    }
+
+    /**
+     * Dodaje do histogramu wszystkie wartości zarejestrowane w innym histogramie.
+     *
+     * @param other histogram źródłowy
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Zwraca liczbę zarejestrowanych wartości.
+     *
+     * @return liczba wartości
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Zwraca średnią zarejestrowanych wartości.
+     *
+     * @return średnia lub 0 dla pustego histogramu
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Zwraca największą zarejestrowaną wartość (dokładnie, bez zaokrąglenia do przedziału).
+     *
+     * @return maksimum lub 0 dla pustego histogramu
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Zwraca wartość odpowiadającą podanemu percentylowi.
+     * Wynikiem jest górna granica przedziału zawierającego szukaną rangę, ograniczona przez maksimum.
+     *
+     * @param percentile percentyl z zakresu [0, 100]
+     * @return wartość percentyla lub 0 dla pustego histogramu
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        int magnitude = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        if (magnitude == 0) {
+            return (int) value;
+        }
+        int subBucket = (int) (value >>> (magnitude - 1)) - SUB_BUCKETS;
+        return magnitude * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int index) {
+        int magnitude = index / SUB_BUCKETS;
+        long subBucket = index % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return subBucket;
+        }
+        long lowest = (subBucket + SUB_BUCKETS) << (magnitude - 1);
+        return lowest + (1L << (magnitude - 1)) - 1;
+    }
+}
@@ -0,0 +1,201 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pl.put.poznan.sortingmadness.app.SortingMadnessApplication;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generator obciążenia HTTP dla punktu końcowego "/sort".
+ * <p>
+ * Wysyła żądania ze stałą częstotliwością (otwarta pętla) przez zadany czas. Rozmiar danych
+ * i algorytm każdego żądania losowane są z konfigurowalnych, ważonych mieszanek. Jeśli nie podano
+ * adresu docelowego, uruchamiana jest lokalna instancja {@link SortingMadnessApplication} na losowym porcie.
+ * <p>
+ * Przykład uruchomienia:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.main-class=pl.put.poznan.sortingmadness.loadtest.LoadGenerator \
+ *     -Dspring-boot.run.arguments="--rate=200 --duration=30 --sizes=100:0.8,10000:0.2 --algorithms=quick,merge"
+ * </pre>
+ * Dostępne opcje: {@code --target}, {@code --rate}, {@code --duration}, {@code --warmup},
+ * {@code --sizes}, {@code --algorithms} ("auto" pozostawia wybór usłudze), {@code --shape},
+ * {@code --variants}, {@code --max-in-flight}, {@code --timeout}, {@code --seed},
+ * {@code --max-error-rate} oraz {@code --max-p99-ms}. Przekroczenie progów kończy program kodem 1.
+ */
+public class LoadGenerator {
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Tworzy generator z opcjami w postaci {@code --nazwa=wartość}.
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public LoadGenerator(String[] args) {
+        this.options = parseOptions(args);
+    }
+
+    /**
+     * Uruchamia test obciążeniowy z wiersza poleceń.
+     *
+     * @param args argumenty wiersza poleceń
+     * @throws Exception w przypadku błędu uruchomienia lub przerwania testu
+     */
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadGenerator(args).run());
+    }
+
+    /**
+     * Przeprowadza rozgrzewkę i właściwy test, wypisuje raport i sprawdza progi.
+     *
+     * @return kod wyjścia: 0 gdy progi zostały dotrzymane, 1 w przeciwnym razie
+     * @throws Exception w przypadku błędu uruchomienia lub przerwania testu
+     */
+    public int run() throws Exception {
+        LocalInstance localInstance = null;
+        String target = options.get("target");
+        if (target == null) {
+            localInstance = LocalInstance.start();
+            target = localInstance.getBaseUrl();
+        }
+
+        try {
+            double rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+            long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+            WeightedMix<Integer> sizes = WeightedMix.parse(options.getOrDefault("sizes", "100:0.8,5000:0.2"), Integer::parseInt);
+            WeightedMix<String> algorithms = WeightedMix.parse(options.getOrDefault("algorithms", "auto"), String::trim);
+            Map<String, List<byte[]>> payloads = preparePayloads(sizes, algorithms, seed);
+
+            OpenLoopDriver driver = new OpenLoopDriver(URI.create(target),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "256")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60"))));
+
+            int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+            if (warmupSeconds > 0) {
+                System.out.println("Warming up " + target + " for " + warmupSeconds + " s...");
+                driver.run(schedule(rate, warmupSeconds, sizes, algorithms, payloads, new Random(seed + 1)));
+            }
+
+            int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+            System.out.printf("Driving %s at %.1f req/s for %d s%n", target, rate, durationSeconds);
+            LoadReport report = driver.run(schedule(rate, durationSeconds, sizes, algorithms, payloads, new Random(seed)));
+            report.print(System.out);
+            return checkThresholds(report);
+        } finally {
+            if (localInstance != null) {
+                localInstance.close();
+            }
+        }
+    }
+
+    /**
+     * Przygotowuje treści żądań dla każdej kombinacji rozmiaru i algorytmu, po {@code --variants} wariantów
+     * różniących się ziarnem, aby kolejne żądania nie były identyczne.
+     */
+    private Map<String, List<byte[]>> preparePayloads(WeightedMix<Integer> sizes, WeightedMix<String> algorithms, long seed) throws Exception {
+        DatasetGenerator generator = new DatasetGenerator();
+        DatasetShape shape = DatasetShape.valueOf(options.getOrDefault("shape", "RANDOM").toUpperCase());
+        int variants = Integer.parseInt(options.getOrDefault("variants", "4"));
+
+        Map<String, List<byte[]>> payloads = new HashMap<>();
+        for (Integer size : sizes.getValues()) {
+            for (String algorithm : algorithms.getValues()) {
+                List<byte[]> bodies = new ArrayList<>();
+                for (int variant = 0; variant < variants; variant++) {
+                    Map<String, Object> parameter = new LinkedHashMap<>();
+                    if (!"auto".equals(algorithm)) {
+                        parameter.put("sortingAlgorithms", algorithm);
+                    }
+                    parameter.put("directions", "ASC");
+
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("dataList", generator.generateList(new DatasetSpec(shape, size, seed + variant)));
+                    body.put("sortingParameters", List.of(parameter));
+                    bodies.add(objectMapper.writeValueAsBytes(body));
+                }
+                payloads.put(tag(algorithm, size), bodies);
+            }
+        }
+        return payloads;
+    }
+
+    private static Iterator<ScheduledRequest> schedule(double rate, int durationSeconds, WeightedMix<Integer> sizes,
+                                                       WeightedMix<String> algorithms, Map<String, List<byte[]>> payloads,
+                                                       Random random) {
+        long total = (long) (rate * durationSeconds);
+        double intervalNanos = 1_000_000_000.0 / rate;
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < total;
+            }
+
+            @Override
+            public ScheduledRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String tag = tag(algorithms.choose(random), sizes.choose(random));
+                List<byte[]> bodies = payloads.get(tag);
+                byte[] body = bodies.get(random.nextInt(bodies.size()));
+                return new ScheduledRequest((long) (index++ * intervalNanos), "/sort", body, tag);
+            }
+        };
+    }
+
+    private int checkThresholds(LoadReport report) {
+        int exitCode = 0;
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        if (report.getErrorRate() > maxErrorRate) {
+            System.out.printf("FAIL: error rate %.4f exceeds %.4f%n", report.getErrorRate(), maxErrorRate);
+            exitCode = 1;
+        }
+        if (options.containsKey("max-p99-ms")) {
+            double maxP99 = Double.parseDouble(options.get("max-p99-ms"));
+            double p99 = report.getOverall().getValueAtPercentile(99) / 1000.0;
+            if (p99 > maxP99) {
+                System.out.printf("FAIL: p99 latency %.3f ms exceeds %.3f ms%n", p99, maxP99);
+                exitCode = 1;
+            }
+        }
+        return exitCode;
+    }
+
+    private static String tag(String algorithm, int size) {
+        return algorithm + "/" + size;
+    }
+
+    /**
+     * Zamienia argumenty {@code --nazwa=wartość} na mapę opcji.
+     *
+     * @param args argumenty wiersza poleceń
+     * @return mapa nazwa → wartość
+     * @throws IllegalArgumentException jeśli argument ma niepoprawny format
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must have the form --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
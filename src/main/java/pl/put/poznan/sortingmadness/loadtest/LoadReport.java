@@ -0,0 +1,97 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wyniki testu obciążeniowego: histogramy opóźnień (łącznie i per etykieta), przepustowość
+ * oraz liczba błędów z podziałem na kody odpowiedzi.
+ * <p>
+ * Opóźnienia rejestrowane są w mikrosekundach i liczone od zaplanowanego, a nie faktycznego
+ * momentu wysłania żądania, aby przeciążony serwer nie zaniżał wyników (problem "coordinated omission").
+ */
+public class LoadReport {
+
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> byTag = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long elapsedNanos;
+
+    /**
+     * Rejestruje wynik pojedynczego żądania.
+     *
+     * @param tag           etykieta żądania
+     * @param latencyMicros opóźnienie w mikrosekundach
+     * @param outcome       kod odpowiedzi HTTP lub nazwa wyjątku
+     * @param error         {@code true} jeśli żądanie zakończyło się błędem
+     */
+    public void record(String tag, long latencyMicros, String outcome, boolean error) {
+        overall.record(latencyMicros);
+        byTag.computeIfAbsent(tag, key -> new LatencyHistogram()).record(latencyMicros);
+        outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LatencyHistogram getOverall() {
+        return overall;
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Zwraca przepustowość liczoną jako liczba zakończonych żądań na sekundę.
+     *
+     * @return liczba żądań na sekundę
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : overall.getTotalCount() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Zwraca odsetek żądań zakończonych błędem.
+     *
+     * @return odsetek błędów z zakresu [0, 1]
+     */
+    public double getErrorRate() {
+        long total = overall.getTotalCount();
+        return total == 0 ? 0 : (double) errors.get() / total;
+    }
+
+    /**
+     * Wypisuje raport w formie tabeli tekstowej.
+     *
+     * @param out strumień docelowy
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Requests: %d, elapsed: %.2f s, throughput: %.1f req/s, errors: %d (%.2f%%)%n",
+                overall.getTotalCount(), elapsedNanos / 1_000_000_000.0, getThroughput(), errors.get(), getErrorRate() * 100);
+        out.println("Outcomes: " + new TreeMap<>(outcomes));
+        out.printf(Locale.ROOT, "%-28s %8s %10s %10s %10s %10s %10s %10s%n",
+                "tag", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        printRow(out, "ALL", overall);
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(byTag).entrySet()) {
+            printRow(out, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void printRow(PrintStream out, String tag, LatencyHistogram histogram) {
+        out.printf(Locale.ROOT, "%-28s %8d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                tag, histogram.getTotalCount(), histogram.getMean() / 1000.0,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMax() / 1000.0);
+    }
+}
@@ -0,0 +1,43 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.put.poznan.sortingmadness.app.SortingMadnessApplication;
+
+/**
+ * Lokalna instancja {@link SortingMadnessApplication} uruchamiana na losowym porcie
+ * na potrzeby narzędzi obciążeniowych, gdy nie wskazano adresu docelowego.
+ */
+class LocalInstance implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private LocalInstance(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Uruchamia aplikację na wolnym porcie z ograniczonym logowaniem.
+     *
+     * @return uruchomiona instancja
+     */
+    static LocalInstance start() {
+        return new LocalInstance(SpringApplication.run(SortingMadnessApplication.class,
+                "--server.port=0", "--logging.level.pl.put.poznan.sortingmadness=WARN"));
+    }
+
+    /**
+     * Zwraca adres bazowy uruchomionej instancji.
+     *
+     * @return adres w postaci {@code http://localhost:port}
+     */
+    String getBaseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
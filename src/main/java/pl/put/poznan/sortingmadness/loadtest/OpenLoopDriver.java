@@ -0,0 +1,96 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wysyła zaplanowane żądania w otwartej pętli (open loop), niezależnie od czasu odpowiedzi serwera.
+ * <p>
+ * Żądania wysyłane są asynchronicznie w zaplanowanych momentach; liczba żądań w locie jest ograniczona
+ * przez {@code maxInFlight}, aby generator nie wyczerpał zasobów klienta. Jeśli limit zostanie osiągnięty,
+ * wysyłka jest opóźniana, ale opóźnienie liczone jest od zaplanowanego momentu, więc widać je w wynikach.
+ */
+public class OpenLoopDriver {
+    private static final Logger logger = LoggerFactory.getLogger(OpenLoopDriver.class);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+
+    /**
+     * Tworzy sterownik wysyłający żądania do podanej instancji usługi.
+     *
+     * @param baseUri        adres bazowy usługi, np. {@code http://localhost:8080}
+     * @param maxInFlight    maksymalna liczba jednocześnie oczekujących żądań
+     * @param requestTimeout limit czasu pojedynczego żądania
+     */
+    public OpenLoopDriver(URI baseUri, int maxInFlight, Duration requestTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUri = baseUri;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Wykonuje test obciążeniowy według harmonogramu i czeka na zakończenie wszystkich żądań.
+     *
+     * @param schedule żądania uporządkowane rosnąco według momentu wysłania
+     * @return raport z wynikami testu
+     * @throws InterruptedException jeśli wątek zostanie przerwany w trakcie testu
+     */
+    public LoadReport run(Iterator<ScheduledRequest> schedule) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long sent = 0;
+
+        while (schedule.hasNext()) {
+            ScheduledRequest scheduled = schedule.next();
+            long intendedStart = start + scheduled.getOffsetNanos();
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(scheduled.getPath()))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(scheduled.getBody()))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latencyMicros = (System.nanoTime() - intendedStart) / 1_000;
+                        if (failure != null) {
+                            report.record(scheduled.getTag(), latencyMicros, failure.getClass().getSimpleName(), true);
+                        } else {
+                            int status = response.statusCode();
+                            report.record(scheduled.getTag(), latencyMicros, String.valueOf(status), status >= 400);
+                        }
+                        inFlight.release();
+                    });
+            sent++;
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, requestTimeout.toMillis() + 1_000, TimeUnit.MILLISECONDS)) {
+            logger.warn("Some requests did not complete before the drain timeout");
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        logger.info("Sent {} requests to {}", sent, baseUri);
+        return report;
+    }
+}
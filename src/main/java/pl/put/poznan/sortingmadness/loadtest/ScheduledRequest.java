@@ -0,0 +1,43 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+/**
+ * Żądanie HTTP zaplanowane do wysłania w określonym momencie testu obciążeniowego.
+ */
+public class ScheduledRequest {
+
+    private final long offsetNanos;
+    private final String path;
+    private final byte[] body;
+    private final String tag;
+
+    /**
+     * Tworzy zaplanowane żądanie POST.
+     *
+     * @param offsetNanos moment wysłania liczony od początku testu, w nanosekundach
+     * @param path        ścieżka żądania, np. "/sort"
+     * @param body        treść żądania w formacie JSON
+     * @param tag         etykieta grupująca wyniki w raporcie (np. "quick/10000")
+     */
+    public ScheduledRequest(long offsetNanos, String path, byte[] body, String tag) {
+        this.offsetNanos = offsetNanos;
+        this.path = path;
+        this.body = body;
+        this.tag = tag;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,150 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import pl.put.poznan.sortingmadness.capture.CaptureFileReader;
+import pl.put.poznan.sortingmadness.capture.CapturedRequest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Odtwarza ruch przechwycony przez {@code TrafficCaptureFilter} wobec wskazanej lub lokalnej instancji usługi.
+ * <p>
+ * Domyślnie żądania wysyłane są z zachowaniem pierwotnych odstępów czasowych; opcja {@code --speed}
+ * skaluje tempo (np. {@code --speed=2} odtwarza ruch dwukrotnie szybciej), a {@code --rate} zastępuje
+ * pierwotne odstępy stałą częstotliwością. Oprócz raportu z odtworzenia wypisywany jest rozkład czasów
+ * obsługi zmierzonych w trakcie przechwytywania, co pozwala porównać zachowanie nowej wersji z produkcyjnym.
+ * <p>
+ * Przykład uruchomienia:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.main-class=pl.put.poznan.sortingmadness.loadtest.TrafficReplayer \
+ *     -Dspring-boot.run.arguments="--input=capture --speed=1.5"
+ * </pre>
+ * Dostępne opcje: {@code --input} (plik lub katalog), {@code --target}, {@code --speed}, {@code --rate},
+ * {@code --limit}, {@code --max-in-flight}, {@code --timeout} oraz {@code --max-error-rate}.
+ */
+public class TrafficReplayer {
+
+    private final Map<String, String> options;
+
+    /**
+     * Tworzy narzędzie z opcjami w postaci {@code --nazwa=wartość}.
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public TrafficReplayer(String[] args) {
+        this.options = LoadGenerator.parseOptions(args);
+    }
+
+    /**
+     * Odtwarza ruch z wiersza poleceń.
+     *
+     * @param args argumenty wiersza poleceń
+     * @throws Exception w przypadku błędu odczytu lub przerwania odtwarzania
+     */
+    public static void main(String[] args) throws Exception {
+        System.exit(new TrafficReplayer(args).run());
+    }
+
+    /**
+     * Odtwarza przechwycony ruch i wypisuje raport.
+     *
+     * @return kod wyjścia: 0 gdy odsetek błędów nie przekroczył progu, 1 w przeciwnym razie
+     * @throws Exception w przypadku błędu odczytu lub przerwania odtwarzania
+     */
+    public int run() throws Exception {
+        Path input = Paths.get(options.getOrDefault("input", "capture"));
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Speed must be positive");
+        }
+        Double rate = options.containsKey("rate") ? Double.parseDouble(options.get("rate")) : null;
+        long limit = Long.parseLong(options.getOrDefault("limit", String.valueOf(Long.MAX_VALUE)));
+
+        LocalInstance localInstance = null;
+        String target = options.get("target");
+        if (target == null) {
+            localInstance = LocalInstance.start();
+            target = localInstance.getBaseUrl();
+        }
+
+        try (CaptureFileReader reader = new CaptureFileReader(input)) {
+            OpenLoopDriver driver = new OpenLoopDriver(URI.create(target),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "256")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60"))));
+            LoadReport captured = new LoadReport();
+
+            System.out.printf("Replaying %s against %s (%s)%n", input, target,
+                    rate != null ? String.format("%.1f req/s", rate) : String.format("%.2fx original rate", speed));
+            LoadReport report = driver.run(schedule(reader, speed, rate, limit, captured));
+
+            System.out.println("Captured service times:");
+            captured.print(System.out);
+            System.out.println("Replayed latencies:");
+            report.print(System.out);
+
+            double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+            if (report.getErrorRate() > maxErrorRate) {
+                System.out.printf("FAIL: error rate %.4f exceeds %.4f%n", report.getErrorRate(), maxErrorRate);
+                return 1;
+            }
+            return 0;
+        } finally {
+            if (localInstance != null) {
+                localInstance.close();
+            }
+        }
+    }
+
+    /**
+     * Zamienia strumień przechwyconych rekordów na harmonogram żądań, rejestrując po drodze
+     * pierwotne czasy obsługi w raporcie {@code captured}.
+     */
+    private static Iterator<ScheduledRequest> schedule(Iterator<CapturedRequest> records, double speed, Double rate,
+                                                       long limit, LoadReport captured) {
+        return new Iterator<>() {
+            private long index;
+            private long firstEpochMicros = -1;
+
+            @Override
+            public boolean hasNext() {
+                return index < limit && records.hasNext();
+            }
+
+            @Override
+            public ScheduledRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CapturedRequest record = records.next();
+                if (firstEpochMicros < 0) {
+                    firstEpochMicros = record.getEpochMicros();
+                }
+                long offsetNanos = rate != null
+                        ? (long) (index * 1_000_000_000.0 / rate)
+                        : (long) (Math.max(0, record.getEpochMicros() - firstEpochMicros) * 1_000 / speed);
+                index++;
+
+                captured.setElapsedNanos((record.getEpochMicros() - firstEpochMicros) * 1_000);
+                String tag = record.getPath() + "/" + sizeBucket(record.getBody().length);
+                captured.record(tag, record.getDurationMicros(), String.valueOf(record.getStatus()), record.getStatus() >= 400);
+                return new ScheduledRequest(offsetNanos, record.getPath(), record.getBody(), tag);
+            }
+        };
+    }
+
+    private static String sizeBucket(int bytes) {
+        if (bytes < 1_024) {
+            return "<1KB";
+        } else if (bytes < 64 * 1_024) {
+            return "<64KB";
+        } else if (bytes < 1_024 * 1_024) {
+            return "<1MB";
+        }
+        return ">=1MB";
+    }
+}
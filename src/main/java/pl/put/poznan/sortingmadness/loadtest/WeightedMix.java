@@ -0,0 +1,86 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Ważona mieszanka wartości, z której losowane są parametry kolejnych żądań.
+ *
+ * @param <T> typ wartości
+ */
+public class WeightedMix<T> {
+
+    private final List<T> values = new ArrayList<>();
+    private final List<Double> cumulativeWeights = new ArrayList<>();
+    private double totalWeight;
+
+    /**
+     * Parsuje mieszankę zapisaną jako {@code wartość:waga,wartość:waga}, np. {@code 100:0.7,10000:0.3}.
+     * Pominięta waga oznacza 1.
+     *
+     * @param specification opis mieszanki
+     * @param parser        funkcja zamieniająca tekst na wartość
+     * @param <T>           typ wartości
+     * @return mieszanka
+     * @throws IllegalArgumentException jeśli opis jest pusty lub wagi są niepoprawne
+     */
+    public static <T> WeightedMix<T> parse(String specification, Function<String, T> parser) {
+        WeightedMix<T> mix = new WeightedMix<>();
+        for (String part : specification.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            T value = parser.apply(separator < 0 ? trimmed : trimmed.substring(0, separator));
+            double weight = separator < 0 ? 1.0 : Double.parseDouble(trimmed.substring(separator + 1));
+            mix.add(value, weight);
+        }
+        if (mix.values.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one value: " + specification);
+        }
+        return mix;
+    }
+
+    /**
+     * Dodaje wartość o podanej wadze.
+     *
+     * @param value  wartość
+     * @param weight dodatnia waga
+     */
+    public void add(T value, double weight) {
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        totalWeight += weight;
+        values.add(value);
+        cumulativeWeights.add(totalWeight);
+    }
+
+    /**
+     * Losuje wartość proporcjonalnie do wag.
+     *
+     * @param random generator liczb losowych
+     * @return wylosowana wartość
+     */
+    public T choose(Random random) {
+        double point = random.nextDouble() * totalWeight;
+        for (int i = 0; i < values.size(); i++) {
+            if (point < cumulativeWeights.get(i)) {
+                return values.get(i);
+            }
+        }
+        return values.get(values.size() - 1);
+    }
+
+    /**
+     * Zwraca wszystkie wartości mieszanki.
+     *
+     * @return lista wartości w kolejności dodania
+     */
+    public List<T> getValues() {
+        return values;
+    }
+}
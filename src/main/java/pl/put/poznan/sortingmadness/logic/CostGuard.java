@@ -0,0 +1,291 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ograniczenie kosztu algorytmów kwadratowych ("bubble", "selection", "insertion"), stosowane przez
+ * {@link SortingMadness} przed sortowaniem.
+ * <p>
+ * Przed sortowaniem koszt jest szacowany z górnego ograniczenia liczby porównań n(n-1)/2 (albo
+ * {@code maxIterations}, jeśli jest mniejsze), pomnożonego przez liczbę kluczy rekordu i skalibrowany czas
+ * jednego porównania ({@link #calibrate()}). Jeśli szacunek przekracza limit ({@link #getMaxMillis()}, a gdy
+ * sortowanie ma termin - także czas pozostały do terminu), to zależnie od {@link Policy}:
+ * <ul>
+ *     <li>{@code REJECT} - żądanie jest odrzucane wyjątkiem {@link IllegalArgumentException};</li>
+ *     <li>{@code CAP} - {@code maxIterations} jest ograniczane do liczby porównań mieszczącej się w limicie,
+ *     więc wynik jest posortowany częściowo;</li>
+ *     <li>{@code ESCALATE} - dane są sortowane algorytmem O(n log n) ({@link #getEscalation()}).</li>
+ * </ul>
+ * W dwóch ostatnich przypadkach wynik zawiera pole {@code costGuard} z opisem decyzji. Obiekt sortujący
+ * utworzony bez ograniczenia używa {@link #DISABLED}.
+ */
+public final class CostGuard {
+    private static final Logger logger = LoggerFactory.getLogger(CostGuard.class);
+
+    /** Algorytmy o kwadratowej liczbie porównań. */
+    public static final Set<String> QUADRATIC = Set.of("bubble", "selection", "insertion");
+
+    /** Czas porównania przyjmowany przed kalibracją, w nanosekundach. */
+    public static final double DEFAULT_NANOS_PER_COMPARISON = 10.0;
+
+    /**
+     * Postępowanie z żądaniem, którego szacowany koszt przekracza limit.
+     */
+    public enum Policy {
+        /** Bez ograniczenia. */
+        OFF,
+        /** Odrzucenie żądania. */
+        REJECT,
+        /** Ograniczenie liczby iteracji. */
+        CAP,
+        /** Zmiana algorytmu na O(n log n). */
+        ESCALATE
+    }
+
+    /** Wyłączone ograniczenie, używane przez obiekty sortujące utworzone bez ograniczenia. */
+    public static final CostGuard DISABLED = new CostGuard(Policy.OFF, Long.MAX_VALUE, DEFAULT_NANOS_PER_COMPARISON, "merge");
+
+    /** Liczba elementów sortowanych przy kalibracji. */
+    private static final int CALIBRATION_SIZE = 2000;
+
+    private final Policy policy;
+    private final long maxMillis;
+    private final double nanosPerComparison;
+    private final String escalation;
+    private final Map<Policy, AtomicLong> guarded = new EnumMap<>(Policy.class);
+
+    /**
+     * Tworzy ograniczenie kosztu.
+     *
+     * @param policy             postępowanie po przekroczeniu limitu
+     * @param maxMillis          limit szacowanego czasu sortowania w milisekundach
+     * @param nanosPerComparison czas jednego porównania w nanosekundach
+     * @param escalation         algorytm O(n log n) używany przez {@link Policy#ESCALATE}
+     * @throws IllegalArgumentException jeśli {@code escalation} jest algorytmem kwadratowym
+     */
+    public CostGuard(Policy policy, long maxMillis, double nanosPerComparison, String escalation) {
+        if (QUADRATIC.contains(escalation.toLowerCase())) {
+            throw new IllegalArgumentException("Cost guard cannot escalate to a quadratic algorithm: " + escalation);
+        }
+        this.policy = policy;
+        this.maxMillis = maxMillis;
+        this.nanosPerComparison = nanosPerComparison;
+        this.escalation = escalation.toLowerCase();
+        for (Policy value : Policy.values()) {
+            guarded.put(value, new AtomicLong());
+        }
+    }
+
+    /**
+     * Mierzy czas jednego porównania, sortując przez wstawianie losowe liczby tą samą pętlą porównań co
+     * algorytmy kwadratowe, ale bez ich logowania; najlepszy z kilku pomiarów ogranicza wpływ rozgrzewania JIT.
+     *
+     * @return czas porównania w nanosekundach
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static double calibrate() {
+        Random random = new Random(42);
+        List<Comparable> data = new ArrayList<>(CALIBRATION_SIZE);
+        for (int i = 0; i < CALIBRATION_SIZE; i++) {
+            data.add(random.nextInt());
+        }
+        long comparisons = SortingContext.estimateIterations("insertion", data.size());
+        double best = Double.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < 10; round++) {
+            List<Comparable> copy = new ArrayList<>(data);
+            long start = System.nanoTime();
+            long iterations = 0;
+            for (int i = 1; i < copy.size(); i++) {
+                Comparable current = copy.get(i);
+                int j = i - 1;
+                while (j >= 0 && copy.get(j).compareTo(current) > 0) {
+                    copy.set(j + 1, copy.get(j));
+                    j--;
+                    if (SortingContext.isCheckpoint(++iterations)) {
+                        SortingContext.checkpoint(iterations);
+                    }
+                }
+                copy.set(j + 1, current);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) comparisons);
+            // Uses the result so the loop cannot be optimised away.
+            checksum += copy.get(0).hashCode();
+        }
+        logger.debug("Cost guard calibrated on {} elements, checksum {}", data.size(), checksum);
+        return Math.max(0.1, best);
+    }
+
+    /**
+     * Sprawdza koszt sortowania przed jego rozpoczęciem.
+     *
+     * @param algorithm     nazwa algorytmu
+     * @param size          liczba elementów
+     * @param keys          liczba kluczy porównywanych w rekordzie (1 dla wartości)
+     * @param maxIterations limit iteracji żądania; 0 oznacza brak limitu
+     * @param context       kontekst sortowania z ewentualnym terminem; może być {@code null}
+     * @return decyzja o zmianie sortowania albo {@code null}, jeśli sortowanie może przebiec bez zmian
+     * @throws IllegalArgumentException jeśli polityka {@code REJECT} odrzuca żądanie
+     */
+    public Decision check(String algorithm, int size, int keys, int maxIterations, SortingContext context) {
+        if (policy == Policy.OFF || algorithm == null || !QUADRATIC.contains(algorithm.toLowerCase())) {
+            return null;
+        }
+        double comparisonNanos = nanosPerComparison * Math.max(1, keys);
+        double comparisons = (double) size * (size - 1) / 2;
+        if (maxIterations > 0) {
+            comparisons = Math.min(comparisons, maxIterations);
+        }
+        long estimatedMillis = (long) (comparisons * comparisonNanos / 1_000_000);
+        long limitMillis = maxMillis;
+        Duration remaining = context != null ? context.getRemaining() : null;
+        if (remaining != null) {
+            limitMillis = Math.min(limitMillis, remaining.toMillis());
+        }
+        if (estimatedMillis <= limitMillis) {
+            return null;
+        }
+
+        guarded.get(policy).incrementAndGet();
+        logger.info("Cost guard ({}): {} on {} elements estimated at {} ms, limit {} ms",
+                policy, algorithm, size, estimatedMillis, limitMillis);
+        switch (policy) {
+            case REJECT:
+                throw new IllegalArgumentException("Estimated cost of " + algorithm + " sort on " + size
+                        + " elements (" + estimatedMillis + " ms) exceeds the limit of " + limitMillis
+                        + " ms. Choose an O(n log n) algorithm or set maxIterations.");
+            case CAP:
+                int cap = (int) Math.max(1, Math.min(Integer.MAX_VALUE, limitMillis * 1_000_000 / comparisonNanos));
+                return new Decision("capped", algorithm, algorithm, cap, estimatedMillis, limitMillis);
+            default:
+                return new Decision("escalated", algorithm, escalation, maxIterations, estimatedMillis, limitMillis);
+        }
+    }
+
+    /**
+     * Zwraca liczbę żądań, których koszt przekroczył limit przy danej polityce.
+     *
+     * @param policy polityka
+     * @return liczba żądań od uruchomienia
+     */
+    public long getGuarded(Policy policy) {
+        return guarded.get(policy).get();
+    }
+
+    /**
+     * Zwraca bieżącą politykę.
+     *
+     * @return polityka
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Zwraca limit szacowanego czasu sortowania.
+     *
+     * @return limit w milisekundach
+     */
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * Zwraca czas jednego porównania używany w szacunkach.
+     *
+     * @return czas w nanosekundach
+     */
+    public double getNanosPerComparison() {
+        return nanosPerComparison;
+    }
+
+    /**
+     * Zwraca algorytm używany przez {@link Policy#ESCALATE}.
+     *
+     * @return nazwa algorytmu
+     */
+    public String getEscalation() {
+        return escalation;
+    }
+
+    /**
+     * Zmiana sortowania wynikająca z przekroczenia limitu kosztu.
+     */
+    public static final class Decision {
+        private final String action;
+        private final String requestedAlgorithm;
+        private final String algorithm;
+        private final int maxIterations;
+        private final long estimatedMillis;
+        private final long limitMillis;
+
+        private Decision(String action, String requestedAlgorithm, String algorithm, int maxIterations,
+                         long estimatedMillis, long limitMillis) {
+            this.action = action;
+            this.requestedAlgorithm = requestedAlgorithm;
+            this.algorithm = algorithm;
+            this.maxIterations = maxIterations;
+            this.estimatedMillis = estimatedMillis;
+            this.limitMillis = limitMillis;
+        }
+
+        /**
+         * Zwraca podjętą akcję.
+         *
+         * @return "capped" lub "escalated"
+         */
+        public String getAction() {
+            return action;
+        }
+
+        /**
+         * Zwraca algorytm, którym należy sortować.
+         *
+         * @return nazwa algorytmu
+         */
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * Zwraca limit iteracji, z którym należy sortować.
+         *
+         * @return limit iteracji; 0 oznacza brak limitu
+         */
+        public int getMaxIterations() {
+            return maxIterations;
+        }
+
+        /**
+         * Dodaje do wyniku sortowania pole {@code costGuard} z opisem decyzji.
+         *
+         * @param result wynik sortowania
+         * @return nowa mapa z polami wyniku i polem {@code costGuard}
+         */
+        public Map<String, Object> annotate(Map<String, Object> result) {
+            Map<String, Object> guard = new LinkedHashMap<>();
+            guard.put("action", action);
+            guard.put("requestedAlgorithm", requestedAlgorithm);
+            guard.put("algorithm", algorithm);
+            if (maxIterations > 0) {
+                guard.put("maxIterations", maxIterations);
+            }
+            guard.put("estimatedMillis", estimatedMillis);
+            guard.put("limitMillis", limitMillis);
+
+            Map<String, Object> annotated = new LinkedHashMap<>(result);
+            annotated.put("costGuard", guard);
+            return annotated;
+        }
+    }
+}
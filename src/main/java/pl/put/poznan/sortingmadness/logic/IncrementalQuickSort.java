@@ -0,0 +1,165 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import pl.put.poznan.sortingmadness.logic.algorithms.SortingNetworks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sortowanie przyrostowe (incremental quicksort): porządkuje dane tylko w zakresie pozycji, o które zapytano,
+ * zachowując między wywołaniami granice już wykonanych podziałów.
+ * <p>
+ * Pozycja jest ustalona, gdy leży na niej element, który znalazłby się tam po pełnym sortowaniu. Osie
+ * kolejnych podziałów są ustalane i zapamiętywane, więc między dwiema sąsiednimi ustalonymi pozycjami leżą
+ * dokładnie te elementy, które należą do tego fragmentu, choć w dowolnej kolejności. Zapytanie o zakres
+ * {@code [from, to)} dzieli wokół losowej osi (mediana z trzech) tylko fragmenty nakładające się na zakres,
+ * aż wszystkie jego pozycje zostaną ustalone; fragmenty do {@link SortingNetworks#MAX_SIZE} elementów są
+ * sortowane siecią. Kolejne strony danych kosztują łącznie oczekiwane O(n + k log k) porównań dla k pierwszych
+ * elementów, a całe dane są sortowane dopiero, gdy zapyta się o wszystkie pozycje.
+ * <p>
+ * Przy równych elementach o kolejności decyduje pozycja wejściowa, więc wynik jest taki sam jak wynik
+ * stabilnego sortowania. Iteracją jest jedno porównanie; co {@link SortingContext#CHECKPOINT_INTERVAL} iteracji
+ * wywoływany jest {@link SortingContext#checkpoint(long)}. Klasa nie jest bezpieczna wątkowo.
+ *
+ * @param <T> typ elementów
+ */
+public final class IncrementalQuickSort<T> {
+
+    private final Object[] work;
+    private final int[] positions;
+    private final Comparator<? super T> comparator;
+    private final BitSet settled;
+    private long comparisons;
+
+    /**
+     * Przygotowuje dane do sortowania przyrostowego; dane są kopiowane i nie są porównywane.
+     *
+     * @param data       dane
+     * @param comparator porządek sortowania (z uwzględnieniem kierunku)
+     */
+    public IncrementalQuickSort(List<T> data, Comparator<? super T> comparator) {
+        int n = data.size();
+        this.work = data.toArray();
+        this.positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        this.comparator = comparator;
+        this.settled = new BitSet(n);
+    }
+
+    /**
+     * Zwraca elementy z pozycji {@code [from, to)} posortowanych danych, porządkując tylko tyle, ile trzeba.
+     *
+     * @param from pierwsza pozycja (włącznie)
+     * @param to   ostatnia pozycja (wyłącznie)
+     * @return elementy z zakresu w posortowanej kolejności
+     * @throws IndexOutOfBoundsException jeśli zakres wykracza poza dane
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> range(int from, int to) {
+        if (from < 0 || to > work.length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is out of bounds for " + work.length + " elements.");
+        }
+        int position = settled.nextClearBit(from);
+        while (position < to) {
+            int low = settled.previousSetBit(position) + 1;
+            int high = settled.nextSetBit(position);
+            refine(low, high < 0 ? work.length : high);
+            position = settled.nextClearBit(position);
+        }
+        List<T> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add((T) work[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Zwraca liczbę elementów.
+     *
+     * @return liczba elementów
+     */
+    public int size() {
+        return work.length;
+    }
+
+    /**
+     * Zwraca liczbę ustalonych pozycji.
+     *
+     * @return liczba pozycji, na których leżą już elementy posortowanych danych
+     */
+    public int getSettled() {
+        return settled.cardinality();
+    }
+
+    /**
+     * Zwraca łączną liczbę porównań wykonanych od utworzenia.
+     *
+     * @return liczba porównań
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Dzieli nieuporządkowany fragment {@code [low, high)} wokół jednej osi i ustala jej pozycję albo, jeśli
+     * fragment jest mały, sortuje go w całości.
+     */
+    private void refine(int low, int high) {
+        int size = high - low;
+        if (size <= SortingNetworks.MAX_SIZE) {
+            // Sorting the (element, position) pairs by network keeps ties in input order.
+            int[] network = SortingNetworks.network(size);
+            for (int c = 0; c < network.length; c += 2) {
+                int i = low + network[c];
+                int j = low + network[c + 1];
+                if (compare(i, j) > 0) {
+                    swap(i, j);
+                }
+            }
+            settled.set(low, high);
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = low + random.nextInt(size);
+        int b = low + random.nextInt(size);
+        int c = low + random.nextInt(size);
+        int pivot = compare(a, b) < 0
+                ? (compare(b, c) < 0 ? b : compare(a, c) < 0 ? c : a)
+                : (compare(a, c) < 0 ? a : compare(b, c) < 0 ? c : b);
+
+        // Ties are broken by input position, so every element differs from the pivot except the pivot itself.
+        swap(pivot, high - 1);
+        int store = low;
+        for (int i = low; i < high - 1; i++) {
+            if (compare(i, high - 1) < 0) {
+                swap(i, store++);
+            }
+        }
+        swap(store, high - 1);
+        settled.set(store);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(int i, int j) {
+        if (SortingContext.isCheckpoint(++comparisons)) {
+            SortingContext.checkpoint(comparisons);
+        }
+        int comparison = comparator.compare((T) work[i], (T) work[j]);
+        return comparison != 0 ? comparison : Integer.compare(positions[i], positions[j]);
+    }
+
+    private void swap(int i, int j) {
+        Object value = work[i];
+        work[i] = work[j];
+        work[j] = value;
+        int position = positions[i];
+        positions[i] = positions[j];
+        positions[j] = position;
+    }
+}
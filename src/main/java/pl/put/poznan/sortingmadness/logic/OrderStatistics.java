@@ -0,0 +1,201 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import pl.put.poznan.sortingmadness.logic.algorithms.SortingNetworks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Statystyki pozycyjne: elementy, które w posortowanych danych znalazłyby się na podanych pozycjach
+ * (np. mediana, percentyle, k-ty element), wyznaczane bez pełnego sortowania.
+ * <p>
+ * Wybór wielu pozycji naraz (multi-select quickselect) dzieli dane trójdrożnie wokół osi na elementy
+ * mniejsze, równe i większe i schodzi tylko do tych części, w których leżą szukane pozycje, co daje oczekiwany
+ * czas liniowy względem liczby elementów (dla stałej liczby pozycji). Oś to mediana z trzech; jeśli podziały
+ * nie zmniejszają danych w oczekiwanym tempie (głębokość przekracza 2 log₂ n), oś jest wyznaczana metodą
+ * mediany median, która gwarantuje czas liniowy także dla złośliwych danych (introselect). Fragmenty do
+ * {@link SortingNetworks#MAX_SIZE} elementów są porządkowane siecią sortującą.
+ * <p>
+ * Przy równych elementach nie jest określone, który z nich zostanie zwrócony dla danej pozycji.
+ * Iteracją jest jedno porównanie; co {@link SortingContext#CHECKPOINT_INTERVAL} iteracji wywoływany jest
+ * {@link SortingContext#checkpoint(long)}.
+ */
+public final class OrderStatistics {
+
+    private OrderStatistics() {
+    }
+
+    /**
+     * Zamienia percentyl na pozycję metodą najbliższej pozycji: najmniejszą pozycję, na której lub przed którą
+     * leży co najmniej {@code percentile} procent elementów.
+     *
+     * @param percentile percentyl z zakresu [0, 100]
+     * @param size       liczba elementów
+     * @return pozycja liczona od zera
+     * @throws IllegalArgumentException jeśli percentyl jest spoza zakresu
+     */
+    public static int percentileRank(double percentile, int size) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        return Math.max(0, Math.min(size - 1, rank));
+    }
+
+    /**
+     * Wyznacza elementy na podanych pozycjach posortowanych danych.
+     *
+     * @param data       dane; nie są modyfikowane
+     * @param comparator porządek sortowania (z uwzględnieniem kierunku)
+     * @param ranks      pozycje liczone od zera, w dowolnej kolejności, mogą się powtarzać
+     * @param <T>        typ elementów
+     * @return elementy w kolejności pozycji z {@code ranks}
+     * @throws IllegalArgumentException jeśli dane są puste lub pozycja jest spoza zakresu
+     */
+    public static <T> List<T> select(List<T> data, Comparator<? super T> comparator, int[] ranks) {
+        int n = data.size();
+        return select(data, comparator, ranks, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, n))));
+    }
+
+    /**
+     * Wyznacza elementy na podanych pozycjach, przechodząc na medianę median po {@code maxDepth} podziałach.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> select(List<T> data, Comparator<? super T> comparator, int[] ranks, int maxDepth) {
+        int n = data.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Dataset is empty or null.");
+        }
+        for (int rank : ranks) {
+            if (rank < 0 || rank >= n) {
+                throw new IllegalArgumentException("Rank " + rank + " is out of range [0, " + (n - 1) + "].");
+            }
+        }
+        int[] targets = Arrays.stream(ranks).sorted().distinct().toArray();
+
+        ScratchArena arena = ScratchArena.current();
+        Object[] work = arena.borrowObjects(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                work[i] = data.get(i);
+            }
+            new Selector(work, (Comparator<Object>) comparator).select(0, n - 1, targets, 0, targets.length, maxDepth);
+            List<T> result = new ArrayList<>(ranks.length);
+            for (int rank : ranks) {
+                result.add((T) work[rank]);
+            }
+            return result;
+        } finally {
+            arena.release(work);
+        }
+    }
+
+    /**
+     * Stan jednego wyboru: tablica robocza, porządek i licznik porównań.
+     */
+    private static final class Selector {
+        private final Object[] work;
+        private final Comparator<Object> comparator;
+        private long iterations;
+
+        Selector(Object[] work, Comparator<Object> comparator) {
+            this.work = work;
+            this.comparator = comparator;
+        }
+
+        /**
+         * Ustawia na właściwych miejscach elementy pozycji {@code targets[from..to)}, leżących w {@code [low, high]}.
+         */
+        void select(int low, int high, int[] targets, int from, int to, int depth) {
+            while (from < to) {
+                int size = high - low + 1;
+                if (size <= SortingNetworks.MAX_SIZE) {
+                    iterations += SortingNetworks.sort(work, low, size, comparator);
+                    return;
+                }
+                Object pivot = depth > 0 ? medianOfThree(low, high) : medianOfMedians(low, high);
+                depth--;
+
+                // Three-way partition: [low, lt) < pivot, [lt, gt] == pivot, (gt, high] > pivot.
+                int lt = low;
+                int gt = high;
+                int i = low;
+                while (i <= gt) {
+                    int comparison = compare(work[i], pivot);
+                    if (comparison < 0) {
+                        swap(lt++, i++);
+                    } else if (comparison > 0) {
+                        swap(i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+
+                int leftEnd = lowerBound(targets, from, to, lt);
+                int rightStart = lowerBound(targets, leftEnd, to, gt + 1);
+                // Recurse into the smaller side, loop on the larger one.
+                if (lt - low < high - gt) {
+                    select(low, lt - 1, targets, from, leftEnd, depth);
+                    low = gt + 1;
+                    from = rightStart;
+                } else {
+                    select(gt + 1, high, targets, rightStart, to, depth);
+                    high = lt - 1;
+                    to = leftEnd;
+                }
+            }
+        }
+
+        private Object medianOfThree(int low, int high) {
+            int mid = (low + high) >>> 1;
+            if (compare(work[mid], work[low]) < 0) swap(mid, low);
+            if (compare(work[high], work[low]) < 0) swap(high, low);
+            if (compare(work[high], work[mid]) < 0) swap(high, mid);
+            return work[mid];
+        }
+
+        /**
+         * Wyznacza medianę median piątek fragmentu; mediany piątek są przenoszone na jego początek.
+         */
+        private Object medianOfMedians(int low, int high) {
+            int medians = 0;
+            for (int start = low; start <= high; start += 5) {
+                int end = Math.min(start + 4, high);
+                iterations += SortingNetworks.insertionSort(work, start, end + 1, comparator);
+                swap(low + medians, start + (end - start) / 2);
+                medians++;
+            }
+            int mid = low + (medians - 1) / 2;
+            select(low, low + medians - 1, new int[]{mid}, 0, 1, 0);
+            return work[mid];
+        }
+
+        private int compare(Object a, Object b) {
+            iterations++;
+            if (SortingContext.isCheckpoint(iterations)) {
+                SortingContext.checkpoint(iterations);
+            }
+            return comparator.compare(a, b);
+        }
+
+        private void swap(int i, int j) {
+            Object value = work[i];
+            work[i] = work[j];
+            work[j] = value;
+        }
+
+        private static int lowerBound(int[] targets, int from, int to, int value) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (targets[mid] < value) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Wątkowa pula tablic pomocniczych ({@code Object[]}, {@code int[]}, {@code long[]}) dla strategii sortowania,
+ * dzięki której kolejne sortowania w tym samym wątku nie alokują buforów od nowa.
+ * <p>
+ * Tablicę pobiera się metodą {@code borrow...} i oddaje metodą {@code release} (najlepiej w bloku
+ * {@code finally}); można pobrać kilka tablic jednocześnie. Pobrana tablica ma długość co najmniej żądaną,
+ * a jej zawartość jest przypadkowa. Po oddaniu tablicy nie wolno jej dalej używać ani zwracać w wyniku.
+ * Pobierana jest najkrótsza wystarczająco długa zatrzymana tablica, więc małe żądania nie zajmują dużych tablic.
+ * Zatrzymywane są tylko tablice nie dłuższe niż {@link #MAX_RETAINED_LENGTH} i najwyżej
+ * {@link #MAX_RETAINED_PER_TYPE} najdłuższe tablice każdego typu, aby pojedyncze duże sortowanie nie trzymało pamięci.
+ * Łączny rozmiar tablic zatrzymanych przez pule wszystkich wątków ({@link #getRetainedBytes()}) nie przekracza
+ * {@link #getMaxRetainedBytes()}; pula wątku, który się zakończył, zwalnia swój udział po zebraniu przez GC.
+ * Tablice {@code Object[]} są przy oddaniu czyszczone, aby nie przetrzymywać posortowanych elementów.
+ * <p>
+ * Klasa nie jest bezpieczna wątkowo - instancję dla bieżącego wątku zwraca {@link #current()}.
+ */
+public class ScratchArena {
+
+    /** Najdłuższa tablica zatrzymywana w puli. */
+    public static final int MAX_RETAINED_LENGTH = 1 << 16;
+
+    /** Najwięcej tablic jednego typu zatrzymywanych w puli. */
+    public static final int MAX_RETAINED_PER_TYPE = 4;
+
+    /** Domyślny łączny limit rozmiaru tablic zatrzymywanych przez pule wszystkich wątków, w bajtach. */
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 16L << 20;
+
+    private static final ThreadLocal<ScratchArena> CURRENT = ThreadLocal.withInitial(ScratchArena::new);
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final AtomicLong retainedTotal = new AtomicLong();
+    private static volatile long maxRetainedBytes = DEFAULT_MAX_RETAINED_BYTES;
+
+    private final Deque<Object[]> objects = new ArrayDeque<>();
+    private final Deque<int[]> ints = new ArrayDeque<>();
+    private final Deque<long[]> longs = new ArrayDeque<>();
+    private final AtomicLong retained = new AtomicLong();
+
+    private long allocations;
+
+    /**
+     * Tworzy pustą pulę.
+     */
+    public ScratchArena() {
+        // The cleanup must not reference the arena itself, only its counter.
+        AtomicLong own = retained;
+        CLEANER.register(this, () -> retainedTotal.addAndGet(-own.getAndSet(0)));
+    }
+
+    /**
+     * Ustawia łączny limit rozmiaru zatrzymywanych tablic. Obniżenie limitu nie usuwa tablic już zatrzymanych.
+     *
+     * @param maxRetainedBytes limit w bajtach; 0 wyłącza zatrzymywanie tablic
+     */
+    public static void configure(long maxRetainedBytes) {
+        ScratchArena.maxRetainedBytes = Math.max(0, maxRetainedBytes);
+    }
+
+    /**
+     * Zwraca łączny limit rozmiaru zatrzymywanych tablic.
+     *
+     * @return limit w bajtach
+     */
+    public static long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Zwraca łączny rozmiar tablic zatrzymanych przez pule wszystkich wątków.
+     *
+     * @return rozmiar w bajtach (długość tablic razy rozmiar elementu)
+     */
+    public static long getRetainedBytes() {
+        return retainedTotal.get();
+    }
+
+    /**
+     * Zwraca pulę bieżącego wątku.
+     *
+     * @return pula tablic pomocniczych
+     */
+    public static ScratchArena current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Pobiera tablicę referencji.
+     *
+     * @param length minimalna długość
+     * @return tablica o długości co najmniej {@code length}
+     */
+    public Object[] borrowObjects(int length) {
+        Object[] array = take(objects, length, a -> a.length, Long.BYTES);
+        if (array == null) {
+            allocations++;
+            array = new Object[length];
+        }
+        return array;
+    }
+
+    /**
+     * Pobiera tablicę liczb całkowitych.
+     *
+     * @param length minimalna długość
+     * @return tablica o długości co najmniej {@code length}
+     */
+    public int[] borrowInts(int length) {
+        int[] array = take(ints, length, a -> a.length, Integer.BYTES);
+        if (array == null) {
+            allocations++;
+            array = new int[length];
+        }
+        return array;
+    }
+
+    /**
+     * Pobiera tablicę liczb długich.
+     *
+     * @param length minimalna długość
+     * @return tablica o długości co najmniej {@code length}
+     */
+    public long[] borrowLongs(int length) {
+        long[] array = take(longs, length, a -> a.length, Long.BYTES);
+        if (array == null) {
+            allocations++;
+            array = new long[length];
+        }
+        return array;
+    }
+
+    /**
+     * Oddaje tablicę referencji do puli, czyszcząc ją.
+     *
+     * @param array tablica pobrana z {@link #borrowObjects(int)}
+     */
+    public void release(Object[] array) {
+        if (array.length <= MAX_RETAINED_LENGTH) {
+            Arrays.fill(array, null);
+        }
+        keep(objects, array, a -> a.length, Long.BYTES);
+    }
+
+    /**
+     * Oddaje tablicę liczb całkowitych do puli.
+     *
+     * @param array tablica pobrana z {@link #borrowInts(int)}
+     */
+    public void release(int[] array) {
+        keep(ints, array, a -> a.length, Integer.BYTES);
+    }
+
+    /**
+     * Oddaje tablicę liczb długich do puli.
+     *
+     * @param array tablica pobrana z {@link #borrowLongs(int)}
+     */
+    public void release(long[] array) {
+        keep(longs, array, a -> a.length, Long.BYTES);
+    }
+
+    /**
+     * Zwraca liczbę tablic zaalokowanych przez pulę, bo żadna zatrzymana tablica nie była dość długa.
+     *
+     * @return liczba alokacji od utworzenia puli
+     */
+    public long getAllocations() {
+        return allocations;
+    }
+
+    private <A> A take(Deque<A> pool, int length, ToIntFunction<A> lengthOf, int elementBytes) {
+        A best = null;
+        for (A array : pool) {
+            int candidate = lengthOf.applyAsInt(array);
+            if (candidate >= length && (best == null || candidate < lengthOf.applyAsInt(best))) {
+                best = array;
+            }
+        }
+        if (best != null) {
+            pool.remove(best);
+            adjustRetained(-(long) lengthOf.applyAsInt(best) * elementBytes);
+        }
+        return best;
+    }
+
+    private <A> void keep(Deque<A> pool, A array, ToIntFunction<A> lengthOf, int elementBytes) {
+        int length = lengthOf.applyAsInt(array);
+        if (length > MAX_RETAINED_LENGTH) {
+            return;
+        }
+        A evicted = null;
+        if (pool.size() >= MAX_RETAINED_PER_TYPE) {
+            // A full pool keeps the longer arrays, which serve any smaller request too.
+            A shortest = pool.stream().min((a, b) -> Integer.compare(lengthOf.applyAsInt(a), lengthOf.applyAsInt(b))).get();
+            if (lengthOf.applyAsInt(shortest) >= length) {
+                return;
+            }
+            evicted = shortest;
+        }
+        long delta = (long) (length - (evicted != null ? lengthOf.applyAsInt(evicted) : 0)) * elementBytes;
+        if (!reserveRetained(delta)) {
+            return;
+        }
+        if (evicted != null) {
+            pool.remove(evicted);
+        }
+        pool.push(array);
+    }
+
+    private boolean reserveRetained(long bytes) {
+        long limit = maxRetainedBytes;
+        while (true) {
+            long current = retainedTotal.get();
+            if (current + bytes > limit) {
+                return false;
+            }
+            if (retainedTotal.compareAndSet(current, current + bytes)) {
+                retained.addAndGet(bytes);
+                return true;
+            }
+        }
+    }
+
+    private void adjustRetained(long bytes) {
+        retained.addAndGet(bytes);
+        retainedTotal.addAndGet(bytes);
+    }
+}
@@ -0,0 +1,139 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Łączy jednoczesne wywołania tego samego obliczenia ("single flight").
+ * <p>
+ * Pierwsze wywołanie dla danego klucza (lider) wykonuje obliczenie, a kolejne, które nadejdą przed
+ * jego zakończeniem, czekają na wynik lidera i otrzymują ten sam obiekt. Wynik nie jest zapamiętywany
+ * po zakończeniu obliczenia, więc nie jest to pamięć podręczna.
+ * <p>
+ * Oczekujący sprawdza co {@link #CHECK_INTERVAL_MILLIS} ms własny {@link SortingContext}, więc jego termin
+ * i anulowanie działają jak przy samodzielnym sortowaniu. Jeśli anulowano lidera, a nie oczekującego,
+ * oczekujący ponawia próbę i sam może zostać liderem.
+ *
+ * @param <K> typ klucza obliczenia
+ * @param <V> typ wyniku
+ */
+public class SingleFlight<K, V> {
+
+    /** Co ile milisekund oczekujący sprawdza swój kontekst. */
+    public static final long CHECK_INTERVAL_MILLIS = 50;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Wykonuje obliczenie albo dołącza do trwającego obliczenia o tym samym kluczu.
+     *
+     * @param key         klucz obliczenia
+     * @param computation obliczenie wykonywane przez lidera
+     * @param context     kontekst wywołującego, sprawdzany podczas oczekiwania; może być {@code null}
+     * @return wynik obliczenia wraz z informacją, czy został współdzielony
+     * @throws SortingCancelledException jeśli anulowano wywołującego lub minął jego termin
+     */
+    public Result<V> execute(K key, Supplier<V> computation, SortingContext context) {
+        while (true) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                try {
+                    V value = computation.get();
+                    own.complete(value);
+                    return new Result<>(value, false);
+                } catch (RuntimeException | Error e) {
+                    own.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(key, own);
+                }
+            }
+
+            try {
+                V value = await(existing, context);
+                coalesced.incrementAndGet();
+                return new Result<>(value, true);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SortingCancelledException) {
+                    // The leader gave up, but this caller still wants the result: try again.
+                    continue;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private V await(CompletableFuture<V> future, SortingContext context) throws ExecutionException {
+        while (true) {
+            if (context != null) {
+                context.throwIfCancelled();
+            }
+            try {
+                return future.get(CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still computing; re-check the caller's context.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SortingCancelledException(SortingCancelledException.Reason.CANCELLED,
+                        "Interrupted while waiting for an identical sort.");
+            }
+        }
+    }
+
+    /**
+     * Zwraca liczbę wywołań, które otrzymały wynik innego wywołania zamiast liczyć go samodzielnie.
+     *
+     * @return liczba połączonych wywołań
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Zwraca liczbę trwających obliczeń.
+     *
+     * @return liczba kluczy, dla których trwa obliczenie
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Wynik wywołania {@link #execute(Object, Supplier, SortingContext)}.
+     *
+     * @param <V> typ wyniku
+     */
+    public static class Result<V> {
+        private final V value;
+        private final boolean shared;
+
+        Result(V value, boolean shared) {
+            this.value = value;
+            this.shared = shared;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Określa, czy wynik obliczył inny wywołujący.
+         *
+         * @return {@code true} jeśli wywołanie dołączyło do trwającego obliczenia
+         */
+        public boolean isShared() {
+            return shared;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Komparatory zgodne z porządkiem, w jakim sortują strategie {@link SortingStrategy}: wartości
+ * porównywane są metodą {@link Comparable#compareTo}, rekordy - kolejno po kluczach sortowania,
+ * a kierunek "DESC" odwraca cały wynik porównania.
+ * <p>
+ * Używane tam, gdzie wyniki kilku strategii trzeba połączyć (np. scalanie posortowanych serii).
+ */
+public final class SortComparators {
+
+    private SortComparators() {
+    }
+
+    /**
+     * Zwraca komparator wartości.
+     *
+     * @param direction kierunek sortowania: "ASC" lub "DESC"
+     * @return komparator wartości
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Comparator<Comparable> values(String direction) {
+        Comparator<Comparable> comparator = Comparable::compareTo;
+        return isDescending(direction) ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Zwraca komparator rekordów porównujący wartości kolejnych kluczy.
+     *
+     * @param keys      klucze sortowania w kolejności priorytetu
+     * @param direction kierunek sortowania: "ASC" lub "DESC"
+     * @return komparator rekordów
+     * @throws IllegalArgumentException przy porównaniu, jeśli rekord nie zawiera klucza
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Comparator<Map<String, Comparable>> records(List<String> keys, String direction) {
+        Comparator<Map<String, Comparable>> comparator = (left, right) -> {
+            for (String key : keys) {
+                Comparable leftValue = left.get(key);
+                Comparable rightValue = right.get(key);
+                if (leftValue == null || rightValue == null) {
+                    throw new IllegalArgumentException("Key not found in one of the maps: " + key);
+                }
+                int comparison = leftValue.compareTo(rightValue);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        };
+        return isDescending(direction) ? comparator.reversed() : comparator;
+    }
+
+    private static boolean isDescending(String direction) {
+        return "DESC".equalsIgnoreCase(direction);
+    }
+}
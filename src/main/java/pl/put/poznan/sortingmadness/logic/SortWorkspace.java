@@ -0,0 +1,78 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zasoby wielokrotnego użytku dla wielu krótkich sortowań wykonywanych kolejno w jednym wątku,
+ * np. przez elementy żądania wsadowego.
+ * <p>
+ * Przechowuje obiekt sortujący (korzystający ze współdzielonych instancji strategii z {@link StrategyRegistry})
+ * oraz bufor roboczy, do którego kopiowane są dane przed sortowaniem. Bufor jest ponownie używany,
+ * jeśli strategia zwróciła wynik w nowej liście; jeśli wynik jest samym buforem, bufor przechodzi
+ * na własność wyniku, a następne sortowanie zaczyna od nowego.
+ * <p>
+ * Klasa nie jest bezpieczna wątkowo - każdy wątek powinien mieć własną instancję.
+ */
+public class SortWorkspace {
+
+    /** Bufory większe niż ten rozmiar nie są zatrzymywane, aby pojedyncze duże sortowanie nie trzymało pamięci. */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private final SortingMadness sortingMadness;
+    private List<Object> scratch = new ArrayList<>();
+
+    /**
+     * Tworzy obszar roboczy z obiektem sortującym bez ograniczenia kosztu.
+     */
+    public SortWorkspace() {
+        this(new SortingMadness());
+    }
+
+    /**
+     * Tworzy obszar roboczy sortujący podanym obiektem.
+     *
+     * @param sortingMadness obiekt sortujący, np. współdzielony obiekt aplikacji z jej ograniczeniem kosztu
+     */
+    public SortWorkspace(SortingMadness sortingMadness) {
+        this.sortingMadness = sortingMadness;
+    }
+
+    /**
+     * Zwraca obiekt {@link SortingMadness} tego obszaru roboczego.
+     *
+     * @return obiekt sortujący związany z tym obszarem roboczym
+     */
+    public SortingMadness getSortingMadness() {
+        return sortingMadness;
+    }
+
+    /**
+     * Kopiuje dane do bufora roboczego.
+     *
+     * @param source dane do skopiowania
+     * @param <T>    typ elementów
+     * @return bufor roboczy z kopią danych
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> copyOf(Collection<? extends T> source) {
+        scratch.clear();
+        scratch.addAll(source);
+        return (List<T>) scratch;
+    }
+
+    /**
+     * Odzyskuje bufor roboczy po sortowaniu, chyba że wynik się do niego odwołuje.
+     *
+     * @param result wynik sortowania z polem {@code sortedData}
+     */
+    public void reclaim(Map<String, Object> result) {
+        if (result.get("sortedData") == scratch || scratch.size() > MAX_RETAINED_CAPACITY) {
+            scratch = new ArrayList<>();
+        } else {
+            scratch.clear();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package pl.put.poznan.sortingmadness.logic;
+
+/**
+ * Wyjątek zgłaszany przez {@link SortingContext#checkpoint(long)}, gdy sortowanie przekroczyło
+ * budżet czasu lub zostało anulowane (np. po rozłączeniu klienta).
+ */
+public class SortingCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Przyczyna przerwania sortowania.
+     */
+    public enum Reason {
+        /** Przekroczono budżet czasu sortowania. */
+        TIMEOUT,
+        /** Sortowanie anulowano z zewnątrz. */
+        CANCELLED
+    }
+
+    private final Reason reason;
+
+    /**
+     * Tworzy wyjątek.
+     *
+     * @param reason  przyczyna przerwania
+     * @param message opis błędu
+     */
+    public SortingCancelledException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,250 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.time.Duration;
+
+/**
+ * Kontekst wykonania sortowania, przez który strategie raportują postęp z wewnętrznych pętli
+ * i który pozwala sortowanie przerwać.
+ * <p>
+ * Kontekst jest wiązany z bieżącym wątkiem metodą {@link #activate()}. Strategie zliczają iteracje
+ * (te same, które ogranicza {@code maxIterations}) i co {@link #CHECKPOINT_INTERVAL} iteracji wywołują
+ * {@link #checkpoint(long)}; dzięki temu koszt raportowania jest pomijalny, a sortowanie bez aktywnego
+ * kontekstu działa jak dotychczas.
+ * <p>
+ * W punkcie kontrolnym sprawdzany jest też termin ({@link #setDeadline(Duration)}) i flaga anulowania
+ * ({@link #cancel(SortingCancelledException.Reason)}); po ich przekroczeniu zgłaszany jest
+ * {@link SortingCancelledException}, który przerywa sortowanie i zwalnia wątek. Kontekst podrzędny
+ * ({@link #SortingContext(SortingContext)}) sprawdza również termin i anulowanie kontekstu nadrzędnego,
+ * np. element żądania wsadowego - kontekst całego żądania.
+ * <p>
+ * Postęp liczony jest względem szacowanej liczby iteracji kolejnych kroków (np. kolejnych parametrów
+ * sortowania w jednym żądaniu), zgłaszanych metodą {@link #startStep(long)}.
+ */
+public class SortingContext {
+
+    /** Co ile iteracji strategie wywołują {@link #checkpoint(long)}; potęga dwójki. */
+    public static final int CHECKPOINT_INTERVAL = 1 << 14;
+
+    private static final ThreadLocal<SortingContext> CURRENT = new ThreadLocal<>();
+
+    private final SortingContext parent;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long deadlineNanos = Long.MAX_VALUE;
+    private volatile SortingCancelledException.Reason cancelled;
+    private volatile long totalExpectedIterations = 1;
+
+    private volatile long completedExpectedIterations;
+    private volatile long stepExpectedIterations;
+    private volatile long stepIterations;
+
+    /**
+     * Tworzy kontekst bez kontekstu nadrzędnego.
+     */
+    public SortingContext() {
+        this(null);
+    }
+
+    /**
+     * Tworzy kontekst podrzędny, przerywany także po anulowaniu lub upływie terminu kontekstu nadrzędnego.
+     * Postęp i termin kontekstu podrzędnego są niezależne od nadrzędnego.
+     *
+     * @param parent kontekst nadrzędny; może być {@code null}
+     */
+    public SortingContext(SortingContext parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Sprawdza, czy po podanej liczbie iteracji należy wywołać {@link #checkpoint(long)}.
+     *
+     * @param iterations liczba iteracji wykonanych przez strategię
+     * @return {@code true} co {@link #CHECKPOINT_INTERVAL} iteracji
+     */
+    public static boolean isCheckpoint(long iterations) {
+        return (iterations & (CHECKPOINT_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Zgłasza postęp bieżącej strategii do kontekstu związanego z wątkiem, jeśli taki istnieje,
+     * i przerywa sortowanie, jeśli kontekst anulowano lub minął jego termin.
+     *
+     * @param iterations liczba iteracji wykonanych dotąd w bieżącym kroku
+     * @throws SortingCancelledException jeśli sortowanie należy przerwać
+     */
+    public static void checkpoint(long iterations) {
+        SortingContext context = CURRENT.get();
+        if (context != null) {
+            context.stepIterations = iterations;
+            context.throwIfCancelled();
+        }
+    }
+
+    /**
+     * Szacuje liczbę iteracji, jaką algorytm wykona dla danych o podanym rozmiarze.
+     *
+     * @param algorithm nazwa algorytmu
+     * @param size      liczba elementów
+     * @return szacowana liczba iteracji
+     */
+    public static long estimateIterations(String algorithm, int size) {
+        double n = Math.max(2, size);
+        double log2 = Math.log(n) / Math.log(2);
+        switch (algorithm.toLowerCase()) {
+            case "bubble":
+            case "selection":
+                return (long) (n * n / 2);
+            case "insertion":
+                return (long) (n * n / 4);
+            case "quick":
+                return (long) (1.39 * n * log2);
+            case "merge":
+                return (long) (n * log2);
+            case "inplace-merge":
+                return (long) (n * log2 * log2 / 2);
+            case "network":
+                return (long) (n * log2 * log2 / 4);
+            default:
+                return (long) n;
+        }
+    }
+
+    /**
+     * Wiąże kontekst z bieżącym wątkiem do czasu zamknięcia zwróconego zakresu.
+     *
+     * @return zakres do użycia w bloku try-with-resources
+     */
+    public Scope activate() {
+        SortingContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Ustawia termin, po którym sortowanie zostanie przerwane, licząc od teraz.
+     *
+     * @param budget budżet czasu sortowania
+     */
+    public void setDeadline(Duration budget) {
+        long now = System.nanoTime();
+        this.deadlineNanos = budget.toNanos() >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + budget.toNanos();
+    }
+
+    /**
+     * Zwraca czas pozostały do terminu, np. aby przekazać go dalej przy zlecaniu pracy innej instancji.
+     *
+     * @return pozostały czas (zero po upływie terminu) albo {@code null}, jeśli terminu nie ustawiono
+     */
+    public Duration getRemaining() {
+        long deadline = deadlineNanos;
+        if (deadline == Long.MAX_VALUE) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Anuluje sortowanie; strategia przerwie pracę w najbliższym punkcie kontrolnym.
+     *
+     * @param reason przyczyna anulowania
+     */
+    public void cancel(SortingCancelledException.Reason reason) {
+        if (cancelled == null) {
+            cancelled = reason;
+        }
+    }
+
+    /**
+     * Sprawdza, czy sortowanie anulowano lub minął jego termin.
+     *
+     * @return {@code true} jeśli sortowanie należy przerwać
+     */
+    public boolean isCancelled() {
+        return cancelled != null || System.nanoTime() - deadlineNanos > 0 || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * Zgłasza wyjątek, jeśli sortowanie anulowano lub minął jego termin.
+     *
+     * @throws SortingCancelledException jeśli sortowanie należy przerwać
+     */
+    public void throwIfCancelled() {
+        SortingCancelledException.Reason reason = cancelled;
+        if (reason == null && System.nanoTime() - deadlineNanos > 0) {
+            reason = SortingCancelledException.Reason.TIMEOUT;
+        }
+        if (reason == SortingCancelledException.Reason.TIMEOUT) {
+            throw new SortingCancelledException(reason, "Sorting exceeded its time budget and was aborted.");
+        } else if (reason != null) {
+            throw new SortingCancelledException(reason, "Sorting was cancelled.");
+        }
+        if (parent != null) {
+            parent.throwIfCancelled();
+        }
+    }
+
+    /**
+     * Rozpoczyna pomiar czasu używany do szacowania pozostałego czasu, np. gdy zadanie opuszcza kolejkę.
+     */
+    public void markStarted() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Ustawia szacowaną łączną liczbę iteracji wszystkich kroków.
+     *
+     * @param totalExpectedIterations szacowana łączna liczba iteracji
+     */
+    public void setTotalExpectedIterations(long totalExpectedIterations) {
+        this.totalExpectedIterations = Math.max(1, totalExpectedIterations);
+    }
+
+    /**
+     * Rozpoczyna kolejny krok sortowania, zaliczając poprzedni jako zakończony.
+     *
+     * @param expectedIterations szacowana liczba iteracji nowego kroku
+     */
+    public synchronized void startStep(long expectedIterations) {
+        completedExpectedIterations += stepExpectedIterations;
+        stepExpectedIterations = expectedIterations;
+        stepIterations = 0;
+    }
+
+    /**
+     * Zwraca postęp z zakresu [0, 1]. Ponieważ liczba iteracji jest szacowana, postęp trwającego
+     * kroku nie przekracza jego szacunku.
+     *
+     * @return ułamek wykonanej pracy
+     */
+    public double getProgress() {
+        long step = Math.min(stepIterations, stepExpectedIterations);
+        return Math.min(1.0, (completedExpectedIterations + step) / (double) totalExpectedIterations);
+    }
+
+    /**
+     * Szacuje pozostały czas na podstawie dotychczasowego tempa.
+     *
+     * @return pozostały czas w milisekundach lub -1, jeśli nie da się go jeszcze oszacować
+     */
+    public long getEtaMillis() {
+        double progress = getProgress();
+        if (progress <= 0) {
+            return -1;
+        }
+        double elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000.0;
+        return (long) (elapsedMillis * (1 - progress) / progress);
+    }
+
+    /**
+     * Zakres powiązania kontekstu z wątkiem.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -2,22 +2,73 @@ package pl.put.poznan.sortingmadness.logic;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import pl.put.poznan.sortingmadness.logic.algorithms.*;
+import pl.put.poznan.sortingmadness.logic.encoding.DictionaryEncoder;
+import pl.put.poznan.sortingmadness.logic.offheap.OffHeapDataset;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
- * Klasa zarządzająca różnymi algorytmami sortowania (Bubble, Insertion, Selection, Quick, Merge, Counting).
- * Umożliwia sortowanie danych na podstawie wybranego algorytmu i klucza do sortowania.
+ * Klasa zarządzająca różnymi algorytmami sortowania (Bubble, Insertion, Selection, Quick, Merge, Counting,
+ * In-place Merge, Network) oraz sortowaniem list liczb poza stertą (Offheap, Radix).
+ * Umożliwia sortowanie danych na podstawie wybranego algorytmu i klucza do sortowania. Algorytm "counting"
+ * sortuje rekordy o kluczach zakodowanych słownikowo przez zliczanie kodów ({@link DictionaryEncoder}).
  */
 public class SortingMadness {
     private static final Logger logger = LoggerFactory.getLogger(SortingMadness.class);
 
     /**
-     * Konstruktor domyślny.
+     * Nazwy wszystkich algorytmów obsługiwanych przez {@link #getStrategy(String)}.
      */
-    public SortingMadness() {}
+    public static final List<String> ALGORITHMS = List.of("bubble", "insertion", "selection", "quick", "merge", "counting", "inplace-merge", "network");
+
+    /**
+     * Nazwy algorytmów sortujących listy liczb poza stertą ({@link OffHeapDataset}); nie mają strategii w rejestrze.
+     */
+    public static final List<String> OFF_HEAP_ALGORITHMS = List.of("offheap", "radix");
+
+    private final StrategyRegistry registry;
+    private final CostGuard costGuard;
+
+    /**
+     * Tworzy obiekt korzystający ze współdzielonego rejestru wbudowanych strategii.
+     */
+    public SortingMadness() {
+        this(StrategyRegistry.defaults());
+    }
+
+    /**
+     * Tworzy obiekt korzystający z podanego rejestru strategii, bez ograniczenia kosztu.
+     *
+     * @param registry rejestr strategii
+     */
+    public SortingMadness(StrategyRegistry registry) {
+        this(registry, CostGuard.DISABLED);
+    }
+
+    /**
+     * Tworzy obiekt korzystający z podanego rejestru strategii i ograniczenia kosztu.
+     *
+     * @param registry  rejestr strategii
+     * @param costGuard ograniczenie kosztu algorytmów kwadratowych
+     */
+    public SortingMadness(StrategyRegistry registry, CostGuard costGuard) {
+        this.registry = registry;
+        this.costGuard = costGuard;
+    }
+
+    /**
+     * Zwraca ograniczenie kosztu stosowane przez ten obiekt.
+     *
+     * @return ograniczenie kosztu
+     */
+    public CostGuard getCostGuard() {
+        return costGuard;
+    }
 
     /**
      * Sortuje dane na podstawie wybranego algorytmu sortowania.
@@ -31,6 +82,58 @@ public class SortingMadness {
      * @throws IllegalArgumentException jeśli dane są puste lub algorytm nie jest rozpoznany
      */
     public Map<String, Object> sortData(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction, int maxIterations) {
+        return sortData(data, keys, algorithm, direction, maxIterations, null);
+    }
+
+    /**
+     * Sortuje dane na podstawie wybranego algorytmu sortowania w ramach kontekstu, który może
+     * przerwać sortowanie po upływie terminu lub anulowaniu.
+     * <p>
+     * Klucze tekstowe o niewielu różnych wartościach są kodowane słownikowo ({@link DictionaryEncoder}),
+     * więc strategia porównuje kody zamiast napisów. Jeśli algorytmem jest "counting" (podany w żądaniu albo
+     * wybrany przez {@link SortingSelector}), zakodowano wszystkie klucze, a sortowanie jest pełne, dane są
+     * sortowane przez zliczanie kodów; wynik zawiera wtedy pole {@code backend}. Inne algorytmy zawsze sortują
+     * wybraną strategią.
+     * <p>
+     * Koszt algorytmów kwadratowych jest sprawdzany przed sortowaniem przez {@link CostGuard}, który może
+     * odrzucić żądanie, ograniczyć liczbę iteracji albo zmienić algorytm; wynik zawiera wtedy pole {@code costGuard}.
+     *
+     * @param data           lista map zawierających dane do posortowania
+     * @param keys            klucz używany do sortowania wartości w mapach
+     * @param algorithm      nazwa algorytmu sortującego
+     * @param direction      kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations  maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param context        kontekst wykonania sortowania; może być {@code null}
+     * @return mapa zawierająca wyniki sortowania: posortowane dane oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany lub {@link CostGuard}
+     *                                   odrzucił żądanie
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortData(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction,
+                                        int maxIterations, SortingContext context) {
+        return sortData(data, keys, algorithm, direction, maxIterations, context,
+                data != null ? DictionaryEncoder.analyze(data, keys) : null);
+    }
+
+    /**
+     * Sortuje dane tak jak {@link #sortData(List, List, String, String, int, SortingContext)}, używając kodera
+     * zbudowanego wcześniej, np. przy wyborze algorytmu, zamiast ponownie analizować klucze.
+     *
+     * @param data          lista map zawierających dane do posortowania
+     * @param keys          klucze sortowania w kolejności priorytetu
+     * @param algorithm     nazwa algorytmu sortującego
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param context       kontekst wykonania sortowania; może być {@code null}
+     * @param encoder       wynik {@link DictionaryEncoder#analyze(List, List)} dla tych rekordów w tej samej
+     *                      kolejności; {@code null} oznacza, że żadnego klucza nie zakodowano
+     * @return mapa zawierająca wyniki sortowania: posortowane dane oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany lub {@link CostGuard}
+     *                                   odrzucił żądanie
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortData(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction,
+                                        int maxIterations, SortingContext context, DictionaryEncoder encoder) {
         logger.info("Starting sortData with algorithm: {}, key: {}, direction: {}, maxIterations: {}",
                 algorithm, keys, direction, maxIterations);
             if (direction == null || (!direction.equals("ASC") && !direction.equals("DESC"))) {
@@ -47,8 +150,35 @@ public class SortingMadness {
             maxIterations = 0;
         }
 
+        CostGuard.Decision guard = costGuard.check(algorithm, data.size(), keys != null ? keys.size() : 1, maxIterations, context);
+        if (guard != null) {
+            return guard.annotate(sortRecords(data, keys, guard.getAlgorithm(), direction, guard.getMaxIterations(), context, encoder));
+        }
+        return sortRecords(data, keys, algorithm, direction, maxIterations, context, encoder);
+    }
+
+    @SuppressWarnings("try")
+    private Map<String, Object> sortRecords(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction,
+                                            int maxIterations, SortingContext context, DictionaryEncoder encoder) {
         SortingStrategy strategy = getStrategy(algorithm);
-        return strategy.sort(data, keys, direction, maxIterations);
+        if (encoder == null) {
+            return context != null
+                    ? strategy.sort(data, keys, direction, maxIterations, context)
+                    : strategy.sort(data, keys, direction, maxIterations);
+        }
+        if (maxIterations == 0 && encoder.coversAllKeys() && "counting".equalsIgnoreCase(algorithm)) {
+            if (context == null) {
+                return encoder.countingSort(data, direction);
+            }
+            context.throwIfCancelled();
+            try (SortingContext.Scope ignored = context.activate()) {
+                return encoder.countingSort(data, direction);
+            }
+        }
+        List<Map<String, Comparable>> encoded = encoder.encode(data);
+        return encoder.decode(context != null
+                ? strategy.sort(encoded, keys, direction, maxIterations, context)
+                : strategy.sort(encoded, keys, direction, maxIterations));
     }
 
     /**
@@ -62,6 +192,31 @@ public class SortingMadness {
      * @throws IllegalArgumentException jeśli dane są puste lub algorytm nie jest rozpoznany
      */
     public Map<String, Object> sortDataList(List<Comparable> data, String algorithm, String direction, int maxIterations) {
+        return sortDataList(data, algorithm, direction, maxIterations, null);
+    }
+
+    /**
+     * Sortuje listę elementów na podstawie wybranego algorytmu sortowania w ramach kontekstu, który
+     * może przerwać sortowanie po upływie terminu lub anulowaniu.
+     * <p>
+     * Algorytmy z {@link #OFF_HEAP_ALGORITHMS} sortują listę liczb poza stertą przez {@link OffHeapDataset}
+     * (wybiera je też {@link SortingSelector} dla dużych list liczb); wynik zawiera wtedy pole {@code backend}.
+     * Jeśli limit pamięci poza stertą jest wyczerpany, lista jest sortowana na stercie strategią "quick", co
+     * także zaznacza pole {@code backend}. Inne algorytmy zawsze sortują wybraną strategią. Koszt algorytmów kwadratowych jest sprawdzany tak jak w
+     * {@link #sortData(List, List, String, String, int, SortingContext)}.
+     *
+     * @param data          lista elementów do posortowania
+     * @param algorithm     nazwa algorytmu sortującego
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param context       kontekst wykonania sortowania; może być {@code null}
+     * @return mapa zawierająca wyniki sortowania: posortowane dane oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany, {@link CostGuard}
+     *                                   odrzucił żądanie albo sortowania poza stertą nie da się wykonać
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortDataList(List<Comparable> data, String algorithm, String direction, int maxIterations,
+                                            SortingContext context) {
         logger.info("Starting sortDataList with algorithm: {}, direction: {}, maxIterations: {}",
                 algorithm, direction, maxIterations);
 
@@ -72,33 +227,262 @@ public class SortingMadness {
             maxIterations = 0;
         }
 
+        CostGuard.Decision guard = costGuard.check(algorithm, data.size(), 1, maxIterations, context);
+        if (guard != null) {
+            return guard.annotate(sortValues(data, guard.getAlgorithm(), direction, guard.getMaxIterations(), context));
+        }
+        return sortValues(data, algorithm, direction, maxIterations, context);
+    }
+
+    private Map<String, Object> sortValues(List<Comparable> data, String algorithm, String direction, int maxIterations,
+                                           SortingContext context) {
+        if (isOffHeap(algorithm)) {
+            return sortOffHeap(data, direction, maxIterations, context);
+        }
         SortingStrategy strategy = getStrategy(algorithm);
-        return strategy.sortList(data, direction, maxIterations);
+        return context != null
+                ? strategy.sortList(data, direction, maxIterations, context)
+                : strategy.sortList(data, direction, maxIterations);
+    }
+
+    private Map<String, Object> sortOffHeap(List<Comparable> data, String direction, int maxIterations, SortingContext context) {
+        if (maxIterations > 0) {
+            throw new IllegalArgumentException("Off-heap sorting does not support maxIterations.");
+        }
+        if (!OffHeapDataset.supports(data)) {
+            throw new IllegalArgumentException("Off-heap sorting supports lists of integers or lists of doubles only.");
+        }
+        Map<String, Object> offHeap = OffHeapDataset.trySort(data, direction, context);
+        if (offHeap != null) {
+            return offHeap;
+        }
+        SortingStrategy quick = getStrategy("quick");
+        Map<String, Object> result = new LinkedHashMap<>(context != null
+                ? quick.sortList(data, direction, 0, context)
+                : quick.sortList(data, direction, 0));
+        result.put("backend", "quick");
+        return result;
+    }
+
+    private static boolean isOffHeap(String algorithm) {
+        return algorithm != null && OFF_HEAP_ALGORITHMS.contains(algorithm.toLowerCase());
+    }
+
+    /**
+     * Zwraca okno {@code [offset, offset + limit)} danych posortowanych według kluczy.
+     * <p>
+     * Jeśli sortowanie jest pełne, a okno małe względem danych ({@link TopKSelector#isWorthwhile(int, int, int)}),
+     * okno jest wybierane kopcem o ograniczonym rozmiarze w czasie O(n log k) zamiast sortowania całości; wynik
+     * zawiera wtedy pole {@code backend} ("top-k-heap"). W przeciwnym razie dane są sortowane wybranym algorytmem
+     * i przycinane. Wynik zawiera też pola {@code offset}, {@code limit} i {@code total} (liczba wszystkich rekordów).
+     *
+     * @param data          lista map zawierających dane do posortowania
+     * @param keys          klucze sortowania w kolejności priorytetu
+     * @param algorithm     nazwa algorytmu sortującego, używanego, gdy okno nie jest małe
+     * @param direction     kierunek sortowania: "ASC" lub "DESC"
+     * @param maxIterations maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param offset        liczba pomijanych pierwszych rekordów
+     * @param limit         maksymalna liczba zwracanych rekordów
+     * @param context       kontekst wykonania sortowania; może być {@code null}
+     * @return mapa zawierająca okno posortowanych danych oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany lub okno jest niepoprawne
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortDataWindow(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction,
+                                              int maxIterations, int offset, int limit, SortingContext context) {
+        validateWindow(data, direction, offset, limit);
+        // The top-k selection compares the original keys, so the encoder is only built for a full sort.
+        boolean topK = maxIterations <= 0 && TopKSelector.isWorthwhile(data.size(), offset, limit);
+        return sortDataWindow(data, keys, algorithm, direction, maxIterations, offset, limit, context,
+                topK ? null : DictionaryEncoder.analyze(data, keys));
+    }
+
+    /**
+     * Zwraca okno posortowanych danych tak jak
+     * {@link #sortDataWindow(List, List, String, String, int, int, int, SortingContext)}, używając kodera
+     * zbudowanego wcześniej zamiast ponownie analizować klucze.
+     *
+     * @param data          lista map zawierających dane do posortowania
+     * @param keys          klucze sortowania w kolejności priorytetu
+     * @param algorithm     nazwa algorytmu sortującego, używanego, gdy okno nie jest małe
+     * @param direction     kierunek sortowania: "ASC" lub "DESC"
+     * @param maxIterations maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param offset        liczba pomijanych pierwszych rekordów
+     * @param limit         maksymalna liczba zwracanych rekordów
+     * @param context       kontekst wykonania sortowania; może być {@code null}
+     * @param encoder       wynik {@link DictionaryEncoder#analyze(List, List)} dla tych rekordów w tej samej
+     *                      kolejności; {@code null} oznacza, że żadnego klucza nie zakodowano
+     * @return mapa zawierająca okno posortowanych danych oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany lub okno jest niepoprawne
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortDataWindow(List<Map<String, Comparable>> data, List<String> keys, String algorithm, String direction,
+                                              int maxIterations, int offset, int limit, SortingContext context,
+                                              DictionaryEncoder encoder) {
+        validateWindow(data, direction, offset, limit);
+        if (maxIterations <= 0 && TopKSelector.isWorthwhile(data.size(), offset, limit)) {
+            getStrategy(algorithm);
+            logger.info("Selecting records {}..{} of {} with keys: {}, direction: {}",
+                    offset, offset + limit, data.size(), keys, direction);
+            return selectWindow(data, SortComparators.records(keys, direction), offset, limit, context);
+        }
+        return window(sortData(data, keys, algorithm, direction, maxIterations, context, encoder), data.size(), offset, limit);
+    }
+
+    /**
+     * Zwraca okno {@code [offset, offset + limit)} posortowanej listy elementów, tak jak
+     * {@link #sortDataWindow(List, List, String, String, int, int, int, SortingContext)}.
+     *
+     * @param data          lista elementów do posortowania
+     * @param algorithm     nazwa algorytmu sortującego, używanego, gdy okno nie jest małe
+     * @param direction     kierunek sortowania: "ASC" lub "DESC"
+     * @param maxIterations maksymalna liczba iteracji sortowania; wartość 0 oznacza brak ograniczenia
+     * @param offset        liczba pomijanych pierwszych elementów
+     * @param limit         maksymalna liczba zwracanych elementów
+     * @param context       kontekst wykonania sortowania; może być {@code null}
+     * @return mapa zawierająca okno posortowanych danych oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException  jeśli dane są puste, algorytm nie jest rozpoznany lub okno jest niepoprawne
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sortDataListWindow(List<Comparable> data, String algorithm, String direction, int maxIterations,
+                                                  int offset, int limit, SortingContext context) {
+        validateWindow(data, direction, offset, limit);
+        if (maxIterations <= 0 && TopKSelector.isWorthwhile(data.size(), offset, limit)) {
+            if (!isOffHeap(algorithm)) {
+                getStrategy(algorithm);
+            }
+            logger.info("Selecting elements {}..{} of {} with direction: {}", offset, offset + limit, data.size(), direction);
+            return selectWindow(data, SortComparators.values(direction), offset, limit, context);
+        }
+        return window(sortDataList(data, algorithm, direction, maxIterations, context), data.size(), offset, limit);
+    }
+
+    private static void validateWindow(List<?> data, String direction, int offset, int limit) {
+        if (data == null || data.isEmpty()) {
+            throw new IllegalArgumentException("Dataset is empty or null.");
+        }
+        if (direction == null || (!direction.equals("ASC") && !direction.equals("DESC"))) {
+            throw new IllegalArgumentException("Sorting direction must be specified.");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive.");
+        }
+    }
+
+    @SuppressWarnings("try")
+    private static <T> Map<String, Object> selectWindow(List<T> data, Comparator<? super T> comparator, int offset, int limit,
+                                                        SortingContext context) {
+        long startTime = System.nanoTime();
+        Supplier<List<T>> select = () -> TopKSelector.select(data, comparator, offset, limit);
+        List<T> sortedData;
+        if (context == null) {
+            sortedData = select.get();
+        } else {
+            context.throwIfCancelled();
+            try (SortingContext.Scope ignored = context.activate()) {
+                sortedData = select.get();
+            }
+        }
+        long duration = System.nanoTime() - startTime;
+        logger.info("Top-k selection completed in {} ms.", duration / 1_000_000.0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sortedData", sortedData);
+        result.put("executionTime", duration / 1_000_000.0);
+        result.put("backend", "top-k-heap");
+        result.put("offset", offset);
+        result.put("limit", limit);
+        result.put("total", data.size());
+        return result;
+    }
+
+    private static Map<String, Object> window(Map<String, Object> sorted, int total, int offset, int limit) {
+        List<?> sortedData = (List<?>) sorted.get("sortedData");
+        int from = Math.min(offset, sortedData.size());
+        int to = (int) Math.min(sortedData.size(), (long) offset + limit);
+        Map<String, Object> result = new LinkedHashMap<>(sorted);
+        result.put("sortedData", new ArrayList<>(sortedData.subList(from, to)));
+        result.put("offset", offset);
+        result.put("limit", limit);
+        result.put("total", total);
+        return result;
+    }
+
+    /**
+     * Wyznacza rekordy, które po posortowaniu według kluczy znalazłyby się na podanych pozycjach
+     * ({@link OrderStatistics}), bez sortowania całych danych.
+     *
+     * @param data      lista map zawierających dane
+     * @param keys      klucze sortowania w kolejności priorytetu
+     * @param direction kierunek sortowania: "ASC" lub "DESC"
+     * @param ranks     pozycje liczone od zera
+     * @param context   kontekst wykonania; może być {@code null}
+     * @return mapa z listą {@code values} (rekordy w kolejności {@code ranks}), czasem wykonania w milisekundach
+     *         i polem {@code total} (liczba wszystkich rekordów)
+     * @throws IllegalArgumentException  jeśli dane są puste, kierunek jest niepoprawny lub pozycja wykracza poza dane
+     * @throws SortingCancelledException jeśli wybór przerwano
+     */
+    public Map<String, Object> selectRanks(List<Map<String, Comparable>> data, List<String> keys, String direction, int[] ranks,
+                                           SortingContext context) {
+        validateWindow(data, direction, 0, 1);
+        logger.info("Selecting {} ranks of {} records by keys: {}, direction: {}", ranks.length, data.size(), keys, direction);
+        return selectRanks(data, SortComparators.records(keys, direction), ranks, context);
+    }
+
+    /**
+     * Wyznacza elementy, które po posortowaniu listy znalazłyby się na podanych pozycjach, tak jak
+     * {@link #selectRanks(List, List, String, int[], SortingContext)}.
+     *
+     * @param data      lista elementów
+     * @param direction kierunek sortowania: "ASC" lub "DESC"
+     * @param ranks     pozycje liczone od zera
+     * @param context   kontekst wykonania; może być {@code null}
+     * @return mapa z listą {@code values} (elementy w kolejności {@code ranks}), czasem wykonania w milisekundach
+     *         i polem {@code total} (liczba wszystkich elementów)
+     * @throws IllegalArgumentException  jeśli dane są puste, kierunek jest niepoprawny lub pozycja wykracza poza dane
+     * @throws SortingCancelledException jeśli wybór przerwano
+     */
+    public Map<String, Object> selectRanksList(List<Comparable> data, String direction, int[] ranks, SortingContext context) {
+        validateWindow(data, direction, 0, 1);
+        logger.info("Selecting {} ranks of {} elements with direction: {}", ranks.length, data.size(), direction);
+        return selectRanks(data, SortComparators.values(direction), ranks, context);
+    }
+
+    @SuppressWarnings("try")
+    private static <T> Map<String, Object> selectRanks(List<T> data, Comparator<? super T> comparator, int[] ranks,
+                                                       SortingContext context) {
+        long startTime = System.nanoTime();
+        Supplier<List<T>> select = () -> OrderStatistics.select(data, comparator, ranks);
+        List<T> values;
+        if (context == null) {
+            values = select.get();
+        } else {
+            context.throwIfCancelled();
+            try (SortingContext.Scope ignored = context.activate()) {
+                values = select.get();
+            }
+        }
+        long duration = System.nanoTime() - startTime;
+        logger.info("Order statistics selection completed in {} ms.", duration / 1_000_000.0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("values", values);
+        result.put("executionTime", duration / 1_000_000.0);
+        result.put("total", data.size());
+        return result;
     }
 
     /**
      * Wybiera odpowiednią strategię sortowania na podstawie nazwy algorytmu.
      *
      * @param algorithm nazwa algorytmu sortowania (np. "bubble", "insertion", "selection", "quick", "merge", "counting")
-     * @return instancja klasy implementującej wybrany algorytm sortowania
+     * @return współdzielona instancja strategii z rejestru
      * @throws IllegalArgumentException jeśli podana nazwa algorytmu jest nierozpoznana
      */
     public SortingStrategy getStrategy(String algorithm) {
-        switch (algorithm.toLowerCase()) {
-            case "bubble":
-                return new BubbleSort();
-            case "insertion":
-                return new InsertionSort();
-            case "selection":
-                return new SelectionSort();
-            case "quick":
-                return new QuickSort();
-            case "merge":
-                return new MergeSort();
-            case "counting":
-                return new CountingSort();
-            default:
-                throw new IllegalArgumentException("Unknown sorting algorithm: " + algorithm);
-        }
+        return registry.get(algorithm);
     }
 }
@@ -8,7 +8,9 @@ package pl.put.poznan.sortingmadness.logic;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import pl.put.poznan.sortingmadness.logic.algorithms.*;
+import pl.put.poznan.sortingmadness.logic.algorithms.SortingNetworks;
+import pl.put.poznan.sortingmadness.logic.encoding.DictionaryEncoder;
+import pl.put.poznan.sortingmadness.logic.offheap.OffHeapDataset;
 
 import java.util.*;
 
@@ -17,26 +19,14 @@ public class SortingSelector {
     /** Logger do śledzenia działania klasy */
     private static final Logger logger = LoggerFactory.getLogger(SortingSelector.class);
 
-    /**
-     * Mapa odwzorowująca nazwy algorytmów na odpowiadające im strategie sortowania.
-     */
-    private static final Map<String, SortingStrategy> algorithmMap = initializeAlgorithmMap();
+    /** Szacowana pamięć list pomocniczych {@code MergeSort} na element w jednym poziomie scalania (referencja i zapas tablicy). */
+    private static final long MERGE_BYTES_PER_ELEMENT = 16;
 
-    /**
-     * Inicjalizuje mapę algorytmów sortowania.
-     *
-     * @return Mapa algorytmów sortowania
-     */
-    private static Map<String, SortingStrategy> initializeAlgorithmMap() {
-        Map<String, SortingStrategy> map = new HashMap<>();
-        map.put("bubble", new BubbleSort());
-        map.put("selection", new SelectionSort());
-        map.put("insertion", new InsertionSort());
-        map.put("merge", new MergeSort());
-        map.put("counting", new CountingSort());
-        map.put("quick", new QuickSort());
-        return map;
-    }
+    /** Ile razy więcej wolnej sterty niż list pomocniczych jednego poziomu wymaga zwykłe {@code MergeSort}. */
+    private static final long MERGE_HEAP_FACTOR = 4;
+
+    /** Ułamek maksymalnej sterty, poniżej którego wolna pamięć jest uznawana za niewystarczającą. */
+    private static final double LOW_HEAP_FRACTION = 0.1;
 
     /**
      * Wybiera optymalny algorytm sortowania dla listy obiektów implementujących {@link Comparable}.
@@ -54,6 +44,24 @@ public class SortingSelector {
         }
     }
 
+    /**
+     * Wybiera optymalny algorytm sortowania dla listy obiektów implementujących {@link Comparable}, uwzględniając
+     * limit iteracji. Pełne sortowanie dużej listy liczb ({@link OffHeapDataset#isEligible(List)}) jest wykonywane
+     * poza stertą ("offheap"); w pozostałych przypadkach wybór jest taki jak w {@link #selectAlgorithmList(List, boolean)}.
+     *
+     * @param data Lista danych do posortowania
+     * @param descendingOrder Flaga określająca, czy sortowanie powinno być malejące
+     * @param maxIterations Limit iteracji sortowania; 0 oznacza pełne sortowanie
+     * @return Nazwa wybranego algorytmu sortowania
+     * @throws IllegalArgumentException jeśli dane wejściowe są nieobsługiwane
+     */
+    public static String selectAlgorithmList(List<?> data, boolean descendingOrder, int maxIterations) {
+        if (maxIterations <= 0 && OffHeapDataset.isEligible(data)) {
+            return "offheap";
+        }
+        return selectAlgorithmList(data, descendingOrder);
+    }
+
     /**
      * Wybiera optymalny algorytm sortowania dla listy map.
      *
@@ -71,6 +79,46 @@ public class SortingSelector {
         }
     }
 
+    /**
+     * Wybiera optymalny algorytm sortowania dla listy map, uwzględniając limit iteracji. Pełne sortowanie
+     * rekordów, których wszystkie klucze da się zakodować słownikowo ({@link DictionaryEncoder}), jest wykonywane
+     * przez zliczanie kodów ("counting"); w pozostałych przypadkach wybór jest taki jak w
+     * {@link #selectAlgorithmMap(List, List, boolean)}.
+     *
+     * @param data Lista map do posortowania
+     * @param keysToSort Klucze, według których należy sortować
+     * @param descendingOrder Flaga określająca, czy sortowanie powinno być malejące
+     * @param maxIterations Limit iteracji sortowania; 0 oznacza pełne sortowanie
+     * @return Nazwa wybranego algorytmu sortowania
+     * @throws IllegalArgumentException jeśli dane wejściowe są nieobsługiwane
+     */
+    public static String selectAlgorithmMap(List<Map<String, Comparable>> data, List<String> keysToSort, boolean descendingOrder,
+                                            int maxIterations) {
+        return selectAlgorithmMap(data, keysToSort, descendingOrder, maxIterations,
+                maxIterations <= 0 ? DictionaryEncoder.analyze(data, keysToSort) : null);
+    }
+
+    /**
+     * Wybiera algorytm sortowania dla listy map tak jak {@link #selectAlgorithmMap(List, List, boolean, int)},
+     * korzystając z kodera zbudowanego wcześniej, aby ten sam koder mógł potem posłużyć do sortowania
+     * ({@link SortingMadness#sortData(List, List, String, String, int, SortingContext, DictionaryEncoder)}).
+     *
+     * @param data Lista map do posortowania
+     * @param keysToSort Klucze, według których należy sortować
+     * @param descendingOrder Flaga określająca, czy sortowanie powinno być malejące
+     * @param maxIterations Limit iteracji sortowania; 0 oznacza pełne sortowanie
+     * @param encoder Wynik {@link DictionaryEncoder#analyze(List, List)} dla tych danych; może być {@code null}
+     * @return Nazwa wybranego algorytmu sortowania
+     * @throws IllegalArgumentException jeśli dane wejściowe są nieobsługiwane
+     */
+    public static String selectAlgorithmMap(List<Map<String, Comparable>> data, List<String> keysToSort, boolean descendingOrder,
+                                            int maxIterations, DictionaryEncoder encoder) {
+        if (maxIterations <= 0 && encoder != null && encoder.coversAllKeys()) {
+            return "counting";
+        }
+        return selectAlgorithmMap(data, keysToSort, descendingOrder);
+    }
+
     /**
      * Wybiera algorytm sortowania dla listy obiektów {@link Comparable} na podstawie jej charakterystyk.
      *
@@ -88,8 +136,8 @@ public class SortingSelector {
         if (numericData(data)) {
             return "counting";
         }
-        if (data.size() <= 10) {
-            return "bubble";
+        if (data.size() <= SortingNetworks.MAX_SIZE) {
+            return "network";
         }
         if (data.size() <= 100) {
             return "insertion";
@@ -113,23 +161,49 @@ public class SortingSelector {
             return "insertion";
         }
         if (hasManyDuplicatesMap(data)) {
-            return "merge";
+            return stableMergeAlgorithm(data.size());
         }
         if (numericDataMap(data, keysToSort)) {
             return "counting";
         }
-        if (data.size() <= 10) {
-            return "bubble";
+        if (data.size() <= SortingNetworks.MAX_SIZE) {
+            return "network";
         }
         if (data.size() <= 100) {
             return "insertion";
         }
         if (data.size() <= 1000) {
-            return "merge";
+            return stableMergeAlgorithm(data.size());
         }
         return "quick";
     }
 
+    /**
+     * Wybiera stabilne sortowanie przez scalanie: zwykłe albo, gdy na stercie brakuje miejsca na listy
+     * pomocnicze, w miejscu.
+     *
+     * @param size liczba rekordów
+     * @return "merge" lub "inplace-merge"
+     */
+    private static String stableMergeAlgorithm(int size) {
+        return isHeapTight(size) ? "inplace-merge" : "merge";
+    }
+
+    /**
+     * Sprawdza, czy wolna sterta (łącznie z tą, o którą JVM może się jeszcze powiększyć) jest mniejsza niż
+     * {@link #MERGE_HEAP_FACTOR} razy szacowana pamięć list pomocniczych {@code MergeSort}, albo mniejsza niż
+     * {@link #LOW_HEAP_FRACTION} maksymalnej sterty.
+     *
+     * @param size liczba rekordów
+     * @return {@code true}, jeśli należy oszczędzać pamięć
+     */
+    private static boolean isHeapTight(int size) {
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long mergeBytes = (long) size * MERGE_BYTES_PER_ELEMENT;
+        return available < MERGE_HEAP_FACTOR * mergeBytes || available < runtime.maxMemory() * LOW_HEAP_FRACTION;
+    }
+
     /**
      * Sprawdza, czy lista jest posortowana.
      *
@@ -226,10 +300,6 @@ public class SortingSelector {
      * @throws IllegalArgumentException jeśli nazwa algorytmu jest nieznana
      */
     public static SortingStrategy getSortingStrategy(String algorithm) {
-        SortingStrategy strategy = algorithmMap.get(algorithm);
-        if (strategy == null) {
-            throw new IllegalArgumentException("Unknown sorting algorithm: " + algorithm);
-        }
-        return strategy;
+        return StrategyRegistry.defaults().get(algorithm);
     }
 }
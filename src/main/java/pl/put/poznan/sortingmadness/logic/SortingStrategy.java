@@ -6,4 +6,36 @@ import java.util.Map;
 public interface SortingStrategy {
     <E extends Comparable<E>> Map<String, Object> sort(List<Map<String, E>> data, List <String> key, String direction, int maxIterations);
     <E extends Comparable<E>> Map<String, Object> sortList(List<E> data, String direction, int maxIterations);
+
+    /**
+     * Sortuje listę map w ramach podanego kontekstu, który może przerwać sortowanie po upływie terminu
+     * lub anulowaniu ({@link SortingCancelledException}).
+     *
+     * @param context kontekst wykonania sortowania
+     * @see #sort(List, List, String, int)
+     */
+    @SuppressWarnings("try")
+    default <E extends Comparable<E>> Map<String, Object> sort(List<Map<String, E>> data, List<String> key, String direction,
+                                                               int maxIterations, SortingContext context) {
+        context.throwIfCancelled();
+        try (SortingContext.Scope ignored = context.activate()) {
+            return sort(data, key, direction, maxIterations);
+        }
+    }
+
+    /**
+     * Sortuje listę elementów w ramach podanego kontekstu, który może przerwać sortowanie po upływie terminu
+     * lub anulowaniu ({@link SortingCancelledException}).
+     *
+     * @param context kontekst wykonania sortowania
+     * @see #sortList(List, String, int)
+     */
+    @SuppressWarnings("try")
+    default <E extends Comparable<E>> Map<String, Object> sortList(List<E> data, String direction, int maxIterations,
+                                                                   SortingContext context) {
+        context.throwIfCancelled();
+        try (SortingContext.Scope ignored = context.activate()) {
+            return sortList(data, direction, maxIterations);
+        }
+    }
 }
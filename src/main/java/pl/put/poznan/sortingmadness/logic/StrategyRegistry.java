@@ -0,0 +1,78 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import pl.put.poznan.sortingmadness.logic.algorithms.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejestr współdzielonych instancji strategii sortowania, po jednej na algorytm.
+ * <p>
+ * Strategie są bezstanowe (stan sortowania żyje w zmiennych lokalnych wywołania), więc jedna instancja
+ * może obsługiwać wiele wątków jednocześnie i nie trzeba jej tworzyć dla każdego żądania. Rejestr
+ * z wbudowanymi algorytmami zwraca {@link #defaults()}; aplikacja udostępnia go jako komponent Springa.
+ * Rejestr jest bezpieczny wątkowo.
+ */
+public class StrategyRegistry {
+
+    private static final StrategyRegistry DEFAULTS = createDefaults();
+
+    private final Map<String, SortingStrategy> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * Zwraca współdzielony rejestr z algorytmami z {@link SortingMadness#ALGORITHMS}.
+     *
+     * @return rejestr wbudowanych strategii
+     */
+    public static StrategyRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    private static StrategyRegistry createDefaults() {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("bubble", new BubbleSort());
+        registry.register("insertion", new InsertionSort());
+        registry.register("selection", new SelectionSort());
+        registry.register("quick", new QuickSort());
+        registry.register("merge", new MergeSort());
+        registry.register("counting", new CountingSort());
+        registry.register("inplace-merge", new InPlaceMergeSort());
+        registry.register("network", new NetworkSort());
+        return registry;
+    }
+
+    /**
+     * Rejestruje strategię pod podaną nazwą, zastępując poprzednią.
+     *
+     * @param algorithm nazwa algorytmu
+     * @param strategy  bezstanowa, bezpieczna wątkowo strategia
+     */
+    public void register(String algorithm, SortingStrategy strategy) {
+        strategies.put(algorithm.toLowerCase(), strategy);
+    }
+
+    /**
+     * Zwraca strategię o podanej nazwie (wielkość liter nie ma znaczenia).
+     *
+     * @param algorithm nazwa algorytmu
+     * @return współdzielona instancja strategii
+     * @throws IllegalArgumentException jeśli nazwa algorytmu jest nierozpoznana
+     */
+    public SortingStrategy get(String algorithm) {
+        SortingStrategy strategy = strategies.get(algorithm.toLowerCase());
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown sorting algorithm: " + algorithm);
+        }
+        return strategy;
+    }
+
+    /**
+     * Zwraca nazwy zarejestrowanych algorytmów.
+     *
+     * @return niemodyfikowalny zbiór nazw
+     */
+    public Set<String> names() {
+        return Set.copyOf(strategies.keySet());
+    }
+}
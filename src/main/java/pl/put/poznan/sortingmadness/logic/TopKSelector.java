@@ -0,0 +1,146 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Wybór okna {@code [offset, offset + limit)} posortowanych danych bez sortowania całości.
+ * <p>
+ * Kopiec o ograniczonym rozmiarze k = offset + limit przechowuje indeksy k najlepszych dotąd elementów,
+ * z najgorszym na szczycie; każdy kolejny element jest porównywany ze szczytem i ewentualnie go zastępuje.
+ * Daje to O(n log k) porównań i O(k) dodatkowej pamięci (tablica indeksów z {@link ScratchArena}).
+ * Przy równych elementach wcześniejszy na wejściu ma pierwszeństwo, więc wynik jest taki sam jak
+ * odpowiedni fragment wyniku stabilnego sortowania.
+ * <p>
+ * Iteracją jest jedno porównanie; co {@link SortingContext#CHECKPOINT_INTERVAL} iteracji wywoływany
+ * jest {@link SortingContext#checkpoint(long)}.
+ */
+public final class TopKSelector {
+
+    /** Największy ułamek danych, dla którego wybór przez kopiec jest opłacalny w porównaniu z pełnym sortowaniem. */
+    public static final double MAX_FRACTION = 0.125;
+
+    private TopKSelector() {
+    }
+
+    /**
+     * Sprawdza, czy okno jest na tyle małe względem danych, że opłaca się wybór przez kopiec.
+     *
+     * @param size   liczba elementów
+     * @param offset liczba pomijanych elementów
+     * @param limit  liczba zwracanych elementów
+     * @return {@code true}, jeśli offset + limit nie przekracza {@link #MAX_FRACTION} danych
+     */
+    public static boolean isWorthwhile(int size, int offset, int limit) {
+        return (long) offset + limit <= size * MAX_FRACTION;
+    }
+
+    /**
+     * Zwraca posortowane okno danych.
+     *
+     * @param data       dane; nie są modyfikowane
+     * @param comparator porządek sortowania (z uwzględnieniem kierunku)
+     * @param offset     liczba pomijanych pierwszych elementów
+     * @param limit      maksymalna liczba zwracanych elementów
+     * @param <T>        typ elementów
+     * @return elementy od pozycji {@code offset} do {@code offset + limit} (wyłącznie) posortowanych danych
+     */
+    public static <T> List<T> select(List<T> data, Comparator<? super T> comparator, int offset, int limit) {
+        int n = data.size();
+        int k = (int) Math.min(n, (long) offset + limit);
+        if (k <= offset) {
+            return new ArrayList<>();
+        }
+        ScratchArena arena = ScratchArena.current();
+        int[] heap = arena.borrowInts(k);
+        try {
+            Heap<T> selector = new Heap<>(data, comparator, heap);
+            for (int i = 0; i < n; i++) {
+                selector.offer(i, k);
+            }
+            // Popping the worst element k times leaves the heap array in sorted order.
+            for (int size = k - 1; size > 0; size--) {
+                int worst = heap[0];
+                heap[0] = heap[size];
+                selector.siftDown(0, size);
+                heap[size] = worst;
+            }
+            List<T> window = new ArrayList<>(k - offset);
+            for (int i = offset; i < k; i++) {
+                window.add(data.get(heap[i]));
+            }
+            return window;
+        } finally {
+            arena.release(heap);
+        }
+    }
+
+    /**
+     * Kopiec indeksów z najgorszym elementem na szczycie.
+     */
+    private static final class Heap<T> {
+        private final List<T> data;
+        private final Comparator<? super T> comparator;
+        private final int[] heap;
+        private int size;
+        private long iterations;
+
+        Heap(List<T> data, Comparator<? super T> comparator, int[] heap) {
+            this.data = data;
+            this.comparator = comparator;
+            this.heap = heap;
+        }
+
+        void offer(int index, int capacity) {
+            if (size < capacity) {
+                heap[size] = index;
+                siftUp(size++);
+            } else if (worse(heap[0], index)) {
+                heap[0] = index;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(int position) {
+            int index = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!worse(index, heap[parent])) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                position = parent;
+            }
+            heap[position] = index;
+        }
+
+        void siftDown(int position, int size) {
+            int index = heap[position];
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && worse(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!worse(heap[child], index)) {
+                    break;
+                }
+                heap[position] = heap[child];
+                position = child;
+            }
+            heap[position] = index;
+        }
+
+        /**
+         * Sprawdza, czy element {@code a} jest w porządku wyniku dalej niż {@code b}; remisy rozstrzyga pozycja wejściowa.
+         */
+        private boolean worse(int a, int b) {
+            if (SortingContext.isCheckpoint(++iterations)) {
+                SortingContext.checkpoint(iterations);
+            }
+            int comparison = comparator.compare(data.get(a), data.get(b));
+            return comparison > 0 || (comparison == 0 && a > b);
+        }
+    }
+}
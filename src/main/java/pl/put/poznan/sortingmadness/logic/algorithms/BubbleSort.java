@@ -2,6 +2,7 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.ArrayList;
@@ -54,6 +55,9 @@ public class BubbleSort implements SortingStrategy {
                 }
 
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
 
                 if (iterations >= maxIterations && maxIterations > 0) {
                     break;
@@ -153,6 +157,9 @@ public class BubbleSort implements SortingStrategy {
                     swapped = true;
                 }
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
 
             if (iterations >= maxIterations && maxIterations > 0) {
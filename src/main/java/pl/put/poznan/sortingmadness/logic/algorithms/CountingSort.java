@@ -2,6 +2,7 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.ArrayList;
@@ -59,6 +60,7 @@ public class CountingSort implements SortingStrategy {
 
         // Rekonstrukcja posortowanej listy na podstawie priorytetu kluczy
         List<Map<String, E>> sortedData = new ArrayList<>(data);
+        long iterations = 0;
         for (int level = keys.size() - 1; level >= 0; level--) {
             String currentKey = keys.get(level);
             List<E> sortedKeys = sortedKeysList.get(level);
@@ -69,6 +71,9 @@ public class CountingSort implements SortingStrategy {
                     if (entry.get(currentKey).equals(sortedKey)) {
                         tempData.add(entry);
                     }
+                    if (SortingContext.isCheckpoint(++iterations)) {
+                        SortingContext.checkpoint(iterations);
+                    }
                 }
             }
             sortedData = tempData;
@@ -122,6 +127,9 @@ public class CountingSort implements SortingStrategy {
                 sortedData.add(sortedKey);
                 count--;
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
             if (iterations == maxIterations && maxIterations > 0) break;
         }
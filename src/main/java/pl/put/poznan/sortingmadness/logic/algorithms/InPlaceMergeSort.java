@@ -0,0 +1,261 @@
+package pl.put.poznan.sortingmadness.logic.algorithms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingStrategy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa implementująca stabilne sortowanie przez scalanie w miejscu (SymMerge).
+ * <p>
+ * Dane są dzielone na bloki po {@link #BLOCK_SIZE} elementów sortowane przez wstawianie, a następnie scalane
+ * parami o podwajającym się rozmiarze algorytmem SymMerge (Kim, Kutzner), który scala dwie posortowane
+ * części zamianami i rotacjami zamiast listy pomocniczej. Dodatkowa pamięć to tylko stos rekurencji
+ * O(log n), kosztem O(n log² n) operacji zamiany - w przeciwieństwie do {@link MergeSort}, które potrzebuje
+ * dwóch tablic rozmiaru danych. Przy równych elementach zachowana jest kolejność wejściowa.
+ * <p>
+ * Lista jest sortowana w miejscu i zwracana jako wynik, więc musi pozwalać na {@link List#set(int, Object)}
+ * i szybki dostęp swobodny.
+ */
+public class InPlaceMergeSort implements SortingStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(InPlaceMergeSort.class);
+
+    /** Rozmiar bloków sortowanych przez wstawianie przed scalaniem. */
+    static final int BLOCK_SIZE = 20;
+
+    /**
+     * Sortuje listę map według podanych kluczy i kierunku, w miejscu.
+     *
+     * @param data          lista map zawierających dane do posortowania
+     * @param keys          klucze określające priorytet sortowania
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba porównań; 0 oznacza brak limitu
+     * @param <E>           typ wartości w mapach, który musi być porównywalny
+     * @return mapa z wynikami, zawierająca posortowaną listę danych oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException jeśli któryś rekord nie zawiera klucza
+     */
+    @Override
+    public <E extends Comparable<E>> Map<String, Object> sort(List<Map<String, E>> data, List<String> keys, String direction, int maxIterations) {
+        logger.info("Starting InPlaceMergeSort with keys: {}, direction: {}, maxIterations: {}", keys, direction, maxIterations);
+        Comparator<Map<String, E>> comparator = (map1, map2) -> compareByKeys(map1, map2, keys);
+        return run(data, "desc".equalsIgnoreCase(direction) ? comparator.reversed() : comparator, maxIterations);
+    }
+
+    /**
+     * Sortuje listę elementów w miejscu.
+     *
+     * @param data          lista danych do posortowania
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba porównań; 0 oznacza brak limitu
+     * @param <E>           typ elementów na liście, który musi być porównywalny
+     * @return mapa z wynikami, zawierająca posortowaną listę danych oraz czas wykonania w milisekundach
+     */
+    @Override
+    public <E extends Comparable<E>> Map<String, Object> sortList(List<E> data, String direction, int maxIterations) {
+        logger.info("Starting InPlaceMergeSort with direction: {}, maxIterations: {}", direction, maxIterations);
+        Comparator<E> comparator = Comparable::compareTo;
+        return run(data, "desc".equalsIgnoreCase(direction) ? comparator.reversed() : comparator, maxIterations);
+    }
+
+    private <T> Map<String, Object> run(List<T> data, Comparator<? super T> comparator, int maxIterations) {
+        long startTime = System.nanoTime();
+        new Sorter<>(data, comparator, maxIterations).sort();
+        long duration = System.nanoTime() - startTime;
+        logger.info("InPlaceMergeSort completed in {} ms.", duration / 1_000_000.0);
+
+        return Map.of(
+                "sortedData", data,
+                "executionTime", duration / 1_000_000.0
+        );
+    }
+
+    /**
+     * Porównuje dwie mapy według listy kluczy w kolejności priorytetu.
+     *
+     * @param map1 pierwsza mapa
+     * @param map2 druga mapa
+     * @param keys klucze określające priorytet porównania
+     * @return wynik porównania
+     * @throws IllegalArgumentException jeśli któraś mapa nie zawiera klucza
+     */
+    private static <E extends Comparable<E>> int compareByKeys(Map<String, E> map1, Map<String, E> map2, List<String> keys) {
+        for (String key : keys) {
+            E value1 = map1.get(key);
+            E value2 = map2.get(key);
+
+            if (value1 == null || value2 == null) {
+                throw new IllegalArgumentException("Key not found in one of the maps: " + key);
+            }
+
+            int comparison = value1.compareTo(value2);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stan jednego sortowania: lista, porządek i licznik porównań.
+     */
+    private static class Sorter<T> {
+        private final List<T> data;
+        private final Comparator<? super T> comparator;
+        private final int maxIterations;
+        private long iterations;
+
+        Sorter(List<T> data, Comparator<? super T> comparator, int maxIterations) {
+            this.data = data;
+            this.comparator = comparator;
+            this.maxIterations = maxIterations;
+        }
+
+        void sort() {
+            int n = data.size();
+            int from = 0;
+            for (int to = BLOCK_SIZE; to <= n; to += BLOCK_SIZE) {
+                insertionSort(from, to);
+                from = to;
+            }
+            insertionSort(from, n);
+
+            for (int blockSize = BLOCK_SIZE; blockSize < n && !exhausted(); blockSize *= 2) {
+                int a = 0;
+                for (int b = 2 * blockSize; b <= n; b += 2 * blockSize) {
+                    symMerge(a, a + blockSize, b);
+                    a = b;
+                }
+                if (a + blockSize < n) {
+                    symMerge(a, a + blockSize, n);
+                }
+            }
+        }
+
+        private boolean exhausted() {
+            return maxIterations > 0 && iterations >= maxIterations;
+        }
+
+        private boolean less(int i, int j) {
+            if (SortingContext.isCheckpoint(++iterations)) {
+                SortingContext.checkpoint(iterations);
+            }
+            return comparator.compare(data.get(i), data.get(j)) < 0;
+        }
+
+        private void swap(int i, int j) {
+            T value = data.get(i);
+            data.set(i, data.get(j));
+            data.set(j, value);
+        }
+
+        private void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to && !exhausted(); i++) {
+                for (int j = i; j > from && less(j, j - 1); j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        /**
+         * Scala posortowane części [a, m) i [m, b) w miejscu.
+         */
+        private void symMerge(int a, int m, int b) {
+            if (exhausted()) {
+                return;
+            }
+            if (m - a == 1) {
+                // Insert data[a] into [m, b) after any equal elements.
+                int i = m;
+                int j = b;
+                while (i < j) {
+                    int h = (i + j) >>> 1;
+                    if (less(h, a)) {
+                        i = h + 1;
+                    } else {
+                        j = h;
+                    }
+                }
+                for (int k = a; k < i - 1; k++) {
+                    swap(k, k + 1);
+                }
+                return;
+            }
+            if (b - m == 1) {
+                // Insert data[m] into [a, m) before any larger elements.
+                int i = a;
+                int j = m;
+                while (i < j) {
+                    int h = (i + j) >>> 1;
+                    if (!less(m, h)) {
+                        i = h + 1;
+                    } else {
+                        j = h;
+                    }
+                }
+                for (int k = m; k > i; k--) {
+                    swap(k, k - 1);
+                }
+                return;
+            }
+
+            int mid = (a + b) >>> 1;
+            int n = mid + m;
+            int start;
+            int r;
+            if (m > mid) {
+                start = n - b;
+                r = mid;
+            } else {
+                start = a;
+                r = m;
+            }
+            int p = n - 1;
+            while (start < r) {
+                int c = (start + r) >>> 1;
+                if (!less(p - c, c)) {
+                    start = c + 1;
+                } else {
+                    r = c;
+                }
+            }
+            int end = n - start;
+            if (start < m && m < end) {
+                rotate(start, m, end);
+            }
+            if (a < start && start < mid) {
+                symMerge(a, start, mid);
+            }
+            if (mid < end && end < b) {
+                symMerge(mid, end, b);
+            }
+        }
+
+        /**
+         * Zamienia miejscami sąsiednie części [a, m) i [m, b) zamianami bloków.
+         */
+        private void rotate(int a, int m, int b) {
+            int i = m - a;
+            int j = b - m;
+            while (i != j) {
+                if (i > j) {
+                    swapRange(m - i, m, j);
+                    i -= j;
+                } else {
+                    swapRange(m - i, m + j - i, i);
+                    j -= i;
+                }
+            }
+            swapRange(m - i, m, i);
+        }
+
+        private void swapRange(int a, int b, int n) {
+            for (int i = 0; i < n; i++) {
+                swap(a + i, b + i);
+            }
+        }
+    }
+}
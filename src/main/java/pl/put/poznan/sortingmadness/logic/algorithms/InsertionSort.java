@@ -2,6 +2,7 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.ArrayList;
@@ -62,6 +63,9 @@ public class InsertionSort implements SortingStrategy {
                 data.set(j + 1, data.get(j));
                 j--;
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
 
             data.set(j + 1, current);
@@ -120,6 +124,9 @@ public class InsertionSort implements SortingStrategy {
                 data.set(j + 1, data.get(j));
                 j--;
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
 
             data.set(j + 1, current);
@@ -2,10 +2,12 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.ScratchArena;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +15,11 @@ import java.util.Map;
  * Klasa implementująca algorytm sortowania przez scalanie (MergeSort).
  * Algorytm dzieli dane na mniejsze podzbiory, sortuje je rekurencyjnie,
  * a następnie scala w posortowaną całość.
+ * <p>
+ * Scalanie odbywa się na dwóch tablicach pożyczanych z {@link ScratchArena} bieżącego wątku (robocza
+ * i pomocnicza), więc poza listą wynikową sortowanie nie alokuje pamięci proporcjonalnej do danych.
+ * Przy pełnym sortowaniu fragmenty o co najwyżej {@link SortingNetworks#MAX_SIZE} elementach są sortowane
+ * stabilnie przez wstawianie zamiast dalszego dzielenia.
  */
 public class MergeSort implements SortingStrategy {
     private static final Logger logger = LoggerFactory.getLogger(MergeSort.class);
@@ -33,8 +40,8 @@ public class MergeSort implements SortingStrategy {
 
         long startTime = System.nanoTime(); // Start time measurement
 
-        // Rekurencyjne sortowanie listy za pomocą MergeSort
-        List<Map<String, E>> sortedData = mergeSort(data, keys, direction, maxIterations);
+        Comparator<Map<String, E>> comparator = (left, right) -> compareByKeys(left, right, keys);
+        List<Map<String, E>> sortedData = sortArray(data, "desc".equalsIgnoreCase(direction) ? comparator.reversed() : comparator, 0);
 
         long duration = System.nanoTime() - startTime; // End time measurement
         logger.info("MergeSort completed in {} ms.", duration / 1_000_000.0);
@@ -46,64 +53,6 @@ public class MergeSort implements SortingStrategy {
         );
     }
 
-    /**
-     * Rekurencyjna metoda MergeSort.
-     *
-     * @param data Lista map do posortowania
-     * @param keys Klucze określające priorytet sortowania
-     * @param direction Kierunek sortowania (asc lub desc)
-     * @param maxIterations Maksymalna liczba iteracji (0 oznacza brak limitu)
-     * @return Posortowana lista map
-     */
-    private <E extends Comparable<E>> List<Map<String, E>> mergeSort(List<Map<String, E>> data, List<String> keys, String direction, int maxIterations) {
-        if (data.size() <= 1) {
-            return data;
-        }
-
-        int mid = data.size() / 2;
-        List<Map<String, E>> left = mergeSort(new ArrayList<>(data.subList(0, mid)), keys, direction, maxIterations);
-        List<Map<String, E>> right = mergeSort(new ArrayList<>(data.subList(mid, data.size())), keys, direction, maxIterations);
-
-        return merge(left, right, keys, direction);
-    }
-
-    /**
-     * Łączy dwie posortowane listy w jedną posortowaną listę.
-     *
-     * @param left Lewa posortowana lista
-     * @param right Prawa posortowana lista
-     * @param keys Klucze określające priorytet sortowania
-     * @param direction Kierunek sortowania (asc lub desc)
-     * @return Posortowana lista
-     */
-    private <E extends Comparable<E>> List<Map<String, E>> merge(List<Map<String, E>> left, List<Map<String, E>> right, List<String> keys, String direction) {
-        List<Map<String, E>> merged = new ArrayList<>();
-        int i = 0, j = 0;
-
-        while (i < left.size() && j < right.size()) {
-            int comparison = compareByKeys(left.get(i), right.get(j), keys);
-            if ("desc".equalsIgnoreCase(direction)) {
-                comparison = -comparison;
-            }
-
-            if (comparison <= 0) {
-                merged.add(left.get(i++));
-            } else {
-                merged.add(right.get(j++));
-            }
-        }
-
-        while (i < left.size()) {
-            merged.add(left.get(i++));
-        }
-
-        while (j < right.size()) {
-            merged.add(right.get(j++));
-        }
-
-        return merged;
-    }
-
     /**
      * Compares two maps based on a list of keys with a priority order.
      *
@@ -155,7 +104,8 @@ public class MergeSort implements SortingStrategy {
         logger.info("Starting MergeSort with direction: {}, maxIterations: {}", direction, maxIterations);
 
         long startTime = System.nanoTime();
-        List<Comparable> sortedData = mergeSort(new ArrayList<>(data), direction, maxIterations, new int[]{0});
+        Comparator<E> comparator = Comparator.naturalOrder();
+        List<E> sortedData = sortArray(data, "desc".equalsIgnoreCase(direction) ? comparator.reversed() : comparator, maxIterations);
         long duration = System.nanoTime() - startTime;
 
         logger.info("MergeSort completed in {} ms.", duration / 1_000_000.0);
@@ -168,56 +118,98 @@ public class MergeSort implements SortingStrategy {
     }
 
     /**
-     * Rekurencyjna metoda implementująca algorytm sortowania przez scalanie.
+     * Kopiuje dane do tablicy roboczej, sortuje ją i zwraca wynik w nowej liście.
      *
-     * @param data          lista danych do posortowania
-     * @param direction     kierunek sortowania: "asc" lub "desc"
+     * @param data          dane do posortowania; nie są modyfikowane
+     * @param comparator    porządek sortowania (z uwzględnieniem kierunku)
+     * @param maxIterations maksymalna liczba porównań; 0 oznacza brak limitu
+     * @param <T>           typ elementów
+     * @return posortowana lista
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> sortArray(List<T> data, Comparator<? super T> comparator, int maxIterations) {
+        int n = data.size();
+        ScratchArena arena = ScratchArena.current();
+        Object[] work = arena.borrowObjects(n);
+        Object[] buffer = arena.borrowObjects(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                work[i] = data.get(i);
+            }
+            mergeSort(work, buffer, 0, n, (Comparator<Object>) comparator, maxIterations, new int[]{0});
+            List<T> sorted = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                sorted.add((T) work[i]);
+            }
+            return sorted;
+        } finally {
+            arena.release(work);
+            arena.release(buffer);
+        }
+    }
+
+    /**
+     * Rekurencyjna metoda implementująca algorytm sortowania przez scalanie na fragmencie tablicy.
+     *
+     * @param work          tablica z danymi; po powrocie fragment jest posortowany
+     * @param buffer        tablica pomocnicza o długości co najmniej {@code high}
+     * @param low           początek fragmentu (włącznie)
+     * @param high          koniec fragmentu (wyłącznie)
+     * @param comparator    porządek sortowania
      * @param maxIterations maksymalna liczba iteracji; 0 oznacza brak limitu
      * @param iterations    licznik wykonanych iteracji (przekazywany przez referencję)
-     * @return posortowana lista danych
      */
-    private <E extends Comparable<E>> List<Comparable> mergeSort(List<Comparable> data, String direction, int maxIterations, int[] iterations) {
-        if (data.size() <= 1) return data;
+    private void mergeSort(Object[] work, Object[] buffer, int low, int high, Comparator<Object> comparator,
+                           int maxIterations, int[] iterations) {
+        if (high - low <= 1) return;
+        if (maxIterations == 0 && high - low <= SortingNetworks.MAX_SIZE) {
+            long before = iterations[0];
+            iterations[0] += SortingNetworks.insertionSort(work, low, high, comparator);
+            if (iterations[0] / SortingContext.CHECKPOINT_INTERVAL != before / SortingContext.CHECKPOINT_INTERVAL) {
+                SortingContext.checkpoint(iterations[0]);
+            }
+            return;
+        }
 
-        int mid = data.size() / 2;
-        List<Comparable> left = mergeSort(data.subList(0, mid), direction, maxIterations, iterations);
-        List<Comparable> right = mergeSort(data.subList(mid, data.size()), direction, maxIterations, iterations);
+        int mid = low + (high - low) / 2;
+        mergeSort(work, buffer, low, mid, comparator, maxIterations, iterations);
+        mergeSort(work, buffer, mid, high, comparator, maxIterations, iterations);
 
-        return merge(left, right, direction, maxIterations, iterations);
+        merge(work, buffer, low, mid, high, comparator, maxIterations, iterations);
     }
 
     /**
-     * Scala dwie posortowane listy w jedną posortowaną listę.
+     * Scala dwa sąsiednie posortowane fragmenty tablicy; przy równych elementach pierwszeństwo ma lewy fragment.
+     * Po wyczerpaniu limitu iteracji pozostałe elementy lewego, a potem prawego fragmentu są dopisywane bez porównań.
      *
-     * @param left          pierwsza posortowana lista
-     * @param right         druga posortowana lista
-     * @param direction     kierunek sortowania: "asc" lub "desc"
+     * @param work          tablica z danymi
+     * @param buffer        tablica pomocnicza
+     * @param low           początek lewego fragmentu
+     * @param mid           początek prawego fragmentu
+     * @param high          koniec prawego fragmentu (wyłącznie)
+     * @param comparator    porządek sortowania
      * @param maxIterations maksymalna liczba iteracji; 0 oznacza brak limitu
      * @param iterations    licznik wykonanych iteracji (przekazywany przez referencję)
-     * @return scalona i posortowana lista
      */
-    private List<Comparable> merge(List<Comparable> left, List<Comparable> right, String direction, int maxIterations, int[] iterations) {
-        List<Comparable> merged = new ArrayList<>();
-        int i = 0, j = 0;
-
-        while (i < left.size() && j < right.size() && (iterations[0] < maxIterations || maxIterations == 0)) {
-            int comparison = left.get(i).compareTo(right.get(j));
-            if ("desc".equalsIgnoreCase(direction)) {
-                comparison = -comparison;
-            }
-
-            if (comparison <= 0) {
-                merged.add(left.get(i++));
+    private void merge(Object[] work, Object[] buffer, int low, int mid, int high, Comparator<Object> comparator,
+                       int maxIterations, int[] iterations) {
+        System.arraycopy(work, low, buffer, low, high - low);
+        int i = low, j = mid, k = low;
+
+        while (i < mid && j < high && (iterations[0] < maxIterations || maxIterations == 0)) {
+            if (comparator.compare(buffer[i], buffer[j]) <= 0) {
+                work[k++] = buffer[i++];
             } else {
-                merged.add(right.get(j++));
+                work[k++] = buffer[j++];
             }
             iterations[0]++;
+            if (SortingContext.isCheckpoint(iterations[0])) {
+                SortingContext.checkpoint(iterations[0]);
+            }
         }
 
         // Append any remaining elements
-        while (i < left.size()) merged.add(left.get(i++));
-        while (j < right.size()) merged.add(right.get(j++));
-
-        return merged;
+        while (i < mid) work[k++] = buffer[i++];
+        while (j < high) work[k++] = buffer[j++];
     }
 }
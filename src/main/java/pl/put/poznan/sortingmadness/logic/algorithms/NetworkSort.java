@@ -0,0 +1,189 @@
+package pl.put.poznan.sortingmadness.logic.algorithms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.ScratchArena;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingStrategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa implementująca sortowanie siecią sortującą ({@link SortingNetworks}).
+ * <p>
+ * Przeznaczona dla bardzo małych danych (do {@link SortingNetworks#MAX_SIZE} elementów), dla których
+ * gotowa sieć wykonuje stałą, najmniejszą znaną tą metodą liczbę porównań bez narzutu rekurencji;
+ * większe dane są sortowane siecią Batchera o O(n log² n) porównaniach. Sortowanie rekordów jest
+ * stabilne: przy równych kluczach o kolejności decyduje pozycja wejściowa rekordu.
+ * <p>
+ * Iteracją jest jeden komparator sieci; po wyczerpaniu {@code maxIterations} pozostałe komparatory
+ * są pomijane. Wynik jest zwracany w nowej liście.
+ */
+public class NetworkSort implements SortingStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkSort.class);
+
+    /**
+     * Sortuje stabilnie listę map według podanych kluczy i kierunku.
+     *
+     * @param data          lista map zawierających dane do posortowania
+     * @param keys          klucze określające priorytet sortowania
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba komparatorów; 0 oznacza brak limitu
+     * @param <E>           typ wartości w mapach, który musi być porównywalny
+     * @return mapa z wynikami, zawierająca posortowaną listę danych oraz czas wykonania w milisekundach
+     * @throws IllegalArgumentException jeśli któryś rekord nie zawiera klucza
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E extends Comparable<E>> Map<String, Object> sort(List<Map<String, E>> data, List<String> keys, String direction, int maxIterations) {
+        logger.info("Starting NetworkSort with keys: {}, direction: {}, maxIterations: {}", keys, direction, maxIterations);
+        long startTime = System.nanoTime();
+
+        Comparator<Map<String, E>> byKeys = (map1, map2) -> compareByKeys(map1, map2, keys);
+        Comparator<Map<String, E>> comparator = "desc".equalsIgnoreCase(direction) ? byKeys.reversed() : byKeys;
+        int n = data.size();
+        ScratchArena arena = ScratchArena.current();
+        Object[] work = arena.borrowObjects(n);
+        int[] positions = arena.borrowInts(n);
+        List<Map<String, E>> sortedData = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                work[i] = data.get(i);
+                positions[i] = i;
+            }
+            run(n, maxIterations, (i, j) -> {
+                int comparison = comparator.compare((Map<String, E>) work[i], (Map<String, E>) work[j]);
+                if (comparison > 0 || (comparison == 0 && positions[i] > positions[j])) {
+                    Object record = work[i];
+                    work[i] = work[j];
+                    work[j] = record;
+                    int position = positions[i];
+                    positions[i] = positions[j];
+                    positions[j] = position;
+                }
+            });
+            for (int i = 0; i < n; i++) {
+                sortedData.add((Map<String, E>) work[i]);
+            }
+        } finally {
+            arena.release(work);
+            arena.release(positions);
+        }
+
+        long duration = System.nanoTime() - startTime;
+        logger.info("NetworkSort completed in {} ms.", duration / 1_000_000.0);
+        return Map.of(
+                "sortedData", sortedData,
+                "executionTime", duration / 1_000_000.0
+        );
+    }
+
+    /**
+     * Sortuje listę elementów siecią sortującą.
+     *
+     * @param data          lista danych do posortowania
+     * @param direction     kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param maxIterations maksymalna liczba komparatorów; 0 oznacza brak limitu
+     * @param <E>           typ elementów na liście, który musi być porównywalny
+     * @return mapa z wynikami, zawierająca posortowaną listę danych oraz czas wykonania w milisekundach
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E extends Comparable<E>> Map<String, Object> sortList(List<E> data, String direction, int maxIterations) {
+        logger.info("Starting NetworkSort with direction: {}, maxIterations: {}", direction, maxIterations);
+        long startTime = System.nanoTime();
+
+        Comparator<E> natural = Comparator.naturalOrder();
+        Comparator<E> comparator = "desc".equalsIgnoreCase(direction) ? natural.reversed() : natural;
+        int n = data.size();
+        ScratchArena arena = ScratchArena.current();
+        Object[] work = arena.borrowObjects(n);
+        List<E> sortedData = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                work[i] = data.get(i);
+            }
+            if (maxIterations == 0 && n <= SortingNetworks.MAX_SIZE) {
+                SortingNetworks.sort(work, 0, n, comparator);
+            } else {
+                run(n, maxIterations, (i, j) -> {
+                    E a = (E) work[i];
+                    E b = (E) work[j];
+                    if (comparator.compare(a, b) > 0) {
+                        work[i] = b;
+                        work[j] = a;
+                    }
+                });
+            }
+            for (int i = 0; i < n; i++) {
+                sortedData.add((E) work[i]);
+            }
+        } finally {
+            arena.release(work);
+        }
+
+        long duration = System.nanoTime() - startTime;
+        logger.info("NetworkSort completed in {} ms.", duration / 1_000_000.0);
+        return Map.of(
+                "sortedData", sortedData,
+                "executionTime", duration / 1_000_000.0
+        );
+    }
+
+    /**
+     * Wykonuje komparatory sieci dla {@code n} wejść, licząc iteracje i zatrzymując się po limicie.
+     *
+     * @param n             liczba wejść
+     * @param maxIterations maksymalna liczba komparatorów; 0 oznacza brak limitu
+     * @param exchange      operacja porównania i zamiany pary pozycji
+     */
+    private static void run(int n, int maxIterations, SortingNetworks.ComparatorVisitor exchange) {
+        long[] iterations = {0};
+        if (n <= SortingNetworks.MAX_SIZE) {
+            int[] network = SortingNetworks.network(n);
+            for (int c = 0; c < network.length && (maxIterations == 0 || iterations[0] < maxIterations); c += 2) {
+                exchange.visit(network[c], network[c + 1]);
+                iterations[0]++;
+            }
+            return;
+        }
+        SortingNetworks.forEachComparator(n, (i, j) -> {
+            if (maxIterations > 0 && iterations[0] >= maxIterations) {
+                return;
+            }
+            exchange.visit(i, j);
+            if (SortingContext.isCheckpoint(++iterations[0])) {
+                SortingContext.checkpoint(iterations[0]);
+            }
+        });
+    }
+
+    /**
+     * Porównuje dwie mapy według listy kluczy w kolejności priorytetu.
+     *
+     * @param map1 pierwsza mapa
+     * @param map2 druga mapa
+     * @param keys klucze określające priorytet porównania
+     * @return wynik porównania
+     * @throws IllegalArgumentException jeśli któraś mapa nie zawiera klucza
+     */
+    private static <E extends Comparable<E>> int compareByKeys(Map<String, E> map1, Map<String, E> map2, List<String> keys) {
+        for (String key : keys) {
+            E value1 = map1.get(key);
+            E value2 = map2.get(key);
+
+            if (value1 == null || value2 == null) {
+                throw new IllegalArgumentException("Key not found in one of the maps: " + key);
+            }
+
+            int comparison = value1.compareTo(value2);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+}
@@ -2,9 +2,11 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +14,9 @@ import java.util.Map;
  * Klasa implementująca algorytm sortowania szybkiego (QuickSort).
  * Algorytm QuickSort polega na rekurencyjnym dzieleniu danych na mniejsze kawałki i wywoływaniu sortowania dla każdej części.
  * Następnie elementy są przydzielane do odpowiednich części w oparciu o określony pivot.
+ * <p>
+ * Przy pełnym sortowaniu ({@code maxIterations} równe 0) fragmenty o co najwyżej
+ * {@link SortingNetworks#MAX_SIZE} elementach są sortowane siecią sortującą zamiast dalszego dzielenia.
  */
 public class QuickSort implements SortingStrategy {
     private static final Logger logger = LoggerFactory.getLogger(QuickSort.class);
@@ -56,6 +61,9 @@ public class QuickSort implements SortingStrategy {
      * @return liczba wykonanych iteracji
      */
     private <E extends Comparable<E>> int sortRecursive(List<Map<String, E>> data, int low, int high, List<String> keys, String direction, int maxIterations, int[] iterations) {
+        if (maxIterations == 0 && high - low < SortingNetworks.MAX_SIZE) {
+            return networkSort(data, low, high, (a, b) -> compareValues(a, b, keys), direction, iterations);
+        }
         if (low < high && (iterations[0] < maxIterations || maxIterations == 0)) {
             int pivotIndex = partition(data, low, high, keys, direction, maxIterations, iterations);
 
@@ -65,6 +73,43 @@ public class QuickSort implements SortingStrategy {
         return iterations[0];
     }
 
+    /**
+     * Sortuje fragment o co najwyżej {@link SortingNetworks#MAX_SIZE} elementach siecią sortującą; przypadek
+     * bazowy wspólny dla rekordów i listy elementów.
+     *
+     * @param data       lista zawierająca fragment
+     * @param low        indeks początku fragmentu
+     * @param high       indeks końca fragmentu (włącznie)
+     * @param comparator porządek rosnący elementów
+     * @param direction  kierunek sortowania, "asc" (rosnąco) lub "desc" (malejąco)
+     * @param iterations wskaźnik liczby iteracji
+     * @param <T>        typ elementów
+     * @return liczba wykonanych iteracji
+     */
+    private static <T> int networkSort(List<T> data, int low, int high, Comparator<? super T> comparator, String direction, int[] iterations) {
+        if (low < high) {
+            boolean descending = "desc".equalsIgnoreCase(direction);
+            int[] network = SortingNetworks.network(high - low + 1);
+            for (int c = 0; c < network.length; c += 2) {
+                int i = low + network[c];
+                int j = low + network[c + 1];
+                int comparison = comparator.compare(data.get(i), data.get(j));
+                if (descending) {
+                    comparison = -comparison;
+                }
+                if (comparison > 0) {
+                    T temp = data.get(i);
+                    data.set(i, data.get(j));
+                    data.set(j, temp);
+                }
+                if (SortingContext.isCheckpoint(++iterations[0])) {
+                    SortingContext.checkpoint(iterations[0]);
+                }
+            }
+        }
+        return iterations[0];
+    }
+
     /**
      * Metoda dzieląca dane na podtablice według wyboru pivotu.
      *
@@ -97,6 +142,9 @@ public class QuickSort implements SortingStrategy {
                 data.set(j, temp);
             }
             iterations[0]++;
+            if (SortingContext.isCheckpoint(iterations[0])) {
+                SortingContext.checkpoint(iterations[0]);
+            }
         }
 
         // Swap the pivot into its correct place
@@ -175,6 +223,9 @@ public class QuickSort implements SortingStrategy {
      * @return liczba wykonanych iteracji
      */
     private <E extends Comparable<E>> int sortRecursive(List<E> data, int low, int high, String direction, int maxIterations, int[] iterations) {
+        if (maxIterations == 0 && high - low < SortingNetworks.MAX_SIZE) {
+            return networkSort(data, low, high, Comparator.<E>naturalOrder(), direction, iterations);
+        }
         if (low < high && (iterations[0] < maxIterations || maxIterations == 0)) {
             int pivotIndex = partition(data, low, high, direction, maxIterations, iterations);
 
@@ -222,6 +273,9 @@ public class QuickSort implements SortingStrategy {
                 data.set(j, temp);
             }
             iterations[0]++;
+            if (SortingContext.isCheckpoint(iterations[0])) {
+                SortingContext.checkpoint(iterations[0]);
+            }
         }
 
         // Swap the pivot into its correct place
@@ -2,6 +2,7 @@ package pl.put.poznan.sortingmadness.logic.algorithms;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
 import pl.put.poznan.sortingmadness.logic.SortingStrategy;
 
 import java.util.List;
@@ -55,6 +56,9 @@ public class SelectionSort implements SortingStrategy {
                 data.set(j + 1, data.get(j));
                 j--;
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
 
             data.set(j + 1, current);
@@ -138,6 +142,9 @@ public class SelectionSort implements SortingStrategy {
                     selectedIdx = j;
                 }
                 iterations++;
+                if (SortingContext.isCheckpoint(iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
             }
 
             if (iterations == maxIterations && maxIterations > 0) break;
@@ -0,0 +1,161 @@
+package pl.put.poznan.sortingmadness.logic.algorithms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sieci sortujące i jądra dla bardzo małych fragmentów danych, używane jako przypadek bazowy algorytmów
+ * typu "dziel i zwyciężaj" oraz przez {@link NetworkSort}.
+ * <p>
+ * Sieć to stała sekwencja par indeksów (komparatorów): para {@code (i, j)}, {@code i < j}, ustawia
+ * mniejszy element na pozycji {@code i}. Sekwencja nie zależy od danych, więc dla kluczy prostych
+ * zamiana sprowadza się do {@link Math#min(long, long)} i {@link Math#max(long, long)} bez skoków
+ * warunkowych. Sieci dla rozmiarów do {@link #MAX_SIZE} są wyznaczane raz, metodą scalania
+ * parzysto-nieparzystego Batchera ograniczoną do {@code n} wejść (dla n = 16 to 63 komparatory,
+ * dla n ≤ 8 liczba minimalna).
+ * <p>
+ * Sieci nie są stabilne; stabilne jest jądro sortowania przez wstawianie
+ * {@link #insertionSort(Object[], int, int, Comparator)}.
+ */
+public final class SortingNetworks {
+
+    /** Największy rozmiar fragmentu, dla którego przechowywana jest gotowa sieć. */
+    public static final int MAX_SIZE = 16;
+
+    private static final int[][] NETWORKS = new int[MAX_SIZE + 1][];
+
+    static {
+        for (int n = 0; n <= MAX_SIZE; n++) {
+            List<Integer> pairs = new ArrayList<>();
+            forEachComparator(n, (i, j) -> {
+                pairs.add(i);
+                pairs.add(j);
+            });
+            NETWORKS[n] = pairs.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private SortingNetworks() {
+    }
+
+    /**
+     * Operacja wykonywana dla kolejnych komparatorów sieci.
+     */
+    @FunctionalInterface
+    public interface ComparatorVisitor {
+
+        /**
+         * Obsługuje komparator sieci.
+         *
+         * @param i mniejszy indeks pary
+         * @param j większy indeks pary
+         */
+        void visit(int i, int j);
+    }
+
+    /**
+     * Przechodzi po komparatorach sieci Batchera (scalanie parzysto-nieparzyste) dla {@code n} wejść,
+     * w kolejności ich wykonywania. Sieć ma O(n log² n) komparatorów i nie jest materializowana.
+     *
+     * @param n       liczba wejść
+     * @param visitor operacja wywoływana dla każdej pary
+     */
+    public static void forEachComparator(int n, ComparatorVisitor visitor) {
+        for (int p = 1; p < n; p <<= 1) {
+            for (int k = p; k >= 1; k >>= 1) {
+                for (int j = k % p; j + k < n; j += 2 * k) {
+                    for (int i = 0; i < Math.min(k, n - j - k); i++) {
+                        if ((i + j) / (2 * p) == (i + j + k) / (2 * p)) {
+                            visitor.visit(i + j, i + j + k);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Zwraca sieć dla {@code n} wejść jako kolejne pary indeksów {@code i0, j0, i1, j1, ...}.
+     *
+     * @param n liczba wejść, co najwyżej {@link #MAX_SIZE}
+     * @return współdzielona tablica par; nie wolno jej modyfikować
+     */
+    public static int[] network(int n) {
+        return NETWORKS[n];
+    }
+
+    /**
+     * Sortuje rosnąco fragment tablicy kluczy siecią, bez skoków warunkowych.
+     *
+     * @param keys klucze
+     * @param from początek fragmentu
+     * @param n    długość fragmentu, co najwyżej {@link #MAX_SIZE}
+     */
+    public static void sort(long[] keys, int from, int n) {
+        int[] network = NETWORKS[n];
+        for (int c = 0; c < network.length; c += 2) {
+            int i = from + network[c];
+            int j = from + network[c + 1];
+            long a = keys[i];
+            long b = keys[j];
+            keys[i] = Math.min(a, b);
+            keys[j] = Math.max(a, b);
+        }
+    }
+
+    /**
+     * Sortuje fragment tablicy siecią według komparatora.
+     *
+     * @param data       elementy
+     * @param from       początek fragmentu
+     * @param n          długość fragmentu, co najwyżej {@link #MAX_SIZE}
+     * @param comparator porządek sortowania
+     * @param <T>        typ elementów
+     * @return liczba wykonanych porównań
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int sort(Object[] data, int from, int n, Comparator<? super T> comparator) {
+        int[] network = NETWORKS[n];
+        for (int c = 0; c < network.length; c += 2) {
+            int i = from + network[c];
+            int j = from + network[c + 1];
+            Object a = data[i];
+            Object b = data[j];
+            if (comparator.compare((T) a, (T) b) > 0) {
+                data[i] = b;
+                data[j] = a;
+            }
+        }
+        return network.length / 2;
+    }
+
+    /**
+     * Sortuje stabilnie fragment tablicy przez wstawianie.
+     *
+     * @param data       elementy
+     * @param from       początek fragmentu (włącznie)
+     * @param to         koniec fragmentu (wyłącznie)
+     * @param comparator porządek sortowania
+     * @param <T>        typ elementów
+     * @return liczba wykonanych porównań
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int insertionSort(Object[] data, int from, int to, Comparator<? super T> comparator) {
+        int comparisons = 0;
+        for (int i = from + 1; i < to; i++) {
+            Object value = data[i];
+            int j = i - 1;
+            while (j >= from) {
+                comparisons++;
+                if (comparator.compare((T) data[j], (T) value) <= 0) {
+                    break;
+                }
+                data[j + 1] = data[j];
+                j--;
+            }
+            data[j + 1] = value;
+        }
+        return comparisons;
+    }
+}
@@ -0,0 +1,186 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingStrategy;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Porównuje algorytmy sortowania na tych samych danych w sposób statystycznie uzasadniony.
+ * <p>
+ * Każdy algorytm jest najpierw rozgrzewany (pozwalając JIT skompilować ścieżki krytyczne), a następnie
+ * mierzony wielokrotnie na niezależnych kopiach danych. Pomiary kolejnych algorytmów są przeplatane
+ * w rundach, aby dryf stanu maszyny (GC, częstotliwość CPU) rozkładał się równomiernie na wszystkich
+ * uczestników. Kopiowanie danych nie wlicza się do mierzonego czasu.
+ * <p>
+ * Jeśli podano {@link SortingContext}, wszystkie przebiegi wykonują się z aktywnym kontekstem, więc jego
+ * termin lub anulowanie przerywa także trwające sortowanie w najbliższym punkcie kontrolnym strategii.
+ */
+public class AlgorithmRace {
+    private static final Logger logger = LoggerFactory.getLogger(AlgorithmRace.class);
+
+    private final SortingMadness sortingMadness;
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final SortingContext context;
+
+    /**
+     * Tworzy wyścig o podanej liczbie iteracji rozgrzewkowych i pomiarowych.
+     *
+     * @param sortingMadness        źródło strategii sortowania
+     * @param warmupIterations      liczba nie mierzonych przebiegów każdego algorytmu
+     * @param measurementIterations liczba mierzonych przebiegów każdego algorytmu (co najmniej 1)
+     * @throws IllegalArgumentException jeśli liczby iteracji są niepoprawne
+     */
+    public AlgorithmRace(SortingMadness sortingMadness, int warmupIterations, int measurementIterations) {
+        this(sortingMadness, warmupIterations, measurementIterations, null);
+    }
+
+    /**
+     * Tworzy wyścig wykonywany w kontekście z terminem i anulowaniem.
+     *
+     * @param sortingMadness        źródło strategii sortowania
+     * @param warmupIterations      liczba nie mierzonych przebiegów każdego algorytmu
+     * @param measurementIterations liczba mierzonych przebiegów każdego algorytmu (co najmniej 1)
+     * @param context               kontekst wykonania wyścigu; może być {@code null}
+     * @throws IllegalArgumentException jeśli liczby iteracji są niepoprawne
+     */
+    public AlgorithmRace(SortingMadness sortingMadness, int warmupIterations, int measurementIterations, SortingContext context) {
+        if (warmupIterations < 0 || measurementIterations < 1) {
+            throw new IllegalArgumentException("Warm-up iterations must be >= 0 and measurement iterations >= 1.");
+        }
+        this.sortingMadness = sortingMadness;
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.context = context;
+    }
+
+    /**
+     * Przeprowadza wyścig algorytmów dla listy elementów porównywalnych.
+     *
+     * @param data       dane wejściowe; nie są modyfikowane
+     * @param algorithms nazwy algorytmów biorących udział w wyścigu
+     * @param direction  kierunek sortowania: "ASC" lub "DESC"
+     * @return wynik wyścigu
+     * @throws SortingCancelledException jeśli kontekst wyścigu anulowano lub minął jego termin
+     */
+    @SuppressWarnings("rawtypes")
+    public RaceResult raceList(List<Comparable> data, List<String> algorithms, String direction) {
+        return race(algorithms, () -> new ArrayList<>(data),
+                (strategy, copy) -> strategy.sortList(copy, direction, 0));
+    }
+
+    /**
+     * Przeprowadza wyścig algorytmów dla listy map sortowanych według kluczy.
+     *
+     * @param data       dane wejściowe; nie są modyfikowane
+     * @param keys       klucze sortowania w kolejności priorytetu
+     * @param algorithms nazwy algorytmów biorących udział w wyścigu
+     * @param direction  kierunek sortowania: "ASC" lub "DESC"
+     * @return wynik wyścigu
+     * @throws SortingCancelledException jeśli kontekst wyścigu anulowano lub minął jego termin
+     */
+    @SuppressWarnings("rawtypes")
+    public RaceResult raceData(List<Map<String, Comparable>> data, List<String> keys, List<String> algorithms, String direction) {
+        return race(algorithms, () -> new ArrayList<>(data),
+                (strategy, copy) -> strategy.sort(copy, keys, direction, 0));
+    }
+
+    /**
+     * Wykonuje wyścig z aktywnym kontekstem, jeśli go podano.
+     */
+    @SuppressWarnings("try")
+    private <T> RaceResult race(List<String> algorithms, Supplier<T> inputCopy, BiConsumer<SortingStrategy, T> sorter) {
+        if (context == null) {
+            return runRace(algorithms, inputCopy, sorter);
+        }
+        context.throwIfCancelled();
+        try (SortingContext.Scope ignored = context.activate()) {
+            return runRace(algorithms, inputCopy, (strategy, copy) -> {
+                // Strategies only check the context every CHECKPOINT_INTERVAL iterations; small runs are checked here.
+                context.throwIfCancelled();
+                sorter.accept(strategy, copy);
+            });
+        }
+    }
+
+    /**
+     * Wspólna pętla wyścigu: rozgrzewka, przeplatane rundy pomiarowe i wyliczenie statystyk.
+     */
+    private <T> RaceResult runRace(List<String> algorithms, Supplier<T> inputCopy, BiConsumer<SortingStrategy, T> sorter) {
+        if (algorithms == null || algorithms.isEmpty()) {
+            throw new IllegalArgumentException("At least one algorithm is required for a race.");
+        }
+        Map<String, SortingStrategy> strategies = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            strategies.put(algorithm, sortingMadness.getStrategy(algorithm));
+        }
+        logger.info("Starting race of {} with {} warm-up and {} measurement iterations",
+                strategies.keySet(), warmupIterations, measurementIterations);
+
+        for (Map.Entry<String, SortingStrategy> entry : strategies.entrySet()) {
+            for (int i = 0; i < warmupIterations; i++) {
+                sorter.accept(entry.getValue(), inputCopy.get());
+            }
+        }
+
+        Map<String, double[]> times = new LinkedHashMap<>();
+        Map<String, long[]> gc = new LinkedHashMap<>();
+        for (String algorithm : strategies.keySet()) {
+            times.put(algorithm, new double[measurementIterations]);
+            gc.put(algorithm, new long[2]);
+        }
+
+        for (int round = 0; round < measurementIterations; round++) {
+            for (Map.Entry<String, SortingStrategy> entry : strategies.entrySet()) {
+                T copy = inputCopy.get();
+                long gcTimeBefore = totalGcTime();
+                long gcCountBefore = totalGcCount();
+                long start = System.nanoTime();
+                sorter.accept(entry.getValue(), copy);
+                long duration = System.nanoTime() - start;
+
+                long[] gcTotals = gc.get(entry.getKey());
+                gcTotals[0] += totalGcTime() - gcTimeBefore;
+                gcTotals[1] += totalGcCount() - gcCountBefore;
+                times.get(entry.getKey())[round] = duration / 1_000_000.0;
+            }
+        }
+
+        List<RaceResult.Entry> entries = new ArrayList<>();
+        for (String algorithm : strategies.keySet()) {
+            long[] gcTotals = gc.get(algorithm);
+            entries.add(new RaceResult.Entry(algorithm, new SampleStatistics(times.get(algorithm)), gcTotals[0], gcTotals[1]));
+        }
+        RaceResult result = new RaceResult(entries, warmupIterations, measurementIterations);
+        logger.info("Race finished, fastest: {} (significant: {})", result.getFastest(), result.isFastestSignificant());
+        return result;
+    }
+
+    private static long totalGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, bean.getCollectionCount());
+        }
+        return total;
+    }
+}
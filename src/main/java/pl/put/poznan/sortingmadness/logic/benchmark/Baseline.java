@@ -0,0 +1,160 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zapis przebiegu benchmarku: surowe czasy każdego algorytmu dla każdego kształtu i rozmiaru danych.
+ * <p>
+ * Pliki bazowe przechowywane są w repozytorium (domyślnie w {@code benchmarks/baselines}) i porównywane
+ * z nowymi przebiegami przez {@link RegressionAnalyzer}. Pole {@code formatVersion} pozwala wykryć pliki
+ * zapisane w niezgodnym formacie.
+ */
+public class Baseline {
+
+    /** Bieżąca wersja formatu pliku bazowego. */
+    public static final int FORMAT_VERSION = 1;
+
+    private int formatVersion = FORMAT_VERSION;
+    private String createdAt;
+    private String javaVersion;
+    private String revision;
+    private int warmupIterations;
+    private int measurementIterations;
+    private List<Measurement> measurements = new ArrayList<>();
+
+    /**
+     * Wyszukuje pomiar dla podanego przypadku.
+     *
+     * @param algorithm nazwa algorytmu
+     * @param shape     kształt danych
+     * @param size      rozmiar danych
+     * @return pomiar lub {@code null}, jeśli przypadek nie był mierzony
+     */
+    public Measurement find(String algorithm, DatasetShape shape, int size) {
+        for (Measurement measurement : measurements) {
+            if (measurement.getAlgorithm().equals(algorithm) && measurement.getShape() == shape && measurement.getSize() == size) {
+                return measurement;
+            }
+        }
+        return null;
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public void setFormatVersion(int formatVersion) {
+        this.formatVersion = formatVersion;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getJavaVersion() {
+        return javaVersion;
+    }
+
+    public void setJavaVersion(String javaVersion) {
+        this.javaVersion = javaVersion;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    public void setMeasurementIterations(int measurementIterations) {
+        this.measurementIterations = measurementIterations;
+    }
+
+    public List<Measurement> getMeasurements() {
+        return measurements;
+    }
+
+    public void setMeasurements(List<Measurement> measurements) {
+        this.measurements = measurements;
+    }
+
+    /**
+     * Surowe czasy jednego algorytmu dla jednego kształtu i rozmiaru danych.
+     */
+    public static class Measurement {
+        private String algorithm;
+        private DatasetShape shape;
+        private int size;
+        private double[] timesMs;
+
+        public Measurement() {
+        }
+
+        /**
+         * Tworzy pomiar.
+         *
+         * @param algorithm nazwa algorytmu
+         * @param shape     kształt danych
+         * @param size      rozmiar danych
+         * @param timesMs   czasy kolejnych przebiegów w milisekundach
+         */
+        public Measurement(String algorithm, DatasetShape shape, int size, double[] timesMs) {
+            this.algorithm = algorithm;
+            this.shape = shape;
+            this.size = size;
+            this.timesMs = timesMs;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public DatasetShape getShape() {
+            return shape;
+        }
+
+        public void setShape(DatasetShape shape) {
+            this.shape = shape;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public double[] getTimesMs() {
+            return timesMs;
+        }
+
+        public void setTimesMs(double[] timesMs) {
+            this.timesMs = timesMs;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Odczytuje i zapisuje pliki bazowe benchmarku w formacie JSON.
+ * <p>
+ * Pliki zapisywane są z wcięciami, aby zmiany linii bazowej były czytelne w przeglądzie kodu.
+ */
+public class BaselineStore {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Zapisuje linię bazową, tworząc brakujące katalogi.
+     *
+     * @param baseline linia bazowa
+     * @param file     plik docelowy
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    public void save(Baseline baseline, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writeValue(file.toFile(), baseline);
+    }
+
+    /**
+     * Wczytuje linię bazową.
+     *
+     * @param file plik z linią bazową
+     * @return wczytana linia bazowa
+     * @throws IOException              jeśli odczyt się nie powiedzie
+     * @throws IllegalArgumentException jeśli plik zapisano w nieobsługiwanej wersji formatu
+     */
+    public Baseline load(Path file) throws IOException {
+        Baseline baseline = objectMapper.readValue(file.toFile(), Baseline.class);
+        if (baseline.getFormatVersion() != Baseline.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported baseline format version " + baseline.getFormatVersion()
+                    + " in " + file + ", expected " + Baseline.FORMAT_VERSION + ".");
+        }
+        return baseline;
+    }
+}
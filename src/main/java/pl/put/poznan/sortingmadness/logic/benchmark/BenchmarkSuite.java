@@ -0,0 +1,111 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wbudowany zestaw benchmarków: wyścig algorytmów dla każdej kombinacji kształtu i rozmiaru danych.
+ * <p>
+ * Algorytmy kwadratowe ("bubble", "insertion", "selection") mierzone są tylko do rozmiaru
+ * {@code quadraticMaxSize}, aby pełny przebieg mieścił się w rozsądnym czasie. Pomiary algorytmów
+ * dla tych samych danych są przeplatane (patrz {@link AlgorithmRace}); algorytm, który zawodzi
+ * dla danego przypadku, jest dla niego pomijany.
+ */
+public class BenchmarkSuite {
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkSuite.class);
+
+    private static final List<String> QUADRATIC = List.of("bubble", "insertion", "selection");
+
+    private final SortingMadness sortingMadness;
+    private final DatasetGenerator generator = new DatasetGenerator();
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final int quadraticMaxSize;
+
+    /**
+     * Tworzy zestaw benchmarków.
+     *
+     * @param sortingMadness        źródło strategii sortowania
+     * @param warmupIterations      liczba przebiegów rozgrzewkowych każdego algorytmu
+     * @param measurementIterations liczba mierzonych przebiegów każdego algorytmu
+     * @param quadraticMaxSize      największy rozmiar danych, dla którego mierzone są algorytmy kwadratowe
+     */
+    public BenchmarkSuite(SortingMadness sortingMadness, int warmupIterations, int measurementIterations, int quadraticMaxSize) {
+        this.sortingMadness = sortingMadness;
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.quadraticMaxSize = quadraticMaxSize;
+    }
+
+    /**
+     * Wykonuje pomiary dla wszystkich kombinacji kształtów i rozmiarów.
+     *
+     * @param algorithms algorytmy do zmierzenia
+     * @param shapes     kształty danych
+     * @param sizes      rozmiary danych
+     * @param seed       ziarno generatora danych
+     * @return wyniki w postaci linii bazowej
+     */
+    @SuppressWarnings("rawtypes")
+    public Baseline run(List<String> algorithms, List<DatasetShape> shapes, List<Integer> sizes, long seed) {
+        AlgorithmRace race = new AlgorithmRace(sortingMadness, warmupIterations, measurementIterations);
+        Baseline baseline = new Baseline();
+        baseline.setCreatedAt(Instant.now().toString());
+        baseline.setJavaVersion(System.getProperty("java.version"));
+        baseline.setWarmupIterations(warmupIterations);
+        baseline.setMeasurementIterations(measurementIterations);
+
+        for (DatasetShape shape : shapes) {
+            for (int size : sizes) {
+                List<String> eligible = new ArrayList<>();
+                for (String algorithm : algorithms) {
+                    if (!QUADRATIC.contains(algorithm) || size <= quadraticMaxSize) {
+                        eligible.add(algorithm);
+                    }
+                }
+                if (eligible.isEmpty()) {
+                    continue;
+                }
+                List<Comparable> data = generator.generateList(new DatasetSpec(shape, size, seed));
+                List<RaceResult.Entry> entries;
+                try {
+                    entries = race.raceList(data, eligible, "ASC").getEntries();
+                } catch (RuntimeException | StackOverflowError e) {
+                    entries = raceSeparately(race, data, eligible, shape, size);
+                }
+                for (RaceResult.Entry entry : entries) {
+                    SampleStatistics times = entry.getTimeMs();
+                    baseline.getMeasurements().add(new Baseline.Measurement(entry.getAlgorithm(), shape, size, times.getValues()));
+                    logger.info("{} {} n={}: median {} ms", entry.getAlgorithm(), shape, size, times.getMedian());
+                }
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Mierzy algorytmy pojedynczo, gdy wspólny wyścig nie powiódł się, pomijając te,
+     * które nie radzą sobie z danym przypadkiem (np. przepełnienie stosu w QuickSort dla danych posortowanych).
+     */
+    @SuppressWarnings("rawtypes")
+    private List<RaceResult.Entry> raceSeparately(AlgorithmRace race, List<Comparable> data, List<String> algorithms,
+                                                  DatasetShape shape, int size) {
+        List<RaceResult.Entry> entries = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            try {
+                entries.addAll(race.raceList(data, List.of(algorithm), "ASC").getEntries());
+            } catch (RuntimeException | StackOverflowError e) {
+                logger.warn("Skipping {} for {} n={}: {}", algorithm, shape, size, e.getClass().getSimpleName());
+            }
+        }
+        return entries;
+    }
+}
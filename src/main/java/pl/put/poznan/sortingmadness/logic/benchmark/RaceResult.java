@@ -0,0 +1,114 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Wynik wyścigu algorytmów sortowania.
+ * <p>
+ * Zwycięzcą jest algorytm o najniższym średnim czasie. Zwycięstwo uznaje się za istotne statystycznie,
+ * gdy górna granica 95% przedziału ufności zwycięzcy leży poniżej dolnej granicy przedziału drugiego
+ * w kolejności algorytmu.
+ */
+public class RaceResult {
+
+    private final List<Entry> entries;
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final String fastest;
+    private final boolean fastestSignificant;
+
+    /**
+     * Tworzy wynik wyścigu na podstawie statystyk poszczególnych algorytmów.
+     *
+     * @param entries               statystyki algorytmów
+     * @param warmupIterations      liczba iteracji rozgrzewkowych
+     * @param measurementIterations liczba iteracji pomiarowych
+     */
+    public RaceResult(List<Entry> entries, int warmupIterations, int measurementIterations) {
+        this.entries = new ArrayList<>(entries);
+        this.entries.sort(Comparator.comparingDouble(entry -> entry.getTimeMs().getMean()));
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.fastest = this.entries.get(0).getAlgorithm();
+        this.fastestSignificant = this.entries.size() == 1
+                || this.entries.get(0).getTimeMs().getCiUpper() < this.entries.get(1).getTimeMs().getCiLower();
+    }
+
+    /**
+     * Zwraca statystyki algorytmów uporządkowane od najszybszego.
+     *
+     * @return lista statystyk
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    /**
+     * Zwraca nazwę najszybszego algorytmu.
+     *
+     * @return nazwa algorytmu o najniższym średnim czasie
+     */
+    public String getFastest() {
+        return fastest;
+    }
+
+    /**
+     * Określa, czy przewaga zwycięzcy jest istotna statystycznie.
+     *
+     * @return {@code true} jeśli przedziały ufności zwycięzcy i drugiego algorytmu są rozłączne
+     */
+    public boolean isFastestSignificant() {
+        return fastestSignificant;
+    }
+
+    /**
+     * Statystyki pojedynczego uczestnika wyścigu.
+     */
+    public static class Entry {
+        private final String algorithm;
+        private final SampleStatistics timeMs;
+        private final long gcTimeMs;
+        private final long gcCount;
+
+        /**
+         * Tworzy statystyki uczestnika.
+         *
+         * @param algorithm nazwa algorytmu
+         * @param timeMs    statystyki czasu wykonania w milisekundach
+         * @param gcTimeMs  łączny czas GC w trakcie pomiarów w milisekundach
+         * @param gcCount   łączna liczba cykli GC w trakcie pomiarów
+         */
+        public Entry(String algorithm, SampleStatistics timeMs, long gcTimeMs, long gcCount) {
+            this.algorithm = algorithm;
+            this.timeMs = timeMs;
+            this.gcTimeMs = gcTimeMs;
+            this.gcCount = gcCount;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public SampleStatistics getTimeMs() {
+            return timeMs;
+        }
+
+        public long getGcTimeMs() {
+            return gcTimeMs;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+    }
+}
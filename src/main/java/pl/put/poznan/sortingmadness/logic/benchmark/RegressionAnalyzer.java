@@ -0,0 +1,146 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Porównuje nowy przebieg benchmarku z linią bazową dla każdego algorytmu, kształtu i rozmiaru danych.
+ * <p>
+ * Zmianę uznaje się za regresję, gdy jednocześnie: mediana czasu wzrosła o więcej niż {@code threshold}
+ * (np. 0.10 oznacza 10%), a dwustronny test Manna-Whitneya odrzuca hipotezę o równości rozkładów na poziomie
+ * {@code alpha}. Test nieparametryczny jest odporny na typowe dla pomiarów czasu wartości odstające
+ * (pauzy GC, przełączenia kontekstu), a próg względny odfiltrowuje różnice istotne, lecz pomijalne.
+ */
+public class RegressionAnalyzer {
+
+    private final double threshold;
+    private final double alpha;
+
+    /**
+     * Tworzy analizator.
+     *
+     * @param threshold minimalna względna zmiana mediany uznawana za istotną, np. 0.10
+     * @param alpha     poziom istotności testu statystycznego, np. 0.01
+     * @throws IllegalArgumentException jeśli parametry są poza dopuszczalnym zakresem
+     */
+    public RegressionAnalyzer(double threshold, double alpha) {
+        if (threshold < 0 || alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Threshold must be >= 0 and alpha must be in (0, 1).");
+        }
+        this.threshold = threshold;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Porównuje przebieg z linią bazową.
+     *
+     * @param baseline linia bazowa
+     * @param current  nowy przebieg
+     * @return raport z porównaniem każdego przypadku
+     */
+    public RegressionReport compare(Baseline baseline, Baseline current) {
+        List<RegressionReport.Comparison> comparisons = new ArrayList<>();
+        for (Baseline.Measurement now : current.getMeasurements()) {
+            Baseline.Measurement before = baseline.find(now.getAlgorithm(), now.getShape(), now.getSize());
+            double currentMedian = new SampleStatistics(now.getTimesMs()).getMedian();
+            if (before == null) {
+                comparisons.add(new RegressionReport.Comparison(now.getAlgorithm(), now.getShape(), now.getSize(),
+                        Double.NaN, currentMedian, Double.NaN, RegressionReport.Verdict.NEW));
+                continue;
+            }
+            double baselineMedian = new SampleStatistics(before.getTimesMs()).getMedian();
+            double ratio = currentMedian / baselineMedian;
+            double pValue = mannWhitneyPValue(before.getTimesMs(), now.getTimesMs());
+
+            RegressionReport.Verdict verdict = RegressionReport.Verdict.UNCHANGED;
+            if (pValue < alpha && ratio > 1 + threshold) {
+                verdict = RegressionReport.Verdict.REGRESSION;
+            } else if (pValue < alpha && ratio < 1 / (1 + threshold)) {
+                verdict = RegressionReport.Verdict.IMPROVEMENT;
+            }
+            comparisons.add(new RegressionReport.Comparison(now.getAlgorithm(), now.getShape(), now.getSize(),
+                    baselineMedian, currentMedian, pValue, verdict));
+        }
+        for (Baseline.Measurement before : baseline.getMeasurements()) {
+            if (current.find(before.getAlgorithm(), before.getShape(), before.getSize()) == null
+                    && measuredCase(current, before.getShape(), before.getSize())) {
+                comparisons.add(new RegressionReport.Comparison(before.getAlgorithm(), before.getShape(), before.getSize(),
+                        new SampleStatistics(before.getTimesMs()).getMedian(), Double.NaN, Double.NaN,
+                        RegressionReport.Verdict.MISSING));
+            }
+        }
+        return new RegressionReport(comparisons, threshold, alpha);
+    }
+
+    /**
+     * Sprawdza, czy przebieg obejmował dany kształt i rozmiar; przypadki spoza zakresu przebiegu
+     * (np. uruchomionego dla podzbioru rozmiarów) nie są zgłaszane jako brakujące.
+     */
+    private static boolean measuredCase(Baseline run, DatasetShape shape, int size) {
+        return run.getMeasurements().stream()
+                .anyMatch(measurement -> measurement.getShape() == shape && measurement.getSize() == size);
+    }
+
+    /**
+     * Wylicza dwustronną wartość p testu U Manna-Whitneya z przybliżeniem normalnym,
+     * poprawką na ciągłość i korektą wariancji na rangi wiązane.
+     *
+     * @param first  pierwsza próba
+     * @param second druga próba
+     * @return wartość p z zakresu [0, 1]
+     */
+    static double mannWhitneyPValue(double[] first, double[] second) {
+        int n1 = first.length;
+        int n2 = second.length;
+        int n = n1 + n2;
+        double[][] pooled = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[]{first[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[]{second[i], 1};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSumFirst = 0;
+        double tieCorrection = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            double averageRank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (pooled[k][1] == 0) {
+                    rankSumFirst += averageRank;
+                }
+            }
+            double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+
+        double u = rankSumFirst - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0;
+        }
+        double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1.0, 2 * (1 - normalCdf(Math.max(0, z))));
+    }
+
+    /**
+     * Dystrybuanta standardowego rozkładu normalnego (przybliżenie Abramowitza-Stegun 7.1.26).
+     */
+    private static double normalCdf(double z) {
+        double x = z / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-x * x);
+        return 0.5 * (1 + erf);
+    }
+}
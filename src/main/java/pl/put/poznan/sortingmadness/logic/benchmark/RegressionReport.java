@@ -0,0 +1,154 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Wynik porównania przebiegu benchmarku z linią bazową.
+ */
+public class RegressionReport {
+
+    /**
+     * Ocena zmiany wydajności w pojedynczym przypadku.
+     */
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED, NEW, MISSING
+    }
+
+    private final List<Comparison> comparisons;
+    private final double threshold;
+    private final double alpha;
+
+    /**
+     * Tworzy raport.
+     *
+     * @param comparisons porównania poszczególnych przypadków
+     * @param threshold   próg względnej zmiany mediany
+     * @param alpha       poziom istotności
+     */
+    public RegressionReport(List<Comparison> comparisons, double threshold, double alpha) {
+        this.comparisons = new ArrayList<>(comparisons);
+        this.comparisons.sort(Comparator.comparing(Comparison::getVerdict)
+                .thenComparing(Comparison::getAlgorithm)
+                .thenComparing(Comparison::getShape)
+                .thenComparingInt(Comparison::getSize));
+        this.threshold = threshold;
+        this.alpha = alpha;
+    }
+
+    public List<Comparison> getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Sprawdza, czy w którymkolwiek przypadku wykryto regresję.
+     *
+     * @return {@code true} jeśli wykryto co najmniej jedną regresję
+     */
+    public boolean hasRegressions() {
+        return comparisons.stream().anyMatch(comparison -> comparison.getVerdict() == Verdict.REGRESSION);
+    }
+
+    /**
+     * Formatuje raport jako tabelę Markdown, z regresjami na początku.
+     *
+     * @return treść raportu
+     */
+    public String toMarkdown() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# Benchmark regression report\n\n");
+        builder.append(String.format(Locale.ROOT, "Threshold: %.1f%% change of median, significance: Mann-Whitney U, alpha = %s%n%n",
+                threshold * 100, alpha));
+        long regressions = comparisons.stream().filter(comparison -> comparison.getVerdict() == Verdict.REGRESSION).count();
+        builder.append(regressions == 0 ? "**No regressions detected.**\n\n" : "**" + regressions + " regression(s) detected.**\n\n");
+        builder.append("| Verdict | Algorithm | Shape | Size | Baseline median ms | Current median ms | Change | p-value |\n");
+        builder.append("|---|---|---|---:|---:|---:|---:|---:|\n");
+        for (Comparison comparison : comparisons) {
+            builder.append(String.format(Locale.ROOT, "| %s | %s | %s | %d | %s | %s | %s | %s |%n",
+                    comparison.getVerdict(), comparison.getAlgorithm(), comparison.getShape(), comparison.getSize(),
+                    format("%.3f", comparison.getBaselineMedianMs()), format("%.3f", comparison.getCurrentMedianMs()),
+                    format("%+.1f%%", (comparison.getRatio() - 1) * 100), format("%.4f", comparison.getPValue())));
+        }
+        return builder.toString();
+    }
+
+    private static String format(String pattern, double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, pattern, value);
+    }
+
+    /**
+     * Porównanie pojedynczego przypadku: algorytmu, kształtu i rozmiaru danych.
+     */
+    public static class Comparison {
+        private final String algorithm;
+        private final DatasetShape shape;
+        private final int size;
+        private final double baselineMedianMs;
+        private final double currentMedianMs;
+        private final double pValue;
+        private final Verdict verdict;
+
+        /**
+         * Tworzy porównanie.
+         *
+         * @param algorithm        nazwa algorytmu
+         * @param shape            kształt danych
+         * @param size             rozmiar danych
+         * @param baselineMedianMs mediana czasu w linii bazowej ({@code NaN} jeśli brak)
+         * @param currentMedianMs  mediana czasu w nowym przebiegu ({@code NaN} jeśli brak)
+         * @param pValue           wartość p testu ({@code NaN} jeśli nie wykonano)
+         * @param verdict          ocena zmiany
+         */
+        public Comparison(String algorithm, DatasetShape shape, int size, double baselineMedianMs, double currentMedianMs,
+                          double pValue, Verdict verdict) {
+            this.algorithm = algorithm;
+            this.shape = shape;
+            this.size = size;
+            this.baselineMedianMs = baselineMedianMs;
+            this.currentMedianMs = currentMedianMs;
+            this.pValue = pValue;
+            this.verdict = verdict;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public DatasetShape getShape() {
+            return shape;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getBaselineMedianMs() {
+            return baselineMedianMs;
+        }
+
+        public double getCurrentMedianMs() {
+            return currentMedianMs;
+        }
+
+        /**
+         * Zwraca stosunek mediany nowego przebiegu do mediany linii bazowej.
+         *
+         * @return stosunek median; wartość większa od 1 oznacza spowolnienie
+         */
+        public double getRatio() {
+            return currentMedianMs / baselineMedianMs;
+        }
+
+        public double getPValue() {
+            return pValue;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+    }
+}
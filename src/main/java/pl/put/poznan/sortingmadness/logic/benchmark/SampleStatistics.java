@@ -0,0 +1,146 @@
+package pl.put.poznan.sortingmadness.logic.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Arrays;
+
+/**
+ * Statystyki opisowe serii pomiarów czasu wykonania.
+ * <p>
+ * Przedział ufności dla średniej wyznaczany jest z rozkładu t-Studenta na poziomie 95%,
+ * co przy typowej liczbie pomiarów (kilkanaście–kilkadziesiąt) daje uczciwszą ocenę niż
+ * przybliżenie rozkładem normalnym.
+ */
+public class SampleStatistics {
+
+    /** Wartości krytyczne t-Studenta (dwustronnie, 95%) dla 1..30 stopni swobody. */
+    private static final double[] T_CRITICAL_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final double[] sorted;
+    private final int samples;
+    private final double mean;
+    private final double median;
+    private final double p99;
+    private final double min;
+    private final double max;
+    private final double stdDev;
+    private final double ciLower;
+    private final double ciUpper;
+
+    /**
+     * Wylicza statystyki dla podanej serii pomiarów.
+     *
+     * @param values wartości pomiarów (np. czasy w milisekundach)
+     * @throws IllegalArgumentException jeśli seria jest pusta
+     */
+    public SampleStatistics(double[] values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("At least one sample is required.");
+        }
+        this.sorted = values.clone();
+        Arrays.sort(sorted);
+
+        this.samples = sorted.length;
+        double sum = 0;
+        for (double value : sorted) {
+            sum += value;
+        }
+        this.mean = sum / samples;
+
+        double squares = 0;
+        for (double value : sorted) {
+            squares += (value - mean) * (value - mean);
+        }
+        this.stdDev = samples > 1 ? Math.sqrt(squares / (samples - 1)) : 0;
+
+        this.median = percentile(sorted, 50);
+        this.p99 = percentile(sorted, 99);
+        this.min = sorted[0];
+        this.max = sorted[samples - 1];
+
+        double halfWidth = samples > 1 ? tCritical95(samples - 1) * stdDev / Math.sqrt(samples) : 0;
+        this.ciLower = mean - halfWidth;
+        this.ciUpper = mean + halfWidth;
+    }
+
+    /**
+     * Zwraca percentyl z posortowanej serii metodą najbliższej rangi.
+     *
+     * @param sorted     posortowana rosnąco seria
+     * @param percentile percentyl z zakresu (0, 100]
+     * @return wartość percentyla
+     */
+    public static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Zwraca dwustronną wartość krytyczną t-Studenta dla poziomu ufności 95%.
+     *
+     * @param degreesOfFreedom liczba stopni swobody (co najmniej 1)
+     * @return wartość krytyczna
+     */
+    static double tCritical95(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_CRITICAL_95.length) {
+            return T_CRITICAL_95[degreesOfFreedom - 1];
+        }
+        if (degreesOfFreedom <= 60) {
+            return 2.000;
+        }
+        if (degreesOfFreedom <= 120) {
+            return 1.980;
+        }
+        return 1.960;
+    }
+
+    /**
+     * Zwraca kopię pomiarów posortowanych rosnąco, np. na potrzeby testów nieparametrycznych.
+     *
+     * @return posortowane wartości pomiarów
+     */
+    @JsonIgnore
+    public double[] getValues() {
+        return sorted.clone();
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    public double getCiLower() {
+        return ciLower;
+    }
+
+    public double getCiUpper() {
+        return ciUpper;
+    }
+}
@@ -0,0 +1,212 @@
+package pl.put.poznan.sortingmadness.logic.distributed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Podział danych na przedziały do sortowania rozproszonego i łączenie posortowanych części.
+ * <p>
+ * Granice przedziałów (splittery) są kwantylami losowej próbki danych. Element trafia do pierwszego
+ * przedziału, którego granica nie jest od niego mniejsza, więc równe elementy lądują w tym samym
+ * przedziale, a kolejność wejściowa w obrębie przedziału jest zachowana. Posortowane przedziały wystarczy
+ * wtedy połączyć jeden za drugim. Jeśli części na siebie zachodzą (np. dane podzielono na ciągłe kawałki,
+ * bo próbka nie dała sensownych granic), są scalane kopcem; przy równych elementach wygrywa wcześniejsza
+ * część, więc przy podziale na ciągłe kawałki wynik pozostaje stabilny.
+ *
+ * @param <T> typ elementów
+ */
+public class RangePartitioner<T> {
+
+    private final Comparator<? super T> comparator;
+    private final int sampleSize;
+    private final Random random;
+
+    /**
+     * Tworzy obiekt dzielący.
+     *
+     * @param comparator porządek sortowania
+     * @param sampleSize maksymalna liczba elementów próbki
+     * @param random     źródło losowości próbkowania
+     */
+    public RangePartitioner(Comparator<? super T> comparator, int sampleSize, Random random) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive.");
+        }
+        this.comparator = comparator;
+        this.sampleSize = sampleSize;
+        this.random = random;
+    }
+
+    /**
+     * Wyznacza granice przedziałów na podstawie losowej próbki.
+     *
+     * @param data       dane do podziału
+     * @param partitions żądana liczba przedziałów
+     * @return rosnące, różne granice; co najwyżej {@code partitions - 1}, mniej przy wielu powtórzeniach
+     */
+    public List<T> splitters(List<T> data, int partitions) {
+        if (partitions <= 1 || data.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.min(sampleSize, data.size());
+        List<T> sample = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sample.add(data.get(random.nextInt(data.size())));
+        }
+        sample.sort(comparator);
+
+        List<T> splitters = new ArrayList<>(partitions - 1);
+        for (int i = 1; i < partitions; i++) {
+            T candidate = sample.get((int) ((long) i * size / partitions));
+            if (splitters.isEmpty() || comparator.compare(splitters.get(splitters.size() - 1), candidate) < 0) {
+                splitters.add(candidate);
+            }
+        }
+        return splitters;
+    }
+
+    /**
+     * Dzieli dane na przedziały wyznaczone przez granice.
+     *
+     * @param data      dane do podziału
+     * @param splitters rosnące granice z {@link #splitters(List, int)}
+     * @return {@code splitters.size() + 1} przedziałów, każdy w kolejności wejściowej
+     */
+    public List<List<T>> partition(List<T> data, List<T> splitters) {
+        List<List<T>> partitions = new ArrayList<>(splitters.size() + 1);
+        for (int i = 0; i <= splitters.size(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (T element : data) {
+            partitions.get(rangeOf(element, splitters)).add(element);
+        }
+        return partitions;
+    }
+
+    private int rangeOf(T element, List<T> splitters) {
+        int low = 0;
+        int high = splitters.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(element, splitters.get(mid)) <= 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Dzieli dane na ciągłe kawałki o równej długości, bez względu na wartości.
+     *
+     * @param data       dane do podziału
+     * @param partitions liczba kawałków
+     * @return niepuste kawałki w kolejności wejściowej
+     */
+    public static <T> List<List<T>> chunks(List<T> data, int partitions) {
+        List<List<T>> chunks = new ArrayList<>(partitions);
+        int size = data.size();
+        for (int i = 0; i < partitions; i++) {
+            int from = (int) ((long) i * size / partitions);
+            int to = (int) ((long) (i + 1) * size / partitions);
+            if (from < to) {
+                chunks.add(new ArrayList<>(data.subList(from, to)));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Sprawdza, czy posortowane części zachodzą na siebie, tzn. czy któraś zaczyna się przed końcem
+     * poprzedniej niepustej części.
+     *
+     * @param sortedParts posortowane części w kolejności przedziałów
+     * @param comparator  porządek sortowania
+     * @return {@code true}, jeśli części trzeba scalić zamiast połączyć
+     */
+    public static <T> boolean overlapping(List<List<T>> sortedParts, Comparator<? super T> comparator) {
+        T previousLast = null;
+        boolean seen = false;
+        for (List<T> part : sortedParts) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (seen && comparator.compare(previousLast, part.get(0)) > 0) {
+                return true;
+            }
+            previousLast = part.get(part.size() - 1);
+            seen = true;
+        }
+        return false;
+    }
+
+    /**
+     * Łączy posortowane, rozłączne części jedna za drugą.
+     *
+     * @param sortedParts posortowane części w kolejności przedziałów
+     * @return wszystkie elementy
+     */
+    public static <T> List<T> concatenate(List<List<T>> sortedParts) {
+        int size = 0;
+        for (List<T> part : sortedParts) {
+            size += part.size();
+        }
+        List<T> result = new ArrayList<>(size);
+        for (List<T> part : sortedParts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    /**
+     * Scala posortowane części kopcem o rozmiarze równym liczbie części.
+     *
+     * @param sortedParts posortowane części
+     * @param comparator  porządek sortowania
+     * @return posortowane elementy; równe elementy w kolejności części
+     */
+    public static <T> List<T> merge(List<List<T>> sortedParts, Comparator<? super T> comparator) {
+        int size = 0;
+        for (List<T> part : sortedParts) {
+            size += part.size();
+        }
+        if (sortedParts.size() == 1) {
+            return new ArrayList<>(sortedParts.get(0));
+        }
+        // Each heap entry is {part, position}.
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedParts.size()), (left, right) -> {
+            int comparison = comparator.compare(sortedParts.get(left[0]).get(left[1]), sortedParts.get(right[0]).get(right[1]));
+            return comparison != 0 ? comparison : Integer.compare(left[0], right[0]);
+        });
+        for (int i = 0; i < sortedParts.size(); i++) {
+            if (!sortedParts.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<T> result = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<T> part = sortedParts.get(head[0]);
+            result.add(part.get(head[1]));
+            if (++head[1] < part.size()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Zwraca największy rozmiar przedziału.
+     *
+     * @param partitions przedziały
+     * @return liczba elementów największego przedziału
+     */
+    public static <T> int largest(List<List<T>> partitions) {
+        return partitions.isEmpty() ? 0 : Collections.max(partitions, Comparator.comparingInt(List::size)).size();
+    }
+}
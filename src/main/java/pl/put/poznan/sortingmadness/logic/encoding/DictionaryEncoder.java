@@ -0,0 +1,304 @@
+package pl.put.poznan.sortingmadness.logic.encoding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.ScratchArena;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kodowanie słownikowe kluczy sortowania o niewielu różnych wartościach tekstowych (np. kraj, status,
+ * kategoria), zachowujące porządek.
+ * <p>
+ * Dla każdego klucza, którego wartości we wszystkich rekordach są napisami, a różnych wartości jest
+ * najwyżej {@link #MAX_CARDINALITY}, budowany jest posortowany słownik, a każda wartość jest zastępowana
+ * gęstym kodem {@code int} - jej pozycją w słowniku - więc porządek kodów jest porządkiem
+ * {@link String#compareTo(String)}. Jeśli zakodowano wszystkie klucze, dane można posortować przez
+ * zliczanie kodów ({@link #countingSort(List, String)}) bez porównywania napisów. W przeciwnym razie
+ * strategia sortuje rekordy zastępcze ({@link #encode(List)}), w których zakodowane klucze mają wartości
+ * {@link Integer}, a pozostałe pochodzą z oryginału; {@link #decode(Map)} przywraca w wyniku oryginalne rekordy.
+ */
+@SuppressWarnings("rawtypes")
+public class DictionaryEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryEncoder.class);
+
+    /** Największa liczba różnych wartości klucza, dla której budowany jest słownik. */
+    public static final int MAX_CARDINALITY = 4096;
+
+    /** Najmniejsza liczba rekordów, dla której kodowanie się opłaca. */
+    public static final int MIN_ROWS = 1024;
+
+    private final List<String> keys;
+    /** Dla każdego klucza sortowania: słownik lub {@code null}, jeśli klucza nie zakodowano. */
+    private final String[][] dictionaries;
+    /** Dla każdego zakodowanego klucza: kod wartości w każdym rekordzie. */
+    private final int[][] codes;
+    /** Współdzielone obiekty kodów, aby rekordy zastępcze nie tworzyły nowych {@link Integer}. */
+    private final Integer[][] boxedCodes;
+
+    private DictionaryEncoder(List<String> keys, String[][] dictionaries, int[][] codes) {
+        this.keys = keys;
+        this.dictionaries = dictionaries;
+        this.codes = codes;
+        this.boxedCodes = new Integer[keys.size()][];
+        for (int k = 0; k < keys.size(); k++) {
+            if (dictionaries[k] != null) {
+                boxedCodes[k] = new Integer[dictionaries[k].length];
+                for (int code = 0; code < dictionaries[k].length; code++) {
+                    boxedCodes[k][code] = code;
+                }
+            }
+        }
+    }
+
+    /**
+     * Buduje słowniki dla kluczy, które się do tego nadają.
+     *
+     * @param data rekordy do posortowania
+     * @param keys klucze sortowania
+     * @return koder albo {@code null}, jeśli danych jest mniej niż {@link #MIN_ROWS} lub żaden klucz się nie nadaje
+     */
+    public static DictionaryEncoder analyze(List<? extends Map<String, ? extends Comparable>> data, List<String> keys) {
+        if (data.size() < MIN_ROWS || keys == null || keys.isEmpty()) {
+            return null;
+        }
+        String[][] dictionaries = new String[keys.size()][];
+        int[][] codes = new int[keys.size()][];
+        boolean any = false;
+        for (int k = 0; k < keys.size(); k++) {
+            int[] keyCodes = new int[data.size()];
+            String[] dictionary = buildDictionary(data, keys.get(k), keyCodes);
+            if (dictionary != null) {
+                dictionaries[k] = dictionary;
+                codes[k] = keyCodes;
+                any = true;
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        DictionaryEncoder encoder = new DictionaryEncoder(keys, dictionaries, codes);
+        logger.debug("Dictionary-encoded keys {} of {} for {} records", encoder.encodedKeys(), keys, data.size());
+        return encoder;
+    }
+
+    /**
+     * Buduje posortowany słownik jednego klucza i wypełnia kody rekordów.
+     *
+     * @return słownik albo {@code null}, jeśli klucz ma wartości inne niż napisy lub zbyt wiele różnych wartości
+     */
+    private static String[] buildDictionary(List<? extends Map<String, ? extends Comparable>> data, String key, int[] keyCodes) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        for (int row = 0; row < keyCodes.length; row++) {
+            Object value = data.get(row).get(key);
+            if (!(value instanceof String)) {
+                return null;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                if (values.size() == MAX_CARDINALITY) {
+                    return null;
+                }
+                id = values.size();
+                ids.put((String) value, id);
+                values.add((String) value);
+            }
+            keyCodes[row] = id;
+        }
+        // Remap first-seen ids to ranks in the sorted dictionary.
+        String[] dictionary = values.toArray(new String[0]);
+        Arrays.sort(dictionary);
+        int[] rank = new int[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            rank[ids.get(dictionary[code])] = code;
+        }
+        for (int row = 0; row < keyCodes.length; row++) {
+            keyCodes[row] = rank[keyCodes[row]];
+        }
+        return dictionary;
+    }
+
+    /**
+     * Sprawdza, czy zakodowano wszystkie klucze sortowania.
+     *
+     * @return {@code true}, jeśli można użyć {@link #countingSort(List, String)}
+     */
+    public boolean coversAllKeys() {
+        for (String[] dictionary : dictionaries) {
+            if (dictionary == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Zwraca zakodowane klucze.
+     *
+     * @return klucze, dla których zbudowano słownik
+     */
+    public List<String> encodedKeys() {
+        List<String> encoded = new ArrayList<>();
+        for (int k = 0; k < keys.size(); k++) {
+            if (dictionaries[k] != null) {
+                encoded.add(keys.get(k));
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Sortuje rekordy stabilnie przez zliczanie kodów, od ostatniego klucza do pierwszego (LSD).
+     * Wymaga, aby zakodowano wszystkie klucze.
+     *
+     * @param data      rekordy, dla których zbudowano koder
+     * @param direction kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param <T>       typ rekordów
+     * @return mapa z polami {@code sortedData} (oryginalne rekordy), {@code executionTime} w milisekundach
+     *         i {@code backend} ("dictionary-counting")
+     * @throws IllegalStateException jeśli nie wszystkie klucze zakodowano
+     */
+    public <T> Map<String, Object> countingSort(List<T> data, String direction) {
+        if (!coversAllKeys()) {
+            throw new IllegalStateException("Counting sort requires every key to be dictionary-encoded.");
+        }
+        logger.info("Starting dictionary counting sort with keys: {}, direction: {}", keys, direction);
+        long startTime = System.nanoTime();
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int n = data.size();
+        ScratchArena arena = ScratchArena.current();
+        int[] order = arena.borrowInts(n);
+        int[] next = arena.borrowInts(n);
+        int[] offsets = arena.borrowInts(maxDictionarySize() + 1);
+        List<T> sortedData = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            long iterations = 0;
+            for (int k = keys.size() - 1; k >= 0; k--) {
+                int[] keyCodes = codes[k];
+                int size = dictionaries[k].length;
+                Arrays.fill(offsets, 0, size + 1, 0);
+                for (int row = 0; row < n; row++) {
+                    offsets[bucket(keyCodes[row], size, descending) + 1]++;
+                }
+                for (int bucket = 0; bucket < size; bucket++) {
+                    offsets[bucket + 1] += offsets[bucket];
+                }
+                for (int i = 0; i < n; i++) {
+                    int row = order[i];
+                    next[offsets[bucket(keyCodes[row], size, descending)]++] = row;
+                    if (SortingContext.isCheckpoint(++iterations)) {
+                        SortingContext.checkpoint(iterations);
+                    }
+                }
+                int[] swap = order;
+                order = next;
+                next = swap;
+            }
+            for (int i = 0; i < n; i++) {
+                sortedData.add(data.get(order[i]));
+            }
+        } finally {
+            arena.release(order);
+            arena.release(next);
+            arena.release(offsets);
+        }
+        long duration = System.nanoTime() - startTime;
+        logger.info("Dictionary counting sort completed in {} ms.", duration / 1_000_000.0);
+        return Map.of(
+                "sortedData", sortedData,
+                "executionTime", duration / 1_000_000.0,
+                "backend", "dictionary-counting"
+        );
+    }
+
+    private int maxDictionarySize() {
+        int max = 0;
+        for (String[] dictionary : dictionaries) {
+            if (dictionary != null) {
+                max = Math.max(max, dictionary.length);
+            }
+        }
+        return max;
+    }
+
+    private static int bucket(int code, int size, boolean descending) {
+        return descending ? size - 1 - code : code;
+    }
+
+    /**
+     * Tworzy rekordy zastępcze, w których zakodowane klucze mają wartości kodów.
+     *
+     * @param data rekordy, dla których zbudowano koder
+     * @return lista rekordów zastępczych w tej samej kolejności
+     */
+    public List<Map<String, Comparable>> encode(List<? extends Map<String, Comparable>> data) {
+        List<Map<String, Comparable>> encoded = new ArrayList<>(data.size());
+        for (int row = 0; row < data.size(); row++) {
+            encoded.add(new EncodedRecord(data.get(row), row));
+        }
+        return encoded;
+    }
+
+    /**
+     * Zastępuje w wyniku strategii rekordy zastępcze oryginalnymi rekordami.
+     *
+     * @param result wynik strategii z polem {@code sortedData} zawierającym rekordy z {@link #encode(List)}
+     * @return kopia wyniku z oryginalnymi rekordami
+     */
+    public Map<String, Object> decode(Map<String, Object> result) {
+        List<?> sorted = (List<?>) result.get("sortedData");
+        List<Map<String, Comparable>> decoded = new ArrayList<>(sorted.size());
+        for (Object record : sorted) {
+            decoded.add(((EncodedRecord) record).original);
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(result);
+        copy.put("sortedData", decoded);
+        return copy;
+    }
+
+    /**
+     * Rekord zastępczy: zakodowane klucze zwracają kod, pozostałe - wartość oryginału.
+     * Iteracja i wypisywanie pokazują oryginał.
+     */
+    private class EncodedRecord extends AbstractMap<String, Comparable> {
+        private final Map<String, Comparable> original;
+        private final int row;
+
+        EncodedRecord(Map<String, Comparable> original, int row) {
+            this.original = original;
+            this.row = row;
+        }
+
+        @Override
+        public Comparable get(Object key) {
+            for (int k = 0; k < keys.size(); k++) {
+                if (dictionaries[k] != null && keys.get(k).equals(key)) {
+                    return boxedCodes[k][codes[k][row]];
+                }
+            }
+            return original.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return original.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Comparable>> entrySet() {
+            return original.entrySet();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package pl.put.poznan.sortingmadness.logic.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generator powtarzalnych zbiorów danych o kontrolowanym kształcie.
+ * <p>
+ * Dane mogą zostać zwrócone w pamięci ({@link #generateList}, {@link #generateRecords}) lub wygenerowane
+ * leniwie element po elemencie ({@link #values}, {@link #records}), co pozwala zapisywać bardzo duże
+ * zbiory strumieniowo bez materializowania ich na stercie. Obie ścieżki dają identyczne dane dla
+ * tego samego {@link DatasetSpec}.
+ * <p>
+ * Rekordy zawierają kolumny {@code id} (pozycja), {@code key} (wartość zgodna z kształtem),
+ * {@code category} (napis o niskiej kardynalności) oraz opcjonalne kolumny {@code c0..c(width-1)}.
+ */
+public class DatasetGenerator {
+
+    /** Przesunięcie ziarna dla kolumn pomocniczych, aby nie zaburzały sekwencji wartości klucza. */
+    private static final long COLUMN_SEED_SALT = 0x9E3779B97F4A7C15L;
+
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    /**
+     * Generuje listę wartości o podanym kształcie.
+     *
+     * @param spec opis zbioru danych
+     * @return lista wartości ({@link Integer} lub {@link String} dla {@link DatasetShape#PREFIXED_STRINGS})
+     */
+    @SuppressWarnings("rawtypes")
+    public List<Comparable> generateList(DatasetSpec spec) {
+        Iterator<Comparable> values = values(spec);
+        List<Comparable> result = new ArrayList<>(spec.getSize());
+        values.forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Generuje listę rekordów, których kolumna {@code key} ma podany kształt.
+     *
+     * @param spec opis zbioru danych
+     * @return lista rekordów
+     */
+    @SuppressWarnings("rawtypes")
+    public List<Map<String, Comparable>> generateRecords(DatasetSpec spec) {
+        Iterator<Map<String, Comparable>> records = records(spec);
+        List<Map<String, Comparable>> result = new ArrayList<>(spec.getSize());
+        records.forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Zwraca leniwy iterator wartości o podanym kształcie.
+     *
+     * @param spec opis zbioru danych
+     * @return iterator zwracający dokładnie {@code spec.getSize()} wartości
+     * @throws IllegalArgumentException jeśli opis jest niepoprawny
+     */
+    @SuppressWarnings("rawtypes")
+    public Iterator<Comparable> values(DatasetSpec spec) {
+        spec.validate();
+        ValueSource source = createSource(spec);
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < spec.getSize();
+            }
+
+            @Override
+            public Comparable next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return source.valueAt(index++);
+            }
+        };
+    }
+
+    /**
+     * Zwraca leniwy iterator rekordów, których kolumna {@code key} ma podany kształt.
+     *
+     * @param spec opis zbioru danych
+     * @return iterator zwracający dokładnie {@code spec.getSize()} rekordów
+     * @throws IllegalArgumentException jeśli opis jest niepoprawny
+     */
+    @SuppressWarnings("rawtypes")
+    public Iterator<Map<String, Comparable>> records(DatasetSpec spec) {
+        Iterator<Comparable> keys = values(spec);
+        Random columns = new Random(spec.getSeed() ^ COLUMN_SEED_SALT);
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public Map<String, Comparable> next() {
+                Map<String, Comparable> record = new LinkedHashMap<>();
+                record.put("id", index++);
+                record.put("key", keys.next());
+                record.put("category", "category-" + columns.nextInt(spec.getUniqueValues()));
+                for (int column = 0; column < spec.getWidth(); column++) {
+                    record.put("c" + column, columns.nextInt(1_000_000));
+                }
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Źródło wartości odczytywanych kolejno dla indeksów 0..n-1.
+     */
+    @FunctionalInterface
+    private interface ValueSource {
+        @SuppressWarnings("rawtypes")
+        Comparable valueAt(int index);
+    }
+
+    private ValueSource createSource(DatasetSpec spec) {
+        int n = spec.getSize();
+        Random random = new Random(spec.getSeed());
+        switch (spec.getShape()) {
+            case SORTED:
+                return index -> index;
+            case REVERSED:
+                return index -> n - 1 - index;
+            case NEARLY_SORTED:
+                Map<Integer, Integer> swapped = swaps(n, spec.getSwaps(), random);
+                return index -> swapped.getOrDefault(index, index);
+            case ORGAN_PIPE:
+                return index -> index < (n + 1) / 2 ? index : n - 1 - index;
+            case FEW_UNIQUE:
+                return index -> random.nextInt(spec.getUniqueValues());
+            case ZIPF:
+                double[] cumulative = zipfDistribution(spec.getUniqueValues(), spec.getZipfExponent());
+                return index -> zipfRank(cumulative, random.nextDouble());
+            case PREFIXED_STRINGS:
+                String[] prefixes = new String[spec.getPrefixCount()];
+                for (int i = 0; i < prefixes.length; i++) {
+                    prefixes[i] = randomString(random, spec.getPrefixLength());
+                }
+                return index -> prefixes[random.nextInt(prefixes.length)] + randomString(random, spec.getSuffixLength());
+            case RANDOM:
+            default:
+                return index -> random.nextInt(Math.max(1, n));
+        }
+    }
+
+    /**
+     * Wyznacza rzadką permutację powstałą z ciągu identycznościowego po {@code count} losowych zamianach.
+     */
+    private static Map<Integer, Integer> swaps(int n, int count, Random random) {
+        Map<Integer, Integer> permutation = new HashMap<>();
+        if (n < 2) {
+            return permutation;
+        }
+        for (int s = 0; s < count; s++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            int valueI = permutation.getOrDefault(i, i);
+            int valueJ = permutation.getOrDefault(j, j);
+            permutation.put(i, valueJ);
+            permutation.put(j, valueI);
+        }
+        return permutation;
+    }
+
+    /**
+     * Wylicza dystrybuantę rozkładu Zipfa dla rang 1..ranks.
+     */
+    private static double[] zipfDistribution(int ranks, double exponent) {
+        double[] cumulative = new double[ranks];
+        double sum = 0;
+        for (int rank = 1; rank <= ranks; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < ranks; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int zipfRank(double[] cumulative, double probability) {
+        int position = Arrays.binarySearch(cumulative, probability);
+        int rank = position >= 0 ? position : -position - 1;
+        return Math.min(rank, cumulative.length - 1) + 1;
+    }
+
+    private static String randomString(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
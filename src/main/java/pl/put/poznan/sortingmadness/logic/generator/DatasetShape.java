@@ -0,0 +1,24 @@
+package pl.put.poznan.sortingmadness.logic.generator;
+
+/**
+ * Kształty (rozkłady) generowanych zbiorów danych.
+ * Każdy kształt odpowiada typowemu przypadkowi, w którym algorytmy sortowania zachowują się odmiennie.
+ */
+public enum DatasetShape {
+    /** Wartości losowane jednostajnie z przedziału 0..n-1. */
+    RANDOM,
+    /** Wartości rosnące 0..n-1. */
+    SORTED,
+    /** Wartości malejące n-1..0. */
+    REVERSED,
+    /** Ciąg posortowany, w którym zamieniono miejscami {@code swaps} losowych par. */
+    NEARLY_SORTED,
+    /** Ciąg rosnący do połowy, a następnie malejący (kształt "piszczałek organowych"). */
+    ORGAN_PIPE,
+    /** Losowe wartości z małego zbioru {@code uniqueValues} różnych wartości. */
+    FEW_UNIQUE,
+    /** Wartości o rozkładzie Zipfa z wykładnikiem {@code zipfExponent} nad {@code uniqueValues} rangami. */
+    ZIPF,
+    /** Losowe napisy dzielące jeden z {@code prefixCount} wspólnych prefiksów długości {@code prefixLength}. */
+    PREFIXED_STRINGS
+}
@@ -0,0 +1,159 @@
+package pl.put.poznan.sortingmadness.logic.generator;
+
+/**
+ * Opis zbioru danych do wygenerowania.
+ * <p>
+ * Ten sam opis (łącznie z ziarnem {@code seed}) zawsze prowadzi do identycznego zbioru danych,
+ * co pozwala porównywać wyniki pomiarów między uruchomieniami i maszynami.
+ */
+public class DatasetSpec {
+
+    private DatasetShape shape = DatasetShape.RANDOM;
+    private int size = 1000;
+    private long seed = 42L;
+    private int swaps = 10;
+    private int uniqueValues = 16;
+    private double zipfExponent = 1.1;
+    private int prefixCount = 4;
+    private int prefixLength = 12;
+    private int suffixLength = 6;
+    private int width = 0;
+
+    /**
+     * Konstruktor domyślny: 1000 losowych liczb całkowitych, ziarno 42.
+     */
+    public DatasetSpec() {}
+
+    /**
+     * Tworzy opis zbioru o podanym kształcie, rozmiarze i ziarnie; pozostałe parametry mają wartości domyślne.
+     *
+     * @param shape kształt danych
+     * @param size  liczba elementów
+     * @param seed  ziarno generatora liczb losowych
+     */
+    public DatasetSpec(DatasetShape shape, int size, long seed) {
+        this.shape = shape;
+        this.size = size;
+        this.seed = seed;
+    }
+
+    /**
+     * Sprawdza poprawność parametrów.
+     *
+     * @throws IllegalArgumentException jeśli którykolwiek parametr jest poza dozwolonym zakresem
+     */
+    public void validate() {
+        if (shape == null) {
+            throw new IllegalArgumentException("Dataset shape must be specified.");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Dataset size must not be negative.");
+        }
+        if (swaps < 0 || uniqueValues < 1 || prefixCount < 1 || prefixLength < 0 || suffixLength < 0 || width < 0) {
+            throw new IllegalArgumentException("Invalid dataset generator parameters.");
+        }
+        if (zipfExponent <= 0) {
+            throw new IllegalArgumentException("Zipf exponent must be positive.");
+        }
+    }
+
+    public DatasetShape getShape() {
+        return shape;
+    }
+
+    public void setShape(DatasetShape shape) {
+        this.shape = shape;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Pobiera liczbę zamian dla kształtu {@link DatasetShape#NEARLY_SORTED}.
+     *
+     * @return liczba zamienionych par
+     */
+    public int getSwaps() {
+        return swaps;
+    }
+
+    public void setSwaps(int swaps) {
+        this.swaps = swaps;
+    }
+
+    /**
+     * Pobiera liczbę różnych wartości dla kształtów {@link DatasetShape#FEW_UNIQUE} i {@link DatasetShape#ZIPF}.
+     *
+     * @return liczba różnych wartości
+     */
+    public int getUniqueValues() {
+        return uniqueValues;
+    }
+
+    public void setUniqueValues(int uniqueValues) {
+        this.uniqueValues = uniqueValues;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public int getPrefixCount() {
+        return prefixCount;
+    }
+
+    public void setPrefixCount(int prefixCount) {
+        this.prefixCount = prefixCount;
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    public void setPrefixLength(int prefixLength) {
+        this.prefixLength = prefixLength;
+    }
+
+    public int getSuffixLength() {
+        return suffixLength;
+    }
+
+    public void setSuffixLength(int suffixLength) {
+        this.suffixLength = suffixLength;
+    }
+
+    /**
+     * Pobiera liczbę dodatkowych kolumn w generowanych rekordach ("szerokie" rekordy).
+     *
+     * @return liczba dodatkowych kolumn {@code c0..c(width-1)}
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    @Override
+    public String toString() {
+        return shape + "(size=" + size + ", seed=" + seed + ")";
+    }
+}
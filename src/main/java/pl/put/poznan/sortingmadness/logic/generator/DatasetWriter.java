@@ -0,0 +1,105 @@
+package pl.put.poznan.sortingmadness.logic.generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Zapisuje generowane zbiory danych strumieniowo w formacie żądania {@code /sort}.
+ * <p>
+ * Elementy pobierane są leniwie z {@link DatasetGenerator} i od razu zapisywane do strumienia,
+ * więc zużycie pamięci nie zależy od rozmiaru zbioru. Wynikowy plik można wysłać bez zmian
+ * jako treść żądania POST na "/sort".
+ */
+public class DatasetWriter {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetWriter.class);
+
+    private final DatasetGenerator generator;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Tworzy obiekt zapisujący dane z podanego generatora.
+     *
+     * @param generator generator zbiorów danych
+     */
+    public DatasetWriter(DatasetGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Zapisuje zbiór jako żądanie z polem {@code dataList} lub {@code data}.
+     * Strumień wyjściowy nie jest zamykany.
+     *
+     * @param spec    opis zbioru danych
+     * @param records {@code true} aby zapisać rekordy (pole {@code data} sortowane po kolumnie {@code key}),
+     *                {@code false} aby zapisać listę wartości (pole {@code dataList})
+     * @param output  strumień wyjściowy
+     * @throws IOException w przypadku błędu zapisu
+     */
+    @SuppressWarnings("rawtypes")
+    public void write(DatasetSpec spec, boolean records, OutputStream output) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            if (records) {
+                json.writeArrayFieldStart("keysToSort");
+                json.writeString("key");
+                json.writeEndArray();
+                json.writeArrayFieldStart("data");
+                Iterator<Map<String, Comparable>> iterator = generator.records(spec);
+                while (iterator.hasNext()) {
+                    json.writeStartObject();
+                    for (Map.Entry<String, Comparable> column : iterator.next().entrySet()) {
+                        json.writeFieldName(column.getKey());
+                        writeValue(json, column.getValue());
+                    }
+                    json.writeEndObject();
+                }
+            } else {
+                json.writeArrayFieldStart("dataList");
+                Iterator<Comparable> iterator = generator.values(spec);
+                while (iterator.hasNext()) {
+                    writeValue(json, iterator.next());
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Zapisuje zbiór do pliku, nadpisując jego dotychczasową zawartość.
+     *
+     * @param spec    opis zbioru danych
+     * @param records {@code true} aby zapisać rekordy, {@code false} aby zapisać listę wartości
+     * @param file    ścieżka pliku docelowego
+     * @throws IOException w przypadku błędu zapisu
+     */
+    public void write(DatasetSpec spec, boolean records, Path file) throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(spec, records, output);
+        }
+        logger.info("Dataset {} written to {}", spec, file);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void writeValue(JsonGenerator json, Comparable value) throws IOException {
+        if (value instanceof Integer) {
+            json.writeNumber((Integer) value);
+        } else if (value instanceof Number) {
+            json.writeNumber(((Number) value).doubleValue());
+        } else {
+            json.writeString(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package pl.put.poznan.sortingmadness.logic.offheap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sortowanie dużych list liczb w pamięci poza stertą.
+ * <p>
+ * Lista liczb całkowitych ({@link Integer}, {@link Long} lub ich mieszanki, jak z parsera JSON) albo liczb
+ * {@link Double} jest kodowana jako 64-bitowe klucze w buforze bezpośrednim i sortowana jądrem z
+ * {@link OffHeapSort}: pozycyjnie, jeśli w puli {@link OffHeapMemory} jest bufor pomocniczy, a w
+ * przeciwnym razie szybkim sortowaniem w miejscu. Sortowanie nie tworzy na stercie ani obiektów pośrednich,
+ * ani tablic o rozmiarze danych; jedyną kopią na stercie jest lista wynikowa.
+ * <p>
+ * Sortowanie poza stertą jest wykonywane tylko dla algorytmu "offheap" (lub "radix"), podanego w żądaniu albo
+ * wybranego przez {@link pl.put.poznan.sortingmadness.logic.SortingSelector} dla list spełniających
+ * {@link #isEligible(List)}. Gdy dane się nie kwalifikują albo limit jest wyczerpany,
+ * {@link #trySort(List, String, SortingContext)} zwraca {@code null}.
+ */
+public final class OffHeapDataset {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapDataset.class);
+
+    /** Największa liczba elementów w jednym buforze bezpośrednim (adresowanym liczbą {@code int}). */
+    static final int MAX_ELEMENTS = Integer.MAX_VALUE / Long.BYTES;
+
+    /**
+     * Rodzaj liczb w liście, wyznaczający kodowanie kluczy i typ elementów wyniku.
+     */
+    enum Kind {
+        INT, LONG, MIXED_INTEGRAL, DOUBLE
+    }
+
+    private OffHeapDataset() {
+    }
+
+    /**
+     * Sprawdza, czy lista jest na tyle duża (co najmniej {@link OffHeapMemory#getThreshold()} elementów), że
+     * przy automatycznym wyborze algorytmu warto sortować ją poza stertą, i czy zawiera obsługiwane liczby.
+     *
+     * @param data lista do sprawdzenia
+     * @return {@code true}, jeśli lista kwalifikuje się do automatycznego sortowania poza stertą
+     */
+    public static boolean isEligible(List<?> data) {
+        return data.size() >= OffHeapMemory.getThreshold() && supports(data);
+    }
+
+    /**
+     * Sprawdza, czy lista zawiera wyłącznie obsługiwane liczby i mieści się w jednym buforze.
+     *
+     * @param data lista do sprawdzenia
+     * @return {@code true}, jeśli listę można sortować poza stertą
+     */
+    public static boolean supports(List<?> data) {
+        return data.size() <= MAX_ELEMENTS && kindOf(data) != null;
+    }
+
+    /**
+     * Sortuje listę poza stertą, jeśli zawiera obsługiwane liczby, a w limicie {@link OffHeapMemory} jest miejsce.
+     *
+     * @param data      lista do posortowania; nie jest modyfikowana
+     * @param direction kierunek sortowania: "asc" (rosnąco) lub "desc" (malejąco)
+     * @param context   kontekst wykonania sortowania; może być {@code null}
+     * @return mapa z polami {@code sortedData}, {@code executionTime} w milisekundach i {@code backend}
+     *         ("offheap-radix" lub "offheap-quick") albo {@code null}, jeśli należy użyć zwykłej strategii
+     * @throws pl.put.poznan.sortingmadness.logic.SortingCancelledException jeśli sortowanie przerwano
+     */
+    @SuppressWarnings({"rawtypes", "try"})
+    public static Map<String, Object> trySort(List<? extends Comparable> data, String direction, SortingContext context) {
+        int n = data.size();
+        if (n > MAX_ELEMENTS) {
+            return null;
+        }
+        Kind kind = kindOf(data);
+        if (kind == null) {
+            return null;
+        }
+        long bytes = (long) n * Long.BYTES;
+        ByteBuffer keyBuffer = OffHeapMemory.tryAcquire(bytes);
+        if (keyBuffer == null) {
+            logger.info("Off-heap limit of {} bytes reached, sorting {} elements on heap", OffHeapMemory.getMaxBytes(), n);
+            return null;
+        }
+        ByteBuffer scratchBuffer = OffHeapMemory.tryAcquire(bytes);
+        boolean radix = scratchBuffer != null;
+        try (SortingContext.Scope ignored = context != null ? context.activate() : null) {
+            if (context != null) {
+                context.throwIfCancelled();
+            }
+            logger.info("Starting off-heap {} sort of {} {} values, direction: {}", radix ? "radix" : "quick", n, kind, direction);
+            long startTime = System.nanoTime();
+            LongBuffer keys = asLongBuffer(keyBuffer);
+            for (int i = 0; i < n; i++) {
+                keys.put(i, encode(data.get(i), kind));
+            }
+            if (radix) {
+                OffHeapSort.radixSort(keys, asLongBuffer(scratchBuffer), n);
+            } else {
+                OffHeapSort.quickSort(keys, n);
+            }
+            boolean descending = "desc".equalsIgnoreCase(direction);
+            List<Comparable> sortedData = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                sortedData.add(decode(keys.get(descending ? n - 1 - i : i), kind));
+            }
+            long duration = System.nanoTime() - startTime;
+            logger.info("Off-heap sort completed in {} ms.", duration / 1_000_000.0);
+            return Map.of(
+                    "sortedData", sortedData,
+                    "executionTime", duration / 1_000_000.0,
+                    "backend", radix ? "offheap-radix" : "offheap-quick"
+            );
+        } finally {
+            OffHeapMemory.release(keyBuffer);
+            if (scratchBuffer != null) {
+                OffHeapMemory.release(scratchBuffer);
+            }
+        }
+    }
+
+    private static LongBuffer asLongBuffer(ByteBuffer buffer) {
+        return buffer.order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * Ustala rodzaj liczb w liście.
+     *
+     * @return rodzaj liczb albo {@code null}, jeśli lista zawiera inne elementy lub liczby różnych rodzajów
+     */
+    static Kind kindOf(List<?> data) {
+        boolean ints = false;
+        boolean longs = false;
+        boolean doubles = false;
+        for (Object element : data) {
+            if (element instanceof Integer) {
+                ints = true;
+            } else if (element instanceof Long) {
+                longs = true;
+            } else if (element instanceof Double) {
+                doubles = true;
+            } else {
+                return null;
+            }
+        }
+        if (doubles) {
+            return ints || longs ? null : Kind.DOUBLE;
+        }
+        if (ints && longs) {
+            return Kind.MIXED_INTEGRAL;
+        }
+        return longs ? Kind.LONG : Kind.INT;
+    }
+
+    static long encode(Object value, Kind kind) {
+        if (kind == Kind.DOUBLE) {
+            long bits = Double.doubleToLongBits((Double) value);
+            // Negative doubles order in reverse by their bits; flipping all but the sign bit fixes that.
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        return ((Number) value).longValue();
+    }
+
+    @SuppressWarnings("rawtypes")
+    static Comparable decode(long key, Kind kind) {
+        switch (kind) {
+            case INT:
+                return (int) key;
+            case LONG:
+                return key;
+            case MIXED_INTEGRAL:
+                // Matches how the JSON parser types integers: Integer when it fits, Long otherwise.
+                return key == (int) key ? (Comparable) (int) key : (Comparable) key;
+            default:
+                return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+    }
+}
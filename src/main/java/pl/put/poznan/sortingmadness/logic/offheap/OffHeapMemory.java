@@ -0,0 +1,151 @@
+package pl.put.poznan.sortingmadness.logic.offheap;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pula buforów bezpośrednich do sortowania poza stertą, wspólna dla całego procesu.
+ * <p>
+ * Bufor bezpośredni zwalnia pamięć dopiero po zebraniu przez GC, dlatego limit {@link #getMaxBytes()} obejmuje
+ * wszystkie bufory utworzone przez pulę, dopóki GC ich nie zbierze, a nie tylko bufory w użyciu. Zwolnione bufory
+ * wracają do puli i są używane ponownie, więc kolejne sortowania nie przydzielają nowej pamięci. Gdy w limicie
+ * nie mieści się nowy bufor, pula porzuca bufory bezczynne, aby GC mógł je zebrać, i odmawia przydziału.
+ * Domyślnie sortowanie poza stertą nie jest wybierane automatycznie ({@link #getThreshold()} równe
+ * {@link Integer#MAX_VALUE}), a jawnie wybrany algorytm "offheap" nie ma pamięci ({@link #getMaxBytes()}
+ * równe 0), dopóki aplikacja nie wywoła {@link #configure(int, long)}.
+ */
+public final class OffHeapMemory {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static volatile Pool pool = new Pool(0);
+    private static volatile int threshold = Integer.MAX_VALUE;
+
+    private OffHeapMemory() {
+    }
+
+    /**
+     * Ustawia limity sortowania poza stertą. Bufory poprzedniej puli nie są już liczone do limitu.
+     *
+     * @param threshold liczba elementów, od której automatyczny wybór algorytmu sortuje liczby poza stertą
+     * @param maxBytes  łączny limit pamięci buforów w bajtach
+     */
+    public static void configure(int threshold, long maxBytes) {
+        OffHeapMemory.threshold = threshold;
+        pool = new Pool(maxBytes);
+    }
+
+    /**
+     * Pobiera z puli bufor o pojemności co najmniej {@code bytes} bajtów albo tworzy nowy, jeśli mieści się w limicie.
+     *
+     * @param bytes potrzebna liczba bajtów
+     * @return wyczyszczony bufor albo {@code null}, jeśli limit jest wyczerpany; bufor trzeba oddać przez
+     *         {@link #release(ByteBuffer)}
+     */
+    public static ByteBuffer tryAcquire(long bytes) {
+        return pool.tryAcquire(bytes);
+    }
+
+    /**
+     * Oddaje bufor do puli. Bufor pobrany przed ostatnim wywołaniem {@link #configure(int, long)} jest pomijany.
+     *
+     * @param buffer bufor pobrany wcześniej przez {@link #tryAcquire(long)}
+     */
+    public static void release(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+
+    /**
+     * Zwraca łączną pojemność buforów w użyciu.
+     *
+     * @return bajty w użyciu
+     */
+    public static long getUsedBytes() {
+        return pool.used;
+    }
+
+    /**
+     * Zwraca łączną pojemność buforów utworzonych przez pulę i jeszcze niezebranych przez GC.
+     *
+     * @return przydzielone bajty, nie więcej niż {@link #getMaxBytes()}
+     */
+    public static long getAllocatedBytes() {
+        return pool.allocated.get();
+    }
+
+    /**
+     * Zwraca łączny limit pamięci buforów.
+     *
+     * @return limit w bajtach
+     */
+    public static long getMaxBytes() {
+        return pool.maxBytes;
+    }
+
+    /**
+     * Zwraca liczbę elementów, od której automatyczny wybór algorytmu sortuje liczby poza stertą.
+     *
+     * @return próg liczby elementów
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Bufory jednej konfiguracji limitu.
+     */
+    private static final class Pool {
+        private final long maxBytes;
+        private final AtomicLong allocated = new AtomicLong();
+        private final List<ByteBuffer> idle = new ArrayList<>();
+        private final Set<ByteBuffer> lent = Collections.newSetFromMap(new IdentityHashMap<>());
+        private volatile long used;
+
+        Pool(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized ByteBuffer tryAcquire(long bytes) {
+            int bestIndex = -1;
+            for (int i = 0; i < idle.size(); i++) {
+                int capacity = idle.get(i).capacity();
+                if (capacity >= bytes && (bestIndex < 0 || capacity < idle.get(bestIndex).capacity())) {
+                    bestIndex = i;
+                }
+            }
+            ByteBuffer best;
+            if (bestIndex >= 0) {
+                // Removed by index: ByteBuffer.equals compares contents, not identity.
+                best = idle.remove(bestIndex);
+            } else if (bytes <= Integer.MAX_VALUE && allocated.get() + bytes <= maxBytes) {
+                best = ByteBuffer.allocateDirect((int) bytes);
+                allocated.addAndGet(bytes);
+                // The memory is returned only when the buffer is collected, so it stays counted until then.
+                CLEANER.register(best, () -> allocated.addAndGet(-bytes));
+            } else {
+                // Too small or too many idle buffers are kept alive only by the pool; let GC reclaim them.
+                idle.clear();
+                return null;
+            }
+            lent.add(best);
+            used += best.capacity();
+            best.clear();
+            return best;
+        }
+
+        synchronized void release(ByteBuffer buffer) {
+            if (!lent.remove(buffer)) {
+                // Lent before the limits were reconfigured; the old pool is no longer used.
+                return;
+            }
+            used -= buffer.capacity();
+            idle.add(buffer);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package pl.put.poznan.sortingmadness.logic.offheap;
+
+import pl.put.poznan.sortingmadness.logic.ScratchArena;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.algorithms.SortingNetworks;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Jądra sortujące 64-bitowe klucze w buforach poza stertą.
+ * <p>
+ * Klucze są porównywane jako liczby ze znakiem; {@link OffHeapDataset} koduje liczby całkowite wprost,
+ * a zmiennoprzecinkowe tak, aby porządek kluczy odpowiadał {@link Double#compareTo(Double)}.
+ * Obie metody co {@link SortingContext#CHECKPOINT_INTERVAL} kroków wywołują
+ * {@link SortingContext#checkpoint(long)}, więc sortowanie można przerwać.
+ */
+public final class OffHeapSort {
+
+    private OffHeapSort() {
+    }
+
+    /**
+     * Sortuje pozycyjnie (LSD, 8 przebiegów po 8 bitów), przepisując klucze między dwoma buforami.
+     * Przebiegi, w których wszystkie klucze mają tę samą cyfrę, są pomijane.
+     *
+     * @param keys    klucze do posortowania; po powrocie zawierają wynik
+     * @param scratch bufor pomocniczy o pojemności co najmniej {@code n}
+     * @param n       liczba kluczy
+     */
+    public static void radixSort(LongBuffer keys, LongBuffer scratch, int n) {
+        ScratchArena arena = ScratchArena.current();
+        long[] counts = arena.borrowLongs(256);
+        try {
+            radixPasses(keys, scratch, counts, n);
+        } finally {
+            arena.release(counts);
+        }
+    }
+
+    private static void radixPasses(LongBuffer keys, LongBuffer scratch, long[] counts, int n) {
+        LongBuffer source = keys;
+        LongBuffer target = scratch;
+        long iterations = 0;
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0, 256, 0);
+            for (int i = 0; i < n; i++) {
+                counts[digit(source.get(i), shift)]++;
+            }
+            if (counts[digit(source.get(0), shift)] == n) {
+                continue;
+            }
+            long offset = 0;
+            for (int d = 0; d < 256; d++) {
+                long count = counts[d];
+                counts[d] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = source.get(i);
+                target.put((int) counts[digit(key, shift)]++, key);
+                if (SortingContext.isCheckpoint(++iterations)) {
+                    SortingContext.checkpoint(iterations);
+                }
+            }
+            LongBuffer swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != keys) {
+            for (int i = 0; i < n; i++) {
+                keys.put(i, source.get(i));
+            }
+        }
+    }
+
+    private static int digit(long key, int shift) {
+        // Flipping the sign bit makes the unsigned digit order match the signed key order.
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+    }
+
+    /**
+     * Sortuje w miejscu (sortowanie szybkie z medianą z trzech, mniejszy fragment rekurencyjnie,
+     * fragmenty do {@link SortingNetworks#MAX_SIZE} kluczy siecią sortującą bez skoków warunkowych).
+     * Nie wymaga dodatkowej pamięci poza małą tablicą na fragment sortowany siecią.
+     *
+     * @param keys klucze do posortowania
+     * @param n    liczba kluczy
+     */
+    public static void quickSort(LongBuffer keys, int n) {
+        ScratchArena arena = ScratchArena.current();
+        long[] small = arena.borrowLongs(SortingNetworks.MAX_SIZE);
+        try {
+            // {iterations so far, iterations at the last checkpoint}
+            quickSort(keys, 0, n - 1, new long[2], small);
+        } finally {
+            arena.release(small);
+        }
+    }
+
+    private static void quickSort(LongBuffer keys, int low, int high, long[] iterations, long[] small) {
+        while (high - low >= SortingNetworks.MAX_SIZE) {
+            int mid = (low + high) >>> 1;
+            if (keys.get(mid) < keys.get(low)) swap(keys, mid, low);
+            if (keys.get(high) < keys.get(low)) swap(keys, high, low);
+            if (keys.get(high) < keys.get(mid)) swap(keys, high, mid);
+            long pivot = keys.get(mid);
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys.get(i) < pivot) i++;
+                while (keys.get(j) > pivot) j--;
+                if (i <= j) {
+                    swap(keys, i++, j--);
+                }
+            }
+            iterations[0] += high - low;
+            if (iterations[0] - iterations[1] >= SortingContext.CHECKPOINT_INTERVAL) {
+                iterations[1] = iterations[0];
+                SortingContext.checkpoint(iterations[0]);
+            }
+            if (j - low < high - i) {
+                quickSort(keys, low, j, iterations, small);
+                low = i;
+            } else {
+                quickSort(keys, i, high, iterations, small);
+                high = j;
+            }
+        }
+        int size = high - low + 1;
+        if (size > 1) {
+            for (int i = 0; i < size; i++) {
+                small[i] = keys.get(low + i);
+            }
+            SortingNetworks.sort(small, 0, size);
+            for (int i = 0; i < size; i++) {
+                keys.put(low + i, small[i]);
+            }
+        }
+    }
+
+    private static void swap(LongBuffer keys, int i, int j) {
+        long value = keys.get(i);
+        keys.put(i, keys.get(j));
+        keys.put(j, value);
+    }
+}
@@ -0,0 +1,467 @@
+package pl.put.poznan.sortingmadness.logic.sketch;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Szkic kwantyli KLL (Karnin, Lang, Liberty) dla wartości liczbowych: przybliżone kwantyle, pozycje
+ * i histogramy danych dowolnej wielkości, zbudowane w jednym przejściu w ograniczonej pamięci.
+ * <p>
+ * Szkic składa się z poziomów; element poziomu {@code h} reprezentuje 2<sup>h</sup> elementów wejścia.
+ * Nowe wartości trafiają na poziom 0. Gdy liczba przechowywanych wartości przekroczy sumę pojemności
+ * poziomów, najniższy pełny poziom jest sortowany, a co druga jego wartość (od losowo wybranej pierwszej
+ * lub drugiej) przechodzi poziom wyżej; pozostałe są odrzucane. Pojemność poziomu maleje geometrycznie
+ * (czynnik 2/3) z odległością od najwyższego poziomu, od {@code k} do {@link #MIN_CAPACITY}, więc szkic
+ * przechowuje O(k) wartości niezależnie od liczby elementów wejścia.
+ * <p>
+ * Błąd pozycji (ułamek elementów) jest z prawdopodobieństwem 99% nie większy niż
+ * {@link #getNormalizedRankError(boolean)}; dla k = 200 to około 1,3%. Dopóki nie nastąpiło żadne
+ * zagęszczenie ({@link #isExact()}), wyniki są dokładne. Szkice można łączyć ({@link #merge(KllSketch)})
+ * i zapisywać w postaci binarnej ({@link #toBytes()}, {@link #fromBytes(byte[])}); połączony szkic ma
+ * dokładność szkicu o mniejszym {@code k}.
+ * <p>
+ * Klasa nie jest bezpieczna wątkowo.
+ */
+public final class KllSketch {
+
+    /** Domyślny parametr dokładności. */
+    public static final int DEFAULT_K = 200;
+
+    /** Najmniejszy dopuszczalny parametr dokładności. */
+    public static final int MIN_K = 8;
+
+    /** Największy dopuszczalny parametr dokładności. */
+    public static final int MAX_K = 65535;
+
+    /** Najmniejsza pojemność poziomu. */
+    public static final int MIN_CAPACITY = 8;
+
+    private static final double DECAY = 2.0 / 3.0;
+    private static final byte FORMAT_VERSION = 1;
+
+    private int k;
+    private long n;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private final List<Level> levels = new ArrayList<>();
+    private int retained;
+    private int maxRetained;
+
+    /** Wartości wszystkich poziomów posortowane rosnąco wraz z wagami; {@code null} po każdej zmianie. */
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    /**
+     * Tworzy pusty szkic.
+     *
+     * @param k parametr dokładności z zakresu [{@link #MIN_K}, {@link #MAX_K}]; pamięć i dokładność rosną z k
+     * @throws IllegalArgumentException jeśli {@code k} jest spoza zakresu
+     */
+    public KllSketch(int k) {
+        if (k < MIN_K || k > MAX_K) {
+            throw new IllegalArgumentException("Sketch parameter k must be between " + MIN_K + " and " + MAX_K + ": " + k);
+        }
+        this.k = k;
+        grow();
+    }
+
+    /**
+     * Dodaje wartość do szkicu.
+     *
+     * @param value wartość
+     * @throws IllegalArgumentException jeśli wartość to NaN
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Sketch values must be numbers, got NaN.");
+        }
+        if (n == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        n++;
+        levels.get(0).add(value);
+        retained++;
+        sortedValues = null;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Dołącza do szkicu wszystkie elementy innego szkicu; drugi szkic nie jest modyfikowany.
+     *
+     * @param other dołączany szkic
+     */
+    public void merge(KllSketch other) {
+        if (other.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        n += other.n;
+        k = Math.min(k, other.k);
+        while (levels.size() < other.levels.size()) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.size(); h++) {
+            Level level = other.levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                levels.get(h).add(level.items[i]);
+            }
+            retained += level.size;
+        }
+        maxRetained = totalCapacity();
+        sortedValues = null;
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Zwraca przybliżony kwantyl: najmniejszą przechowywaną wartość, na której lub przed którą leży co najmniej
+     * ułamek {@code fraction} elementów (metoda najbliższej pozycji).
+     *
+     * @param fraction ułamek z zakresu [0, 1]; 0.5 to mediana
+     * @return przybliżona wartość kwantyla; dla 0 i 1 dokładne minimum i maksimum
+     * @throws IllegalArgumentException jeśli szkic jest pusty lub ułamek jest spoza zakresu
+     */
+    public double getQuantile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Quantile fraction must be between 0 and 1: " + fraction);
+        }
+        requireNotEmpty();
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        ensureSorted();
+        long target = Math.max(1, (long) Math.ceil(fraction * n));
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedValues[Math.min(index, sortedValues.length - 1)];
+    }
+
+    /**
+     * Zwraca przybliżoną pozycję wartości: ułamek elementów nie większych od niej.
+     *
+     * @param value wartość
+     * @return ułamek z zakresu [0, 1]
+     * @throws IllegalArgumentException jeśli szkic jest pusty
+     */
+    public double getRank(double value) {
+        requireNotEmpty();
+        return (double) weightAtMost(value) / n;
+    }
+
+    /**
+     * Zwraca przybliżone liczby elementów w przedziałach wyznaczonych przez punkty podziału:
+     * (-∞, s<sub>1</sub>), [s<sub>1</sub>, s<sub>2</sub>), ..., [s<sub>m</sub>, +∞).
+     *
+     * @param splits rosnące, skończone punkty podziału
+     * @return m + 1 liczb elementów o sumie {@link #getN()}
+     * @throws IllegalArgumentException jeśli szkic jest pusty lub punkty nie są rosnące i skończone
+     */
+    public long[] getHistogram(double[] splits) {
+        requireNotEmpty();
+        for (int i = 0; i < splits.length; i++) {
+            if (!Double.isFinite(splits[i]) || (i > 0 && splits[i] <= splits[i - 1])) {
+                throw new IllegalArgumentException("Histogram split points must be finite and strictly increasing.");
+            }
+        }
+        long[] counts = new long[splits.length + 1];
+        long previous = 0;
+        for (int i = 0; i < splits.length; i++) {
+            long below = weightBelow(splits[i]);
+            counts[i] = below - previous;
+            previous = below;
+        }
+        counts[splits.length] = n - previous;
+        return counts;
+    }
+
+    /**
+     * Zwraca znormalizowany błąd, który z prawdopodobieństwem 99% ogranicza błąd wyników szkicu; wartości
+     * pochodzą z empirycznych pomiarów szkiców KLL o takiej samej budowie.
+     *
+     * @param histogram {@code true} dla błędu udziału pojedynczego przedziału histogramu, {@code false}
+     *                  dla błędu pozycji i kwantyli
+     * @return błąd jako ułamek liczby elementów; 0, jeśli szkic jest dokładny
+     */
+    public double getNormalizedRankError(boolean histogram) {
+        if (isExact()) {
+            return 0;
+        }
+        return histogram ? 2.446 / Math.pow(k, 0.9433) : 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * Sprawdza, czy szkic przechowuje wszystkie elementy wejścia, więc jego wyniki są dokładne.
+     *
+     * @return {@code true}, jeśli nie nastąpiło żadne zagęszczenie
+     */
+    public boolean isExact() {
+        return retained == n;
+    }
+
+    /**
+     * Zwraca parametr dokładności.
+     *
+     * @return k
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Zwraca liczbę elementów wejścia.
+     *
+     * @return liczba elementów
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Zwraca liczbę przechowywanych wartości.
+     *
+     * @return liczba wartości na wszystkich poziomach
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    /**
+     * Zwraca dokładne minimum.
+     *
+     * @return najmniejsza wartość lub NaN dla pustego szkicu
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Zwraca dokładne maksimum.
+     *
+     * @return największa wartość lub NaN dla pustego szkicu
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Zapisuje szkic w postaci binarnej: wersja formatu, k, n, minimum, maksimum, liczba poziomów,
+     * a dla każdego poziomu liczba wartości i wartości.
+     *
+     * @return szkic w postaci binarnej
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 8 + 8 + 4 + 4 * levels.size() + 8 * retained);
+        buffer.put(FORMAT_VERSION).putInt(k).putLong(n).putDouble(min).putDouble(max).putInt(levels.size());
+        for (Level level : levels) {
+            buffer.putInt(level.size);
+            for (int i = 0; i < level.size; i++) {
+                buffer.putDouble(level.items[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Odczytuje szkic zapisany przez {@link #toBytes()}.
+     *
+     * @param bytes szkic w postaci binarnej
+     * @return szkic
+     * @throws IllegalArgumentException jeśli dane nie są poprawnym szkicem
+     */
+    public static KllSketch fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported sketch format version: " + version);
+            }
+            KllSketch sketch = new KllSketch(buffer.getInt());
+            sketch.n = buffer.getLong();
+            sketch.min = buffer.getDouble();
+            sketch.max = buffer.getDouble();
+            int levelCount = buffer.getInt();
+            if (levelCount < 1 || levelCount > 64) {
+                throw new IllegalArgumentException("Invalid sketch: " + levelCount + " levels.");
+            }
+            while (sketch.levels.size() < levelCount) {
+                sketch.grow();
+            }
+            long weight = 0;
+            for (int h = 0; h < levelCount; h++) {
+                int size = buffer.getInt();
+                if (size < 0 || size > buffer.remaining() / 8) {
+                    throw new IllegalArgumentException("Invalid sketch: level " + h + " has " + size + " values.");
+                }
+                for (int i = 0; i < size; i++) {
+                    sketch.levels.get(h).add(buffer.getDouble());
+                }
+                sketch.retained += size;
+                weight += (long) size << h;
+            }
+            // Compaction preserves total weight, so the levels must account for every input element.
+            if (buffer.hasRemaining() || weight != sketch.n) {
+                throw new IllegalArgumentException("Invalid sketch: stored values do not match its size.");
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid sketch: data is truncated.");
+        }
+    }
+
+    /**
+     * Zagęszcza najniższy pełny poziom, przenosząc co drugą jego wartość poziom wyżej.
+     */
+    private void compress() {
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            if (level.size >= capacity(h)) {
+                if (h + 1 == levels.size()) {
+                    grow();
+                }
+                Level above = levels.get(h + 1);
+                Arrays.sort(level.items, 0, level.size);
+                // An odd value count leaves the smallest value behind so that the promoted pairs stay balanced.
+                int start = level.size % 2;
+                int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+                for (int i = start + offset; i < level.size; i += 2) {
+                    above.add(level.items[i]);
+                }
+                int promoted = (level.size - start) / 2;
+                retained -= promoted;
+                level.size = start;
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        levels.add(new Level());
+        maxRetained = totalCapacity();
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private long weightAtMost(double value) {
+        ensureSorted();
+        int index = upperBound(sortedValues, value);
+        return index == 0 ? 0 : cumulativeWeights[index - 1];
+    }
+
+    private long weightBelow(double value) {
+        ensureSorted();
+        int index = lowerBound(sortedValues, value);
+        return index == 0 ? 0 : cumulativeWeights[index - 1];
+    }
+
+    private void ensureSorted() {
+        if (sortedValues != null) {
+            return;
+        }
+        double[] values = new double[retained];
+        int[] levelOf = new int[retained];
+        int count = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            Arrays.sort(level.items, 0, level.size);
+            for (int i = 0; i < level.size; i++) {
+                values[count] = level.items[i];
+                levelOf[count++] = h;
+            }
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        sortedValues = new double[count];
+        cumulativeWeights = new long[count];
+        long cumulative = 0;
+        for (int i = 0; i < count; i++) {
+            sortedValues[i] = values[order[i]];
+            cumulative += 1L << levelOf[order[i]];
+            cumulativeWeights[i] = cumulative;
+        }
+    }
+
+    private void requireNotEmpty() {
+        if (n == 0) {
+            throw new IllegalArgumentException("Sketch is empty.");
+        }
+    }
+
+    private static int lowerBound(double[] values, double value) {
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (values[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int upperBound(double[] values, double value) {
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (values[mid] <= value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Poziom szkicu: wartości o jednakowej wadze, w kolejności dodania (sortowane przy zagęszczaniu i zapytaniach).
+     */
+    private static final class Level {
+        private double[] items = new double[MIN_CAPACITY];
+        private int size;
+
+        void add(double value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package pl.put.poznan.sortingmadness.logic.stream;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bufor sortowania o ograniczonej pojemności, który po przepełnieniu zrzuca posortowane serie na dysk.
+ * <p>
+ * Elementy są zbierane w pamięci do {@code capacity}; pełny bufor jest sortowany ({@code runSorter},
+ * zwykle jedna ze strategii {@code SortingStrategy}) i zapisywany jako seria w pliku tymczasowym
+ * (JSON, jeden element na linię). {@link #finish()} zwraca iterator posortowanych danych: gdy nic nie
+ * zrzucono - wprost z pamięci, w przeciwnym razie przez scalanie k serii kopcem, odczytując z każdego
+ * pliku tylko bieżący element. Przy równych elementach wygrywa wcześniejsza seria, więc stabilny
+ * {@code runSorter} daje stabilny wynik.
+ * <p>
+ * Klasa nie jest bezpieczna wątkowo. {@link #close()} zamyka pliki i usuwa serie.
+ *
+ * @param <T> typ elementów
+ */
+public class SpillingSortBuffer<T> implements AutoCloseable {
+
+    private final int capacity;
+    private final Comparator<? super T> comparator;
+    private final UnaryOperator<List<T>> runSorter;
+    private final Path spillDirectory;
+    private final ObjectMapper objectMapper;
+
+    private List<T> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final List<MappingIterator<Object>> openReaders = new ArrayList<>();
+    private long count;
+
+    /**
+     * Tworzy bufor.
+     *
+     * @param capacity       maksymalna liczba elementów trzymanych w pamięci
+     * @param comparator     porządek zgodny z {@code runSorter}, używany przy scalaniu serii
+     * @param runSorter      funkcja sortująca zawartość bufora; może sortować w miejscu lub zwrócić nową listę
+     * @param spillDirectory katalog plików tymczasowych
+     * @param objectMapper   obiekt do zapisu i odczytu serii; elementy muszą przetrwać zapis do JSON bez zmiany typu
+     */
+    public SpillingSortBuffer(int capacity, Comparator<? super T> comparator, UnaryOperator<List<T>> runSorter,
+                              Path spillDirectory, ObjectMapper objectMapper) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.comparator = comparator;
+        this.runSorter = runSorter;
+        this.spillDirectory = spillDirectory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Dodaje element, zrzucając bufor na dysk, gdy jest pełny.
+     *
+     * @param element element do posortowania
+     * @throws UncheckedIOException jeśli zapis serii się nie powiedzie
+     */
+    public void add(T element) {
+        buffer.add(element);
+        count++;
+        if (buffer.size() >= capacity) {
+            spill();
+        }
+    }
+
+    /**
+     * Kończy przyjmowanie danych i zwraca iterator posortowanych elementów.
+     *
+     * @return iterator w porządku sortowania
+     * @throws UncheckedIOException jeśli zapis lub odczyt serii się nie powiedzie
+     */
+    public Iterator<T> finish() {
+        if (runs.isEmpty()) {
+            List<T> sorted = buffer.isEmpty() ? buffer : runSorter.apply(buffer);
+            buffer = new ArrayList<>();
+            return sorted.iterator();
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        return new MergeIterator();
+    }
+
+    /**
+     * Zwraca liczbę przyjętych elementów.
+     *
+     * @return liczba elementów
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Zwraca liczbę serii zrzuconych na dysk.
+     *
+     * @return liczba serii; 0 oznacza sortowanie w całości w pamięci
+     */
+    public int getSpilledRuns() {
+        return runs.size();
+    }
+
+    private void spill() {
+        List<T> sorted = runSorter.apply(buffer);
+        try {
+            Files.createDirectories(spillDirectory);
+            Path run = Files.createTempFile(spillDirectory, "sort-run-", ".json");
+            runs.add(run);
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(run.toFile())) {
+                writer.writeAll(sorted);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill sort buffer", e);
+        }
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * Zamyka otwarte pliki serii i usuwa je z dysku.
+     */
+    @Override
+    public void close() {
+        for (MappingIterator<Object> reader : openReaders) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // Best effort; the file is deleted below anyway.
+            }
+        }
+        openReaders.clear();
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                run.toFile().deleteOnExit();
+            }
+        }
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * Scala posortowane serie kopcem o rozmiarze równym liczbie serii.
+     */
+    private class MergeIterator implements Iterator<T> {
+        private final PriorityQueue<RunCursor> heads;
+
+        MergeIterator() {
+            heads = new PriorityQueue<>(runs.size(), (left, right) -> {
+                int comparison = comparator.compare(left.head, right.head);
+                return comparison != 0 ? comparison : Integer.compare(left.run, right.run);
+            });
+            ObjectReader reader = objectMapper.readerFor(Object.class);
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    MappingIterator<Object> values = reader.readValues(runs.get(i).toFile());
+                    openReaders.add(values);
+                    RunCursor cursor = new RunCursor(i, values);
+                    if (cursor.advance()) {
+                        heads.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open spilled sort run", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            RunCursor cursor = heads.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            T value = cursor.head;
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Bieżąca pozycja w jednej serii.
+     */
+    private class RunCursor {
+        private final int run;
+        private final MappingIterator<Object> values;
+        private T head;
+
+        RunCursor(int run, MappingIterator<Object> values) {
+            this.run = run;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean advance() {
+            if (!values.hasNext()) {
+                return false;
+            }
+            head = (T) values.next();
+            return true;
+        }
+    }
+}
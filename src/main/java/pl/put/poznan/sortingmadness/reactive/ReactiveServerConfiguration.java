@@ -0,0 +1,25 @@
+package pl.put.poznan.sortingmadness.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Konfiguracja serwera aplikacji reaktywnej.
+ * <p>
+ * Na ścieżce klas jest też Tomcat (dla aplikacji głównej), który Spring Boot wybrałby domyślnie;
+ * tryb reaktywny działa na Nettym, gdzie wątki pętli zdarzeń nie są blokowane na wejściu i wyjściu.
+ */
+@Configuration
+public class ReactiveServerConfiguration {
+
+    /**
+     * Tworzy fabrykę serwera Netty.
+     *
+     * @return fabryka serwera
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
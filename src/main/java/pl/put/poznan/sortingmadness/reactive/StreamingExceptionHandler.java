@@ -0,0 +1,51 @@
+package pl.put.poznan.sortingmadness.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Obsługa wyjątków aplikacji reaktywnej, w tym samym formacie co {@code GlobalExceptionHandler}.
+ * <p>
+ * Dotyczy błędów zgłoszonych przed wysłaniem pierwszego elementu odpowiedzi; błąd w trakcie
+ * strumieniowania przerywa połączenie.
+ */
+@RestControllerAdvice
+public class StreamingExceptionHandler {
+
+    /**
+     * Obsługuje wyjątek {@code IllegalArgumentException}.
+     *
+     * @param ex przechwycony wyjątek
+     * @return mapa z polami {@code error} ("Invalid Request") i {@code message}
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return errorResponse("Invalid Request", ex.getMessage());
+    }
+
+    /**
+     * Obsługuje wyjątek {@code UncheckedIOException} zgłoszony przy zrzucaniu serii na dysk.
+     *
+     * @param ex przechwycony wyjątek
+     * @return mapa z polami {@code error} ("Spill Failed") i {@code message}
+     */
+    @ExceptionHandler(UncheckedIOException.class)
+    @ResponseStatus(HttpStatus.INSUFFICIENT_STORAGE)
+    public Map<String, Object> handleUncheckedIOException(UncheckedIOException ex) {
+        return errorResponse("Spill Failed", ex.getMessage());
+    }
+
+    private static Map<String, Object> errorResponse(String error, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", message);
+        return errorResponse;
+    }
+}
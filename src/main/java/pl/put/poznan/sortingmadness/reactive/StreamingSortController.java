@@ -0,0 +1,150 @@
+package pl.put.poznan.sortingmadness.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.put.poznan.sortingmadness.logic.SortComparators;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.stream.SpillingSortBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Strumieniowy punkt końcowy sortowania w aplikacji reaktywnej.
+ * <p>
+ * {@code POST /sort/stream} przyjmuje elementy jako strumień JSON ({@code application/stream+json}, jeden
+ * element na linię, albo tablicę {@code application/json}): wartości do posortowania albo rekordy, gdy podano
+ * parametr {@code keys}. Elementy trafiają do {@link SpillingSortBuffer} o pojemności
+ * {@code sorting.stream.buffer-size}: jeśli dane się mieszczą, są sortowane w pamięci wybraną strategią,
+ * a jeśli nie - kolejne pełne bufory są sortowane i zrzucane do {@code sorting.stream.spill-directory},
+ * a na końcu scalane. Wynik jest wysyłany jako {@code application/stream+json} z przeciwciśnieniem:
+ * kolejne elementy są odczytywane dopiero wtedy, gdy klient je odbiera.
+ * <p>
+ * Odbieranie danych jest przetwarzane partiami po {@code sorting.stream.prefetch} elementów, więc wolny
+ * odbiór (np. zrzut na dysk) spowalnia czytanie żądania zamiast gromadzić dane w pamięci.
+ */
+@RestController
+@RequestMapping("/sort/stream")
+public class StreamingSortController {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingSortController.class);
+
+    private final SortingMadness sortingMadness;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int prefetch;
+    private final Path spillDirectory;
+
+    /**
+     * Tworzy kontroler.
+     *
+     * @param sortingMadness współdzielony obiekt sortujący
+     * @param objectMapper   obiekt do zapisu i odczytu serii zrzucanych na dysk
+     * @param bufferSize     maksymalna liczba elementów sortowanych w pamięci
+     * @param prefetch       liczba elementów żądania pobieranych naraz
+     * @param spillDirectory katalog serii zrzucanych na dysk; domyślnie katalog tymczasowy systemu
+     */
+    public StreamingSortController(SortingMadness sortingMadness,
+                                   ObjectMapper objectMapper,
+                                   @Value("${sorting.stream.buffer-size:100000}") int bufferSize,
+                                   @Value("${sorting.stream.prefetch:256}") int prefetch,
+                                   @Value("${sorting.stream.spill-directory:${java.io.tmpdir}}") String spillDirectory) {
+        this.sortingMadness = sortingMadness;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.prefetch = prefetch;
+        this.spillDirectory = Path.of(spillDirectory);
+    }
+
+    /**
+     * Sortuje strumień elementów.
+     *
+     * @param input     elementy do posortowania
+     * @param keys      klucze sortowania rekordów oddzielone przecinkami; brak oznacza sortowanie wartości
+     * @param direction kierunek sortowania: "ASC" lub "DESC"
+     * @param algorithm algorytm sortujący pojedynczy bufor
+     * @return posortowane elementy
+     * @throws IllegalArgumentException jeśli kierunek, algorytm lub elementy są niepoprawne
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Flux<Object> sort(@RequestBody Flux<Object> input,
+                             @RequestParam(required = false) String keys,
+                             @RequestParam(defaultValue = "ASC") String direction,
+                             @RequestParam(defaultValue = "merge") String algorithm) {
+        if (!"ASC".equals(direction) && !"DESC".equals(direction)) {
+            throw new IllegalArgumentException("Sorting direction must be ASC or DESC.");
+        }
+        if (!SortingMadness.ALGORITHMS.contains(algorithm.toLowerCase())) {
+            throw new IllegalArgumentException("Unknown sorting algorithm: " + algorithm);
+        }
+        List<String> keyList = keys != null && !keys.isBlank() ? Arrays.asList(keys.split(",")) : null;
+
+        Comparator<Object> comparator;
+        UnaryOperator<List<Object>> runSorter;
+        if (keyList != null) {
+            comparator = (Comparator) SortComparators.records(keyList, direction);
+            runSorter = run -> (List<Object>) sortingMadness.sortData((List) run, keyList, algorithm, direction, 0).get("sortedData");
+        } else {
+            comparator = (Comparator) SortComparators.values(direction);
+            runSorter = run -> (List<Object>) sortingMadness.sortDataList((List) run, algorithm, direction, 0).get("sortedData");
+        }
+
+        return Flux.using(
+                () -> new SpillingSortBuffer<>(bufferSize, comparator, runSorter, spillDirectory, objectMapper),
+                buffer -> input
+                        // Blocking work (sorting, spilling) leaves the event loop; input is pulled in bounded batches.
+                        .publishOn(Schedulers.boundedElastic(), prefetch)
+                        .map(element -> keyList != null ? toRecord(element) : toValue(element))
+                        .doOnNext(buffer::add)
+                        .then()
+                        .thenMany(Flux.defer(() -> {
+                            long start = System.nanoTime();
+                            Iterator<Object> sorted = buffer.finish();
+                            logger.debug("Sorted {} streamed elements in {} ms ({} spilled runs)", buffer.getCount(),
+                                    (System.nanoTime() - start) / 1_000_000, buffer.getSpilledRuns());
+                            return Flux.fromIterable(() -> sorted);
+                        })),
+                SpillingSortBuffer::close)
+                // Draining the (possibly file-backed) iterator runs on a worker thread, one client request at a time.
+                .subscribeOn(Schedulers.boundedElastic(), true);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Object toValue(Object element) {
+        if (!(element instanceof Comparable)) {
+            throw new IllegalArgumentException("Stream element is not a sortable value: " + element);
+        }
+        return element;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Object toRecord(Object element) {
+        if (!(element instanceof Map)) {
+            throw new IllegalArgumentException("Stream element is not a record: " + element);
+        }
+        Map<String, Comparable> record = new LinkedHashMap<>();
+        ((Map<String, Object>) element).forEach((key, value) -> {
+            if (value instanceof Comparable) {
+                record.put(key, (Comparable) value);
+            }
+        });
+        return record;
+    }
+}
@@ -0,0 +1,26 @@
+package pl.put.poznan.sortingmadness.rest;
+
+/**
+ * Wyjątek zgłaszany, gdy żądanie nie może zostać przyjęte z powodu chwilowego braku zasobów.
+ * {@link GlobalExceptionHandler} zamienia go na odpowiedź 429 z nagłówkiem {@code Retry-After}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Tworzy wyjątek.
+     *
+     * @param message           opis przyczyny odrzucenia
+     * @param retryAfterSeconds sugerowany czas w sekundach, po którym klient może ponowić żądanie
+     */
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
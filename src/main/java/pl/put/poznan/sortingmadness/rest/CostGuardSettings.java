@@ -0,0 +1,56 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.put.poznan.sortingmadness.logic.CostGuard;
+
+/**
+ * Tworzy ograniczenie kosztu algorytmów kwadratowych ({@link CostGuard}) z właściwości aplikacji.
+ * <p>
+ * {@code sorting.cost.policy} wybiera postępowanie ({@code OFF}, {@code REJECT}, {@code CAP}, {@code ESCALATE}),
+ * gdy szacowany czas sortowania przekracza {@code sorting.cost.max-millis}. Czas porównania
+ * ({@code sorting.cost.nanos-per-comparison}) jest domyślnie mierzony przy starcie. Ograniczenie trafia do
+ * współdzielonego obiektu sortującego ({@link SortingConfiguration}). Liczba żądań, których dotyczyło
+ * ograniczenie, trafia do metryki {@code sorting.cost.guarded} z etykietą {@code policy}.
+ */
+@Configuration
+public class CostGuardSettings {
+    private static final Logger logger = LoggerFactory.getLogger(CostGuardSettings.class);
+
+    /**
+     * Tworzy ograniczenie kosztu.
+     *
+     * @param meterRegistry      rejestr metryk
+     * @param policy             postępowanie po przekroczeniu limitu
+     * @param maxMillis          limit szacowanego czasu sortowania w milisekundach
+     * @param nanosPerComparison czas porównania w nanosekundach; 0 oznacza pomiar przy starcie
+     * @param escalation         algorytm O(n log n) dla polityki {@code ESCALATE}
+     * @return ograniczenie kosztu
+     */
+    @Bean
+    public CostGuard costGuard(MeterRegistry meterRegistry,
+                               @Value("${sorting.cost.policy:ESCALATE}") CostGuard.Policy policy,
+                               @Value("${sorting.cost.max-millis:5000}") long maxMillis,
+                               @Value("${sorting.cost.nanos-per-comparison:0}") double nanosPerComparison,
+                               @Value("${sorting.cost.escalate-to:merge}") String escalation) {
+        double nanos = nanosPerComparison > 0 ? nanosPerComparison
+                : policy != CostGuard.Policy.OFF ? CostGuard.calibrate() : CostGuard.DEFAULT_NANOS_PER_COMPARISON;
+        CostGuard costGuard = new CostGuard(policy, maxMillis, nanos, escalation);
+
+        for (CostGuard.Policy value : CostGuard.Policy.values()) {
+            if (value != CostGuard.Policy.OFF) {
+                FunctionCounter.builder("sorting.cost.guarded", costGuard, guard -> guard.getGuarded(value))
+                        .tag("policy", value.name())
+                        .register(meterRegistry);
+            }
+        }
+        logger.info("Cost guard: {}", policy == CostGuard.Policy.OFF ? "disabled"
+                : String.format("%s above %d ms, %.2f ns per comparison", policy, maxMillis, nanos));
+        return costGuard;
+    }
+}
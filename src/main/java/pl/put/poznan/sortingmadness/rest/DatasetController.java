@@ -0,0 +1,56 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetWriter;
+
+/**
+ * Kontroler REST udostępniający punkt końcowy "/sort/datasets" generujący syntetyczne zbiory danych.
+ * <p>
+ * Odpowiedź jest zapisywana strumieniowo i ma format żądania "/sort", dzięki czemu można ją
+ * bezpośrednio odesłać do sortowania lub zapisać jako powtarzalne dane testowe.
+ */
+@RestController
+@RequestMapping("/sort/datasets")
+public class DatasetController {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetController.class);
+
+    private final DatasetWriter datasetWriter = new DatasetWriter(new DatasetGenerator());
+
+    @Value("${sorting.datasets.max-size:10000000}")
+    private int maxSize;
+
+    /**
+     * Punkt końcowy POST generujący zbiór danych według podanego opisu.
+     *
+     * @param spec    opis zbioru danych (kształt, rozmiar, ziarno i parametry kształtu)
+     * @param records {@code true} aby wygenerować rekordy w polu {@code data}, {@code false} dla pola {@code dataList}
+     * @return strumieniowana treść JSON w formacie żądania "/sort"
+     * @throws IllegalArgumentException jeśli opis jest niepoprawny lub rozmiar przekracza limit
+     */
+    @PostMapping
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody DatasetSpec spec,
+                                                          @RequestParam(name = "records", defaultValue = "false") boolean records) {
+        spec.validate();
+        if (spec.getSize() > maxSize) {
+            throw new IllegalArgumentException("Dataset size must not exceed " + maxSize + ".");
+        }
+        logger.debug("Generating dataset {} (records: {})", spec, records);
+
+        StreamingResponseBody body = output -> datasetWriter.write(spec, records, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
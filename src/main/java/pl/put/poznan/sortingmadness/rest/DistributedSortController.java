@@ -0,0 +1,67 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * Kontroler REST trybu koordynatora: {@code POST /sort/distributed} przyjmuje żądanie w formacie "/sort"
+ * i sortuje je na instancjach wskazanych przez {@code sorting.cluster.workers} ({@link DistributedSortService}).
+ * <p>
+ * Po stronie koordynatora żądanie przechodzi przez {@link SortExecution} jak zwykłe "/sort" (kolejka klienta,
+ * budżet pamięci i czasu); pozostały budżet czasu jest przekazywany pracownikom w polu {@code timeoutMillis}.
+ */
+@RestController
+@RequestMapping("/sort/distributed")
+public class DistributedSortController {
+
+    private final DistributedSortService distributedSortService;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
+
+    public DistributedSortController(DistributedSortService distributedSortService, MemoryBudget memoryBudget,
+                                     SortExecution execution) {
+        this.distributedSortService = distributedSortService;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
+    }
+
+    /**
+     * Sortuje dane żądania na pracownikach.
+     *
+     * @param request        żądanie sortowania w formacie "/sort"
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return wyniki w formacie "/sort", każdy z dodatkowym blokiem {@code distribution} (podział danych, czasy
+     *         próbkowania, przesyłu, sortowania u pracowników i scalania oraz liczba prób każdego przedziału)
+     * @throws IllegalArgumentException   jeśli żądanie jest niepoprawne lub pracownik odrzucił przedział
+     * @throws ResponseStatusException    503 bez skonfigurowanych pracowników; 502, jeśli przedział nie powiódł się
+     *                                    po wszystkich próbach
+     * @throws SortingCancelledException  jeśli żądanie przekroczyło budżet czasu
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @PostMapping(produces = "application/json")
+    public WebAsyncTask<Map<String, Object>> sort(@RequestBody SortingRequest request,
+                                                  @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                  @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                  HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        requestTimings.setExposeInBody(request.isIncludeTimings());
+
+        String client = execution.clientId(clientId, servletRequest);
+        long budgetMillis = execution.timeoutMillis(request.getTimeoutMillis());
+        return execution.submit(client, request.valueCount(), memoryBudget.estimate(request), budgetMillis, requestTimings,
+                context -> distributedSortService.sort(request, client, requestTimings, context));
+    }
+}
@@ -0,0 +1,459 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.SortComparators;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.distributed.RangePartitioner;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Koordynator sortowania rozproszonego ("/sort/distributed") między instancjami tej samej usługi.
+ * <p>
+ * Dane są dzielone na przedziały wartości ({@link RangePartitioner}): granice to kwantyle losowej próbki
+ * ({@code sorting.cluster.sample-size}), a liczba przedziałów to liczba pracowników
+ * ({@code sorting.cluster.workers}) razy {@code sorting.cluster.partitions-per-worker}. Każdy przedział jest
+ * wysyłany równolegle do "/sort" jednego pracownika, który sortuje go lokalną strategią. Posortowane przedziały
+ * są łączone jeden za drugim; jeśli próbka dała zbyt nierówny podział (największy przedział przekracza
+ * {@code sorting.cluster.max-skew} razy średni rozmiar, np. przy wielu powtórzeniach), dane są dzielone na
+ * ciągłe kawałki, a wyniki scalane kopcem.
+ * <p>
+ * Przedział, którego wysłanie się nie powiodło (błąd połączenia, odpowiedź 5xx lub 429), jest ponawiany
+ * do {@code sorting.cluster.retries} razy, za każdym razem na kolejnym pracowniku. Odpowiedź zawiera blok
+ * {@code distribution} z podziałem czasu na próbkowanie, podział, przesył, sortowanie u pracowników
+ * i scalanie.
+ * <p>
+ * Przedziały wysyła ograniczona pula wątków, wystarczająca dla {@link #CONCURRENT_SORTS} jednoczesnych sortowań
+ * rozproszonych, z kolejką tej samej wielkości. Gdy pula i kolejka są zajęte, żądanie jest odrzucane wyjątkiem
+ * {@link AdmissionRejectedException} (429), zamiast tworzyć kolejne wątki.
+ */
+@Service
+public class DistributedSortService {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedSortService.class);
+
+    /** Odstęp sprawdzania anulowania podczas oczekiwania na pracowników. */
+    private static final long CHECK_INTERVAL_MILLIS = 50;
+
+    /** Liczba sortowań rozproszonych, dla których pula ma wątki do wysłania wszystkich przedziałów naraz. */
+    private static final int CONCURRENT_SORTS = 4;
+
+    /** Czas, po którym bezczynny wątek puli jest kończony. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final RestTemplate restTemplate;
+    private final List<String> workers;
+    private final int partitionsPerWorker;
+    private final int sampleSize;
+    private final int retries;
+    private final long retryBackoffMillis;
+    private final double maxSkew;
+    private final ThreadPoolExecutor executor;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    /**
+     * Tworzy koordynatora.
+     *
+     * @param restTemplateBuilder budowniczy klienta HTTP
+     * @param meterRegistry       rejestr metryk
+     * @param workers             adresy bazowe pracowników oddzielone przecinkami, np. {@code http://localhost:8081}
+     * @param partitionsPerWorker liczba przedziałów na pracownika
+     * @param sampleSize          liczba elementów próbki, z której wyznaczane są granice przedziałów
+     * @param retries             liczba ponowień przedziału po błędzie
+     * @param retryBackoffMillis  odstęp przed pierwszym ponowieniem, rosnący liniowo z kolejnymi
+     * @param maxSkew             dopuszczalny stosunek największego przedziału do średniego
+     * @param connectTimeoutMillis limit czasu nawiązania połączenia z pracownikiem
+     * @param readTimeoutMillis   limit czasu oczekiwania na odpowiedź pracownika
+     */
+    public DistributedSortService(RestTemplateBuilder restTemplateBuilder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${sorting.cluster.workers:}") String workers,
+                                  @Value("${sorting.cluster.partitions-per-worker:1}") int partitionsPerWorker,
+                                  @Value("${sorting.cluster.sample-size:1000}") int sampleSize,
+                                  @Value("${sorting.cluster.retries:2}") int retries,
+                                  @Value("${sorting.cluster.retry-backoff-ms:100}") long retryBackoffMillis,
+                                  @Value("${sorting.cluster.max-skew:2.0}") double maxSkew,
+                                  @Value("${sorting.cluster.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                                  @Value("${sorting.cluster.read-timeout-ms:300000}") long readTimeoutMillis) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMillis))
+                .build();
+        this.workers = Arrays.stream(workers.split(","))
+                .map(String::trim)
+                .filter(worker -> !worker.isEmpty())
+                .map(worker -> worker.endsWith("/") ? worker.substring(0, worker.length() - 1) : worker)
+                .collect(Collectors.toList());
+        this.partitionsPerWorker = Math.max(1, partitionsPerWorker);
+        this.sampleSize = sampleSize;
+        this.retries = Math.max(0, retries);
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxSkew = maxSkew;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, this.workers.size()) * this.partitionsPerWorker * CONCURRENT_SORTS;
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads), runnable -> {
+            Thread thread = new Thread(runnable, "sort-cluster-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.retried = meterRegistry.counter("sorting.cluster.partitions", "outcome", "retried");
+        this.failed = meterRegistry.counter("sorting.cluster.partitions", "outcome", "failed");
+        this.rejected = meterRegistry.counter("sorting.cluster.partitions", "outcome", "rejected");
+    }
+
+    /**
+     * Sortuje dane żądania na pracownikach, osobno dla każdego parametru sortowania.
+     *
+     * @param request  żądanie sortowania w tym samym formacie co "/sort"
+     * @param clientId identyfikator klienta, przekazywany pracownikom w nagłówku {@code X-Client-Id}
+     * @param timings  pomiary etapów przetwarzania
+     * @param context  kontekst z terminem i anulowaniem
+     * @return mapa w formacie odpowiedzi "/sort"; każdy wynik zawiera dodatkowo blok {@code distribution}
+     * @throws IllegalArgumentException  jeśli żądanie jest niepoprawne (także gdy zawiera {@code limit} lub
+     *                                   {@code offset}) albo pracownik odrzucił przedział
+     * @throws ResponseStatusException   503, jeśli nie skonfigurowano pracowników; 502, jeśli przedział
+     *                                   nie powiódł się po wszystkich próbach
+     * @throws SortingCancelledException jeśli żądanie przekroczyło budżet czasu lub klient się rozłączył
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Map<String, Object> sort(SortingRequest request, String clientId, SortTimings timings, SortingContext context) {
+        if (workers.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "No cluster workers configured (sorting.cluster.workers).");
+        }
+        if (request.getLimit() != null || request.getOffset() != null) {
+            throw new IllegalArgumentException("limit and offset are not supported by distributed sorting.");
+        }
+        List<SortingRequest.SortingParameter> parameters = Optional.ofNullable(request.getSortingParameters())
+                .orElseGet(() -> List.of(new SortingRequest.SortingParameter()));
+        Map<String, Object> finalResult = new LinkedHashMap<>();
+
+        List<Map<String, Comparable>> data = request.getData();
+        if (data != null) {
+            List<String> keys = request.getKeysToSort();
+            if (data.isEmpty()) {
+                throw new IllegalArgumentException("Dataset is empty.");
+            }
+            if (keys == null || keys.isEmpty()) {
+                throw new IllegalArgumentException("keysToSort must be specified for records.");
+            }
+            List<Object> records = (List) (request.isRemoveDuplicates() ? data.stream().distinct().collect(Collectors.toList()) : data);
+            for (SortingRequest.SortingParameter param : parameters) {
+                String direction = direction(request, param);
+                Map<String, Object> result = sortDistributed(records, (Comparator) SortComparators.records(keys, direction),
+                        part -> payload("data", part, keys, param, direction), clientId, timings, context);
+                finalResult.put(algorithmName(param) + "-" + String.join(",", keys) + "-" + direction, List.of(result));
+            }
+        } else {
+            List<Comparable> dataList = request.getDataList();
+            if (dataList == null || dataList.isEmpty()) {
+                throw new IllegalArgumentException("Dataset (list) is empty.");
+            }
+            List<Object> values = (List) (request.isRemoveDuplicates() ? dataList.stream().distinct().collect(Collectors.toList()) : dataList);
+            for (SortingRequest.SortingParameter param : parameters) {
+                String direction = direction(request, param);
+                Map<String, Object> result = sortDistributed(values, (Comparator) SortComparators.values(direction),
+                        part -> payload("dataList", part, null, param, direction), clientId, timings, context);
+                finalResult.put(algorithmName(param) + "-" + direction, result);
+            }
+        }
+        return finalResult;
+    }
+
+    private static String direction(SortingRequest request, SortingRequest.SortingParameter param) {
+        String direction = Optional.ofNullable(param.getDirections())
+                .orElseThrow(() -> new IllegalArgumentException("Sorting direction must be specified."));
+        int maxIterations = Optional.ofNullable(param.getMaxIterations())
+                .orElse(Optional.ofNullable(request.getGlobalMaxIterations()).orElse(0));
+        if (maxIterations > 0) {
+            // Partially sorted partitions cannot be combined into a meaningful result.
+            throw new IllegalArgumentException("maxIterations is not supported by distributed sorting.");
+        }
+        return direction;
+    }
+
+    private static String algorithmName(SortingRequest.SortingParameter param) {
+        return param.getSortingAlgorithms() != null ? param.getSortingAlgorithms() : "auto";
+    }
+
+    private static Map<String, Object> payload(String field, List<Object> part, List<String> keys,
+                                               SortingRequest.SortingParameter param, String direction) {
+        Map<String, Object> parameter = new LinkedHashMap<>();
+        parameter.put("sortingAlgorithms", param.getSortingAlgorithms());
+        parameter.put("directions", direction);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(field, part);
+        if (keys != null) {
+            payload.put("keysToSort", keys);
+        }
+        payload.put("sortingParameters", List.of(parameter));
+        return payload;
+    }
+
+    private Map<String, Object> sortDistributed(List<Object> data, Comparator<Object> comparator,
+                                                Function<List<Object>, Map<String, Object>> payload,
+                                                String clientId, SortTimings timings, SortingContext context) {
+        long start = System.nanoTime();
+        int partitionCount = workers.size() * partitionsPerWorker;
+        RangePartitioner<Object> partitioner = new RangePartitioner<>(comparator, sampleSize, new Random());
+
+        List<Object> splitters = partitioner.splitters(data, partitionCount);
+        long sampled = System.nanoTime();
+        List<List<Object>> partitions = partitioner.partition(data, splitters);
+        String layout = "range";
+        if (partitionCount > 1 && RangePartitioner.largest(partitions) > maxSkew * data.size() / partitionCount) {
+            partitions = RangePartitioner.chunks(data, partitionCount);
+            layout = "chunks";
+        }
+        long partitioned = System.nanoTime();
+        timings.recordSince("sample", start);
+        timings.recordSince("partition", sampled);
+
+        List<Future<PartResult>> futures = new ArrayList<>();
+        List<PartResult> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < partitions.size(); i++) {
+                int index = i;
+                List<Object> partition = partitions.get(i);
+                futures.add(partition.isEmpty() ? null : submit(() -> sortPartition(index, partition,
+                        payload.apply(partition), clientId, context)));
+            }
+            for (Future<PartResult> future : futures) {
+                if (future != null) {
+                    results.add(await(future, context));
+                }
+            }
+        } finally {
+            futures.forEach(future -> {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            });
+        }
+        long shipped = timings.recordSince("remote", partitioned);
+
+        List<List<Object>> sortedParts = results.stream().map(result -> result.sortedData).collect(Collectors.toList());
+        boolean overlapping = RangePartitioner.overlapping(sortedParts, comparator);
+        List<Object> sortedData = overlapping
+                ? RangePartitioner.merge(sortedParts, comparator)
+                : RangePartitioner.concatenate(sortedParts);
+        long end = timings.recordSince("merge", shipped);
+
+        double sortMillis = 0;
+        double transferMillis = 0;
+        List<Map<String, Object>> parts = new ArrayList<>();
+        for (PartResult result : results) {
+            sortMillis += result.sortMillis;
+            transferMillis += result.transferMillis();
+            parts.add(result.describe());
+        }
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        distribution.put("workers", workers.size());
+        distribution.put("layout", layout);
+        distribution.put("combine", overlapping ? "merge" : "concatenate");
+        distribution.put("sampleMillis", millis(sampled - start));
+        distribution.put("partitionMillis", millis(partitioned - sampled));
+        distribution.put("remoteMillis", millis(shipped - partitioned));
+        distribution.put("transferMillis", transferMillis);
+        distribution.put("sortMillis", sortMillis);
+        distribution.put("mergeMillis", millis(end - shipped));
+        distribution.put("partitions", parts);
+        logger.debug("Distributed sort of {} elements over {} partitions ({}, {}): remote {} ms, of which sorting {} ms",
+                data.size(), results.size(), layout, overlapping ? "merged" : "concatenated",
+                millis(shipped - partitioned), sortMillis);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sortedData", sortedData);
+        result.put("executionTime", millis(end - start));
+        result.put("distribution", distribution);
+        return result;
+    }
+
+    /**
+     * Przekazuje wysłanie przedziału do puli.
+     *
+     * @throws AdmissionRejectedException jeśli pula i jej kolejka są zajęte
+     */
+    private Future<PartResult> submit(Callable<PartResult> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AdmissionRejectedException("Too many distributed sorts in progress, try again later.", 1);
+        }
+    }
+
+    /**
+     * Czeka na wynik przedziału, przerywając oczekiwanie po anulowaniu żądania.
+     */
+    private static PartResult await(Future<PartResult> future, SortingContext context) {
+        while (true) {
+            context.throwIfCancelled();
+            try {
+                return future.get(CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still running; check the context again.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SortingCancelledException(SortingCancelledException.Reason.CANCELLED, "Distributed sort was interrupted.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Wysyła przedział do pracownika, ponawiając po błędach na kolejnych pracownikach.
+     */
+    @SuppressWarnings("unchecked")
+    private PartResult sortPartition(int index, List<Object> partition, Map<String, Object> payload,
+                                     String clientId, SortingContext context) throws InterruptedException {
+        RuntimeException lastError = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            context.throwIfCancelled();
+            String worker = workers.get((index + attempt) % workers.size());
+            Duration remaining = context.getRemaining();
+            if (remaining != null) {
+                payload.put("timeoutMillis", Math.max(1, remaining.toMillis()));
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set(SortExecution.CLIENT_ID_HEADER, clientId);
+
+            long start = System.nanoTime();
+            try {
+                Map<String, Object> response = restTemplate.postForObject(worker + "/sort", new HttpEntity<>(payload, headers), Map.class);
+                long roundTrip = System.nanoTime() - start;
+                Map<String, Object> result = unwrap(response, worker);
+                Object executionTime = result.get("executionTime");
+                return new PartResult(index, worker, attempt + 1, partition.size(), (List<Object>) result.get("sortedData"),
+                        millis(roundTrip), executionTime instanceof Number ? ((Number) executionTime).doubleValue() : 0);
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+                    throw new IllegalArgumentException("Worker " + worker + " rejected partition " + index + ": "
+                            + e.getResponseBodyAsString());
+                }
+                lastError = e;
+            } catch (RestClientException e) {
+                lastError = e;
+            }
+            if (attempt < retries) {
+                retried.increment();
+                logger.warn("Partition {} failed on {} (attempt {} of {}): {}", index, worker, attempt + 1, retries + 1,
+                        lastError.getMessage());
+                Thread.sleep(retryBackoffMillis * (attempt + 1));
+            }
+        }
+        failed.increment();
+        throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                "Partition " + index + " failed after " + (retries + 1) + " attempts: " + lastError.getMessage());
+    }
+
+    /**
+     * Wyciąga wynik z odpowiedzi "/sort" pracownika: jedyny wpis mapy, dla rekordów opakowany w listę.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> unwrap(Map<String, Object> response, String worker) {
+        Object value = response != null && response.size() == 1 ? response.values().iterator().next() : null;
+        if (value instanceof List && ((List<?>) value).size() == 1) {
+            value = ((List<?>) value).get(0);
+        }
+        if (!(value instanceof Map) || !(((Map<String, Object>) value).get("sortedData") instanceof List)) {
+            throw new RestClientException("Unexpected response from worker " + worker);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Zatrzymuje wątki wysyłające przedziały przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wynik jednego przedziału.
+     */
+    private static class PartResult {
+        private final int index;
+        private final String worker;
+        private final int attempts;
+        private final int size;
+        private final List<Object> sortedData;
+        private final double roundTripMillis;
+        private final double sortMillis;
+
+        PartResult(int index, String worker, int attempts, int size, List<Object> sortedData,
+                   double roundTripMillis, double sortMillis) {
+            this.index = index;
+            this.worker = worker;
+            this.attempts = attempts;
+            this.size = size;
+            this.sortedData = sortedData;
+            this.roundTripMillis = roundTripMillis;
+            this.sortMillis = sortMillis;
+        }
+
+        double transferMillis() {
+            return Math.max(0, roundTripMillis - sortMillis);
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("index", index);
+            description.put("worker", worker);
+            description.put("size", size);
+            description.put("attempts", attempts);
+            description.put("transferMillis", transferMillis());
+            description.put("sortMillis", sortMillis);
+            return description;
+        }
+    }
+}
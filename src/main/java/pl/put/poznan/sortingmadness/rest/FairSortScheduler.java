@@ -0,0 +1,417 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sprawiedliwy planista sortowań wykonywanych przez "/sort", ważony per klient.
+ * <p>
+ * Każdy klient (identyfikowany nagłówkiem {@code X-Client-Id}) ma własną kolejkę. Wolny wątek wybiera
+ * klienta o najmniejszym zużyciu ważonym ("pass" w planowaniu krokowym): po uruchomieniu zadania
+ * zużycie klienta rośnie o koszt zadania (liczbę wartości do posortowania) podzielony przez wagę klienta
+ * ({@code sorting.scheduler.weights}, np. {@code dashboard:4,batch:1}; domyślnie 1). Klient, który był
+ * bezczynny, dołącza z zużyciem równym najmniejszemu wśród aktywnych, więc nie gromadzi zaległego przydziału.
+ * Liczba jednocześnie wykonywanych zadań klienta jest ograniczona ({@code sorting.scheduler.max-concurrent-per-client}),
+ * podobnie jak długość jego kolejki ({@code sorting.scheduler.max-queued-per-client}); po jej przekroczeniu
+ * żądanie jest odrzucane wyjątkiem {@link AdmissionRejectedException}. Sprawdzenie limitu i zajęcie miejsca
+ * w kolejce odbywają się atomowo w {@link #admit(String, long)}.
+ * <p>
+ * Małe żądania (do {@code sorting.scheduler.fast-lane-max-values} wartości) trafiają na szybki pas klienta:
+ * wątki ogólne obsługują szybkie pasy w pierwszej kolejności, a {@code sorting.scheduler.fast-lane-workers}
+ * wątków obsługuje wyłącznie je, dzięki czemu krótkie żądania nie czekają za dużymi sortowaniami. Zadania
+ * z szybkiego pasa wliczają się do limitów klienta i do jego zużycia, więc klient wysyłający wiele małych
+ * żądań nie zagłodzi pozostałych.
+ */
+@Component
+public class FairSortScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(FairSortScheduler.class);
+
+    private final int maxConcurrentPerClient;
+    private final int maxQueuedPerClient;
+    private final long fastLaneMaxValues;
+    private final Map<String, Double> weights;
+    private final Timer fastLaneWait;
+    private final Timer fairQueueWait;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<String, ClientQueue> clients = new HashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private int queued;
+    private int running;
+    private boolean shutdown;
+
+    /**
+     * Tworzy planistę i uruchamia jego wątki.
+     *
+     * @param meterRegistry          rejestr metryk
+     * @param workerCount            liczba wątków ogólnych; 0 oznacza liczbę procesorów
+     * @param fastLaneWorkers        liczba wątków obsługujących wyłącznie szybki pas
+     * @param fastLaneMaxValues      największa liczba wartości żądania kierowanego na szybki pas
+     * @param maxConcurrentPerClient maksymalna liczba jednocześnie wykonywanych zadań jednego klienta
+     * @param maxQueuedPerClient     maksymalna liczba zadań jednego klienta oczekujących w kolejce
+     * @param weights                wagi klientów w formacie {@code klient:waga,...}
+     */
+    public FairSortScheduler(MeterRegistry meterRegistry,
+                             @Value("${sorting.scheduler.workers:0}") int workerCount,
+                             @Value("${sorting.scheduler.fast-lane-workers:1}") int fastLaneWorkers,
+                             @Value("${sorting.scheduler.fast-lane-max-values:5000}") long fastLaneMaxValues,
+                             @Value("${sorting.scheduler.max-concurrent-per-client:2}") int maxConcurrentPerClient,
+                             @Value("${sorting.scheduler.max-queued-per-client:50}") int maxQueuedPerClient,
+                             @Value("${sorting.scheduler.weights:}") String weights) {
+        this.maxConcurrentPerClient = maxConcurrentPerClient;
+        this.maxQueuedPerClient = maxQueuedPerClient;
+        this.fastLaneMaxValues = fastLaneMaxValues;
+        this.weights = parseWeights(weights);
+        this.fastLaneWait = meterRegistry.timer("sorting.scheduler.wait", "lane", "fast");
+        this.fairQueueWait = meterRegistry.timer("sorting.scheduler.wait", "lane", "fair");
+
+        meterRegistry.gauge("sorting.scheduler.queued", this, FairSortScheduler::getQueued);
+        meterRegistry.gauge("sorting.scheduler.running", this, FairSortScheduler::getRunning);
+
+        int general = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i <= general; i++) {
+            startWorker("sort-worker-" + i, false);
+        }
+        for (int i = 1; i <= fastLaneWorkers; i++) {
+            startWorker("sort-fast-" + i, true);
+        }
+        logger.info("Fair sort scheduler started with {} workers and {} fast-lane workers, weights {}",
+                general, fastLaneWorkers, this.weights);
+    }
+
+    /**
+     * Przyjmuje zadanie klienta: sprawdza limit kolejki i rezerwuje w niej miejsce. Zadanie przekazane
+     * zwróconemu wykonawcy zajmuje to miejsce, więc równoległe żądania nie przekroczą limitu.
+     *
+     * @param clientId identyfikator klienta
+     * @param cost     koszt zadania, czyli liczba wartości do posortowania
+     * @return wykonawca do użycia z {@link org.springframework.web.context.request.async.WebAsyncTask},
+     *         przyjmujący jedno zadanie; jeśli zadanie nie zostanie mu przekazane, miejsce należy zwolnić przez
+     *         {@link ClientExecutor#cancelReservation()}
+     * @throws AdmissionRejectedException jeśli kolejka klienta jest pełna
+     */
+    public ClientExecutor admit(String clientId, long cost) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Scheduler is shut down");
+            }
+            ClientQueue client = clients.get(clientId);
+            if (client == null) {
+                client = new ClientQueue(weights.getOrDefault(clientId, 1.0));
+                clients.put(clientId, client);
+            }
+            if (client.queued() >= maxQueuedPerClient) {
+                throw new AdmissionRejectedException("Too many queued sorts for client " + clientId + ".", 1);
+            }
+            if (client.isIdle()) {
+                client.pass = Math.max(client.pass, minActivePass());
+            }
+            client.reserved++;
+            return new ClientExecutor(clientId, client, Math.max(1, cost));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Umieszcza zadanie w miejscu zarezerwowanym przez {@link #admit(String, long)}.
+     */
+    private void enqueue(Task task) {
+        lock.lock();
+        try {
+            task.client.reserved--;
+            if (shutdown) {
+                removeIfIdle(task.clientId, task.client);
+                throw new RejectedExecutionException("Scheduler is shut down");
+            }
+            (task.fast ? task.client.fastQueue : task.client.queue).addLast(task);
+            queued++;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wybiera następne zadanie, najpierw z szybkich pasów; wywoływane z założoną blokadą.
+     */
+    private Task next(boolean fastLaneOnly) {
+        Task task = next(true, fastLaneOnly);
+        return task != null || fastLaneOnly ? task : next(false, false);
+    }
+
+    /**
+     * Wybiera zadanie klienta o najmniejszym zużyciu spośród klientów, którzy nie wyczerpali limitu
+     * jednocześnie wykonywanych zadań.
+     */
+    private Task next(boolean fast, boolean fastLaneOnly) {
+        ClientQueue chosen = null;
+        for (ClientQueue client : clients.values()) {
+            Deque<Task> queue = fast ? client.fastQueue : client.queue;
+            if (!queue.isEmpty() && client.running < maxConcurrentPerClient
+                    && (chosen == null || client.pass < chosen.pass)) {
+                chosen = client;
+            }
+        }
+        if (chosen == null) {
+            return null;
+        }
+        Task task = (fast ? chosen.fastQueue : chosen.queue).pollFirst();
+        chosen.pass += task.cost / chosen.weight;
+        chosen.running++;
+        return task;
+    }
+
+    private double minActivePass() {
+        double min = Double.MAX_VALUE;
+        for (ClientQueue client : clients.values()) {
+            if (!client.isIdle()) {
+                min = Math.min(min, client.pass);
+            }
+        }
+        return min == Double.MAX_VALUE ? 0 : min;
+    }
+
+    private void startWorker(String name, boolean fastLaneOnly) {
+        Thread thread = new Thread(() -> work(fastLaneOnly), name);
+        thread.setDaemon(true);
+        workers.add(thread);
+        thread.start();
+    }
+
+    private void work(boolean fastLaneOnly) {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = next(fastLaneOnly)) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    available.await();
+                }
+                queued--;
+                running++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            (task.fast ? fastLaneWait : fairQueueWait)
+                    .record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+            try {
+                task.future.run();
+            } finally {
+                // A timed-out request cancels its future with interruption; do not leak that into the next task.
+                Thread.interrupted();
+                finish(task);
+            }
+        }
+    }
+
+    private void finish(Task task) {
+        lock.lock();
+        try {
+            running--;
+            task.client.running--;
+            removeIfIdle(task.clientId, task.client);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Usuwa stan bezczynnego klienta; wywoływane z założoną blokadą.
+     */
+    private void removeIfIdle(String clientId, ClientQueue client) {
+        if (client.isIdle()) {
+            clients.remove(clientId, client);
+        }
+    }
+
+    private static Map<String, Double> parseWeights(String spec) {
+        Map<String, Double> result = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid client weight: " + entry);
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Client weight must be positive: " + entry);
+            }
+            result.put(parts[0].trim(), weight);
+        }
+        return result;
+    }
+
+    /**
+     * Zatrzymuje wątki planisty przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Kolejka i stan planowania jednego klienta.
+     */
+    private static class ClientQueue {
+        private final double weight;
+        private final Deque<Task> queue = new ArrayDeque<>();
+        private final Deque<Task> fastQueue = new ArrayDeque<>();
+        private double pass;
+        private int running;
+        private int reserved;
+
+        ClientQueue(double weight) {
+            this.weight = weight;
+        }
+
+        int queued() {
+            return queue.size() + fastQueue.size() + reserved;
+        }
+
+        boolean isIdle() {
+            return queued() == 0 && running == 0;
+        }
+    }
+
+    /**
+     * Zadanie oczekujące w planiście.
+     */
+    private static class Task {
+        private final String clientId;
+        private final ClientQueue client;
+        private final long cost;
+        private final boolean fast;
+        private final FutureTask<?> future;
+        private final long enqueuedNanos = System.nanoTime();
+
+        Task(String clientId, ClientQueue client, long cost, boolean fast, FutureTask<?> future) {
+            this.clientId = clientId;
+            this.client = client;
+            this.cost = cost;
+            this.fast = fast;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Wykonawca przypisany do jednego żądania, przekazujący jego zadanie do zarezerwowanego miejsca w kolejce.
+     */
+    public class ClientExecutor implements AsyncTaskExecutor {
+        private final String clientId;
+        private final ClientQueue client;
+        private final long cost;
+        private final AtomicBoolean used = new AtomicBoolean();
+
+        ClientExecutor(String clientId, ClientQueue client, long cost) {
+            this.clientId = clientId;
+            this.client = client;
+            this.cost = cost;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            submit(task);
+        }
+
+        @Override
+        public void execute(Runnable task, long startTimeout) {
+            submit(task);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            FutureTask<Object> future = new FutureTask<>(task, null);
+            enqueue(task(future));
+            return future;
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            FutureTask<T> future = new FutureTask<>(task);
+            enqueue(task(future));
+            return future;
+        }
+
+        /**
+         * Zwalnia miejsce zarezerwowane w kolejce klienta, jeśli zadanie nie zostało jeszcze przekazane, np. gdy
+         * obsługa żądania zakończyła się błędem przed rozpoczęciem przetwarzania asynchronicznego. Po przekazaniu
+         * zadania nie robi nic.
+         */
+        public void cancelReservation() {
+            if (!used.compareAndSet(false, true)) {
+                return;
+            }
+            lock.lock();
+            try {
+                client.reserved--;
+                removeIfIdle(clientId, client);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Task task(FutureTask<?> future) {
+            if (!used.compareAndSet(false, true)) {
+                throw new IllegalStateException("Only one task can be submitted per admission.");
+            }
+            return new Task(clientId, client, cost, cost <= fastLaneMaxValues, future);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package pl.put.poznan.sortingmadness.rest;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -39,4 +42,42 @@ public class GlobalExceptionHandler {
         errorResponse.put("message", ex.getMessage());
         return errorResponse;
     }
+
+    /**
+     * Obsługuje wyjątek {@code SortingCancelledException}, zgłaszany, gdy sortowanie przekroczyło budżet
+     * czasu lub zostało anulowane.
+     *
+     * @param ex wyjątek {@code SortingCancelledException}, który został przechwycony.
+     * @return mapa zawierająca szczegóły błędu w formacie JSON, z polami:
+     *         <ul>
+     *             <li>{@code error}: "Sort Timeout" lub "Sort Cancelled".</li>
+     *             <li>{@code message}: szczegółowa wiadomość wyciągnięta z wyjątku.</li>
+     *         </ul>
+     */
+    @ExceptionHandler(SortingCancelledException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public Map<String, Object> handleSortingCancelledException(SortingCancelledException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getReason() == SortingCancelledException.Reason.TIMEOUT ? "Sort Timeout" : "Sort Cancelled");
+        errorResponse.put("message", ex.getMessage());
+        return errorResponse;
+    }
+
+    /**
+     * Obsługuje wyjątek {@code AdmissionRejectedException}, zgłaszany, gdy serwer chwilowo nie może przyjąć żądania.
+     *
+     * @param ex wyjątek {@code AdmissionRejectedException}, który został przechwycony.
+     * @return odpowiedź 429 z nagłówkiem {@code Retry-After} i polami {@code error} oraz {@code message}
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> handleAdmissionRejectedException(AdmissionRejectedException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Too Many Requests");
+        errorResponse.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
 }
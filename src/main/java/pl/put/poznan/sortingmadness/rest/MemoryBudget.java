@@ -0,0 +1,251 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.ScratchArena;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Globalny budżet pamięci dla sortowań, używany do kontroli przyjmowania żądań.
+ * <p>
+ * Przed sortowaniem szacowane jest zapotrzebowanie żądania na pamięć: liczba wartości w danych
+ * (elementów listy albo pól wszystkich rekordów) × {@code sorting.memory.bytes-per-value} × liczba kopii.
+ * Kopie to dane po konwersji oraz, dla każdego parametru sortowania, kopia robocza i wynik.
+ * Jeśli budżet ({@code sorting.memory.budget-bytes}, domyślnie czwarta część maksymalnej sterty) jest wyczerpany,
+ * żądanie czeka do {@code sorting.memory.queue-timeout-ms}, a potem jest odrzucane
+ * wyjątkiem {@link AdmissionRejectedException}. Żądanie większe niż cały budżet jest odrzucane od razu z kodem 413.
+ * <p>
+ * Część budżetu ({@code sorting.memory.scratch-bytes}, najwyżej czwarta część) jest na stałe zarezerwowana dla
+ * tablic pomocniczych zatrzymywanych między sortowaniami przez {@link ScratchArena}; ta sama wartość jest
+ * ustawiana jako łączny limit tych tablic, więc nie mogą one zająć pamięci przydzielanej żądaniom.
+ * <p>
+ * Wykorzystanie budżetu jest widoczne w metrykach {@code sorting.memory.*}.
+ */
+@Component
+public class MemoryBudget {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryBudget.class);
+
+    private final long budgetBytes;
+    private final long scratchBytes;
+    private final long bytesPerValue;
+    private final long queueTimeoutMillis;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long usedBytes;
+    private int waiting;
+
+    /**
+     * Tworzy budżet pamięci.
+     *
+     * @param meterRegistry      rejestr metryk
+     * @param budgetBytes        budżet w bajtach; 0 oznacza czwartą część maksymalnej sterty
+     * @param bytesPerValue      szacowany koszt jednej wartości w jednej kopii danych, w bajtach
+     * @param queueTimeoutMillis maksymalny czas oczekiwania na wolny budżet w milisekundach
+     * @param retryAfterSeconds  wartość nagłówka {@code Retry-After} przy odrzuceniu
+     * @param scratchBytes       część budżetu zarezerwowana dla tablic {@link ScratchArena} w bajtach
+     */
+    public MemoryBudget(MeterRegistry meterRegistry,
+                        @Value("${sorting.memory.budget-bytes:0}") long budgetBytes,
+                        @Value("${sorting.memory.bytes-per-value:48}") long bytesPerValue,
+                        @Value("${sorting.memory.queue-timeout-ms:2000}") long queueTimeoutMillis,
+                        @Value("${sorting.memory.retry-after-seconds:1}") long retryAfterSeconds,
+                        @Value("${sorting.memory.scratch-bytes:16777216}") long scratchBytes) {
+        this.budgetBytes = budgetBytes > 0 ? budgetBytes : Runtime.getRuntime().maxMemory() / 4;
+        this.scratchBytes = Math.min(Math.max(0, scratchBytes), this.budgetBytes / 4);
+        ScratchArena.configure(this.scratchBytes);
+        this.bytesPerValue = bytesPerValue;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        meterRegistry.gauge("sorting.memory.budget.bytes", this, budget -> budget.budgetBytes);
+        meterRegistry.gauge("sorting.memory.used.bytes", this, MemoryBudget::getUsedBytes);
+        meterRegistry.gauge("sorting.memory.waiting", this, MemoryBudget::getWaiting);
+        meterRegistry.gauge("sorting.memory.scratch.bytes", this, budget -> ScratchArena.getRetainedBytes());
+        this.rejected = meterRegistry.counter("sorting.memory.rejected");
+        logger.info("Sorting memory budget: {} bytes, {} of them for scratch arrays", this.budgetBytes, this.scratchBytes);
+    }
+
+    /**
+     * Szacuje zapotrzebowanie żądania na pamięć w czasie sortowania.
+     *
+     * @param request żądanie sortowania
+     * @return szacowana liczba bajtów
+     */
+    public long estimate(SortingRequest request) {
+        int parameters = request.getSortingParameters() != null ? Math.max(1, request.getSortingParameters().size()) : 1;
+        return estimate(request.valueCount(), 1 + 2 * parameters);
+    }
+
+    /**
+     * Szacuje pamięć zajmowaną przez podaną liczbę kopii danych.
+     *
+     * @param values liczba wartości w jednej kopii danych
+     * @param copies liczba kopii jednocześnie obecnych w pamięci
+     * @return szacowana liczba bajtów
+     */
+    public long estimate(long values, int copies) {
+        return values * bytesPerValue * copies;
+    }
+
+    /**
+     * Szacuje pamięć zajmowaną przez przechowywany wynik sortowania: po jednej kopii danych
+     * na każdy parametr sortowania.
+     *
+     * @param request żądanie sortowania
+     * @return szacowana liczba bajtów
+     */
+    public long estimateResult(SortingRequest request) {
+        int parameters = request.getSortingParameters() != null ? Math.max(1, request.getSortingParameters().size()) : 1;
+        return request.valueCount() * bytesPerValue * parameters;
+    }
+
+    /**
+     * Rezerwuje część budżetu, czekając na jej zwolnienie najwyżej {@code sorting.memory.queue-timeout-ms}.
+     *
+     * @param bytes liczba bajtów do zarezerwowania
+     * @return rezerwacja, którą należy zwolnić po zakończeniu przetwarzania
+     * @throws AdmissionRejectedException jeśli budżet nie zwolnił się w wyznaczonym czasie
+     * @throws ResponseStatusException    z kodem 413, jeśli żądanie przekracza cały budżet (bez części dla
+     *                                    tablic pomocniczych)
+     */
+    public Permit acquire(long bytes) {
+        return acquire(bytes, queueTimeoutMillis);
+    }
+
+    /**
+     * Rezerwuje część budżetu bez czekania, np. w wątku obsługującym żądanie HTTP, którego nie wolno blokować.
+     *
+     * @param bytes liczba bajtów do zarezerwowania
+     * @return rezerwacja, którą należy zwolnić po zakończeniu przetwarzania
+     * @throws AdmissionRejectedException jeśli budżet nie ma w tej chwili tylu wolnych bajtów
+     * @throws ResponseStatusException    z kodem 413, jeśli żądanie przekracza cały budżet (bez części dla
+     *                                    tablic pomocniczych)
+     */
+    public Permit acquireNow(long bytes) {
+        return acquire(bytes, 0);
+    }
+
+    private Permit acquire(long bytes, long timeoutMillis) {
+        long capacity = budgetBytes - scratchBytes;
+        if (bytes > capacity) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Request needs about " + bytes + " bytes, more than the whole sorting memory budget.");
+        }
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            waiting++;
+            try {
+                while (usedBytes + bytes > capacity) {
+                    if (remainingNanos <= 0) {
+                        rejected.increment();
+                        throw new AdmissionRejectedException("Sorting memory budget is exhausted, try again later.", retryAfterSeconds);
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                throw new AdmissionRejectedException("Interrupted while waiting for sorting memory budget.", retryAfterSeconds);
+            } finally {
+                waiting--;
+            }
+            usedBytes += bytes;
+            return new Permit(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Zwraca liczbę bajtów zarezerwowanych przez trwające sortowania.
+     *
+     * @return zarezerwowana część budżetu
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zwraca liczbę żądań oczekujących na wolny budżet.
+     *
+     * @return liczba oczekujących żądań
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            usedBytes -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rezerwacja części budżetu; zamknięcie jest idempotentne.
+     */
+    public class Permit implements AutoCloseable {
+        private long bytes;
+        private boolean closed;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public synchronized long getBytes() {
+            return closed ? 0 : bytes;
+        }
+
+        /**
+         * Zmniejsza rezerwację, zwracając nadwyżkę do budżetu, np. gdy po sortowaniu przechowywany jest
+         * już tylko wynik. Nie zwiększa rezerwacji.
+         *
+         * @param bytes liczba bajtów, która ma pozostać zarezerwowana
+         */
+        public synchronized void shrinkTo(long bytes) {
+            if (!closed && bytes < this.bytes) {
+                release(this.bytes - Math.max(0, bytes));
+                this.bytes = Math.max(0, bytes);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.put.poznan.sortingmadness.logic.offheap.OffHeapMemory;
+
+/**
+ * Konfiguruje sortowanie poza stertą ({@link OffHeapMemory}) z właściwości aplikacji.
+ * <p>
+ * Przy automatycznym wyborze algorytmu listy liczb od {@code sorting.offheap.threshold} elementów są sortowane
+ * w buforach bezpośrednich (algorytm "offheap"), o ile łączna rezerwacja nie przekracza
+ * {@code sorting.offheap.max-bytes} (domyślnie czwarta część maksymalnej sterty, czyli także domyślnego
+ * {@code -XX:MaxDirectMemorySize}). Algorytm "offheap" podany w żądaniu korzysta z tego samego limitu. Wykorzystanie limitu jest widoczne w metrykach
+ * {@code sorting.offheap.*}.
+ */
+@Component
+public class OffHeapSortSettings {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapSortSettings.class);
+
+    /**
+     * Ustawia limity sortowania poza stertą.
+     *
+     * @param meterRegistry rejestr metryk
+     * @param enabled       czy automatyczny wybór algorytmu może sortować poza stertą
+     * @param threshold     liczba elementów, od której automatyczny wybór sortuje liczby poza stertą
+     * @param maxBytes      łączny limit pamięci poza stertą w bajtach; 0 oznacza czwartą część maksymalnej sterty
+     */
+    public OffHeapSortSettings(MeterRegistry meterRegistry,
+                               @Value("${sorting.offheap.enabled:true}") boolean enabled,
+                               @Value("${sorting.offheap.threshold:1000000}") int threshold,
+                               @Value("${sorting.offheap.max-bytes:0}") long maxBytes) {
+        long limit = maxBytes > 0 ? maxBytes : Runtime.getRuntime().maxMemory() / 4;
+        OffHeapMemory.configure(enabled ? threshold : Integer.MAX_VALUE, limit);
+
+        meterRegistry.gauge("sorting.offheap.max.bytes", this, settings -> OffHeapMemory.getMaxBytes());
+        meterRegistry.gauge("sorting.offheap.used.bytes", this, settings -> OffHeapMemory.getUsedBytes());
+        meterRegistry.gauge("sorting.offheap.allocated.bytes", this, settings -> OffHeapMemory.getAllocatedBytes());
+        logger.info("Off-heap sorting: {}", enabled ? "from " + threshold + " elements, up to " + limit + " bytes" : "disabled");
+    }
+}
@@ -0,0 +1,62 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * Kontroler REST statystyk pozycyjnych: {@code POST /sort/select} zwraca medianę, percentyle lub k-te elementy
+ * danych bez ich pełnego sortowania ({@link OrderStatisticsService}).
+ * <p>
+ * Żądanie przechodzi przez {@link SortExecution} jak zwykłe "/sort" (kolejka klienta, budżet pamięci i czasu).
+ */
+@RestController
+@RequestMapping("/sort/select")
+public class OrderStatisticsController {
+
+    private final OrderStatisticsService orderStatisticsService;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
+
+    public OrderStatisticsController(OrderStatisticsService orderStatisticsService, MemoryBudget memoryBudget,
+                                     SortExecution execution) {
+        this.orderStatisticsService = orderStatisticsService;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
+    }
+
+    /**
+     * Wyznacza elementy na pozycjach i percentylach żądania.
+     *
+     * @param request        żądanie z danymi, kierunkiem, pozycjami ({@code ranks}) i percentylami ({@code percentiles})
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return elementy według pozycji i percentyli, liczba elementów, kierunek i czas wykonania
+     * @throws IllegalArgumentException   jeśli żądanie jest niepoprawne
+     * @throws SortingCancelledException  jeśli żądanie przekroczyło budżet czasu
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @PostMapping(produces = "application/json")
+    public WebAsyncTask<Map<String, Object>> select(@RequestBody SelectRequest request,
+                                                    @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                    @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                    HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        requestTimings.setExposeInBody(request.isIncludeTimings());
+
+        String client = execution.clientId(clientId, servletRequest);
+        long budgetMillis = execution.timeoutMillis(request.getTimeoutMillis());
+        return execution.submit(client, request.valueCount(), memoryBudget.estimate(request), budgetMillis, requestTimings,
+                context -> orderStatisticsService.select(request, requestTimings, context));
+    }
+}
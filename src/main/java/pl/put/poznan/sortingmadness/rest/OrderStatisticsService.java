@@ -0,0 +1,114 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.stereotype.Service;
+import pl.put.poznan.sortingmadness.logic.OrderStatistics;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serwis obsługujący żądania statystyk pozycyjnych ("/sort/select"): zamienia percentyle na pozycje
+ * i wyznacza elementy na tych pozycjach przez {@link SortingMadness#selectRanks}, bez pełnego sortowania danych.
+ */
+@Service
+public class OrderStatisticsService {
+
+    private final SortingMadness sortingMadness;
+
+    public OrderStatisticsService(SortingMadness sortingMadness) {
+        this.sortingMadness = sortingMadness;
+    }
+
+    /**
+     * Wyznacza elementy na pozycjach i percentylach żądania.
+     *
+     * @param request żądanie z danymi ({@code data} z {@code keysToSort} albo {@code dataList}), kierunkiem,
+     *                pozycjami i percentylami
+     * @param timings pomiary etapów przetwarzania
+     * @param context kontekst wykonania z terminem i anulowaniem
+     * @return mapa z polami {@code ranks} (pozycja → element), {@code percentiles} (percentyl → element),
+     *         {@code total}, {@code direction} i {@code executionTime}
+     * @throws IllegalArgumentException  jeśli dane są puste, brak kluczy, pozycji i percentyli lub któraś
+     *                                   z nich wykracza poza dane
+     * @throws SortingCancelledException jeśli wybór przerwano
+     */
+    public Map<String, Object> select(SelectRequest request, SortTimings timings, SortingContext context) {
+        long phaseStart = System.nanoTime();
+        List<Integer> ranks = request.getRanks() != null ? request.getRanks() : Collections.emptyList();
+        List<Double> percentiles = request.getPercentiles() != null ? request.getPercentiles() : Collections.emptyList();
+        if (ranks.isEmpty() && percentiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one rank or percentile must be specified.");
+        }
+        if (ranks.contains(null) || percentiles.contains(null)) {
+            throw new IllegalArgumentException("Ranks and percentiles must not contain null.");
+        }
+
+        @SuppressWarnings("rawtypes")
+        List<Map<String, Comparable>> data = request.getData();
+        @SuppressWarnings("rawtypes")
+        List<Comparable> dataList = data == null ? request.getDataList() : null;
+        if (request.isRemoveDuplicates()) {
+            data = data != null ? data.stream().distinct().collect(Collectors.toList()) : null;
+            dataList = dataList != null ? dataList.stream().distinct().collect(Collectors.toList()) : null;
+        }
+        int size;
+        if (data != null) {
+            if (data.isEmpty()) {
+                throw new IllegalArgumentException("Dataset is empty.");
+            }
+            if (request.getKeysToSort() == null || request.getKeysToSort().isEmpty()) {
+                throw new IllegalArgumentException("Keys to sort must be specified.");
+            }
+            size = data.size();
+        } else {
+            if (dataList == null || dataList.isEmpty()) {
+                throw new IllegalArgumentException("Dataset (list) is empty.");
+            }
+            size = dataList.size();
+        }
+
+        int[] positions = new int[ranks.size() + percentiles.size()];
+        for (int i = 0; i < ranks.size(); i++) {
+            positions[i] = ranks.get(i);
+        }
+        for (int i = 0; i < percentiles.size(); i++) {
+            positions[ranks.size() + i] = OrderStatistics.percentileRank(percentiles.get(i), size);
+        }
+        phaseStart = timings.recordSince("validate", phaseStart);
+
+        Map<String, Object> selected = data != null
+                ? sortingMadness.selectRanks(data, request.getKeysToSort(), request.getDirection(), positions, context)
+                : sortingMadness.selectRanksList(dataList, request.getDirection(), positions, context);
+        timings.recordSince("select", phaseStart);
+
+        List<?> values = (List<?>) selected.get("values");
+        Map<String, Object> byRank = new LinkedHashMap<>();
+        for (int i = 0; i < ranks.size(); i++) {
+            byRank.put(String.valueOf(ranks.get(i)), values.get(i));
+        }
+        Map<String, Object> byPercentile = new LinkedHashMap<>();
+        for (int i = 0; i < percentiles.size(); i++) {
+            String label = BigDecimal.valueOf(percentiles.get(i)).stripTrailingZeros().toPlainString();
+            byPercentile.put(label, values.get(ranks.size() + i));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!byRank.isEmpty()) {
+            result.put("ranks", byRank);
+        }
+        if (!byPercentile.isEmpty()) {
+            result.put("percentiles", byPercentile);
+        }
+        result.put("total", size);
+        result.put("direction", request.getDirection());
+        result.put("executionTime", selected.get("executionTime"));
+        return result;
+    }
+}
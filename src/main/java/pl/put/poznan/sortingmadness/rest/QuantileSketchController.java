@@ -0,0 +1,68 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kontroler REST przybliżonych kwantyli dla dużych lub strumieniowych danych ({@link QuantileSketchService}).
+ * <p>
+ * {@code POST /sort/sketch} czyta dane w jednym przejściu do szkicu o ograniczonym rozmiarze i zwraca
+ * przybliżone percentyle, pozycje i histogram z granicami błędu oraz sam szkic; {@code POST /sort/sketch/merge}
+ * łączy szkice z kilku przesłań lub instancji i odpowiada na te same zapytania.
+ */
+@RestController
+@RequestMapping("/sort/sketch")
+public class QuantileSketchController {
+
+    private final QuantileSketchService sketchService;
+
+    public QuantileSketchController(QuantileSketchService sketchService) {
+        this.sketchService = sketchService;
+    }
+
+    /**
+     * Buduje szkic z danych żądania.
+     *
+     * @param body        tablica JSON albo strumień wartości JSON (jedna na linię): liczby lub rekordy
+     * @param key         klucz rekordu, którego wartości trafiają do szkicu; brak oznacza liczby
+     * @param k           parametr dokładności szkicu; brak oznacza {@code sorting.sketch.k}
+     * @param percentiles szukane percentyle oddzielone przecinkami
+     * @param values      wartości oddzielone przecinkami, dla których zwracana jest pozycja
+     * @param bins        liczba przedziałów histogramu; 0 bez histogramu
+     * @return opis szkicu z wynikami zapytań
+     * @throws IllegalArgumentException jeśli dane lub zapytanie są niepoprawne
+     * @throws IOException              jeśli odczyt treści żądania się nie powiódł
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE, "application/x-ndjson"},
+            produces = "application/json")
+    public Map<String, Object> build(InputStream body,
+                                     @RequestParam(required = false) String key,
+                                     @RequestParam(required = false) Integer k,
+                                     @RequestParam(required = false) List<Double> percentiles,
+                                     @RequestParam(required = false) List<Double> values,
+                                     @RequestParam(defaultValue = "0") int bins) throws IOException {
+        return sketchService.summarize(sketchService.build(body, key, k), percentiles, values, bins);
+    }
+
+    /**
+     * Łączy szkice i odpowiada na zapytania o połączone dane.
+     *
+     * @param request szkice i zapytania
+     * @return opis połączonego szkicu z wynikami zapytań
+     * @throws IllegalArgumentException jeśli szkic lub zapytanie są niepoprawne
+     */
+    @PostMapping(path = "/merge", produces = "application/json")
+    public Map<String, Object> merge(@RequestBody SketchMergeRequest request) {
+        return sketchService.summarize(sketchService.merge(request.getSketches()), request.getPercentiles(),
+                request.getValues(), request.getBins());
+    }
+}
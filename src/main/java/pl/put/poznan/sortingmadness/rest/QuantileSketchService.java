@@ -0,0 +1,216 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.put.poznan.sortingmadness.logic.sketch.KllSketch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serwis szkiców kwantyli ("/sort/sketch"): buduje szkic {@link KllSketch} w jednym przejściu po strumieniu
+ * danych, łączy szkice zapisane wcześniej i odpowiada na zapytania o percentyle, pozycje i histogram.
+ * <p>
+ * Szkic jest przesyłany w odpowiedzi w polu {@code sketch} jako Base64 postaci binarnej, więc szkice
+ * z kilku przesłań lub instancji można połączyć ({@code /sort/sketch/merge}) bez ponownego czytania danych.
+ */
+@Service
+public class QuantileSketchService {
+    private static final Logger logger = LoggerFactory.getLogger(QuantileSketchService.class);
+
+    private final ObjectMapper objectMapper;
+    private final int defaultK;
+    private final int maxBins;
+
+    /**
+     * Tworzy serwis.
+     *
+     * @param objectMapper obiekt, którego parser czyta strumień danych
+     * @param defaultK     parametr dokładności szkicu, gdy żądanie go nie podaje
+     * @param maxBins      największa liczba przedziałów histogramu
+     */
+    public QuantileSketchService(ObjectMapper objectMapper,
+                                 @Value("${sorting.sketch.k:200}") int defaultK,
+                                 @Value("${sorting.sketch.max-bins:1000}") int maxBins) {
+        this.objectMapper = objectMapper;
+        this.defaultK = defaultK;
+        this.maxBins = maxBins;
+    }
+
+    /**
+     * Buduje szkic z elementów strumienia JSON: tablicy albo ciągu wartości (jedna na linię). Elementy są
+     * czytane pojedynczo, więc pamięć nie zależy od rozmiaru danych.
+     *
+     * @param input strumień danych: liczby albo rekordy, gdy podano {@code key}
+     * @param key   klucz rekordu, którego wartości trafiają do szkicu; {@code null} dla liczb
+     * @param k     parametr dokładności; {@code null} oznacza {@code sorting.sketch.k}
+     * @return szkic wszystkich elementów
+     * @throws IllegalArgumentException jeśli dane nie są poprawnym JSON-em, element nie jest liczbą
+     *                                  lub rekord nie zawiera liczbowej wartości klucza
+     * @throws IOException              jeśli odczyt strumienia się nie powiódł
+     */
+    public KllSketch build(InputStream input, String key, Integer k) throws IOException {
+        long start = System.nanoTime();
+        KllSketch sketch = new KllSketch(k != null ? k : defaultK);
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            int depth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY && depth == 0) {
+                    depth++;
+                } else if (token == JsonToken.END_ARRAY && depth == 1) {
+                    depth--;
+                } else if (token.isNumeric() && key == null) {
+                    sketch.update(parser.getDoubleValue());
+                } else if (token == JsonToken.START_OBJECT && key != null) {
+                    JsonNode value = parser.<JsonNode>readValueAsTree().get(key);
+                    if (value == null || !value.isNumber()) {
+                        throw new IllegalArgumentException("Record has no numeric value for key: " + key);
+                    }
+                    sketch.update(value.doubleValue());
+                } else {
+                    throw new IllegalArgumentException("Stream element is not a " + (key == null ? "number" : "record")
+                            + ": " + parser.getText());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON input: " + e.getOriginalMessage());
+        }
+        logger.debug("Built sketch of {} elements ({} retained) in {} ms", sketch.getN(), sketch.getRetained(),
+                (System.nanoTime() - start) / 1_000_000);
+        return sketch;
+    }
+
+    /**
+     * Łączy szkice zapisane w polu {@code sketch} wcześniejszych odpowiedzi.
+     *
+     * @param sketches szkice w postaci Base64
+     * @return szkic wszystkich elementów
+     * @throws IllegalArgumentException jeśli lista jest pusta lub któryś szkic jest niepoprawny
+     */
+    public KllSketch merge(List<String> sketches) {
+        if (sketches == null || sketches.isEmpty()) {
+            throw new IllegalArgumentException("At least one sketch must be specified.");
+        }
+        KllSketch merged = null;
+        for (String encoded : sketches) {
+            if (encoded == null) {
+                throw new IllegalArgumentException("Sketch must not be null.");
+            }
+            KllSketch sketch;
+            try {
+                sketch = KllSketch.fromBytes(Base64.getDecoder().decode(encoded));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sketch: " + e.getMessage());
+            }
+            if (merged == null) {
+                merged = sketch;
+            } else {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Opisuje szkic i odpowiada na zapytania.
+     *
+     * @param sketch      szkic
+     * @param percentiles percentyle z zakresu [0, 100]; może być {@code null}
+     * @param values      wartości, dla których zwracana jest pozycja; może być {@code null}
+     * @param bins        liczba przedziałów histogramu o równej szerokości między minimum a maksimum; 0 bez histogramu
+     * @return mapa z polami {@code sketch} (Base64), {@code k}, {@code n}, {@code retained}, {@code min}, {@code max},
+     *         {@code exact}, {@code rankError}, {@code histogramError} oraz, jeśli zapytano, {@code percentiles}
+     *         (percentyl → wartość), {@code ranks} (wartość → ułamek elementów nie większych) i {@code histogram}
+     * @throws IllegalArgumentException jeśli zapytanie jest niepoprawne lub szkic jest pusty, a zapytano o wyniki
+     */
+    public Map<String, Object> summarize(KllSketch sketch, List<Double> percentiles, List<Double> values, int bins) {
+        percentiles = percentiles != null ? percentiles : Collections.emptyList();
+        values = values != null ? values : Collections.emptyList();
+        if (bins < 0 || bins > maxBins) {
+            throw new IllegalArgumentException("bins must be between 0 and " + maxBins + ".");
+        }
+        if (percentiles.contains(null) || values.contains(null)) {
+            throw new IllegalArgumentException("Percentiles and values must not contain null.");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sketch", Base64.getEncoder().encodeToString(sketch.toBytes()));
+        result.put("k", sketch.getK());
+        result.put("n", sketch.getN());
+        result.put("retained", sketch.getRetained());
+        result.put("exact", sketch.isExact());
+        result.put("rankError", sketch.getNormalizedRankError(false));
+        result.put("histogramError", sketch.getNormalizedRankError(true));
+        if (sketch.getN() > 0) {
+            result.put("min", sketch.getMin());
+            result.put("max", sketch.getMax());
+        }
+
+        if (!percentiles.isEmpty()) {
+            Map<String, Object> byPercentile = new LinkedHashMap<>();
+            for (double percentile : percentiles) {
+                if (!(percentile >= 0 && percentile <= 100)) {
+                    throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+                }
+                byPercentile.put(label(percentile), sketch.getQuantile(percentile / 100));
+            }
+            result.put("percentiles", byPercentile);
+        }
+        if (!values.isEmpty()) {
+            Map<String, Object> byValue = new LinkedHashMap<>();
+            for (double value : values) {
+                byValue.put(label(value), sketch.getRank(value));
+            }
+            result.put("ranks", byValue);
+        }
+        if (bins > 0 && sketch.getN() > 0) {
+            result.put("histogram", histogram(sketch, bins));
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> histogram(KllSketch sketch, int bins) {
+        double min = sketch.getMin();
+        double max = sketch.getMax();
+        double width = (max - min) / bins;
+        List<Double> splits = new ArrayList<>();
+        for (int i = 1; i < bins; i++) {
+            double split = min + i * width;
+            // Equal or non-finite split points (e.g. min == max) would produce empty or invalid bins.
+            if (Double.isFinite(split) && split > min && (splits.isEmpty() || split > splits.get(splits.size() - 1))) {
+                splits.add(split);
+            }
+        }
+        long[] counts = sketch.getHistogram(splits.stream().mapToDouble(Double::doubleValue).toArray());
+
+        List<Map<String, Object>> histogram = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Map<String, Object> bin = new LinkedHashMap<>();
+            bin.put("lower", i == 0 ? min : splits.get(i - 1));
+            bin.put("upper", i == counts.length - 1 ? max : splits.get(i));
+            bin.put("count", counts[i]);
+            bin.put("fraction", (double) counts[i] / sketch.getN());
+            histogram.add(bin);
+        }
+        return histogram;
+    }
+
+    private static String label(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
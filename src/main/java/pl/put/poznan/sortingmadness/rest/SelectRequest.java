@@ -0,0 +1,76 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Reprezentuje żądanie statystyk pozycyjnych ("/sort/select").
+ * Dane, klucze ({@code keysToSort}), usuwanie duplikatów i budżet czasu podaje się jak w {@link SortingRequest};
+ * zamiast parametrów sortowania żądanie określa kierunek oraz szukane pozycje i percentyle.
+ */
+public class SelectRequest extends SortingRequest {
+
+    @JsonProperty("direction")
+    private String direction = "ASC";
+
+    @JsonProperty("ranks")
+    private List<Integer> ranks;
+
+    @JsonProperty("percentiles")
+    private List<Double> percentiles;
+
+    /**
+     * Pobiera kierunek sortowania, względem którego liczone są pozycje.
+     *
+     * @return kierunek sortowania ("ASC" lub "DESC")
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Ustawia kierunek sortowania, względem którego liczone są pozycje.
+     *
+     * @param direction kierunek sortowania ("ASC" lub "DESC")
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Pobiera szukane pozycje w posortowanych danych.
+     *
+     * @return pozycje liczone od zera lub {@code null}
+     */
+    public List<Integer> getRanks() {
+        return ranks;
+    }
+
+    /**
+     * Ustawia szukane pozycje w posortowanych danych.
+     *
+     * @param ranks pozycje liczone od zera
+     */
+    public void setRanks(List<Integer> ranks) {
+        this.ranks = ranks;
+    }
+
+    /**
+     * Pobiera szukane percentyle.
+     *
+     * @return percentyle z zakresu [0, 100] lub {@code null}
+     */
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * Ustawia szukane percentyle; percentyl jest zamieniany na pozycję metodą najbliższej pozycji.
+     *
+     * @param percentiles percentyle z zakresu [0, 100], np. 50 dla mediany
+     */
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+}
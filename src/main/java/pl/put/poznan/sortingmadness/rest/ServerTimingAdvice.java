@@ -0,0 +1,57 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Map;
+
+/**
+ * Dopisuje nagłówek {@code Server-Timing} do odpowiedzi kontrolera sortowania.
+ * <p>
+ * Wywoływana tuż przed serializacją treści odpowiedzi, rejestruje etap {@code total} obejmujący
+ * czas od wejścia żądania do filtra aż do tego momentu. Jeśli klient poprosił o blok {@code timings},
+ * zostaje on dołączony do mapy wynikowej.
+ */
+@ControllerAdvice(assignableTypes = SortingMadnessController.class)
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * Nazwa nagłówka zawierającego czasy etapów.
+     */
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        Object attribute = ((ServletServerHttpRequest) request).getServletRequest()
+                .getAttribute(SortTimings.REQUEST_ATTRIBUTE);
+        if (!(attribute instanceof SortTimings)) {
+            return body;
+        }
+
+        SortTimings timings = (SortTimings) attribute;
+        timings.recordSince("total", timings.getRequestStart());
+        response.getHeaders().add(SERVER_TIMING_HEADER, timings.toHeaderValue());
+
+        if (timings.isExposeInBody() && body instanceof Map) {
+            ((Map<String, Object>) body).put("timings", timings.toMap());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,56 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Filtr rozpoczynający pomiar czasu dla żądań kierowanych do "/sort".
+ * <p>
+ * Umieszcza w atrybutach żądania obiekt {@link SortTimings}, uzupełniany następnie przez kontroler
+ * i {@link ServerTimingAdvice}. Serializacja odpowiedzi odbywa się już po wysłaniu nagłówków,
+ * dlatego jej czas jest jedynie logowany po zakończeniu łańcucha filtrów. Przy przetwarzaniu
+ * asynchronicznym filtr obejmuje też ponowne przekazanie żądania i loguje dopiero po nim.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/sort");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SortTimings timings = (SortTimings) request.getAttribute(SortTimings.REQUEST_ATTRIBUTE);
+        if (timings == null || !isAsyncDispatch(request)) {
+            timings = new SortTimings(System.nanoTime());
+            request.setAttribute(SortTimings.REQUEST_ATTRIBUTE, timings);
+        }
+
+        filterChain.doFilter(request, response);
+
+        if (isAsyncStarted(request)) {
+            // The response is written during the async dispatch, which passes through this filter again.
+            return;
+        }
+
+        long total = System.nanoTime() - timings.getRequestStart();
+        logger.debug("Request {} {} phases (ns): {}, total with serialization: {}",
+                request.getMethod(), request.getRequestURI(), timings.toMap(), total);
+    }
+}
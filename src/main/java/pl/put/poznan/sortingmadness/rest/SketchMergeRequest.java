@@ -0,0 +1,96 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Reprezentuje żądanie połączenia szkiców kwantyli ("/sort/sketch/merge") wraz z zapytaniami
+ * o połączone dane.
+ */
+public class SketchMergeRequest {
+
+    @JsonProperty("sketches")
+    private List<String> sketches;
+
+    @JsonProperty("percentiles")
+    private List<Double> percentiles;
+
+    @JsonProperty("values")
+    private List<Double> values;
+
+    @JsonProperty("bins")
+    private int bins;
+
+    /**
+     * Pobiera łączone szkice.
+     *
+     * @return szkice w postaci Base64 z pola {@code sketch} wcześniejszych odpowiedzi
+     */
+    public List<String> getSketches() {
+        return sketches;
+    }
+
+    /**
+     * Ustawia łączone szkice.
+     *
+     * @param sketches szkice w postaci Base64
+     */
+    public void setSketches(List<String> sketches) {
+        this.sketches = sketches;
+    }
+
+    /**
+     * Pobiera szukane percentyle.
+     *
+     * @return percentyle z zakresu [0, 100] lub {@code null}
+     */
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * Ustawia szukane percentyle.
+     *
+     * @param percentiles percentyle z zakresu [0, 100]
+     */
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * Pobiera wartości, dla których zwracana jest przybliżona pozycja.
+     *
+     * @return wartości lub {@code null}
+     */
+    public List<Double> getValues() {
+        return values;
+    }
+
+    /**
+     * Ustawia wartości, dla których zwracana jest przybliżona pozycja.
+     *
+     * @param values wartości
+     */
+    public void setValues(List<Double> values) {
+        this.values = values;
+    }
+
+    /**
+     * Pobiera liczbę przedziałów histogramu.
+     *
+     * @return liczba przedziałów; 0 oznacza brak histogramu
+     */
+    public int getBins() {
+        return bins;
+    }
+
+    /**
+     * Ustawia liczbę przedziałów histogramu o równej szerokości między minimum a maksimum.
+     *
+     * @param bins liczba przedziałów
+     */
+    public void setBins(int bins) {
+        this.bins = bins;
+    }
+}
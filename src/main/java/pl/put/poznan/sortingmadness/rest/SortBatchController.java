@@ -0,0 +1,75 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kontroler REST dla żądań wsadowych: {@code POST /sort/batch} przyjmuje tablicę {@link SortingRequest}
+ * i zwraca jedną odpowiedź z wynikiem każdego elementu (w tym samym formacie co "/sort") albo jego błędem.
+ * <p>
+ * Całe żądanie przechodzi przez {@link SortExecution} jak pojedyncze "/sort" (kolejka klienta, budżet pamięci
+ * i czasu), a elementy są sortowane równolegle przez {@link SortBatchService}.
+ */
+@RestController
+@RequestMapping("/sort/batch")
+public class SortBatchController {
+
+    private final SortBatchService batchService;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
+
+    public SortBatchController(SortBatchService batchService, MemoryBudget memoryBudget, SortExecution execution) {
+        this.batchService = batchService;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
+    }
+
+    /**
+     * Sortuje wszystkie elementy żądania wsadowego.
+     *
+     * @param requests       elementy żądania
+     * @param timeoutMillis  budżet czasu całego żądania w milisekundach; domyślnie {@code sorting.request.timeout-ms}
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return mapa z polami {@code results} (dla każdego elementu: {@code index}, {@code status} oraz {@code result}
+     *         albo {@code error} i {@code message}), {@code succeeded}, {@code failed} i {@code executionTime}
+     * @throws IllegalArgumentException   jeśli lista jest pusta lub przekracza {@code sorting.batch.max-items}
+     * @throws SortingCancelledException  jeśli żądanie przekroczyło budżet czasu
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @PostMapping(produces = "application/json")
+    public WebAsyncTask<Map<String, Object>> sortBatch(@RequestBody List<SortingRequest> requests,
+                                                       @RequestParam(required = false) Long timeoutMillis,
+                                                       @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                       @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                       HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        batchService.validate(requests);
+
+        long values = 0;
+        long memoryBytes = 0;
+        for (SortingRequest request : requests) {
+            if (request != null) {
+                values += request.valueCount();
+                memoryBytes += memoryBudget.estimate(request);
+            }
+        }
+        long budgetMillis = execution.timeoutMillis(timeoutMillis);
+        return execution.submit(execution.clientId(clientId, servletRequest), values, memoryBytes, budgetMillis, requestTimings,
+                context -> batchService.sortAll(requests, context, Duration.ofMillis(budgetMillis)));
+    }
+}
@@ -0,0 +1,194 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.put.poznan.sortingmadness.logic.SortWorkspace;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sortuje wiele niezależnych zbiorów danych w ramach jednego żądania "/sort/batch".
+ * <p>
+ * Elementy są dzielone rekurencyjnie na fragmenty i wykonywane w puli {@link ForkJoinPool}
+ * ({@code sorting.batch.parallelism}, domyślnie liczba procesorów), w której wolne wątki podkradają pracę
+ * zajętym. Każdy wątek puli ma własny {@link SortWorkspace}, więc instancje strategii i bufor kopii
+ * są używane ponownie między elementami. Błąd jednego elementu jest raportowany w jego wyniku
+ * i nie przerywa pozostałych. Kontekst elementu jest podrzędny względem kontekstu całego żądania,
+ * więc upływ budżetu lub rozłączenie klienta przerywa także trwające sortowania elementów.
+ */
+@Service
+public class SortBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(SortBatchService.class);
+
+    /** Liczba elementów, poniżej której fragment nie jest dalej dzielony. */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private final SortingService sortingService;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<SortWorkspace> workspaces;
+    private final int maxItems;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    /**
+     * Tworzy usługę.
+     *
+     * @param sortingService usługa wykonująca sortowanie pojedynczego elementu
+     * @param meterRegistry  rejestr metryk
+     * @param parallelism    liczba wątków puli; 0 oznacza liczbę procesorów
+     * @param maxItems       maksymalna liczba elementów w jednym żądaniu
+     */
+    public SortBatchService(SortingService sortingService,
+                            MeterRegistry meterRegistry,
+                            @Value("${sorting.batch.parallelism:0}") int parallelism,
+                            @Value("${sorting.batch.max-items:10000}") int maxItems) {
+        this.sortingService = sortingService;
+        this.workspaces = ThreadLocal.withInitial(() -> new SortWorkspace(sortingService.getSortingMadness()));
+        this.maxItems = maxItems;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("sort-batch-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+        this.succeeded = meterRegistry.counter("sorting.batch.items", "outcome", "succeeded");
+        this.failed = meterRegistry.counter("sorting.batch.items", "outcome", "failed");
+    }
+
+    /**
+     * Sprawdza, czy liczba elementów mieści się w limicie.
+     *
+     * @param requests elementy żądania wsadowego
+     * @throws IllegalArgumentException jeśli lista jest pusta lub przekracza {@code sorting.batch.max-items}
+     */
+    public void validate(List<SortingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch is empty or missing.");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch has " + requests.size() + " items, the limit is " + maxItems + ".");
+        }
+    }
+
+    /**
+     * Sortuje wszystkie elementy żądania wsadowego.
+     *
+     * @param requests elementy żądania wsadowego
+     * @param context  kontekst całego żądania; jego anulowanie przerywa trwające elementy i pomija pozostałe
+     * @param budget   budżet czasu całego żądania
+     * @return odpowiedź z polami {@code results} (w kolejności elementów), {@code succeeded}, {@code failed}
+     *         i {@code executionTime} w milisekundach
+     * @throws IllegalArgumentException jeśli lista jest pusta lub zbyt długa
+     */
+    public Map<String, Object> sortAll(List<SortingRequest> requests, SortingContext context, Duration budget) {
+        validate(requests);
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object>[] results = new Map[requests.size()];
+        pool.invoke(new BatchTask(requests, results, 0, requests.size(), context, deadline));
+
+        int failures = (int) Arrays.stream(results).filter(result -> "failed".equals(result.get("status"))).count();
+        succeeded.increment(results.length - failures);
+        failed.increment(failures);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("results", new ArrayList<>(Arrays.asList(results)));
+        response.put("succeeded", results.length - failures);
+        response.put("failed", failures);
+        response.put("executionTime", (System.nanoTime() - start) / 1_000_000.0);
+        logger.debug("Sorted batch of {} items ({} failed)", results.length, failures);
+        return response;
+    }
+
+    private Map<String, Object> sortItem(int index, SortingRequest request, SortingContext batchContext, long deadline) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        try {
+            if (request == null) {
+                throw new IllegalArgumentException("Batch item is null.");
+            }
+            batchContext.throwIfCancelled();
+            SortingContext context = new SortingContext(batchContext);
+            context.setDeadline(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            Map<String, Object> result = sortingService.sort(request, new SortTimings(System.nanoTime()), context, workspaces.get());
+            item.put("status", "succeeded");
+            item.put("result", result);
+        } catch (IllegalArgumentException e) {
+            failItem(item, "Invalid Request", e.getMessage());
+        } catch (SortingCancelledException e) {
+            failItem(item, e.getReason() == SortingCancelledException.Reason.TIMEOUT ? "Sort Timeout" : "Sort Cancelled", e.getMessage());
+        } catch (RuntimeException | StackOverflowError e) {
+            failItem(item, "Sort Failed", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return item;
+    }
+
+    private static void failItem(Map<String, Object> item, String error, String message) {
+        item.put("status", "failed");
+        item.put("error", error);
+        item.put("message", message);
+    }
+
+    /**
+     * Zatrzymuje pulę wątków przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Fragment żądania wsadowego, dzielony na połowy aż do {@link #SPLIT_THRESHOLD} elementów.
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SortingRequest> requests;
+        private final Map<String, Object>[] results;
+        private final int from;
+        private final int to;
+        private final SortingContext context;
+        private final long deadline;
+
+        BatchTask(List<SortingRequest> requests, Map<String, Object>[] results, int from, int to,
+                  SortingContext context, long deadline) {
+            this.requests = requests;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.context = context;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = sortItem(i, requests.get(i), context, deadline);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(requests, results, from, mid, context, deadline),
+                    new BatchTask(requests, results, mid, to, context, deadline));
+        }
+    }
+}
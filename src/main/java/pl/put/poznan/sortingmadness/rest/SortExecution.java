@@ -0,0 +1,159 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Wspólna ścieżka wykonania synchronicznych żądań sortowania (m.in. "/sort", "/sort/batch", "/sort/select", "/sort/race"
+ * i tworzenia sesji "/sort/sessions").
+ * <p>
+ * Praca jest wykonywana asynchronicznie przez {@link FairSortScheduler} w kolejce klienta, po zarezerwowaniu
+ * pamięci w {@link MemoryBudget}, z budżetem czasu {@code sorting.request.timeout-ms} (klient może zażądać
+ * innego, nie więcej niż {@code sorting.request.max-timeout-ms}). Po upływie budżetu lub rozłączeniu
+ * klienta {@link SortingContext} jest anulowany, więc sortowanie kończy się w najbliższym punkcie kontrolnym.
+ */
+@Component
+public class SortExecution {
+
+    /** Nagłówek identyfikujący klienta na potrzeby sprawiedliwego planowania. */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    /** Prefiks atrybutu żądania, pod którym rejestrowane jest zwolnienie nieużytego miejsca w kolejce klienta. */
+    private static final String RESERVATION_ATTRIBUTE = SortExecution.class.getName() + ".reservation";
+
+    /** Zapas czasu, po którym żądanie jest kończone, jeśli sortowanie nie przerwało się samo. */
+    private static final long TIMEOUT_GRACE_MILLIS = 1000;
+
+    private final MemoryBudget memoryBudget;
+    private final FairSortScheduler scheduler;
+    private final long defaultTimeoutMillis;
+    private final long maxTimeoutMillis;
+
+    /**
+     * Tworzy ścieżkę wykonania.
+     *
+     * @param memoryBudget         budżet pamięci sortowań
+     * @param scheduler            planista wykonujący sortowania
+     * @param defaultTimeoutMillis domyślny budżet czasu sortowania w milisekundach
+     * @param maxTimeoutMillis     maksymalny budżet czasu, jakiego może zażądać klient
+     */
+    public SortExecution(MemoryBudget memoryBudget,
+                         FairSortScheduler scheduler,
+                         @Value("${sorting.request.timeout-ms:30000}") long defaultTimeoutMillis,
+                         @Value("${sorting.request.max-timeout-ms:300000}") long maxTimeoutMillis) {
+        this.memoryBudget = memoryBudget;
+        this.scheduler = scheduler;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    /**
+     * Ustala identyfikator klienta: wartość nagłówka {@code X-Client-Id} albo adres zdalny.
+     *
+     * @param clientId       wartość nagłówka; może być {@code null}
+     * @param servletRequest żądanie HTTP
+     * @return identyfikator klienta
+     */
+    public String clientId(String clientId, HttpServletRequest servletRequest) {
+        return clientId != null && !clientId.isBlank() ? clientId.trim() : servletRequest.getRemoteAddr();
+    }
+
+    /**
+     * Ustala budżet czasu żądania.
+     *
+     * @param requestedMillis budżet żądany przez klienta; {@code null} oznacza budżet domyślny
+     * @return budżet w milisekundach, nie większy niż {@code sorting.request.max-timeout-ms}
+     * @throws IllegalArgumentException jeśli żądany budżet nie jest dodatni
+     */
+    public long timeoutMillis(Long requestedMillis) {
+        if (requestedMillis == null) {
+            return defaultTimeoutMillis;
+        }
+        if (requestedMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be positive.");
+        }
+        return Math.min(requestedMillis, maxTimeoutMillis);
+    }
+
+    /**
+     * Tworzy zadanie asynchroniczne wykonujące pracę w kolejce klienta.
+     *
+     * @param clientId     identyfikator klienta
+     * @param cost         koszt pracy dla planisty (liczba wartości do posortowania)
+     * @param memoryBytes  szacowane zapotrzebowanie na pamięć
+     * @param budgetMillis budżet czasu w milisekundach
+     * @param timings      pomiary etapów przetwarzania
+     * @param work         praca do wykonania, otrzymująca kontekst z terminem i anulowaniem
+     * @param <T>          typ wyniku pracy zwracanego przez kontroler
+     * @return zadanie do zwrócenia z metody kontrolera
+     * @throws AdmissionRejectedException jeśli kolejka klienta jest pełna
+     */
+    public <T> WebAsyncTask<T> submit(String clientId, long cost, long memoryBytes, long budgetMillis,
+                                      SortTimings timings, Function<SortingContext, T> work) {
+        FairSortScheduler.ClientExecutor executor = scheduler.admit(clientId, cost);
+        try {
+            WebAsyncTask<T> task = task(executor, memoryBytes, budgetMillis, timings, work);
+            // Spring MVC may still fail before it hands the task to the executor; the reservation must not outlive
+            // the request then. Once the task has been handed over this is a no-op.
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.registerDestructionCallback(RESERVATION_ATTRIBUTE + "." + System.identityHashCode(executor),
+                        executor::cancelReservation, RequestAttributes.SCOPE_REQUEST);
+            }
+            return task;
+        } catch (RuntimeException | Error e) {
+            executor.cancelReservation();
+            throw e;
+        }
+    }
+
+    private <T> WebAsyncTask<T> task(FairSortScheduler.ClientExecutor executor, long memoryBytes, long budgetMillis,
+                                     SortTimings timings, Function<SortingContext, T> work) {
+        SortingContext context = new SortingContext();
+        context.setDeadline(Duration.ofMillis(budgetMillis));
+        AtomicReference<MemoryBudget.Permit> permit = new AtomicReference<>();
+
+        long queuedAt = System.nanoTime();
+        WebAsyncTask<T> task = new WebAsyncTask<>(budgetMillis + TIMEOUT_GRACE_MILLIS,
+                executor, () -> {
+            long admissionStart = timings.recordSince("queue", queuedAt);
+            context.throwIfCancelled();
+            MemoryBudget.Permit acquired = memoryBudget.acquire(memoryBytes);
+            permit.set(acquired);
+            if (context.isCancelled()) {
+                // The request may have completed while we waited; onCompletion could have missed the permit.
+                acquired.close();
+                context.throwIfCancelled();
+            }
+            timings.recordSince("admission", admissionStart);
+            return work.apply(context);
+        });
+        task.onTimeout(() -> {
+            // The sort did not reach a checkpoint in time; make sure it stops at the next one.
+            context.cancel(SortingCancelledException.Reason.TIMEOUT);
+            throw new SortingCancelledException(SortingCancelledException.Reason.TIMEOUT,
+                    "Sorting exceeded its time budget of " + budgetMillis + " ms.");
+        });
+        // Also runs after a network error or client disconnect. A no-op when the sort has already finished;
+        // otherwise it frees the worker once nobody is waiting for the response.
+        // The permit is held until the response has been written, since the result stays in memory until then.
+        task.onCompletion(() -> {
+            context.cancel(SortingCancelledException.Reason.CANCELLED);
+            MemoryBudget.Permit acquired = permit.get();
+            if (acquired != null) {
+                acquired.close();
+            }
+        });
+        return task;
+    }
+}
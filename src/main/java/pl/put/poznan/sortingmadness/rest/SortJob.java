@@ -0,0 +1,169 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Zadanie sortowania wykonywane w tle, wraz ze stanem, postępem i wynikiem.
+ */
+public class SortJob {
+
+    /**
+     * Stan zadania.
+     */
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final int size;
+    private final Instant submittedAt = Instant.now();
+
+    private final SortingContext context = new SortingContext();
+    private final MemoryBudget.Permit memory;
+
+    private volatile SortingRequest request;
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    /**
+     * Tworzy zadanie oczekujące w kolejce.
+     *
+     * @param id      identyfikator zadania
+     * @param request żądanie sortowania
+     * @param size    liczba elementów do posortowania
+     * @param memory  rezerwacja budżetu pamięci zadania; zwalniana, gdy zadanie zakończy się bez wyniku
+     *                albo zostanie usunięte ({@link #release()})
+     */
+    public SortJob(String id, SortingRequest request, int size, MemoryBudget.Permit memory) {
+        this.id = id;
+        this.request = request;
+        this.size = size;
+        this.memory = memory;
+    }
+
+    synchronized boolean markRunning() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        context.markStarted();
+        startedAt = Instant.now();
+        state = State.RUNNING;
+        return true;
+    }
+
+    void markSucceeded(Map<String, Object> result, long resultBytes) {
+        this.result = result;
+        // Only the result is retained from now on; the rest of the reservation goes back to the budget.
+        memory.shrinkTo(resultBytes);
+        finish(State.SUCCEEDED);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finish(State.FAILED);
+    }
+
+    void markCancelled() {
+        finish(State.CANCELLED);
+    }
+
+    /**
+     * Anuluje zadanie. Zadanie oczekujące w kolejce kończy się od razu, a trwające sortowanie
+     * zostaje przerwane w najbliższym punkcie kontrolnym.
+     *
+     * @return {@code true} jeśli zadanie nie było jeszcze zakończone
+     */
+    synchronized boolean cancel() {
+        if (isDone()) {
+            return false;
+        }
+        context.cancel(SortingCancelledException.Reason.CANCELLED);
+        if (state == State.QUEUED) {
+            markCancelled();
+        }
+        return true;
+    }
+
+    private synchronized void finish(State state) {
+        // The input is no longer needed once the job is done; release it before the job is retained for polling.
+        request = null;
+        if (state != State.SUCCEEDED) {
+            memory.close();
+        }
+        finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    /**
+     * Zwalnia rezerwację pamięci zadania; wywoływane, gdy zadanie przestaje być przechowywane.
+     */
+    void release() {
+        memory.close();
+    }
+
+    /**
+     * Zwraca opis stanu zadania do odpowiedzi punktu końcowego statusu.
+     *
+     * @return mapa z polami id, state, size, progress, etaMillis, znacznikami czasu i ewentualnym błędem
+     */
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("state", state);
+        status.put("size", size);
+        status.put("progress", state == State.SUCCEEDED ? 1.0 : state == State.RUNNING ? context.getProgress() : 0.0);
+        status.put("etaMillis", state == State.RUNNING ? context.getEtaMillis() : state == State.QUEUED ? -1 : 0);
+        status.put("submittedAt", submittedAt.toString());
+        status.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        status.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        if (error != null) {
+            status.put("error", error);
+        }
+        return status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public SortingRequest getRequest() {
+        return request;
+    }
+
+    public SortingContext getContext() {
+        return context;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Sprawdza, czy zadanie zakończyło się (sukcesem, błędem lub anulowaniem).
+     *
+     * @return {@code true} jeśli zadanie nie jest już w kolejce ani w trakcie wykonania
+     */
+    public boolean isDone() {
+        return state == State.SUCCEEDED || state == State.FAILED || state == State.CANCELLED;
+    }
+}
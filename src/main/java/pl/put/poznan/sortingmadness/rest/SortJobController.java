@@ -0,0 +1,103 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Kontroler REST dla długotrwałych sortowań wykonywanych w tle.
+ * <p>
+ * {@code POST /sort/jobs} przyjmuje {@link SortingRequest} i od razu zwraca identyfikator zadania,
+ * {@code GET /sort/jobs/{id}} zwraca stan, postęp i szacowany czas do końca, a
+ * {@code GET /sort/jobs/{id}/result} strumieniuje wynik (w tym samym formacie co "/sort"), gdy jest gotowy.
+ * {@code DELETE /sort/jobs/{id}} anuluje zadanie oczekujące lub trwające.
+ */
+@RestController
+@RequestMapping("/sort/jobs")
+public class SortJobController {
+
+    private final SortJobService jobService;
+    private final ObjectMapper objectMapper;
+
+    public SortJobController(SortJobService jobService, ObjectMapper objectMapper) {
+        this.jobService = jobService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Umieszcza żądanie sortowania w kolejce zadań.
+     *
+     * @param request żądanie sortowania
+     * @return odpowiedź 202 z nagłówkiem {@code Location} wskazującym status zadania
+     * @throws IllegalArgumentException jeśli żądanie nie zawiera danych
+     */
+    @PostMapping(produces = "application/json")
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody SortingRequest request) {
+        SortJob job = jobService.submit(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri();
+        Map<String, Object> status = job.toStatus();
+        status.put("statusUrl", location.toString());
+        status.put("resultUrl", location + "/result");
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    /**
+     * Zwraca stan zadania.
+     *
+     * @param id identyfikator zadania
+     * @return stan, postęp z zakresu [0, 1], szacowany czas do końca w milisekundach i ewentualny błąd
+     */
+    @GetMapping(path = "/{id}", produces = "application/json")
+    public Map<String, Object> status(@PathVariable String id) {
+        return jobService.get(id).toStatus();
+    }
+
+    /**
+     * Anuluje zadanie. Trwające sortowanie kończy się w najbliższym punkcie kontrolnym, dlatego
+     * zwrócony stan może jeszcze wskazywać {@code RUNNING}.
+     *
+     * @param id identyfikator zadania
+     * @return stan zadania po zgłoszeniu anulowania
+     * @throws ResponseStatusException z kodem 404, jeśli zadanie nie istnieje, lub 409, jeśli już się zakończyło
+     */
+    @DeleteMapping(path = "/{id}", produces = "application/json")
+    public Map<String, Object> cancel(@PathVariable String id) {
+        return jobService.cancel(id).toStatus();
+    }
+
+    /**
+     * Strumieniuje wynik zakończonego zadania.
+     *
+     * @param id identyfikator zadania
+     * @return wynik sortowania w formacie JSON
+     * @throws ResponseStatusException z kodem 409, jeśli zadanie jeszcze trwa lub anulowano je, albo 422, jeśli zakończyło się błędem
+     */
+    @GetMapping(path = "/{id}/result")
+    public ResponseEntity<StreamingResponseBody> result(@PathVariable String id) {
+        SortJob job = jobService.get(id);
+        if (job.getState() == SortJob.State.FAILED) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, job.getError());
+        }
+        if (job.getState() != SortJob.State.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sort job " + id + " is " + job.getState() + ".");
+        }
+        Map<String, Object> result = job.getResult();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, result));
+    }
+}
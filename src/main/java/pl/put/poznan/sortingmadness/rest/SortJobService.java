@@ -0,0 +1,213 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Przyjmuje zadania sortowania i wykonuje je w tle na dedykowanej, ograniczonej puli wątków.
+ * <p>
+ * Pula ma stały rozmiar ({@code sorting.jobs.pool-size}) i kolejkę o ograniczonej pojemności
+ * ({@code sorting.jobs.queue-capacity}); gdy kolejka jest pełna, nowe zadanie jest odrzucane
+ * z kodem 503 zamiast zajmować pamięć bez ograniczeń. Zakończone zadania są przechowywane przez
+ * {@code sorting.jobs.retention-seconds}, aby klient zdążył pobrać wynik; wygasłe zadania usuwa okresowo
+ * osobny wątek. Sortowanie trwające dłużej niż {@code sorting.jobs.timeout-seconds} jest przerywane, a zadanie
+ * można anulować w dowolnej chwili.
+ * <p>
+ * Przyjęcie zadania rezerwuje {@link MemoryBudget} jak zwykłe sortowanie, ale bez czekania na zwolnienie budżetu,
+ * aby nie blokować wątku obsługującego żądanie; przy wyczerpanym budżecie zadanie jest od razu odrzucane
+ * z kodem 429. Po sukcesie rezerwacja jest zmniejszana
+ * do szacowanego rozmiaru wyniku i trwa, dopóki wynik jest przechowywany; zadanie zakończone bez wyniku zwalnia
+ * ją od razu.
+ */
+@Service
+public class SortJobService {
+    private static final Logger logger = LoggerFactory.getLogger(SortJobService.class);
+
+    private final SortingService sortingService;
+    private final MemoryBudget memoryBudget;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService purger;
+    private final Duration retention;
+    private final Duration timeout;
+    private final Map<String, SortJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Tworzy usługę zadań.
+     *
+     * @param sortingService   usługa wykonująca sortowanie
+     * @param memoryBudget     budżet pamięci sortowań
+     * @param meterRegistry    rejestr metryk
+     * @param poolSize         liczba wątków roboczych
+     * @param queueCapacity    maksymalna liczba zadań oczekujących w kolejce
+     * @param retentionSeconds czas przechowywania zakończonych zadań w sekundach
+     * @param timeoutSeconds   budżet czasu wykonania jednego zadania w sekundach
+     */
+    public SortJobService(SortingService sortingService,
+                          MemoryBudget memoryBudget,
+                          MeterRegistry meterRegistry,
+                          @Value("${sorting.jobs.pool-size:2}") int poolSize,
+                          @Value("${sorting.jobs.queue-capacity:100}") int queueCapacity,
+                          @Value("${sorting.jobs.retention-seconds:600}") long retentionSeconds,
+                          @Value("${sorting.jobs.timeout-seconds:3600}") long timeoutSeconds) {
+        this.sortingService = sortingService;
+        this.memoryBudget = memoryBudget;
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "sort-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sort-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long purgeSeconds = Math.max(1, Math.min(60, retentionSeconds / 2));
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeSeconds, purgeSeconds, TimeUnit.SECONDS);
+
+        meterRegistry.gauge("sorting.jobs.queued", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("sorting.jobs.running", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Umieszcza żądanie w kolejce zadań.
+     *
+     * @param request żądanie sortowania
+     * @return utworzone zadanie
+     * @throws IllegalArgumentException   jeśli żądanie nie zawiera danych
+     * @throws ResponseStatusException    z kodem 503, jeśli kolejka zadań jest pełna, lub 413, jeśli żądanie
+     *                                    przekracza cały budżet pamięci
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest w tej chwili wyczerpany
+     */
+    public SortJob submit(SortingRequest request) {
+        int size = sortingService.size(request);
+        if (size == 0) {
+            throw new IllegalArgumentException("Dataset is empty or missing.");
+        }
+        purgeExpired();
+
+        SortJob job = new SortJob(UUID.randomUUID().toString(), request, size, memoryBudget.acquireNow(memoryBudget.estimate(request)));
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            job.release();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sort job queue is full, try again later.");
+        }
+        logger.info("Queued sort job {} with {} elements ({} waiting)", job.getId(), size, executor.getQueue().size());
+        return job;
+    }
+
+    /**
+     * Zwraca zadanie o podanym identyfikatorze.
+     *
+     * @param id identyfikator zadania
+     * @return zadanie
+     * @throws ResponseStatusException z kodem 404, jeśli zadanie nie istnieje lub wygasło
+     */
+    public SortJob get(String id) {
+        SortJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown sort job: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Anuluje zadanie.
+     *
+     * @param id identyfikator zadania
+     * @return anulowane zadanie
+     * @throws ResponseStatusException z kodem 404, jeśli zadanie nie istnieje, lub 409, jeśli już się zakończyło
+     */
+    public SortJob cancel(String id) {
+        SortJob job = get(id);
+        if (!job.cancel()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sort job " + id + " is already " + job.getState() + ".");
+        }
+        logger.info("Cancelled sort job {}", id);
+        return job;
+    }
+
+    private void run(SortJob job) {
+        if (!job.markRunning()) {
+            // Cancelled while waiting in the queue.
+            return;
+        }
+        SortingContext context = job.getContext();
+        context.setDeadline(timeout);
+        SortingRequest request = job.getRequest();
+        try {
+            Map<String, Object> result = sortingService.sort(request, new SortTimings(System.nanoTime()), context);
+            job.markSucceeded(result, memoryBudget.estimateResult(request));
+            logger.info("Sort job {} finished", job.getId());
+        } catch (SortingCancelledException e) {
+            if (e.getReason() == SortingCancelledException.Reason.CANCELLED) {
+                job.markCancelled();
+            } else {
+                job.markFailed(e.getMessage());
+            }
+            logger.info("Sort job {} aborted: {}", job.getId(), e.getMessage());
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(job, e);
+        } catch (Throwable e) {
+            // Other errors (e.g. OutOfMemoryError) are fatal: the job must not stay RUNNING, but the error propagates.
+            fail(job, e);
+            throw e;
+        }
+    }
+
+    private static void fail(SortJob job, Throwable e) {
+        job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        logger.warn("Sort job {} failed: {}", job.getId(), e.toString());
+    }
+
+    /**
+     * Usuwa zakończone zadania przechowywane dłużej niż {@code sorting.jobs.retention-seconds}
+     * i zwalnia ich rezerwacje pamięci.
+     */
+    void purgeExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.isDone() && job.getFinishedAt().isBefore(threshold)) {
+                job.release();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Zatrzymuje pulę wątków przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import pl.put.poznan.sortingmadness.logic.IncrementalQuickSort;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sesja sortowania stronicowanego: przechowywane dane, porządkowane przyrostowo w miarę pobierania kolejnych stron.
+ */
+public class SortSession {
+
+    private final String id;
+    private final IncrementalQuickSort<?> sorter;
+    private final int pageSize;
+    private final String direction;
+    private final Instant createdAt = Instant.now();
+    private final MemoryBudget.Permit memory;
+
+    private volatile Instant lastAccessedAt = createdAt;
+
+    /**
+     * Tworzy sesję.
+     *
+     * @param id        identyfikator sesji
+     * @param sorter    dane z porządkiem sortowania
+     * @param pageSize  liczba elementów na stronie
+     * @param direction kierunek sortowania
+     * @param memory    rezerwacja budżetu pamięci na przechowywane dane; zwalniana, gdy sesja przestaje być
+     *                  przechowywana ({@link #release()})
+     */
+    public SortSession(String id, IncrementalQuickSort<?> sorter, int pageSize, String direction, MemoryBudget.Permit memory) {
+        this.id = id;
+        this.sorter = sorter;
+        this.pageSize = pageSize;
+        this.direction = direction;
+        this.memory = memory;
+    }
+
+    /**
+     * Zwraca stronę posortowanych danych, porządkując dane tylko w jej zakresie.
+     *
+     * @param page numer strony, od 1
+     * @return strona z polami {@code session}, {@code page}, {@code pageSize}, {@code pages}, {@code total},
+     *         {@code direction}, {@code sortedData}, {@code sortedFraction} (udział ustalonych pozycji)
+     *         i {@code executionTime}
+     * @throws IllegalArgumentException jeśli strona wykracza poza dane
+     */
+    public synchronized Map<String, Object> page(int page) {
+        lastAccessedAt = Instant.now();
+        int total = sorter.size();
+        int pages = getPages();
+        if (page < 1 || page > pages) {
+            throw new IllegalArgumentException("Page must be between 1 and " + pages + ": " + page);
+        }
+        long startTime = System.nanoTime();
+        int from = (page - 1) * pageSize;
+        List<?> sortedData = sorter.range(from, (int) Math.min(total, (long) from + pageSize));
+        long duration = System.nanoTime() - startTime;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("session", id);
+        result.put("page", page);
+        result.put("pageSize", pageSize);
+        result.put("pages", pages);
+        result.put("total", total);
+        result.put("direction", direction);
+        result.put("sortedData", sortedData);
+        result.put("sortedFraction", (double) sorter.getSettled() / total);
+        result.put("executionTime", duration / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * Zwraca identyfikator sesji.
+     *
+     * @return identyfikator
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Zwraca liczbę elementów na stronie.
+     *
+     * @return rozmiar strony
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Zwraca liczbę stron.
+     *
+     * @return liczba stron
+     */
+    public int getPages() {
+        return (int) ((sorter.size() + (long) pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Zwraca chwilę ostatniego pobrania strony.
+     *
+     * @return chwila ostatniego dostępu
+     */
+    public Instant getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    /**
+     * Zwalnia rezerwację pamięci sesji; wywoływane, gdy sesja przestaje być przechowywana.
+     */
+    void release() {
+        memory.close();
+    }
+}
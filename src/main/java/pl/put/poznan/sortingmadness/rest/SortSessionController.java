@@ -0,0 +1,125 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Kontroler REST sesji sortowania stronicowanego ({@link SortSessionService}).
+ * <p>
+ * {@code POST /sort/sessions} zapamiętuje dane i zwraca pierwszą stronę wraz z nagłówkiem {@code Location},
+ * {@code GET /sort/sessions/{id}?page=N} zwraca kolejne strony, porządkując dane tylko w ich zakresie, a
+ * {@code DELETE /sort/sessions/{id}} zamyka sesję. Utworzenie sesji i pobranie strony przechodzą przez
+ * {@link SortExecution} jak zwykłe "/sort" (kolejka klienta, budżet pamięci i czasu).
+ */
+@RestController
+@RequestMapping("/sort/sessions")
+public class SortSessionController {
+
+    private final SortSessionService sessionService;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
+
+    public SortSessionController(SortSessionService sessionService, MemoryBudget memoryBudget, SortExecution execution) {
+        this.sessionService = sessionService;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
+    }
+
+    /**
+     * Tworzy sesję i zwraca pierwszą stronę posortowanych danych.
+     *
+     * @param request        żądanie z danymi, kierunkiem i rozmiarem strony
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return odpowiedź 201 z nagłówkiem {@code Location} wskazującym sesję i pierwszą stroną w treści
+     * @throws IllegalArgumentException   jeśli żądanie jest niepoprawne
+     * @throws ResponseStatusException    z kodem 503, jeśli osiągnięto limit sesji
+     * @throws SortingCancelledException  jeśli żądanie przekroczyło budżet czasu
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @PostMapping(produces = "application/json")
+    public WebAsyncTask<ResponseEntity<Map<String, Object>>> create(@RequestBody SortSessionRequest request,
+                                                                    @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                                    @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                                    HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        requestTimings.setExposeInBody(request.isIncludeTimings());
+
+        String client = execution.clientId(clientId, servletRequest);
+        long budgetMillis = execution.timeoutMillis(request.getTimeoutMillis());
+        // The request is not bound to the worker thread, so the session URI is prepared here.
+        UriComponentsBuilder sessionUri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        return execution.submit(client, request.valueCount(), memoryBudget.estimate(request), budgetMillis, requestTimings,
+                context -> {
+                    Map<String, Object> firstPage = sessionService.create(request, context);
+                    URI location = sessionUri.buildAndExpand(firstPage.get("session")).toUri();
+                    return ResponseEntity.created(location).body(firstPage);
+                });
+    }
+
+    /**
+     * Zwraca stronę posortowanych danych sesji. Koszt żądania dla planisty to rozmiar strony.
+     *
+     * @param id             identyfikator sesji
+     * @param page           numer strony, od 1
+     * @param timeoutMillis  budżet czasu w milisekundach; domyślnie {@code sorting.request.timeout-ms}
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return strona danych, liczba stron i elementów oraz udział już uporządkowanych pozycji
+     * @throws ResponseStatusException    z kodem 404, jeśli sesja nie istnieje lub wygasła
+     * @throws IllegalArgumentException   jeśli strona wykracza poza dane lub budżet czasu nie jest dodatni
+     * @throws SortingCancelledException  jeśli żądanie przekroczyło budżet czasu
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @GetMapping(path = "/{id}", produces = "application/json")
+    public WebAsyncTask<Map<String, Object>> page(@PathVariable String id,
+                                                  @RequestParam(defaultValue = "1") int page,
+                                                  @RequestParam(required = false) Long timeoutMillis,
+                                                  @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                  @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                  HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+
+        String client = execution.clientId(clientId, servletRequest);
+        long budgetMillis = execution.timeoutMillis(timeoutMillis);
+        // Unknown sessions are rejected before they take a place in the client's queue.
+        int pageSize = sessionService.pageSize(id);
+        return execution.submit(client, pageSize, memoryBudget.estimate(pageSize, 1), budgetMillis, requestTimings,
+                context -> sessionService.page(id, page, context));
+    }
+
+    /**
+     * Zamyka sesję.
+     *
+     * @param id identyfikator sesji
+     * @return odpowiedź 204
+     * @throws ResponseStatusException z kodem 404, jeśli sesja nie istnieje lub wygasła
+     */
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<Void> close(@PathVariable String id) {
+        sessionService.close(id);
+        return ResponseEntity.noContent().build();
+    }
+}
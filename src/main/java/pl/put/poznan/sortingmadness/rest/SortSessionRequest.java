@@ -0,0 +1,53 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Reprezentuje żądanie utworzenia sesji sortowania stronicowanego ("/sort/sessions").
+ * Dane, klucze ({@code keysToSort}) i usuwanie duplikatów podaje się jak w {@link SortingRequest};
+ * zamiast parametrów sortowania żądanie określa kierunek i rozmiar strony.
+ */
+public class SortSessionRequest extends SortingRequest {
+
+    @JsonProperty("direction")
+    private String direction = "ASC";
+
+    @JsonProperty("pageSize")
+    private int pageSize = 50;
+
+    /**
+     * Pobiera kierunek sortowania.
+     *
+     * @return kierunek sortowania ("ASC" lub "DESC")
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Ustawia kierunek sortowania.
+     *
+     * @param direction kierunek sortowania ("ASC" lub "DESC")
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Pobiera liczbę elementów na stronie.
+     *
+     * @return rozmiar strony
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Ustawia liczbę elementów na stronie.
+     *
+     * @param pageSize rozmiar strony
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
@@ -0,0 +1,249 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.IncrementalQuickSort;
+import pl.put.poznan.sortingmadness.logic.SortComparators;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Przechowuje sesje sortowania stronicowanego ({@link SortSession}).
+ * <p>
+ * Utworzenie sesji zapamiętuje dane i zwraca pierwszą stronę; kolejne strony porządkują dane tylko w swoim
+ * zakresie ({@link IncrementalQuickSort}), więc dane są sortowane w całości dopiero wtedy, gdy ktoś przejrzy
+ * wszystkie strony. Sesja nieużywana dłużej niż {@code sorting.sessions.idle-seconds} wygasa (wygasłe sesje
+ * są usuwane okresowo w tle); gdy aktywnych sesji jest {@code sorting.sessions.max-sessions}, nowa sesja jest
+ * odrzucana z kodem 503.
+ * <p>
+ * Każda sesja rezerwuje w {@link MemoryBudget} pamięć na jedną kopię swoich danych aż do zamknięcia lub wygaśnięcia.
+ * Rezerwacja nie czeka na zwolnienie budżetu, bo sesja jest tworzona w wątku, który ma już rezerwację na
+ * sortowanie.
+ */
+@Service
+public class SortSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(SortSessionService.class);
+
+    private final Map<String, SortSession> sessions = new ConcurrentHashMap<>();
+    private final MemoryBudget memoryBudget;
+    private final Semaphore slots;
+    private final int maxPageSize;
+    private final Duration idleTimeout;
+    private final ScheduledExecutorService purger;
+
+    /**
+     * Tworzy usługę sesji.
+     *
+     * @param meterRegistry rejestr metryk
+     * @param memoryBudget  budżet pamięci, w którym sesje rezerwują pamięć na przechowywane dane
+     * @param maxSessions   największa liczba jednocześnie przechowywanych sesji
+     * @param maxPageSize   największy rozmiar strony
+     * @param idleSeconds   czas w sekundach, po którym nieużywana sesja wygasa
+     */
+    public SortSessionService(MeterRegistry meterRegistry,
+                              MemoryBudget memoryBudget,
+                              @Value("${sorting.sessions.max-sessions:100}") int maxSessions,
+                              @Value("${sorting.sessions.max-page-size:10000}") int maxPageSize,
+                              @Value("${sorting.sessions.idle-seconds:600}") long idleSeconds) {
+        this.memoryBudget = memoryBudget;
+        this.slots = new Semaphore(maxSessions);
+        this.maxPageSize = maxPageSize;
+        this.idleTimeout = Duration.ofSeconds(idleSeconds);
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sort-session-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long purgeSeconds = Math.max(1, Math.min(60, idleSeconds / 2));
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeSeconds, purgeSeconds, TimeUnit.SECONDS);
+
+        meterRegistry.gauge("sorting.sessions.active", sessions, Map::size);
+    }
+
+    /**
+     * Tworzy sesję z danych żądania i zwraca jej pierwszą stronę.
+     *
+     * @param request żądanie z danymi ({@code data} z {@code keysToSort} albo {@code dataList}), kierunkiem
+     *                i rozmiarem strony
+     * @param context kontekst wykonania, w którym porządkowana jest pierwsza strona; może być {@code null}
+     * @return pierwsza strona w formacie {@link SortSession#page(int)}
+     * @throws IllegalArgumentException   jeśli dane, klucze, kierunek lub rozmiar strony są niepoprawne
+     * @throws ResponseStatusException    z kodem 503, jeśli osiągnięto limit sesji, lub 413, jeśli dane
+     *                                    przekraczają cały budżet pamięci
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest w tej chwili wyczerpany
+     * @throws SortingCancelledException  jeśli porządkowanie pierwszej strony przerwano
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Map<String, Object> create(SortSessionRequest request, SortingContext context) {
+        String direction = request.getDirection();
+        if (!"ASC".equals(direction) && !"DESC".equals(direction)) {
+            throw new IllegalArgumentException("Sorting direction must be specified.");
+        }
+        if (request.getPageSize() < 1 || request.getPageSize() > maxPageSize) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + maxPageSize + ".");
+        }
+
+        List<Map<String, Comparable>> data = request.getData();
+        List<Comparable> dataList = request.getDataList();
+        List<String> keysToSort = request.getKeysToSort();
+        if (data != null) {
+            if (data.isEmpty()) {
+                throw new IllegalArgumentException("Dataset is empty.");
+            }
+            if (keysToSort == null || keysToSort.isEmpty()) {
+                throw new IllegalArgumentException("Keys to sort must be specified.");
+            }
+        } else if (dataList == null || dataList.isEmpty()) {
+            throw new IllegalArgumentException("Dataset (list) is empty.");
+        }
+
+        purgeExpired();
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sort sessions, try again later.");
+        }
+        MemoryBudget.Permit memory = null;
+        try {
+            // Waiting here would hold the caller's sorting reservation while waiting for another one.
+            memory = memoryBudget.acquireNow(memoryBudget.estimateResult(request));
+            IncrementalQuickSort<?> sorter = data != null
+                    ? new IncrementalQuickSort<>(distinct(data, request.isRemoveDuplicates()), SortComparators.records(keysToSort, direction))
+                    : new IncrementalQuickSort<>(distinct(dataList, request.isRemoveDuplicates()), SortComparators.values(direction));
+            SortSession session = new SortSession(UUID.randomUUID().toString(), sorter, request.getPageSize(), direction, memory);
+            // The first page also validates the data (e.g. missing keys) before the session is stored.
+            Map<String, Object> firstPage = page(session, 1, context);
+            sessions.put(session.getId(), session);
+            logger.info("Created sort session {} with {} elements in {} pages", session.getId(), sorter.size(), session.getPages());
+            return firstPage;
+        } catch (RuntimeException | Error e) {
+            if (memory != null) {
+                memory.close();
+            }
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Zwraca stronę sesji.
+     *
+     * @param id   identyfikator sesji
+     * @param page numer strony, od 1
+     * @return strona w formacie {@link SortSession#page(int)}
+     * @throws ResponseStatusException  z kodem 404, jeśli sesja nie istnieje lub wygasła
+     * @throws IllegalArgumentException jeśli strona wykracza poza dane
+     */
+    public Map<String, Object> page(String id, int page) {
+        return page(id, page, null);
+    }
+
+    /**
+     * Zwraca stronę sesji, porządkując ją w ramach kontekstu, który może przerwać porządkowanie po upływie
+     * terminu lub anulowaniu. Przerwane porządkowanie nie psuje sesji: następne żądanie strony je dokończy.
+     *
+     * @param id      identyfikator sesji
+     * @param page    numer strony, od 1
+     * @param context kontekst wykonania; może być {@code null}
+     * @return strona w formacie {@link SortSession#page(int)}
+     * @throws ResponseStatusException   z kodem 404, jeśli sesja nie istnieje lub wygasła
+     * @throws IllegalArgumentException  jeśli strona wykracza poza dane
+     * @throws SortingCancelledException jeśli porządkowanie strony przerwano
+     */
+    public Map<String, Object> page(String id, int page, SortingContext context) {
+        return page(get(id), page, context);
+    }
+
+    /**
+     * Zwraca rozmiar strony sesji, np. aby oszacować koszt żądania strony przed jego wykonaniem.
+     *
+     * @param id identyfikator sesji
+     * @return liczba elementów na stronie
+     * @throws ResponseStatusException z kodem 404, jeśli sesja nie istnieje lub wygasła
+     */
+    public int pageSize(String id) {
+        return get(id).getPageSize();
+    }
+
+    /**
+     * Zamyka sesję i zwalnia jej dane.
+     *
+     * @param id identyfikator sesji
+     * @throws ResponseStatusException z kodem 404, jeśli sesja nie istnieje lub wygasła
+     */
+    public void close(String id) {
+        SortSession session = sessions.remove(id);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown sort session: " + id);
+        }
+        release(session);
+        logger.info("Closed sort session {}", id);
+    }
+
+    private SortSession get(String id) {
+        purgeExpired();
+        SortSession session = sessions.get(id);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown sort session: " + id);
+        }
+        return session;
+    }
+
+    @SuppressWarnings("try")
+    private static Map<String, Object> page(SortSession session, int page, SortingContext context) {
+        if (context == null) {
+            return session.page(page);
+        }
+        context.throwIfCancelled();
+        try (SortingContext.Scope ignored = context.activate()) {
+            return session.page(page);
+        }
+    }
+
+    /**
+     * Usuwa sesje nieużywane dłużej niż {@code sorting.sessions.idle-seconds} i zwalnia ich dane.
+     */
+    void purgeExpired() {
+        Instant threshold = Instant.now().minus(idleTimeout);
+        for (SortSession session : sessions.values()) {
+            // remove(key, value) succeeds only once, so a session racing with close() is released exactly once.
+            if (session.getLastAccessedAt().isBefore(threshold) && sessions.remove(session.getId(), session)) {
+                release(session);
+                logger.info("Sort session {} expired", session.getId());
+            }
+        }
+    }
+
+    private void release(SortSession session) {
+        session.release();
+        slots.release();
+    }
+
+    /**
+     * Zatrzymuje okresowe usuwanie wygasłych sesji przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private static <T> List<T> distinct(List<T> data, boolean removeDuplicates) {
+        return removeDuplicates ? data.stream().distinct().collect(Collectors.toList()) : data;
+    }
+}
@@ -0,0 +1,108 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Zbiera czasy trwania poszczególnych etapów obsługi żądania sortowania.
+ * <p>
+ * Czasy mierzone są w nanosekundach przy użyciu {@link System#nanoTime()} i sumowane per etap,
+ * dzięki czemu etapy powtarzane dla każdego {@code SortingParameter} (np. kopiowanie i sortowanie)
+ * są raportowane łącznie. Wynik trafia do nagłówka {@code Server-Timing} oraz opcjonalnie do bloku
+ * {@code timings} w odpowiedzi.
+ */
+public class SortTimings {
+
+    /**
+     * Nazwa atrybutu żądania, pod którym przechowywany jest obiekt pomiarów.
+     */
+    public static final String REQUEST_ATTRIBUTE = "pl.put.poznan.sortingmadness.rest.SortTimings";
+
+    private final long requestStart;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private boolean exposeInBody;
+
+    /**
+     * Tworzy obiekt pomiarów dla żądania rozpoczętego w podanym momencie.
+     *
+     * @param requestStart moment rozpoczęcia żądania w nanosekundach ({@link System#nanoTime()})
+     */
+    public SortTimings(long requestStart) {
+        this.requestStart = requestStart;
+    }
+
+    /**
+     * Zwraca moment rozpoczęcia żądania.
+     *
+     * @return moment rozpoczęcia żądania w nanosekundach
+     */
+    public long getRequestStart() {
+        return requestStart;
+    }
+
+    /**
+     * Dodaje czas trwania do podanego etapu.
+     *
+     * @param phase nazwa etapu (np. "bind", "sort")
+     * @param nanos czas trwania w nanosekundach
+     */
+    public synchronized void record(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    /**
+     * Rejestruje czas od podanego momentu do teraz jako czas trwania etapu.
+     *
+     * @param phase nazwa etapu
+     * @param since moment rozpoczęcia etapu w nanosekundach
+     * @return bieżący moment w nanosekundach, do użycia jako początek kolejnego etapu
+     */
+    public long recordSince(String phase, long since) {
+        long now = System.nanoTime();
+        record(phase, now - since);
+        return now;
+    }
+
+    /**
+     * Określa, czy pomiary mają zostać dołączone do treści odpowiedzi.
+     *
+     * @return {@code true} jeśli blok {@code timings} ma trafić do odpowiedzi
+     */
+    public boolean isExposeInBody() {
+        return exposeInBody;
+    }
+
+    /**
+     * Ustawia, czy pomiary mają zostać dołączone do treści odpowiedzi.
+     *
+     * @param exposeInBody {@code true} aby dołączyć blok {@code timings}
+     */
+    public void setExposeInBody(boolean exposeInBody) {
+        this.exposeInBody = exposeInBody;
+    }
+
+    /**
+     * Zwraca kopię zarejestrowanych etapów w kolejności ich pierwszego wystąpienia.
+     *
+     * @return mapa nazwa etapu → czas trwania w nanosekundach
+     */
+    public synchronized Map<String, Long> toMap() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * Buduje wartość nagłówka {@code Server-Timing} zgodną ze specyfikacją W3C.
+     * Czas trwania podawany jest w milisekundach z dokładnością do nanosekund.
+     *
+     * @return wartość nagłówka, np. {@code bind;dur=0.412300, sort;dur=2.000100}
+     */
+    public synchronized String toHeaderValue() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            joiner.add(String.format(Locale.ROOT, "%s;dur=%.6f", phase.getKey(), phase.getValue() / 1_000_000.0));
+        }
+        return joiner.toString();
+    }
+}
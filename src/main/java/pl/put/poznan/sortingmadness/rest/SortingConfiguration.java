@@ -0,0 +1,50 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.put.poznan.sortingmadness.logic.CostGuard;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+import pl.put.poznan.sortingmadness.logic.StrategyRegistry;
+
+/**
+ * Komponenty logiki sortowania współdzielone przez kontrolery i usługi.
+ * <p>
+ * Strategie, {@link SortingMadness} i {@link SortingSelector} są bezstanowe, więc jedna instancja obsługuje
+ * wszystkie żądania zamiast tworzenia nowych obiektów w każdym komponencie.
+ */
+@Configuration
+public class SortingConfiguration {
+
+    /**
+     * Udostępnia rejestr wbudowanych strategii sortowania.
+     *
+     * @return współdzielony rejestr strategii
+     */
+    @Bean
+    public StrategyRegistry strategyRegistry() {
+        return StrategyRegistry.defaults();
+    }
+
+    /**
+     * Tworzy obiekt sortujący korzystający z rejestru strategii i ograniczenia kosztu.
+     *
+     * @param strategyRegistry rejestr strategii
+     * @param costGuard        ograniczenie kosztu algorytmów kwadratowych
+     * @return obiekt sortujący
+     */
+    @Bean
+    public SortingMadness sortingMadness(StrategyRegistry strategyRegistry, CostGuard costGuard) {
+        return new SortingMadness(strategyRegistry, costGuard);
+    }
+
+    /**
+     * Tworzy selektor algorytmów.
+     *
+     * @return selektor algorytmów
+     */
+    @Bean
+    public SortingSelector sortingSelector() {
+        return new SortingSelector();
+    }
+}
@@ -3,27 +3,44 @@ package pl.put.poznan.sortingmadness.rest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
-import pl.put.poznan.sortingmadness.logic.SortingMadness;
-import pl.put.poznan.sortingmadness.logic.SortingSelector;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
 
 /**
  * Klasa {@code SortingMadnessController} służy jako kontroler REST API dla operacji sortowania danych.
  * Udostępnia punkt końcowy POST na ścieżce "/sort", który przyjmuje żądanie z danymi do posortowania i zwraca wynik sortowania.
+ * Czasy poszczególnych etapów przetwarzania są raportowane w nagłówku {@code Server-Timing}.
+ * <p>
+ * Sortowanie wykonywane jest asynchronicznie przez {@link SortExecution}: z budżetem czasu {@code sorting.request.timeout-ms}
+ * (klient może zażądać krótszego lub dłuższego przez pole {@code timeoutMillis}, nie więcej niż
+ * {@code sorting.request.max-timeout-ms}), po zarezerwowaniu pamięci w {@link MemoryBudget} i w kolejce klienta
+ * {@link FairSortScheduler} (klienta wskazuje nagłówek {@code X-Client-Id}, a bez niego adres zdalny).
+ * Po upływie budżetu lub rozłączeniu klienta sortowanie jest przerywane w najbliższym punkcie kontrolnym,
+ * a klient otrzymuje błąd 503; przy wyczerpanym budżecie pamięci lub pełnej kolejce - błąd 429.
  */
 @RestController
 @RequestMapping("/sort")
 public class SortingMadnessController {
     private static final Logger logger = LoggerFactory.getLogger(SortingMadnessController.class);
 
-    private final SortingMadness sortingMadness;
-    private final SortingSelector sortingSelector;
+    private final SortingService sortingService;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
 
-    public SortingMadnessController() {
-        this.sortingMadness = new SortingMadness();
-        this.sortingSelector = new SortingSelector(); // Initialize SortingSelector
+    /**
+     * Tworzy kontroler.
+     *
+     * @param sortingService usługa wykonująca sortowanie
+     * @param memoryBudget   budżet pamięci sortowań
+     * @param execution      ścieżka asynchronicznego wykonania sortowań
+     */
+    public SortingMadnessController(SortingService sortingService, MemoryBudget memoryBudget, SortExecution execution) {
+        this.sortingService = sortingService;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
     }
 
     /**
@@ -33,6 +50,9 @@ public class SortingMadnessController {
      * Wykonuje sortowanie danych przy użyciu odpowiedniego algorytmu i kierunku, a wynik sortowania jest zwracany jako mapa.
      *
      * @param request obiekt {@link SortingRequest} zawierający szczegóły żądania sortowania
+     * @param clientId identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
      * @return mapa zawierająca wyniki sortowania dla każdego algorytmu i klucza sortowania
      *         z polami:
      *         <ul>
@@ -40,135 +60,24 @@ public class SortingMadnessController {
      *         <li>{@code result}: posortowane dane</li>
      *         <li>{@code executionTime}: czas wykonania sortowania w milisekundach</li>
      *         </ul>
-     * @throws IllegalArgumentException jeśli dane są puste lub niepoprawnie sformatowane
+     * @throws IllegalArgumentException   jeśli dane są puste lub niepoprawnie sformatowane
+     * @throws SortingCancelledException  jeśli sortowanie przekroczyło budżet czasu lub zostało anulowane
+     * @throws AdmissionRejectedException jeśli budżet pamięci sortowań jest wyczerpany lub kolejka klienta jest pełna
      */
     @PostMapping(produces = "application/json")
-    public Map<String, Object> sort(@RequestBody SortingRequest request) {
-        logger.debug("Received request: {}", request);
-        Map<String, Object> finalResult = new HashMap<>();
-
-        @SuppressWarnings("rawtypes")
-        List<Map<String, Comparable>> data = request.getData();
-        if (request.isRemoveDuplicates() && data != null) {
-            data = data.stream()
-                    .distinct()
-                    .collect(Collectors.toList());
-        }
-
-        if (validateData(data)) {
-            List<String> keysToSort = request.getKeysToSort();
-            validateKeysToSort(keysToSort, data);
-
-            Integer globalMaxIterations = request.getGlobalMaxIterations();
-            List<SortingRequest.SortingParameter> sortingParameters = Optional.ofNullable(request.getSortingParameters())
-                    .orElseGet(() -> List.of(new SortingRequest.SortingParameter()));
-
-            for (SortingRequest.SortingParameter param : sortingParameters) {
-                String direction = Optional.ofNullable(param.getDirections())
-                        .orElseThrow(() -> new IllegalArgumentException("Sorting direction must be specified."));
-                boolean dir = "DESC".equals(direction);
-
-                @SuppressWarnings("rawtypes")
-                List<Map<String, Comparable>> finalData = data;
-                String algorithm = Optional.ofNullable(param.getSortingAlgorithms())
-                        .orElseGet(() -> sortingSelector.selectAlgorithmMap(finalData, keysToSort, dir).toString());
-                int maxIterations = Optional.ofNullable(param.getMaxIterations())
-                        .orElse(globalMaxIterations != null ? globalMaxIterations : 0);
-
-                @SuppressWarnings("rawtypes")
-                List<Map<String, Comparable>> inputDataCopy = new ArrayList<>(data);
-                List<Map<String, Object>> tempResult = new ArrayList<>();
-                Map<String, Object> result = sortingMadness.sortData(inputDataCopy, keysToSort, algorithm, direction, maxIterations);
-                tempResult.add(result);
-
-                finalResult.put(algorithm + "-" + String.join(",", keysToSort) + "-" + direction, tempResult);
-            }
-        } else {
-            // Obsługa listy `dataList`
-            @SuppressWarnings("rawtypes")
-            List<Comparable> dataList = request.getDataList();
-            if (request.isRemoveDuplicates() && dataList != null) {
-                dataList = dataList.stream()
-                        .distinct()
-                        .collect(Collectors.toList());
-            }
-
-            if (validateDataList(dataList)) {
-                Integer globalMaxIterations = request.getGlobalMaxIterations();
-                List<SortingRequest.SortingParameter> sortingParameters = Optional.ofNullable(request.getSortingParameters())
-                        .orElse(List.of(new SortingRequest.SortingParameter()));
-
-                for (SortingRequest.SortingParameter param : sortingParameters) {
-                    String direction = Optional.ofNullable(param.getDirections())
-                            .orElseThrow(() -> new IllegalArgumentException("Sorting direction must be specified."));
-                    boolean dir = "DESC".equals(direction);
-
-                    @SuppressWarnings("rawtypes")
-                    List<Comparable> finalDataList = dataList;
-                    String algorithm = Optional.ofNullable(param.getSortingAlgorithms())
-                            .orElseGet(() -> sortingSelector.selectAlgorithmList(finalDataList, dir).toString());
-
-                    int maxIterations = Optional.ofNullable(param.getMaxIterations())
-                            .orElse(globalMaxIterations != null ? globalMaxIterations : 0);
-
-                    @SuppressWarnings("rawtypes")
-                    List<Comparable> inputDataCopy = new ArrayList<>(dataList);
-                    Map<String, Object> result = sortingMadness.sortDataList(inputDataCopy, algorithm, direction, maxIterations);
-                    finalResult.put(algorithm + "-" + direction, result);
-                }
-            }
-        }
-        return finalResult;
-    }
-
-
-    /**
-     * Waliduje dane w formacie listy map.
-     *
-     * @param data lista map reprezentujących dane wejściowe
-     * @return {@code true} jeśli dane są poprawne, {@code false} w przeciwnym wypadku
-     * @throws IllegalArgumentException jeśli dane są puste
-     */
-    private boolean validateData(List<Map<String, Comparable>> data) {
-        if (data == null) {
-            return false;
-        }
-        if (data.isEmpty()) {
-            throw new IllegalArgumentException("Dataset is empty.");
-        }
-        return true;
-    }
-
-    /**
-     * Waliduje dane w formacie listy elementów porównywalnych.
-     *
-     * @param data lista elementów porównywalnych reprezentujących dane wejściowe
-     * @return {@code true} jeśli dane są poprawne, {@code false} w przeciwnym wypadku
-     * @throws IllegalArgumentException jeśli dane są puste
-     */
-    private boolean validateDataList(List<Comparable> data) {
-        if (data == null) {
-            return false;
-        }
-        if (data.isEmpty()) {
-            throw new IllegalArgumentException("Dataset (list) is empty.");
-        }
-        return true;
-    }
-
-    /**
-     * Waliduje klucze sortowania w odniesieniu do danych wejściowych.
-     *
-     * @param keysToSort lista kluczy sortowania
-     * @param data lista map reprezentujących dane wejściowe
-     * @throws IllegalArgumentException jeśli jakikolwiek klucz nie istnieje w danych wejściowych
-     */
-    private void validateKeysToSort(List<String> keysToSort, List<Map<String, Comparable>> data) {
-        for (String key : keysToSort) {
-            boolean columnExists = data.stream().anyMatch(map -> map.containsKey(key));
-            if (!columnExists) {
-                throw new IllegalArgumentException("Invalid column name: " + key);
-            }
-        }
+    public WebAsyncTask<Map<String, Object>> sort(@RequestBody SortingRequest request,
+                                                  @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                                  @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                                  HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        requestTimings.setExposeInBody(request.isIncludeTimings());
+
+        String client = execution.clientId(clientId, servletRequest);
+        long budgetMillis = execution.timeoutMillis(request.getTimeoutMillis());
+
+        logger.debug("Received request from {}: {}", client, request);
+        return execution.submit(client, request.valueCount(), memoryBudget.estimate(request), budgetMillis, requestTimings,
+                context -> sortingService.sort(request, requestTimings, context));
     }
 }
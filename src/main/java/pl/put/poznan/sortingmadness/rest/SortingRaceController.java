@@ -0,0 +1,169 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.benchmark.AlgorithmRace;
+import pl.put.poznan.sortingmadness.logic.benchmark.RaceResult;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Kontroler REST udostępniający punkt końcowy "/sort/race" do porównywania algorytmów sortowania.
+ * <p>
+ * Wyścigi wykonywane są asynchronicznie przez {@link SortExecution}, tak jak zwykłe sortowania: w kolejce klienta
+ * {@link FairSortScheduler} z kosztem równym liczbie elementów × liczbie algorytmów × liczbie rund, po zarezerwowaniu
+ * w {@link MemoryBudget} pamięci na dane i kopię roboczą. Każdy wyścig ma termin {@code sorting.race.timeout-seconds}
+ * liczony od przyjęcia żądania; po jego upływie lub rozłączeniu klienta trwające sortowanie kończy się
+ * w najbliższym punkcie kontrolnym, a klient otrzymuje błąd 503.
+ */
+@RestController
+@RequestMapping("/sort/race")
+public class SortingRaceController {
+    private static final Logger logger = LoggerFactory.getLogger(SortingRaceController.class);
+
+    /** Górny limit liczby iteracji rozgrzewkowych i pomiarowych w jednym wyścigu. */
+    private static final int MAX_ITERATIONS = 1000;
+
+    /** Liczba kopii danych obecnych jednocześnie w pamięci: dane wyścigu i kopia sortowana w bieżącej rundzie. */
+    private static final int RACE_COPIES = 2;
+
+    /** Kolumny rekordów generowanych przez {@link DatasetGenerator} poza dodatkowymi: {@code id}, {@code key}, {@code category}. */
+    private static final int GENERATED_RECORD_COLUMNS = 3;
+
+    private final SortingMadness sortingMadness;
+    private final MemoryBudget memoryBudget;
+    private final SortExecution execution;
+    private final DatasetGenerator datasetGenerator = new DatasetGenerator();
+
+    @Value("${sorting.race.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${sorting.datasets.max-size:10000000}")
+    private int maxSize;
+
+    /**
+     * Tworzy kontroler.
+     *
+     * @param sortingMadness współdzielony obiekt sortujący
+     * @param memoryBudget   budżet pamięci sortowań
+     * @param execution      ścieżka asynchronicznego wykonania sortowań
+     */
+    public SortingRaceController(SortingMadness sortingMadness, MemoryBudget memoryBudget, SortExecution execution) {
+        this.sortingMadness = sortingMadness;
+        this.memoryBudget = memoryBudget;
+        this.execution = execution;
+    }
+
+    /**
+     * Punkt końcowy POST przeprowadzający wyścig algorytmów na przesłanych danych.
+     *
+     * @param request        obiekt {@link SortingRaceRequest} z danymi i parametrami wyścigu
+     * @param clientId       identyfikator klienta z nagłówka {@code X-Client-Id}; może być nieobecny
+     * @param timings        pomiary etapów przetwarzania ustawione przez {@link ServerTimingFilter}; mogą być nieobecne
+     * @param servletRequest żądanie HTTP, z którego pobierany jest adres klienta bez nagłówka {@code X-Client-Id}
+     * @return wynik wyścigu: statystyki czasu (średnia, mediana, p99, odchylenie standardowe,
+     *         95% przedział ufności), czas GC oraz nazwa najszybszego algorytmu
+     * @throws IllegalArgumentException   jeśli dane lub parametry wyścigu są niepoprawne albo generowany zbiór
+     *                                    przekracza {@code sorting.datasets.max-size}
+     * @throws SortingCancelledException  jeśli wyścig przekroczył termin lub klient się rozłączył
+     * @throws AdmissionRejectedException jeśli budżet pamięci jest wyczerpany lub kolejka klienta jest pełna
+     */
+    @PostMapping(produces = "application/json")
+    public WebAsyncTask<RaceResult> race(@RequestBody SortingRaceRequest request,
+                                         @RequestHeader(name = SortExecution.CLIENT_ID_HEADER, required = false) String clientId,
+                                         @RequestAttribute(name = SortTimings.REQUEST_ATTRIBUTE, required = false) SortTimings timings,
+                                         HttpServletRequest servletRequest) {
+        SortTimings requestTimings = timings != null ? timings : new SortTimings(System.nanoTime());
+        requestTimings.recordSince("bind", requestTimings.getRequestStart());
+        logger.debug("Received race request: {}", request);
+        validateIterations(request.getWarmupIterations(), "warmupIterations");
+        validateIterations(request.getMeasurementIterations(), "measurementIterations");
+
+        String direction = request.getDirection();
+        if (!"ASC".equals(direction) && !"DESC".equals(direction)) {
+            throw new IllegalArgumentException("Sorting direction must be specified.");
+        }
+        List<String> algorithms = request.getAlgorithms() == null || request.getAlgorithms().isEmpty()
+                ? SortingMadness.ALGORITHMS
+                : request.getAlgorithms();
+
+        DatasetSpec dataset = request.getDataset();
+        boolean generated = dataset != null && request.getData() == null && request.getDataList() == null;
+        if (generated) {
+            dataset.validate();
+            if (dataset.getSize() > maxSize) {
+                throw new IllegalArgumentException("Dataset size must not exceed " + maxSize + ".");
+            }
+        }
+
+        @SuppressWarnings("rawtypes")
+        List<Map<String, Comparable>> data = generated ? null : request.getData();
+        Work work;
+        long size;
+        long values;
+        if (generated ? request.getKeysToSort() != null : data != null) {
+            List<String> keysToSort = request.getKeysToSort();
+            if (!generated && data.isEmpty()) {
+                throw new IllegalArgumentException("Dataset is empty.");
+            }
+            if (keysToSort == null || keysToSort.isEmpty()) {
+                throw new IllegalArgumentException("Keys to sort must be specified.");
+            }
+            size = generated ? dataset.getSize() : data.size();
+            values = generated ? size * (GENERATED_RECORD_COLUMNS + dataset.getWidth()) : request.valueCount();
+            work = race -> race.raceData(distinct(generated ? datasetGenerator.generateRecords(dataset) : data,
+                    request.isRemoveDuplicates()), keysToSort, algorithms, direction);
+        } else {
+            @SuppressWarnings("rawtypes")
+            List<Comparable> dataList = generated ? null : request.getDataList();
+            if (!generated && (dataList == null || dataList.isEmpty())) {
+                throw new IllegalArgumentException("Dataset (list) is empty.");
+            }
+            size = generated ? dataset.getSize() : dataList.size();
+            values = size;
+            work = race -> race.raceList(distinct(generated ? datasetGenerator.generateList(dataset) : dataList,
+                    request.isRemoveDuplicates()), algorithms, direction);
+        }
+
+        long rounds = Math.max(1, request.getWarmupIterations() + request.getMeasurementIterations());
+        long cost = size * algorithms.size() * rounds;
+        return execution.submit(execution.clientId(clientId, servletRequest), cost,
+                memoryBudget.estimate(values, RACE_COPIES), TimeUnit.SECONDS.toMillis(timeoutSeconds), requestTimings,
+                context -> work.run(new AlgorithmRace(sortingMadness, request.getWarmupIterations(),
+                        request.getMeasurementIterations(), context)));
+    }
+
+    /**
+     * Wyścig do wykonania w kolejce klienta, łącznie z wygenerowaniem danych.
+     */
+    private interface Work {
+        RaceResult run(AlgorithmRace race);
+    }
+
+    private static <T> List<T> distinct(List<T> data, boolean removeDuplicates) {
+        return removeDuplicates ? data.stream().distinct().collect(Collectors.toList()) : data;
+    }
+
+    private static void validateIterations(int iterations, String name) {
+        if (iterations < 0 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException(name + " must be between 0 and " + MAX_ITERATIONS + ".");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+
+import java.util.List;
+
+/**
+ * Reprezentuje żądanie wyścigu algorytmów sortowania.
+ * Oprócz danych wejściowych znanych z {@link SortingRequest} określa uczestników wyścigu,
+ * kierunek sortowania oraz liczbę iteracji rozgrzewkowych i pomiarowych.
+ * Zamiast przesyłać dane, można podać opis syntetycznego zbioru w polu {@code dataset}.
+ */
+public class SortingRaceRequest extends SortingRequest {
+
+    @JsonProperty("algorithms")
+    private List<String> algorithms;
+
+    @JsonProperty("direction")
+    private String direction = "ASC";
+
+    @JsonProperty("warmupIterations")
+    private int warmupIterations = 5;
+
+    @JsonProperty("measurementIterations")
+    private int measurementIterations = 20;
+
+    @JsonProperty("dataset")
+    private DatasetSpec dataset;
+
+    /**
+     * Pobiera nazwy algorytmów biorących udział w wyścigu.
+     *
+     * @return lista nazw algorytmów; pusta lub {@code null} oznacza wszystkie algorytmy
+     */
+    public List<String> getAlgorithms() {
+        return algorithms;
+    }
+
+    /**
+     * Ustawia nazwy algorytmów biorących udział w wyścigu.
+     *
+     * @param algorithms lista nazw algorytmów
+     */
+    public void setAlgorithms(List<String> algorithms) {
+        this.algorithms = algorithms;
+    }
+
+    /**
+     * Pobiera kierunek sortowania.
+     *
+     * @return kierunek sortowania ("ASC" lub "DESC")
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Ustawia kierunek sortowania.
+     *
+     * @param direction kierunek sortowania ("ASC" lub "DESC")
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Pobiera liczbę iteracji rozgrzewkowych na algorytm.
+     *
+     * @return liczba iteracji rozgrzewkowych
+     */
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    /**
+     * Ustawia liczbę iteracji rozgrzewkowych na algorytm.
+     *
+     * @param warmupIterations liczba iteracji rozgrzewkowych
+     */
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+
+    /**
+     * Pobiera liczbę iteracji pomiarowych na algorytm.
+     *
+     * @return liczba iteracji pomiarowych
+     */
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    /**
+     * Ustawia liczbę iteracji pomiarowych na algorytm.
+     *
+     * @param measurementIterations liczba iteracji pomiarowych
+     */
+    public void setMeasurementIterations(int measurementIterations) {
+        this.measurementIterations = measurementIterations;
+    }
+
+    /**
+     * Pobiera opis syntetycznego zbioru danych używanego, gdy żądanie nie zawiera danych.
+     *
+     * @return opis zbioru danych lub {@code null}
+     */
+    public DatasetSpec getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Ustawia opis syntetycznego zbioru danych używanego, gdy żądanie nie zawiera danych.
+     *
+     * @param dataset opis zbioru danych
+     */
+    public void setDataset(DatasetSpec dataset) {
+        this.dataset = dataset;
+    }
+}
@@ -32,6 +32,18 @@ public class SortingRequest {
     @JsonProperty("removeDuplicates")
     private boolean removeDuplicates;
 
+    @JsonProperty("includeTimings")
+    private boolean includeTimings;
+
+    @JsonProperty("timeoutMillis")
+    private Long timeoutMillis;
+
+    @JsonProperty("limit")
+    private Integer limit;
+
+    @JsonProperty("offset")
+    private Integer offset;
+
     public boolean isRemoveDuplicates() {
         return removeDuplicates;
     }
@@ -40,6 +52,24 @@ public class SortingRequest {
         this.removeDuplicates = removeDuplicates;
     }
 
+    /**
+     * Określa, czy odpowiedź ma zawierać blok {@code timings} z czasami etapów przetwarzania.
+     *
+     * @return {@code true} jeśli czasy etapów mają trafić do treści odpowiedzi
+     */
+    public boolean isIncludeTimings() {
+        return includeTimings;
+    }
+
+    /**
+     * Ustawia, czy odpowiedź ma zawierać blok {@code timings} z czasami etapów przetwarzania.
+     *
+     * @param includeTimings {@code true} aby dołączyć czasy etapów do odpowiedzi
+     */
+    public void setIncludeTimings(boolean includeTimings) {
+        this.includeTimings = includeTimings;
+    }
+
 
     /**
      * Pobiera klucze, które mają być użyte do sortowania.
@@ -194,6 +224,86 @@ public class SortingRequest {
         this.globalMaxIterations = globalMaxIterations;
     }
 
+    /**
+     * Pobiera budżet czasu sortowania żądany przez klienta.
+     *
+     * @return budżet czasu w milisekundach lub {@code null}, jeśli obowiązuje budżet domyślny
+     */
+    public Long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Ustawia budżet czasu sortowania; nie może przekroczyć maksimum ustawionego w konfiguracji serwera.
+     *
+     * @param timeoutMillis budżet czasu w milisekundach
+     */
+    public void setTimeoutMillis(Long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Pobiera maksymalną liczbę elementów zwracanych dla każdego parametru sortowania.
+     *
+     * @return limit lub {@code null}, jeśli zwracane są wszystkie elementy
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Ustawia maksymalną liczbę elementów zwracanych dla każdego parametru sortowania; mały limit pozwala
+     * wybrać pierwsze elementy bez sortowania całych danych.
+     *
+     * @param limit limit elementów
+     */
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Pobiera liczbę pomijanych pierwszych elementów posortowanego wyniku.
+     *
+     * @return przesunięcie lub {@code null}, jeśli wynik zaczyna się od pierwszego elementu
+     */
+    public Integer getOffset() {
+        return offset;
+    }
+
+    /**
+     * Ustawia liczbę pomijanych pierwszych elementów posortowanego wyniku.
+     *
+     * @param offset przesunięcie
+     */
+    public void setOffset(Integer offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Zwraca liczbę elementów do posortowania (rekordów lub elementów listy) bez konwersji danych.
+     *
+     * @return liczba elementów lub 0, jeśli danych brak
+     */
+    public int size() {
+        if (data != null) {
+            return data.size();
+        }
+        return dataList != null ? dataList.size() : 0;
+    }
+
+    /**
+     * Szacuje liczbę wartości w danych bez ich konwersji: liczbę elementów listy albo liczbę rekordów
+     * pomnożoną przez liczbę pól pierwszego rekordu.
+     *
+     * @return szacowana liczba wartości lub 0, jeśli danych brak
+     */
+    public long valueCount() {
+        if (data != null && !data.isEmpty() && data.get(0) != null) {
+            return (long) data.size() * Math.max(1, data.get(0).size());
+        }
+        return size();
+    }
+
     /**
      * Reprezentuje parametry sortowania.
      * Zawiera informacje o algorytmie sortowania, liczbie iteracji i kierunku sortowania.
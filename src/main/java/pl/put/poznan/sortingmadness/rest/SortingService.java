@@ -0,0 +1,425 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.put.poznan.sortingmadness.logic.SingleFlight;
+import pl.put.poznan.sortingmadness.logic.SortWorkspace;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+import pl.put.poznan.sortingmadness.logic.TopKSelector;
+import pl.put.poznan.sortingmadness.logic.encoding.DictionaryEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Realizuje żądania sortowania niezależnie od sposobu ich przyjęcia (synchronicznie przez "/sort"
+ * albo jako zadanie w tle przez "/sort/jobs").
+ * <p>
+ * Dla każdego parametru sortowania wybierany jest algorytm (jawnie podany lub wskazany przez
+ * {@link SortingSelector}), a dane są sortowane na osobnej kopii. Jeśli przekazano {@link SortingContext},
+ * każdy parametr jest zgłaszany jako kolejny krok, co pozwala śledzić postęp całego żądania, a sortowanie
+ * można przerwać po upływie terminu lub anulowaniu.
+ * <p>
+ * Jeśli żądanie zawiera {@code limit} lub {@code offset}, dla każdego parametru zwracane jest tylko okno
+ * posortowanych danych; małe okno jest wybierane bez sortowania całości ({@link TopKSelector}).
+ * <p>
+ * Jednoczesne, identyczne sortowania (ten sam skrót SHA-256 danych, klucze, algorytm, kierunek, limit
+ * iteracji i okno wyniku) są łączone przez {@link SingleFlight}: sortuje tylko pierwsze wywołanie, a pozostałe
+ * współdzielą jego wynik. Liczba połączonych wywołań trafia do metryki {@code sorting.singleflight.coalesced}.
+ * Łączenie można wyłączyć właściwością {@code sorting.singleflight.enabled=false}.
+ */
+@Service
+public class SortingService {
+    private final SortingMadness sortingMadness;
+    private final SortingSelector sortingSelector;
+    private final SingleFlight<String, Map<String, Object>> singleFlight = new SingleFlight<>();
+    private final boolean coalesce;
+
+    /**
+     * Tworzy usługę.
+     *
+     * @param sortingMadness  współdzielony obiekt sortujący
+     * @param sortingSelector selektor algorytmów
+     * @param meterRegistry   rejestr metryk
+     * @param coalesce        czy łączyć jednoczesne, identyczne sortowania
+     */
+    public SortingService(SortingMadness sortingMadness,
+                          SortingSelector sortingSelector,
+                          MeterRegistry meterRegistry,
+                          @Value("${sorting.singleflight.enabled:true}") boolean coalesce) {
+        this.sortingMadness = sortingMadness;
+        this.sortingSelector = sortingSelector;
+        this.coalesce = coalesce;
+
+        meterRegistry.more().counter("sorting.singleflight.coalesced", List.of(), singleFlight, SingleFlight::getCoalesced);
+        meterRegistry.gauge("sorting.singleflight.inflight", singleFlight, SingleFlight::getInFlight);
+    }
+
+    /**
+     * Zwraca współdzielony obiekt sortujący.
+     *
+     * @return obiekt sortujący
+     */
+    public SortingMadness getSortingMadness() {
+        return sortingMadness;
+    }
+
+    /**
+     * Sortuje dane z żądania dla wszystkich parametrów sortowania.
+     *
+     * @param request żądanie sortowania
+     * @param timings pomiary etapów przetwarzania
+     * @param context kontekst raportowania postępu i anulowania; może być {@code null}
+     * @return mapa z wynikami sortowania dla każdego algorytmu, klucza i kierunku
+     * @throws IllegalArgumentException  jeśli dane są puste lub niepoprawnie sformatowane
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sort(SortingRequest request, SortTimings timings, SortingContext context) {
+        return sort(request, timings, context, null);
+    }
+
+    /**
+     * Sortuje dane z żądania, korzystając z obszaru roboczego wątku. Wersja dla wielu krótkich sortowań
+     * wykonywanych kolejno w jednym wątku: strategie i bufor kopii są używane ponownie, a łączenie
+     * identycznych sortowań jest pomijane.
+     *
+     * @param request   żądanie sortowania
+     * @param timings   pomiary etapów przetwarzania
+     * @param context   kontekst raportowania postępu i anulowania; może być {@code null}
+     * @param workspace obszar roboczy bieżącego wątku; {@code null} oznacza zwykłe sortowanie
+     * @return mapa z wynikami sortowania dla każdego algorytmu, klucza i kierunku
+     * @throws IllegalArgumentException  jeśli dane są puste lub niepoprawnie sformatowane
+     * @throws SortingCancelledException jeśli sortowanie przerwano
+     */
+    public Map<String, Object> sort(SortingRequest request, SortTimings timings, SortingContext context, SortWorkspace workspace) {
+        SortingMadness sortingMadness = workspace != null ? workspace.getSortingMadness() : this.sortingMadness;
+        boolean coalesce = this.coalesce && workspace == null;
+        long phaseStart = System.nanoTime();
+        Map<String, Object> finalResult = new HashMap<>();
+
+        @SuppressWarnings("rawtypes")
+        List<Map<String, Comparable>> data = request.getData();
+        if (request.isRemoveDuplicates() && data != null) {
+            data = data.stream()
+                    .distinct()
+                    .collect(Collectors.toList());
+            phaseStart = timings.recordSince("dedup", phaseStart);
+        }
+
+        if (validateData(data)) {
+            List<String> keysToSort = request.getKeysToSort();
+            validateKeysToSort(keysToSort, data);
+            phaseStart = timings.recordSince("validate", phaseStart);
+
+            // Built once and shared by the selection and every sort; the copies keep the record order.
+            DictionaryEncoder encoder = DictionaryEncoder.analyze(data, keysToSort);
+            List<Step> steps = new ArrayList<>();
+            for (SortingRequest.SortingParameter param : parameters(request)) {
+                @SuppressWarnings("rawtypes")
+                List<Map<String, Comparable>> finalData = data;
+                steps.add(resolve(request, param,
+                        (dir, maxIterations) -> sortingSelector.selectAlgorithmMap(finalData, keysToSort, dir, maxIterations, encoder).toString()));
+            }
+            phaseStart = timings.recordSince("select", phaseStart);
+            planSteps(context, steps, data.size());
+
+            String dataHash = null;
+            if (coalesce) {
+                dataHash = contentHash(data);
+                timings.recordSince("hash", phaseStart);
+            }
+            for (Step step : steps) {
+                startStep(context, step, data.size());
+                @SuppressWarnings("rawtypes")
+                List<Map<String, Comparable>> finalData = data;
+                List<Map<String, Object>> tempResult = new ArrayList<>();
+                Map<String, Object> result = coalesced(step.key(dataHash, keysToSort), context, timings, () -> {
+                    long copyStart = System.nanoTime();
+                    @SuppressWarnings("rawtypes")
+                    List<Map<String, Comparable>> inputDataCopy = workspace != null ? workspace.copyOf(finalData) : new ArrayList<>(finalData);
+                    long sortStart = timings.recordSince("copy", copyStart);
+                    Map<String, Object> sorted = step.isWindowed()
+                            ? sortingMadness.sortDataWindow(inputDataCopy, keysToSort, step.algorithm, step.direction, step.maxIterations, step.offset, step.limit, context, encoder)
+                            : sortingMadness.sortData(inputDataCopy, keysToSort, step.algorithm, step.direction, step.maxIterations, context, encoder);
+                    timings.recordSince("sort", sortStart);
+                    reclaim(workspace, sorted);
+                    return sorted;
+                });
+                tempResult.add(result);
+
+                finalResult.put(step.algorithm + "-" + String.join(",", keysToSort) + "-" + step.direction, tempResult);
+            }
+        } else {
+            // Obsługa listy `dataList`
+            @SuppressWarnings("rawtypes")
+            List<Comparable> dataList = request.getDataList();
+            if (request.isRemoveDuplicates() && dataList != null) {
+                dataList = dataList.stream()
+                        .distinct()
+                        .collect(Collectors.toList());
+                phaseStart = timings.recordSince("dedup", phaseStart);
+            }
+
+            if (validateDataList(dataList)) {
+                phaseStart = timings.recordSince("validate", phaseStart);
+
+                List<Step> steps = new ArrayList<>();
+                for (SortingRequest.SortingParameter param : parameters(request)) {
+                    @SuppressWarnings("rawtypes")
+                    List<Comparable> finalDataList = dataList;
+                    steps.add(resolve(request, param,
+                            (dir, maxIterations) -> sortingSelector.selectAlgorithmList(finalDataList, dir, maxIterations).toString()));
+                }
+                phaseStart = timings.recordSince("select", phaseStart);
+                planSteps(context, steps, dataList.size());
+
+                String dataHash = null;
+                if (coalesce) {
+                    dataHash = contentHash(dataList);
+                    timings.recordSince("hash", phaseStart);
+                }
+                for (Step step : steps) {
+                    startStep(context, step, dataList.size());
+                    @SuppressWarnings("rawtypes")
+                    List<Comparable> finalDataList = dataList;
+                    Map<String, Object> result = coalesced(step.key(dataHash, null), context, timings, () -> {
+                        long copyStart = System.nanoTime();
+                        @SuppressWarnings("rawtypes")
+                        List<Comparable> inputDataCopy = workspace != null ? workspace.copyOf(finalDataList) : new ArrayList<>(finalDataList);
+                        long sortStart = timings.recordSince("copy", copyStart);
+                        Map<String, Object> sorted = step.isWindowed()
+                                ? sortingMadness.sortDataListWindow(inputDataCopy, step.algorithm, step.direction, step.maxIterations, step.offset, step.limit, context)
+                                : sortingMadness.sortDataList(inputDataCopy, step.algorithm, step.direction, step.maxIterations, context);
+                        timings.recordSince("sort", sortStart);
+                        reclaim(workspace, sorted);
+                        return sorted;
+                    });
+                    finalResult.put(step.algorithm + "-" + step.direction, result);
+                }
+            }
+        }
+        return finalResult;
+    }
+
+    /**
+     * Zwraca liczbę elementów w żądaniu (rekordów lub elementów listy).
+     *
+     * @param request żądanie sortowania
+     * @return liczba elementów do posortowania
+     */
+    public int size(SortingRequest request) {
+        return request.size();
+    }
+
+    private static void reclaim(SortWorkspace workspace, Map<String, Object> result) {
+        if (workspace != null) {
+            workspace.reclaim(result);
+        }
+    }
+
+    /**
+     * Wykonuje sortowanie albo, jeśli identyczne sortowanie właśnie trwa, czeka na jego wynik.
+     */
+    private Map<String, Object> coalesced(String key, SortingContext context, SortTimings timings,
+                                          Supplier<Map<String, Object>> sort) {
+        if (key == null) {
+            return sort.get();
+        }
+        long waitStart = System.nanoTime();
+        SingleFlight.Result<Map<String, Object>> result = singleFlight.execute(key, sort, context);
+        if (result.isShared()) {
+            timings.recordSince("coalesced", waitStart);
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Oblicza skrót SHA-256 zawartości danych. Każda wartość jest kodowana wraz z typem i długością,
+     * a pola rekordów w kolejności kluczy, więc skrót nie zależy od kolejności pól w JSON.
+     */
+    private static String contentHash(List<?> data) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder buffer = new StringBuilder();
+        for (Object element : data) {
+            buffer.setLength(0);
+            if (element instanceof Map) {
+                buffer.append('{');
+                for (Map.Entry<?, ?> entry : new TreeMap<>((Map<?, ?>) element).entrySet()) {
+                    appendValue(buffer, entry.getKey());
+                    appendValue(buffer, entry.getValue());
+                }
+                buffer.append('}');
+            } else {
+                appendValue(buffer, element);
+            }
+            digest.update(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void appendValue(StringBuilder buffer, Object value) {
+        String text = String.valueOf(value);
+        buffer.append(value == null ? "null" : value.getClass().getSimpleName())
+                .append(':').append(text.length()).append(':').append(text);
+    }
+
+    private static List<SortingRequest.SortingParameter> parameters(SortingRequest request) {
+        return Optional.ofNullable(request.getSortingParameters())
+                .orElseGet(() -> List.of(new SortingRequest.SortingParameter()));
+    }
+
+    /**
+     * Ustala kierunek, algorytm i limit iteracji dla jednego parametru sortowania; selektor dostaje kierunek
+     * malejący i limit iteracji.
+     */
+    private static Step resolve(SortingRequest request, SortingRequest.SortingParameter param,
+                                BiFunction<Boolean, Integer, String> selector) {
+        String direction = Optional.ofNullable(param.getDirections())
+                .orElseThrow(() -> new IllegalArgumentException("Sorting direction must be specified."));
+        boolean dir = "DESC".equals(direction);
+        Integer globalMaxIterations = request.getGlobalMaxIterations();
+        int maxIterations = Optional.ofNullable(param.getMaxIterations())
+                .orElse(globalMaxIterations != null ? globalMaxIterations : 0);
+        String algorithm = Optional.ofNullable(param.getSortingAlgorithms())
+                .orElseGet(() -> selector.apply(dir, maxIterations));
+        if (request.getLimit() != null && request.getLimit() < 1) {
+            throw new IllegalArgumentException("limit must be positive.");
+        }
+        int offset = Optional.ofNullable(request.getOffset()).orElse(0);
+        int limit = Optional.ofNullable(request.getLimit()).orElse(offset > 0 ? Integer.MAX_VALUE : 0);
+        return new Step(direction, algorithm, maxIterations, offset, limit);
+    }
+
+    private static void planSteps(SortingContext context, List<Step> steps, int size) {
+        if (context != null) {
+            long total = 0;
+            for (Step step : steps) {
+                total += step.expectedIterations(size);
+            }
+            context.setTotalExpectedIterations(total);
+        }
+    }
+
+    private static void startStep(SortingContext context, Step step, int size) {
+        if (context != null) {
+            context.startStep(step.expectedIterations(size));
+        }
+    }
+
+    /**
+     * Waliduje dane w formacie listy map.
+     *
+     * @param data lista map reprezentujących dane wejściowe
+     * @return {@code true} jeśli dane są poprawne, {@code false} w przeciwnym wypadku
+     * @throws IllegalArgumentException jeśli dane są puste
+     */
+    private boolean validateData(List<Map<String, Comparable>> data) {
+        if (data == null) {
+            return false;
+        }
+        if (data.isEmpty()) {
+            throw new IllegalArgumentException("Dataset is empty.");
+        }
+        return true;
+    }
+
+    /**
+     * Waliduje dane w formacie listy elementów porównywalnych.
+     *
+     * @param data lista elementów porównywalnych reprezentujących dane wejściowe
+     * @return {@code true} jeśli dane są poprawne, {@code false} w przeciwnym wypadku
+     * @throws IllegalArgumentException jeśli dane są puste
+     */
+    private boolean validateDataList(List<Comparable> data) {
+        if (data == null) {
+            return false;
+        }
+        if (data.isEmpty()) {
+            throw new IllegalArgumentException("Dataset (list) is empty.");
+        }
+        return true;
+    }
+
+    /**
+     * Waliduje klucze sortowania w odniesieniu do danych wejściowych.
+     *
+     * @param keysToSort lista kluczy sortowania
+     * @param data lista map reprezentujących dane wejściowe
+     * @throws IllegalArgumentException jeśli jakikolwiek klucz nie istnieje w danych wejściowych
+     */
+    private void validateKeysToSort(List<String> keysToSort, List<Map<String, Comparable>> data) {
+        for (String key : keysToSort) {
+            boolean columnExists = data.stream().anyMatch(map -> map.containsKey(key));
+            if (!columnExists) {
+                throw new IllegalArgumentException("Invalid column name: " + key);
+            }
+        }
+    }
+
+    /**
+     * Pojedynczy krok sortowania: kierunek, algorytm i limit iteracji jednego parametru oraz okno wyniku żądania.
+     */
+    private static class Step {
+        private final String direction;
+        private final String algorithm;
+        private final int maxIterations;
+        private final int offset;
+        private final int limit;
+
+        Step(String direction, String algorithm, int maxIterations, int offset, int limit) {
+            this.direction = direction;
+            this.algorithm = algorithm;
+            this.maxIterations = maxIterations;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        /**
+         * Sprawdza, czy zwracane jest tylko okno wyniku ({@code limit} lub {@code offset} w żądaniu).
+         */
+        boolean isWindowed() {
+            return limit != 0 || offset != 0;
+        }
+
+        /**
+         * Zwraca klucz łączenia identycznych sortowań lub {@code null}, jeśli łączenie jest wyłączone.
+         */
+        String key(String dataHash, List<String> keys) {
+            if (dataHash == null) {
+                return null;
+            }
+            return algorithm.toLowerCase() + "|" + direction + "|" + maxIterations + "|" + offset + "|" + limit + "|" + keys + "|" + dataHash;
+        }
+
+        long expectedIterations(int size) {
+            if (isWindowed() && maxIterations <= 0 && TopKSelector.isWorthwhile(size, offset, limit)) {
+                return (long) (size * (Math.log(offset + limit + 1.0) / Math.log(2) + 1));
+            }
+            long estimate = SortingContext.estimateIterations(algorithm, size);
+            return maxIterations > 0 ? Math.min(estimate, maxIterations) : estimate;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingStrategy;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rozgrzewka JIT wykonywana przy starcie aplikacji, zanim usługa zgłosi gotowość.
+ * <p>
+ * Spring Boot publikuje stan gotowości ({@code ReadinessState.ACCEPTING_TRAFFIC}, widoczny pod
+ * {@code /actuator/health/readiness}) dopiero po zakończeniu wszystkich {@link ApplicationRunner}-ów,
+ * więc do tego czasu balanser obciążenia nie kieruje ruchu do instancji. Rozgrzewka składa się z dwóch etapów:
+ * <ol>
+ *     <li>wielokrotne wywołanie każdej strategii sortowania dla liczb całkowitych, zmiennoprzecinkowych,
+ *     napisów i rekordów, w obu kierunkach;</li>
+ *     <li>żądania HTTP do "/sort" przez lokalny port, które rozgrzewają filtry, wiązanie JSON
+ *     i serializację odpowiedzi w {@link SortingMadnessController}.</li>
+ * </ol>
+ * Czas trwania i pokrycie rozgrzewki trafiają do logów oraz metryk {@code sorting.warmup.*}. Logi pojedynczych
+ * sortowań i żądań są na czas rozgrzewki ograniczone do poziomu WARN, a jej przebieg podsumowuje jeden wpis.
+ * Rozgrzewkę można wyłączyć właściwością {@code sorting.warmup.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "sorting.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    /** Loggery, które przy każdym sortowaniu lub żądaniu zapisują wpis; wyciszane na czas rozgrzewki. */
+    private static final List<String> PER_CALL_LOGGERS = List.of(
+            "pl.put.poznan.sortingmadness.logic",
+            SortingMadnessController.class.getName(),
+            ServerTimingFilter.class.getName());
+
+    private final SortingMadness sortingMadness;
+    private final DatasetGenerator generator = new DatasetGenerator();
+    private final WebServerApplicationContext context;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LoggingSystem loggingSystem;
+    private final String contextPath;
+    private final int rounds;
+    private final int size;
+    private final int requests;
+    private final Duration maxDuration;
+
+    private final AtomicInteger strategiesCovered = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    /**
+     * Tworzy rozgrzewkę o podanej konfiguracji.
+     *
+     * @param sortingMadness     współdzielony obiekt sortujący, którego strategie są rozgrzewane
+     * @param context            kontekst aplikacji z uruchomionym serwerem WWW
+     * @param restTemplateBuilder budowniczy klienta HTTP
+     * @param meterRegistry      rejestr metryk
+     * @param loggingSystem      system logowania, przez który wyciszane są logi pojedynczych sortowań
+     * @param contextPath        ścieżka kontekstu aplikacji
+     * @param rounds             liczba rund wywołań każdej strategii
+     * @param size               rozmiar danych w każdym wywołaniu
+     * @param requests           liczba żądań HTTP do "/sort"
+     * @param maxDurationSeconds maksymalny czas rozgrzewki w sekundach
+     */
+    public StartupWarmup(SortingMadness sortingMadness,
+                         WebServerApplicationContext context,
+                         RestTemplateBuilder restTemplateBuilder,
+                         MeterRegistry meterRegistry,
+                         LoggingSystem loggingSystem,
+                         @Value("${server.servlet.context-path:}") String contextPath,
+                         @Value("${sorting.warmup.rounds:30}") int rounds,
+                         @Value("${sorting.warmup.size:500}") int size,
+                         @Value("${sorting.warmup.requests:100}") int requests,
+                         @Value("${sorting.warmup.max-duration-seconds:60}") long maxDurationSeconds) {
+        this.sortingMadness = sortingMadness;
+        this.context = context;
+        this.restTemplate = restTemplateBuilder.build();
+        this.meterRegistry = meterRegistry;
+        this.loggingSystem = loggingSystem;
+        this.contextPath = contextPath;
+        this.rounds = rounds;
+        this.size = size;
+        this.requests = requests;
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+
+        meterRegistry.gauge("sorting.warmup.strategies", strategiesCovered);
+        meterRegistry.gauge("sorting.warmup.completed", completed);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        logger.info("Starting JIT warm-up: {} rounds of {} elements, {} HTTP requests", rounds, size, requests);
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        Map<String, LogLevel> previousLevels = quietPerCallLoggers();
+        try {
+            int invocations = warmUpStrategies(deadline);
+            long strategiesNanos = System.nanoTime() - start;
+            int sent = warmUpEndpoint(deadline);
+            long totalNanos = System.nanoTime() - start;
+
+            Timer.builder("sorting.warmup.duration").register(meterRegistry).record(Duration.ofNanos(totalNanos));
+            completed.set(1);
+            logger.info("JIT warm-up finished in {} ms: {} strategies x {} input types, {} strategy invocations in {} ms, "
+                            + "{} of {} HTTP requests{}",
+                    totalNanos / 1_000_000, strategiesCovered.get(), DataType.values().length + 1, invocations,
+                    strategiesNanos / 1_000_000, sent, requests,
+                    System.nanoTime() > deadline ? " (stopped at the time limit)" : "");
+        } catch (RuntimeException e) {
+            logger.warn("JIT warm-up failed, continuing startup: {}", e.getMessage());
+        } finally {
+            previousLevels.forEach(loggingSystem::setLogLevel);
+        }
+    }
+
+    /**
+     * Ogranicza loggery {@link #PER_CALL_LOGGERS} do poziomu WARN.
+     *
+     * @return poprzednio skonfigurowane poziomy ({@code null}, jeśli poziom był dziedziczony)
+     */
+    private Map<String, LogLevel> quietPerCallLoggers() {
+        Map<String, LogLevel> previousLevels = new LinkedHashMap<>();
+        for (String name : PER_CALL_LOGGERS) {
+            LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(name);
+            previousLevels.put(name, configuration != null ? configuration.getConfiguredLevel() : null);
+            loggingSystem.setLogLevel(name, LogLevel.WARN);
+        }
+        return previousLevels;
+    }
+
+    /**
+     * Wywołuje każdą strategię dla każdego typu danych i kierunku, aż do wyczerpania rund lub czasu.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private int warmUpStrategies(long deadline) {
+        Map<DataType, List<Comparable>> lists = new LinkedHashMap<>();
+        for (DataType type : DataType.values()) {
+            lists.put(type, type.generate(generator, size));
+        }
+        List<Map<String, Comparable>> records = generator.generateRecords(new DatasetSpec(DatasetShape.ZIPF, size, 7L));
+        List<String> keys = List.of("category", "key");
+
+        Set<String> covered = new LinkedHashSet<>();
+        int invocations = 0;
+        for (int round = 0; round < rounds && System.nanoTime() < deadline; round++) {
+            for (String algorithm : SortingMadness.ALGORITHMS) {
+                SortingStrategy strategy = sortingMadness.getStrategy(algorithm);
+                for (String direction : List.of("ASC", "DESC")) {
+                    for (List<Comparable> list : lists.values()) {
+                        strategy.sortList(new ArrayList<>(list), direction, 0);
+                        invocations++;
+                    }
+                    strategy.sort(new ArrayList<>(records), keys, direction, 0);
+                    invocations++;
+                }
+                if (covered.add(algorithm)) {
+                    strategiesCovered.set(covered.size());
+                }
+                Counter.builder("sorting.warmup.invocations").tag("stage", "strategy").tag("algorithm", algorithm)
+                        .register(meterRegistry).increment(2 * (lists.size() + 1));
+            }
+        }
+        return invocations;
+    }
+
+    /**
+     * Wysyła żądania do "/sort" przez lokalny port, przeplatając listy, rekordy i wybór algorytmu.
+     */
+    private int warmUpEndpoint(long deadline) {
+        String url = "http://localhost:" + context.getWebServer().getPort() + contextPath + "/sort";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Counter counter = Counter.builder("sorting.warmup.invocations").tag("stage", "http").tag("algorithm", "any")
+                .register(meterRegistry);
+
+        List<Map<String, Object>> bodies = new ArrayList<>();
+        for (DataType type : DataType.values()) {
+            bodies.add(Map.of("dataList", type.generate(generator, size),
+                    "sortingParameters", List.of(Map.of("directions", "ASC"))));
+        }
+        bodies.add(Map.of("data", generator.generateRecords(new DatasetSpec(DatasetShape.RANDOM, size, 11L)),
+                "keysToSort", List.of("category", "key"),
+                "sortingParameters", List.of(Map.of("directions", "DESC"), Map.of("sortingAlgorithms", "merge", "directions", "ASC"))));
+
+        int sent = 0;
+        for (int i = 0; i < requests && System.nanoTime() < deadline; i++) {
+            try {
+                restTemplate.postForObject(url, new HttpEntity<>(bodies.get(i % bodies.size()), headers), Map.class);
+                counter.increment();
+                sent++;
+            } catch (RestClientException e) {
+                logger.warn("Warm-up request failed: {}", e.getMessage());
+                break;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Typy elementów, z jakimi usługa spotyka się po deserializacji JSON.
+     */
+    private enum DataType {
+        INTEGER, DOUBLE, STRING;
+
+        @SuppressWarnings("rawtypes")
+        List<Comparable> generate(DatasetGenerator generator, int size) {
+            if (this == STRING) {
+                return generator.generateList(new DatasetSpec(DatasetShape.PREFIXED_STRINGS, size, 3L));
+            }
+            List<Comparable> values = generator.generateList(new DatasetSpec(DatasetShape.RANDOM, size, 5L));
+            if (this == DOUBLE) {
+                values.replaceAll(value -> ((Integer) value) + 0.5);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import pl.put.poznan.sortingmadness.capture.CaptureFileWriter;
+import pl.put.poznan.sortingmadness.capture.CapturedRequest;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtr przechwytujący próbkę żądań POST kierowanych do "/sort" na potrzeby późniejszego odtworzenia.
+ * <p>
+ * Włączany właściwością {@code sorting.capture.enabled=true}. Dla wylosowanych żądań (z prawdopodobieństwem
+ * {@code sorting.capture.sample-rate}) zapisuje treść, moment przyjęcia, czas obsługi i kod odpowiedzi
+ * do rotowanych plików w katalogu {@code sorting.capture.directory}. Pliki odtwarza narzędzie
+ * {@code pl.put.poznan.sortingmadness.loadtest.TrafficReplayer}.
+ */
+@Component
+@ConditionalOnProperty(name = "sorting.capture.enabled", havingValue = "true")
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(TrafficCaptureFilter.class);
+
+    private final CaptureFileWriter writer;
+    private final double sampleRate;
+    private final int maxBodyBytes;
+
+    /**
+     * Tworzy filtr i otwiera katalog przechwytywania.
+     *
+     * @param directory     katalog na pliki przechwytywania
+     * @param sampleRate    odsetek przechwytywanych żądań z zakresu [0, 1]
+     * @param maxFileBytes  rozmiar pliku, po którym następuje rotacja
+     * @param maxFiles      maksymalna liczba przechowywanych plików
+     * @param queueCapacity pojemność kolejki zapisu
+     * @param maxBodyBytes  maksymalny rozmiar przechwytywanej treści; większe żądania są pomijane
+     * @throws IOException jeśli katalogu nie da się utworzyć
+     */
+    public TrafficCaptureFilter(@Value("${sorting.capture.directory:capture}") String directory,
+                                @Value("${sorting.capture.sample-rate:0.01}") double sampleRate,
+                                @Value("${sorting.capture.max-file-bytes:67108864}") long maxFileBytes,
+                                @Value("${sorting.capture.max-files:20}") int maxFiles,
+                                @Value("${sorting.capture.queue-capacity:1000}") int queueCapacity,
+                                @Value("${sorting.capture.max-body-bytes:16777216}") int maxBodyBytes) throws IOException {
+        this.writer = new CaptureFileWriter(Paths.get(directory), maxFileBytes, maxFiles, queueCapacity);
+        this.sampleRate = sampleRate;
+        this.maxBodyBytes = maxBodyBytes;
+        logger.info("Traffic capture enabled: directory {}, sample rate {}", directory, sampleRate);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/sort")
+                || ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Instant received = Instant.now();
+        long start = System.nanoTime();
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+
+        filterChain.doFilter(cachingRequest, response);
+
+        if (cachingRequest.isAsyncStarted()) {
+            cachingRequest.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    capture(cachingRequest, response, received, start);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            capture(cachingRequest, response, received, start);
+        }
+    }
+
+    private void capture(ContentCachingRequestWrapper request, HttpServletResponse response, Instant received, long start) {
+        byte[] body = request.getContentAsByteArray();
+        if (body.length == 0 || body.length >= maxBodyBytes) {
+            return;
+        }
+        long durationMicros = (System.nanoTime() - start) / 1_000;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        writer.submit(new CapturedRequest(ChronoUnit.MICROS.between(Instant.EPOCH, received),
+                (int) Math.min(Integer.MAX_VALUE, durationMicros), response.getStatus(), path, body));
+    }
+
+    /**
+     * Zamyka pliki przechwytywania przy zamykaniu kontekstu aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() {
+        writer.close();
+        logger.info("Traffic capture stopped, {} records dropped", writer.getDropped());
+    }
+}
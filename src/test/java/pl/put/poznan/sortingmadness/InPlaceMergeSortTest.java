@@ -0,0 +1,100 @@
+package pl.put.poznan.sortingmadness;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pl.put.poznan.sortingmadness.logic.algorithms.InPlaceMergeSort;
+
+import java.util.*;
+
+public class InPlaceMergeSortTest {
+    private InPlaceMergeSort inPlaceMergeSort;
+
+    @BeforeEach
+    void setUp() {
+        inPlaceMergeSort = new InPlaceMergeSort();
+    }
+
+    @Test
+    void shouldSortRandomIntegersLikeCollectionsSort() {
+        // given
+        Random random = new Random(11);
+        for (int size : new int[]{0, 1, 19, 20, 21, 57, 1000, 4099}) {
+            List<Integer> data = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                data.add(random.nextInt(size + 1));
+            }
+            List<Integer> expected = new ArrayList<>(data);
+            Collections.sort(expected);
+
+            // when
+            Map<String, Object> result = inPlaceMergeSort.sortList(data, "asc", 0);
+
+            // then
+            assertEquals(expected, result.get("sortedData"), "size " + size);
+        }
+    }
+
+    @Test
+    void shouldSortIntegersInDescendingOrder() {
+        // given
+        List<Integer> data = Arrays.asList(7, 2, 9, 4, 1);
+
+        // when
+        Map<String, Object> result = inPlaceMergeSort.sortList(data, "desc", 0);
+
+        // then
+        assertEquals(Arrays.asList(9, 7, 4, 2, 1), result.get("sortedData"));
+        assertTrue((Double) result.get("executionTime") >= 0);
+    }
+
+    @Test
+    void shouldKeepEqualRecordsInInputOrder() {
+        // given
+        Random random = new Random(5);
+        List<Map<String, Integer>> data = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            data.add(Map.of("group", random.nextInt(7), "position", i));
+        }
+        List<Map<String, Integer>> expectedAsc = new ArrayList<>(data);
+        expectedAsc.sort(Comparator.comparing(record -> record.get("group")));
+        List<Map<String, Integer>> expectedDesc = new ArrayList<>(data);
+        expectedDesc.sort(Comparator.comparing((Map<String, Integer> record) -> record.get("group")).reversed());
+
+        // when
+        Map<String, Object> asc = inPlaceMergeSort.sort(new ArrayList<>(data), List.of("group"), "asc", 0);
+        Map<String, Object> desc = inPlaceMergeSort.sort(new ArrayList<>(data), List.of("group"), "desc", 0);
+
+        // then
+        assertEquals(expectedAsc, asc.get("sortedData"));
+        assertEquals(expectedDesc, desc.get("sortedData"));
+    }
+
+    @Test
+    void shouldThrowWhenKeyIsMissing() {
+        // given
+        List<Map<String, Integer>> data = new ArrayList<>(List.of(Map.of("a", 2), Map.of("b", 1)));
+
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> inPlaceMergeSort.sort(data, List.of("a"), "asc", 0));
+    }
+
+    @Test
+    void shouldKeepAllElementsWhenIterationLimitIsReached() {
+        // given
+        List<Integer> data = new ArrayList<>();
+        for (int i = 500; i > 0; i--) {
+            data.add(i);
+        }
+
+        // when
+        Map<String, Object> result = inPlaceMergeSort.sortList(data, "asc", 100);
+        @SuppressWarnings("unchecked")
+        List<Integer> sortedData = (List<Integer>) result.get("sortedData");
+
+        // then
+        assertEquals(new HashSet<>(data), new HashSet<>(sortedData));
+        assertEquals(500, sortedData.size());
+    }
+}
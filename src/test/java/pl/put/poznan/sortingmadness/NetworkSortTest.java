@@ -0,0 +1,121 @@
+package pl.put.poznan.sortingmadness;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pl.put.poznan.sortingmadness.logic.algorithms.NetworkSort;
+import pl.put.poznan.sortingmadness.logic.algorithms.SortingNetworks;
+
+import java.util.*;
+
+public class NetworkSortTest {
+    private NetworkSort networkSort;
+
+    @BeforeEach
+    void setUp() {
+        networkSort = new NetworkSort();
+    }
+
+    @Test
+    void shouldSortEveryZeroOneInputUpToMaxSize() {
+        // given: by the 0-1 principle a network sorting all 0-1 inputs sorts every input
+        for (int n = 0; n <= SortingNetworks.MAX_SIZE; n++) {
+            long[] keys = new long[n];
+            Object[] values = new Object[n];
+            for (int mask = 0; mask < (1 << n); mask++) {
+                for (int i = 0; i < n; i++) {
+                    keys[i] = (mask >> i) & 1;
+                    values[i] = (int) keys[i];
+                }
+
+                // when
+                SortingNetworks.sort(keys, 0, n);
+                SortingNetworks.sort(values, 0, n, Comparator.<Integer>naturalOrder());
+
+                // then
+                int ones = Integer.bitCount(mask);
+                for (int i = 0; i < n; i++) {
+                    long expected = i >= n - ones ? 1 : 0;
+                    assertEquals(expected, keys[i], "n " + n + ", mask " + mask);
+                    assertEquals((int) expected, values[i], "n " + n + ", mask " + mask);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldUseMinimalNetworksUpToEightInputs() {
+        // given
+        int[] minimal = {0, 0, 1, 3, 5, 9, 12, 16, 19};
+
+        for (int n = 0; n < minimal.length; n++) {
+            // when
+            int comparators = SortingNetworks.network(n).length / 2;
+
+            // then
+            assertEquals(minimal[n], comparators, "n " + n);
+        }
+    }
+
+    @Test
+    void shouldSortLargerListsWithBatcherNetwork() {
+        // given
+        Random random = new Random(3);
+        for (int size : new int[]{17, 100, 1000, 1025}) {
+            List<Integer> data = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                data.add(random.nextInt(size));
+            }
+            List<Integer> expected = new ArrayList<>(data);
+            expected.sort(Comparator.reverseOrder());
+
+            // when
+            Map<String, Object> result = networkSort.sortList(data, "desc", 0);
+
+            // then
+            assertEquals(expected, result.get("sortedData"), "size " + size);
+        }
+    }
+
+    @Test
+    void shouldKeepEqualRecordsInInputOrder() {
+        // given
+        Random random = new Random(9);
+        for (int size : new int[]{12, 300}) {
+            List<Map<String, Integer>> data = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                data.add(Map.of("group", random.nextInt(3), "position", i));
+            }
+            List<Map<String, Integer>> expected = new ArrayList<>(data);
+            expected.sort(Comparator.comparing((Map<String, Integer> record) -> record.get("group")));
+
+            // when
+            Map<String, Object> result = networkSort.sort(data, List.of("group"), "asc", 0);
+
+            // then
+            assertEquals(expected, result.get("sortedData"), "size " + size);
+        }
+    }
+
+    @Test
+    void shouldStopAfterMaxIterations() {
+        // given
+        List<Integer> data = Arrays.asList(4, 3, 2, 1);
+
+        // when: only the first comparator (0, 1) runs
+        Map<String, Object> result = networkSort.sortList(data, "asc", 1);
+
+        // then
+        assertEquals(Arrays.asList(3, 4, 2, 1), result.get("sortedData"));
+    }
+
+    @Test
+    void shouldThrowWhenKeyIsMissing() {
+        // given
+        List<Map<String, Integer>> data = List.of(Map.of("a", 1), Map.of("b", 2));
+
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> networkSort.sort(data, List.of("a"), "asc", 0));
+    }
+}
@@ -0,0 +1,83 @@
+package pl.put.poznan.sortingmadness.capture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaptureFileWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackWrittenRecords() throws IOException {
+        List<CapturedRequest> written = new ArrayList<>();
+        written.add(new CapturedRequest(1_600_000_000_000_000L, 1500, 200, "/sort", body("{\"dataList\":[3,1,2]}")));
+        written.add(new CapturedRequest(1_600_000_000_100_000L, 42, 400, "/sort/select", new byte[0]));
+        written.add(new CapturedRequest(1_600_000_000_200_000L, 900_000, 503, "/sort/ąę", body("x".repeat(10_000))));
+
+        try (CaptureFileWriter writer = new CaptureFileWriter(directory, 1 << 20, 10, 16)) {
+            for (CapturedRequest request : written) {
+                assertTrue(writer.submit(request));
+            }
+        }
+
+        List<CapturedRequest> read = readAll(directory);
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            CapturedRequest expected = written.get(i);
+            CapturedRequest actual = read.get(i);
+            assertEquals(expected.getEpochMicros(), actual.getEpochMicros());
+            assertEquals(expected.getDurationMicros(), actual.getDurationMicros());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getPath(), actual.getPath());
+            assertArrayEquals(expected.getBody(), actual.getBody());
+        }
+    }
+
+    @Test
+    void shouldRotateFilesAndKeepOnlyNewest() throws IOException {
+        try (CaptureFileWriter writer = new CaptureFileWriter(directory, 100, 2, 64)) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(writer.submit(new CapturedRequest(i, i, 200, "/sort", body("record " + i + " " + "y".repeat(200)))));
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        List<CapturedRequest> read = readAll(directory);
+        assertFalse(read.isEmpty());
+        assertEquals(19, read.get(read.size() - 1).getEpochMicros());
+    }
+
+    @Test
+    void shouldRejectRecordsAfterClose() throws IOException {
+        CaptureFileWriter writer = new CaptureFileWriter(directory, 1 << 20, 10, 16);
+        writer.close();
+
+        assertFalse(writer.submit(new CapturedRequest(1, 1, 200, "/sort", body("{}"))));
+        assertEquals(1, writer.getDropped());
+    }
+
+    private static List<CapturedRequest> readAll(Path source) throws IOException {
+        List<CapturedRequest> read = new ArrayList<>();
+        try (CaptureFileReader reader = new CaptureFileReader(source)) {
+            reader.forEachRemaining(read::add);
+        }
+        return read;
+    }
+
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
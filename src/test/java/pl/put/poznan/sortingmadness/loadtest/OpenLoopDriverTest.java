@@ -0,0 +1,77 @@
+package pl.put.poznan.sortingmadness.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenLoopDriverTest {
+    private static final long STALL_MILLIS = 300;
+    private static final int REQUESTS = 10;
+    private static final long INTERVAL_MILLIS = 10;
+
+    private final ExecutorService serverThread = Executors.newSingleThreadExecutor();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AtomicBoolean stalled = new AtomicBoolean();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/sort", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (stalled.compareAndSet(false, true)) {
+                // A single-threaded target that stops for a while, e.g. during a GC pause.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(STALL_MILLIS));
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(serverThread);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThread.shutdownNow();
+    }
+
+    @Test
+    void shouldMeasureLatencyFromIntendedStartWhenTargetStalls() throws InterruptedException {
+        List<ScheduledRequest> schedule = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            schedule.add(new ScheduledRequest(TimeUnit.MILLISECONDS.toNanos(i * INTERVAL_MILLIS), "/sort",
+                    "{}".getBytes(StandardCharsets.UTF_8), "stall"));
+        }
+        URI baseUri = URI.create("http://localhost:" + server.getAddress().getPort());
+
+        // With a single request in flight, every request after the first waits for the stall to end.
+        LoadReport report = new OpenLoopDriver(baseUri, 1, Duration.ofSeconds(5)).run(schedule.iterator());
+
+        LatencyHistogram latency = report.getOverall();
+        assertEquals(REQUESTS, latency.getTotalCount());
+        assertEquals(0, report.getErrors());
+        // The last request was due at 90 ms and could only be sent after the 300 ms stall. Measured from
+        // the moment it was actually sent, its latency would be about 1 ms, hiding the stall.
+        long lastRequestMicros = TimeUnit.MILLISECONDS.toMicros(STALL_MILLIS - (REQUESTS - 1) * INTERVAL_MILLIS);
+        assertTrue(latency.getValueAtPercentile(10) >= lastRequestMicros / 2,
+                "p10 = " + latency.getValueAtPercentile(10) + " us");
+        assertTrue(latency.getMax() >= TimeUnit.MILLISECONDS.toMicros(STALL_MILLIS));
+    }
+}
@@ -0,0 +1,86 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostGuardTest {
+    @Test
+    void shouldRejectQuadraticSortAboveLimit() {
+        SortingMadness sortingMadness = guarded(new CostGuard(CostGuard.Policy.REJECT, 1, 1000.0, "merge"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sortingMadness.sortDataList(descending(2000), "bubble", "ASC", 0));
+
+        assertTrue(exception.getMessage().contains("bubble"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldEscalateToMergeSortAndReportIt() {
+        SortingMadness sortingMadness = guarded(new CostGuard(CostGuard.Policy.ESCALATE, 1, 1000.0, "merge"));
+        List<Comparable> data = descending(2000);
+
+        Map<String, Object> result = sortingMadness.sortDataList(data, "insertion", "ASC", 0);
+
+        List<Comparable> expected = new ArrayList<>(data);
+        expected.sort(Comparator.naturalOrder());
+        assertEquals(expected, result.get("sortedData"));
+        Map<String, Object> guard = (Map<String, Object>) result.get("costGuard");
+        assertEquals("escalated", guard.get("action"));
+        assertEquals("insertion", guard.get("requestedAlgorithm"));
+        assertEquals("merge", guard.get("algorithm"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCapIterationsToFitLimit() {
+        // 1 ms at 1000 ns per comparison leaves 1000 comparisons
+        SortingMadness sortingMadness = guarded(new CostGuard(CostGuard.Policy.CAP, 1, 1000.0, "merge"));
+
+        Map<String, Object> result = sortingMadness.sortDataList(descending(2000), "selection", "ASC", 0);
+
+        Map<String, Object> guard = (Map<String, Object>) result.get("costGuard");
+        assertEquals("capped", guard.get("action"));
+        assertEquals(1000, guard.get("maxIterations"));
+    }
+
+    @Test
+    void shouldLeaveCheapOrNonQuadraticSortsUnchanged() {
+        CostGuard costGuard = new CostGuard(CostGuard.Policy.REJECT, 1, 1000.0, "merge");
+
+        assertNull(costGuard.check("quick", 1_000_000, 1, 0, null));
+        assertNull(costGuard.check("bubble", 10, 1, 0, null));
+        assertNull(costGuard.check("bubble", 2000, 1, 500, null));
+        assertFalse(guarded(costGuard).sortDataList(descending(2000), "merge", "ASC", 0).containsKey("costGuard"));
+        assertEquals(0, costGuard.getGuarded(CostGuard.Policy.REJECT));
+    }
+
+    @Test
+    void shouldNotGuardSortersCreatedWithoutCostGuard() {
+        assertFalse(new SortingMadness().sortDataList(descending(2000), "bubble", "ASC", 0).containsKey("costGuard"));
+        assertThrows(IllegalArgumentException.class, () -> new CostGuard(CostGuard.Policy.ESCALATE, 1, 1000.0, "bubble"));
+    }
+
+    @Test
+    void shouldCalibratePositiveComparisonTime() {
+        assertTrue(CostGuard.calibrate() > 0);
+    }
+
+    private static SortingMadness guarded(CostGuard costGuard) {
+        return new SortingMadness(StrategyRegistry.defaults(), costGuard);
+    }
+
+    private static List<Comparable> descending(int size) {
+        List<Comparable> data = new ArrayList<>();
+        for (int i = size; i > 0; i--) {
+            data.add(i);
+        }
+        return data;
+    }
+}
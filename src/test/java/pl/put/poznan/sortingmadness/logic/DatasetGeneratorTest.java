@@ -0,0 +1,108 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetGenerator;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetSpec;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+    private DatasetGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new DatasetGenerator();
+    }
+
+    @Test
+    void shouldBeReproducibleForTheSameSeed() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.ZIPF, 500, 7L);
+
+        assertEquals(generator.generateList(spec), generator.generateList(spec));
+        assertNotEquals(generator.generateList(spec), generator.generateList(new DatasetSpec(DatasetShape.ZIPF, 500, 8L)));
+    }
+
+    @Test
+    void shouldGenerateSortedReversedAndOrganPipe() {
+        assertEquals(List.of(0, 1, 2, 3, 4), generator.generateList(new DatasetSpec(DatasetShape.SORTED, 5, 1L)));
+        assertEquals(List.of(4, 3, 2, 1, 0), generator.generateList(new DatasetSpec(DatasetShape.REVERSED, 5, 1L)));
+        assertEquals(List.of(0, 1, 2, 1, 0), generator.generateList(new DatasetSpec(DatasetShape.ORGAN_PIPE, 5, 1L)));
+    }
+
+    @Test
+    void shouldKeepNearlySortedDataAPermutation() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.NEARLY_SORTED, 1000, 3L);
+        spec.setSwaps(5);
+
+        @SuppressWarnings("rawtypes")
+        List<Comparable> data = generator.generateList(spec);
+
+        assertEquals(1000, new HashSet<>(data).size());
+        long misplaced = 0;
+        for (int i = 0; i < data.size(); i++) {
+            if (!data.get(i).equals(i)) {
+                misplaced++;
+            }
+        }
+        assertTrue(misplaced <= 10);
+    }
+
+    @Test
+    void shouldLimitCardinalityOfFewUniqueData() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.FEW_UNIQUE, 1000, 3L);
+        spec.setUniqueValues(4);
+
+        assertTrue(new HashSet<>(generator.generateList(spec)).size() <= 4);
+    }
+
+    @Test
+    void shouldShareConfiguredPrefixes() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.PREFIXED_STRINGS, 200, 3L);
+        spec.setPrefixCount(2);
+        spec.setPrefixLength(10);
+
+        HashSet<String> prefixes = new HashSet<>();
+        for (Object value : generator.generateList(spec)) {
+            prefixes.add(((String) value).substring(0, 10));
+        }
+        assertEquals(2, prefixes.size());
+    }
+
+    @Test
+    void shouldGenerateWideRecordsWithShapedKey() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.REVERSED, 3, 1L);
+        spec.setWidth(5);
+
+        @SuppressWarnings("rawtypes")
+        List<Map<String, Comparable>> records = generator.generateRecords(spec);
+
+        assertEquals(3, records.size());
+        assertEquals(2, records.get(0).get("key"));
+        assertEquals(3 + 5, records.get(0).size());
+    }
+
+    @Test
+    void shouldStreamRequestBody() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new DatasetWriter(generator).write(new DatasetSpec(DatasetShape.SORTED, 3, 1L), false, output);
+
+        assertEquals("{\"dataList\":[0,1,2]}", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRejectInvalidSpec() {
+        DatasetSpec spec = new DatasetSpec(DatasetShape.RANDOM, -1, 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generateList(spec));
+    }
+}
@@ -0,0 +1,69 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalQuickSortTest {
+
+    @Test
+    void shouldSortOnlyRequestedPages() {
+        Random random = new Random(59);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            data.add(random.nextInt());
+        }
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.naturalOrder());
+        IncrementalQuickSort<Integer> sorter = new IncrementalQuickSort<>(data, Comparator.naturalOrder());
+
+        assertEquals(sorted.subList(0, 50), sorter.range(0, 50));
+        assertEquals(sorted.subList(50, 100), sorter.range(50, 100));
+        assertEquals(sorted.subList(100, 150), sorter.range(100, 150));
+        assertTrue(sorter.getSettled() < data.size() / 10, "settled " + sorter.getSettled());
+        // Three pages cost a few linear passes rather than a full n log n sort.
+        assertTrue(sorter.getComparisons() < 8L * data.size(), "comparisons " + sorter.getComparisons());
+    }
+
+    @Test
+    void shouldSortEverythingWhenAllPagesAreRequested() {
+        Random random = new Random(61);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            data.add(random.nextInt(100));
+        }
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.reverseOrder());
+        IncrementalQuickSort<Integer> sorter = new IncrementalQuickSort<>(data, Comparator.reverseOrder());
+
+        assertEquals(sorted.subList(4000, 4100), sorter.range(4000, 4100));
+        List<Integer> all = new ArrayList<>();
+        for (int from = 0; from < data.size(); from += 300) {
+            all.addAll(sorter.range(from, Math.min(data.size(), from + 300)));
+        }
+        assertEquals(sorted, all);
+        assertEquals(data.size(), sorter.getSettled());
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldKeepInputOrderOfTies() {
+        List<Map<String, Comparable>> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(Map.of("group", i % 3, "position", i));
+        }
+        List<Map<String, Comparable>> expected = new ArrayList<>(data);
+        expected.sort(SortComparators.records(List.of("group"), "ASC"));
+        IncrementalQuickSort<Map<String, Comparable>> sorter = new IncrementalQuickSort<>(data, SortComparators.records(List.of("group"), "ASC"));
+
+        assertEquals(expected.subList(320, 380), sorter.range(320, 380));
+        assertEquals(expected, sorter.range(0, data.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> sorter.range(990, 1001));
+    }
+}
@@ -0,0 +1,85 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticsTest {
+    private final SortingMadness sortingMadness = new SortingMadness();
+
+    @Test
+    void shouldMatchPositionsOfFullSort() {
+        Random random = new Random(31);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            data.add(random.nextInt(500));
+        }
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.naturalOrder());
+        List<Integer> original = new ArrayList<>(data);
+        int[] ranks = {9999, 0, 5000, 17, 5000, 9500};
+
+        List<Integer> selected = OrderStatistics.select(data, Comparator.naturalOrder(), ranks);
+
+        for (int i = 0; i < ranks.length; i++) {
+            assertEquals(sorted.get(ranks[i]), selected.get(i), "rank " + ranks[i]);
+        }
+        assertEquals(original, data);
+    }
+
+    @Test
+    void shouldSelectWithMedianOfMediansOnAdversarialInput() {
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            data.add(i % 2 == 0 ? i : 3000 - i);
+        }
+        data.addAll(List.of(7, 7, 7, 7, 7));
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.reverseOrder());
+        int[] ranks = {0, 1, 1502, 2999, 3004};
+
+        // A depth budget of zero forces the median-of-medians pivot on every partition.
+        List<Integer> selected = OrderStatistics.select(data, Comparator.reverseOrder(), ranks, 0);
+
+        for (int i = 0; i < ranks.length; i++) {
+            assertEquals(sorted.get(ranks[i]), selected.get(i), "rank " + ranks[i]);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldSelectRecordsByKey() {
+        Random random = new Random(37);
+        List<Map<String, Comparable>> data = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            data.add(Map.of("latency", i, "shard", random.nextInt(8)));
+        }
+        Collections.shuffle(data, random);
+
+        Map<String, Object> result = sortingMadness.selectRanks(data, List.of("latency"), "ASC",
+                new int[]{OrderStatistics.percentileRank(50, 2000), OrderStatistics.percentileRank(95, 2000)}, null);
+
+        List<?> values = (List<?>) result.get("values");
+        assertEquals(999, ((Map<?, ?>) values.get(0)).get("latency"));
+        assertEquals(1899, ((Map<?, ?>) values.get(1)).get("latency"));
+        assertEquals(2000, result.get("total"));
+    }
+
+    @Test
+    void shouldMapPercentilesToNearestRank() {
+        assertEquals(0, OrderStatistics.percentileRank(0, 10));
+        assertEquals(4, OrderStatistics.percentileRank(50, 10));
+        assertEquals(8, OrderStatistics.percentileRank(90, 10));
+        assertEquals(9, OrderStatistics.percentileRank(100, 10));
+        assertThrows(IllegalArgumentException.class, () -> OrderStatistics.percentileRank(100.5, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderStatistics.select(List.of(1, 2), Comparator.<Integer>naturalOrder(), new int[]{2}));
+    }
+}
@@ -0,0 +1,59 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.benchmark.AlgorithmRace;
+import pl.put.poznan.sortingmadness.logic.benchmark.RaceResult;
+import pl.put.poznan.sortingmadness.logic.benchmark.SampleStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaceResultTest {
+
+    @Test
+    void shouldOrderEntriesByMeanAndReportSignificantWinner() {
+        RaceResult result = new RaceResult(List.of(
+                entry("bubble", 50, 51, 52),
+                entry("quick", 1, 1.1, 1.2),
+                entry("merge", 2, 2.1, 2.2)), 1, 3);
+
+        assertEquals("quick", result.getFastest());
+        assertEquals(List.of("quick", "merge", "bubble"),
+                result.getEntries().stream().map(RaceResult.Entry::getAlgorithm).collect(Collectors.toList()));
+        assertTrue(result.isFastestSignificant());
+    }
+
+    @Test
+    void shouldNotReportSignificanceForOverlappingIntervals() {
+        RaceResult result = new RaceResult(List.of(
+                entry("heap", 1, 5, 9),
+                entry("merge", 2, 5.5, 8)), 0, 3);
+
+        assertEquals("heap", result.getFastest());
+        assertFalse(result.isFastestSignificant());
+        assertTrue(new RaceResult(List.of(entry("quick", 1, 9)), 0, 2).isFastestSignificant());
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldAbortRaceWhenContextIsCancelled() {
+        List<Comparable> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add(100 - i);
+        }
+        SortingContext context = new SortingContext();
+        context.cancel(SortingCancelledException.Reason.TIMEOUT);
+        AlgorithmRace race = new AlgorithmRace(new SortingMadness(), 1, 3, context);
+
+        SortingCancelledException exception = assertThrows(SortingCancelledException.class,
+                () -> race.raceList(data, List.of("quick", "merge"), "ASC"));
+        assertEquals(SortingCancelledException.Reason.TIMEOUT, exception.getReason());
+    }
+
+    private static RaceResult.Entry entry(String algorithm, double... timesMs) {
+        return new RaceResult.Entry(algorithm, new SampleStatistics(timesMs), 0, 0);
+    }
+}
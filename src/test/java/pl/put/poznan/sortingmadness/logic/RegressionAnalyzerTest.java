@@ -0,0 +1,68 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.benchmark.Baseline;
+import pl.put.poznan.sortingmadness.logic.benchmark.RegressionAnalyzer;
+import pl.put.poznan.sortingmadness.logic.benchmark.RegressionReport;
+import pl.put.poznan.sortingmadness.logic.generator.DatasetShape;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegressionAnalyzerTest {
+    private final RegressionAnalyzer analyzer = new RegressionAnalyzer(0.10, 0.01);
+
+    @Test
+    void shouldReportRegressionForSignificantSlowdown() {
+        Baseline baseline = baseline("quick", samples(10.0, 1));
+        Baseline current = baseline("quick", samples(13.0, 2));
+
+        RegressionReport report = analyzer.compare(baseline, current);
+
+        assertTrue(report.hasRegressions());
+        assertEquals(RegressionReport.Verdict.REGRESSION, report.getComparisons().get(0).getVerdict());
+        assertTrue(report.toMarkdown().contains("| REGRESSION | quick | RANDOM | 1000 |"));
+    }
+
+    @Test
+    void shouldReportImprovementForSignificantSpeedup() {
+        RegressionReport report = analyzer.compare(baseline("merge", samples(10.0, 1)), baseline("merge", samples(7.0, 2)));
+
+        assertFalse(report.hasRegressions());
+        assertEquals(RegressionReport.Verdict.IMPROVEMENT, report.getComparisons().get(0).getVerdict());
+    }
+
+    @Test
+    void shouldIgnoreNoiseAndChangesBelowThreshold() {
+        RegressionReport noise = analyzer.compare(baseline("quick", samples(10.0, 1)), baseline("quick", samples(10.0, 2)));
+        RegressionReport small = analyzer.compare(baseline("quick", samples(10.0, 1)), baseline("quick", samples(10.5, 2)));
+
+        assertEquals(RegressionReport.Verdict.UNCHANGED, noise.getComparisons().get(0).getVerdict());
+        assertEquals(RegressionReport.Verdict.UNCHANGED, small.getComparisons().get(0).getVerdict());
+    }
+
+    @Test
+    void shouldMarkNewAndMissingCases() {
+        RegressionReport report = analyzer.compare(baseline("quick", samples(10.0, 1)), baseline("merge", samples(10.0, 2)));
+
+        assertFalse(report.hasRegressions());
+        assertEquals(RegressionReport.Verdict.NEW, report.getComparisons().get(0).getVerdict());
+        assertEquals(RegressionReport.Verdict.MISSING, report.getComparisons().get(1).getVerdict());
+    }
+
+    private static Baseline baseline(String algorithm, double[] times) {
+        Baseline baseline = new Baseline();
+        baseline.getMeasurements().add(new Baseline.Measurement(algorithm, DatasetShape.RANDOM, 1000, times));
+        return baseline;
+    }
+
+    private static double[] samples(double median, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[30];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = median * (1 + random.nextGaussian() * 0.03);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,53 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.benchmark.SampleStatistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleStatisticsTest {
+
+    @Test
+    void shouldComputeDescriptiveStatisticsAndConfidenceInterval() {
+        SampleStatistics statistics = new SampleStatistics(new double[]{5, 1, 4, 2, 3});
+
+        assertEquals(5, statistics.getSamples());
+        assertEquals(3.0, statistics.getMean(), 1e-9);
+        assertEquals(3.0, statistics.getMedian(), 1e-9);
+        assertEquals(5.0, statistics.getP99(), 1e-9);
+        assertEquals(1.0, statistics.getMin(), 1e-9);
+        assertEquals(5.0, statistics.getMax(), 1e-9);
+        // Sample standard deviation: sqrt(10 / 4).
+        assertEquals(Math.sqrt(2.5), statistics.getStdDev(), 1e-9);
+        // t(0.975, 4) = 2.776.
+        double halfWidth = 2.776 * Math.sqrt(2.5) / Math.sqrt(5);
+        assertEquals(3.0 - halfWidth, statistics.getCiLower(), 1e-9);
+        assertEquals(3.0 + halfWidth, statistics.getCiUpper(), 1e-9);
+    }
+
+    @Test
+    void shouldUseNearestRankForPercentiles() {
+        double[] sorted = new double[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(1.0, SampleStatistics.percentile(sorted, 1), 1e-9);
+        assertEquals(50.0, SampleStatistics.percentile(sorted, 50), 1e-9);
+        assertEquals(51.0, SampleStatistics.percentile(sorted, 50.5), 1e-9);
+        assertEquals(99.0, SampleStatistics.percentile(sorted, 99), 1e-9);
+        assertEquals(100.0, SampleStatistics.percentile(sorted, 100), 1e-9);
+        // Median of an even-sized series is the lower middle value, not the average.
+        assertEquals(2.0, new SampleStatistics(new double[]{4, 1, 3, 2}).getMedian(), 1e-9);
+    }
+
+    @Test
+    void shouldCollapseIntervalForSingleSampleAndRejectEmptySeries() {
+        SampleStatistics single = new SampleStatistics(new double[]{7.5});
+
+        assertEquals(0.0, single.getStdDev(), 1e-9);
+        assertEquals(7.5, single.getCiLower(), 1e-9);
+        assertEquals(7.5, single.getCiUpper(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> new SampleStatistics(new double[0]));
+    }
+}
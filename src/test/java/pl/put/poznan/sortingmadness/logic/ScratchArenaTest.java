@@ -0,0 +1,108 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.algorithms.MergeSort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScratchArenaTest {
+
+    @BeforeEach
+    void allowRetention() {
+        ScratchArena.configure(Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void restoreDefaults() {
+        ScratchArena.configure(ScratchArena.DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    @Test
+    void shouldReuseReleasedArrayAndClearReferences() {
+        ScratchArena arena = new ScratchArena();
+        Object[] first = arena.borrowObjects(100);
+        first[0] = "element";
+        arena.release(first);
+
+        Object[] second = arena.borrowObjects(50);
+
+        assertSame(first, second);
+        assertNull(second[0]);
+        assertEquals(1, arena.getAllocations());
+    }
+
+    @Test
+    void shouldHandOutDistinctArraysWhileBorrowed() {
+        ScratchArena arena = new ScratchArena();
+        int[] order = arena.borrowInts(10);
+        int[] next = arena.borrowInts(10);
+        arena.release(order);
+        arena.release(next);
+
+        assertNotSame(order, next);
+        assertNotSame(arena.borrowInts(10), arena.borrowInts(10));
+        assertEquals(2, arena.getAllocations());
+    }
+
+    @Test
+    void shouldBorrowShortestSufficientArray() {
+        ScratchArena arena = new ScratchArena();
+        int[] large = new int[1000];
+        int[] medium = new int[100];
+        arena.release(large);
+        arena.release(medium);
+        arena.release(new int[10]);
+
+        assertSame(medium, arena.borrowInts(50));
+        assertSame(large, arena.borrowInts(50));
+    }
+
+    @Test
+    void shouldNotRetainArraysBeyondTotalLimit() {
+        ScratchArena arena = new ScratchArena();
+        ScratchArena.configure(ScratchArena.getRetainedBytes() + 100 * Long.BYTES);
+        long[] kept = new long[100];
+        long[] dropped = new long[50];
+        arena.release(kept);
+        arena.release(dropped);
+
+        assertTrue(ScratchArena.getRetainedBytes() >= 100 * Long.BYTES);
+        assertSame(kept, arena.borrowLongs(10));
+        assertNotSame(dropped, arena.borrowLongs(10));
+    }
+
+    @Test
+    void shouldNotRetainOversizedArrays() {
+        ScratchArena arena = new ScratchArena();
+        long[] large = arena.borrowLongs(ScratchArena.MAX_RETAINED_LENGTH + 1);
+        arena.release(large);
+
+        assertNotSame(large, arena.borrowLongs(1));
+    }
+
+    @Test
+    void shouldNotAllocateScratchArraysForRepeatedMergeSorts() {
+        Random random = new Random(7);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(random.nextInt(100));
+        }
+        MergeSort mergeSort = new MergeSort();
+        mergeSort.sortList(data, "ASC", 0);
+        long allocations = ScratchArena.current().getAllocations();
+
+        Map<String, Object> result = mergeSort.sortList(data, "DESC", 0);
+
+        assertEquals(allocations, ScratchArena.current().getAllocations());
+        List<Integer> expected = new ArrayList<>(data);
+        expected.sort((a, b) -> b - a);
+        assertEquals(expected, result.get("sortedData"));
+    }
+}
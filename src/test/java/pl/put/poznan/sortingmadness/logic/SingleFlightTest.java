@@ -0,0 +1,116 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+    @Test
+    void shouldShareResultOfConcurrentIdenticalCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Supplier<Object> computation = () -> {
+            computations.incrementAndGet();
+            await(release);
+            return new Object();
+        };
+
+        CompletableFuture<SingleFlight.Result<Object>> leader = runAsync(() -> singleFlight.execute("key", computation, null));
+        waitUntil(() -> singleFlight.getInFlight() == 1);
+        CompletableFuture<SingleFlight.Result<Object>> follower = runAsync(() -> singleFlight.execute("key", computation, null));
+        Thread.sleep(3 * SingleFlight.CHECK_INTERVAL_MILLIS);
+        release.countDown();
+
+        assertSame(leader.get(5, TimeUnit.SECONDS).getValue(), follower.get(5, TimeUnit.SECONDS).getValue());
+        assertFalse(leader.get().isShared());
+        assertTrue(follower.get().isShared());
+        assertEquals(1, computations.get());
+        assertEquals(1, singleFlight.getCoalesced());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void shouldNotCacheResultsOfFinishedCalls() {
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("key", computations::incrementAndGet, null);
+        singleFlight.execute("key", computations::incrementAndGet, null);
+
+        assertEquals(2, computations.get());
+        assertEquals(0, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void shouldRetryWhenLeaderIsCancelled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<SingleFlight.Result<Object>> leader = runAsync(() -> singleFlight.execute("key", () -> {
+            await(release);
+            throw new SortingCancelledException(SortingCancelledException.Reason.CANCELLED, "Sorting was cancelled.");
+        }, null));
+        waitUntil(() -> singleFlight.getInFlight() == 1);
+        CompletableFuture<SingleFlight.Result<Object>> follower = runAsync(() -> singleFlight.execute("key", () -> "own", null));
+        Thread.sleep(3 * SingleFlight.CHECK_INTERVAL_MILLIS);
+        release.countDown();
+
+        assertEquals("own", follower.get(5, TimeUnit.SECONDS).getValue());
+        assertFalse(follower.get().isShared());
+        assertTrue(assertThrows(Exception.class, leader::join).getCause() instanceof SortingCancelledException);
+    }
+
+    @Test
+    void shouldStopWaitingWhenCallerDeadlinePasses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<SingleFlight.Result<Object>> leader = runAsync(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "leader";
+        }, null));
+        waitUntil(() -> singleFlight.getInFlight() == 1);
+        SortingContext context = new SortingContext();
+        context.setDeadline(Duration.ofMillis(100));
+
+        SortingCancelledException exception = assertThrows(SortingCancelledException.class,
+                () -> singleFlight.execute("key", () -> "own", context));
+
+        assertEquals(SortingCancelledException.Reason.TIMEOUT, exception.getReason());
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS).getValue());
+    }
+
+    private static <T> CompletableFuture<T> runAsync(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return future;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pl.put.poznan.sortingmadness.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSelectorTest {
+    private final SortingMadness sortingMadness = new SortingMadness();
+
+    @Test
+    void shouldMatchWindowOfFullSort() {
+        Random random = new Random(17);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            data.add(random.nextInt(1000));
+        }
+        List<Integer> sorted = new ArrayList<>(data);
+        sorted.sort(Comparator.reverseOrder());
+
+        for (int[] window : new int[][]{{0, 1}, {0, 100}, {37, 250}, {4990, 100}, {6000, 10}}) {
+            List<Integer> selected = TopKSelector.select(data, Comparator.reverseOrder(), window[0], window[1]);
+
+            int from = Math.min(window[0], sorted.size());
+            int to = Math.min(sorted.size(), window[0] + window[1]);
+            assertEquals(sorted.subList(from, to), selected, "offset " + window[0] + ", limit " + window[1]);
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldSelectRecordsByAllKeysKeepingInputOrderOfTies() {
+        Random random = new Random(23);
+        List<Map<String, Comparable>> data = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            data.add(Map.of("group", random.nextInt(4), "score", random.nextInt(5), "position", i));
+        }
+        List<Map<String, Comparable>> expected = new ArrayList<>(data);
+        expected.sort(SortComparators.records(List.of("group", "score"), "DESC"));
+
+        Map<String, Object> result = sortingMadness.sortDataWindow(new ArrayList<>(data), List.of("group", "score"),
+                "merge", "DESC", 0, 20, 50, null);
+
+        assertEquals("top-k-heap", result.get("backend"));
+        assertEquals(expected.subList(20, 70), result.get("sortedData"));
+        assertEquals(4000, result.get("total"));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldSortAndTrimWhenWindowIsLarge() {
+        List<Comparable> data = new ArrayList<>(List.of(5, 1, 4, 2, 3));
+
+        Map<String, Object> result = sortingMadness.sortDataListWindow(data, "quick", "ASC", 0, 1, 3, null);
+
+        assertNull(result.get("backend"));
+        assertEquals(List.of(2, 3, 4), result.get("sortedData"));
+        assertEquals(5, result.get("total"));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldRejectInvalidWindow() {
+        List<Comparable> data = new ArrayList<>(List.of(2, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> sortingMadness.sortDataListWindow(data, "quick", "ASC", 0, 0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> sortingMadness.sortDataListWindow(data, "quick", "ASC", 0, -1, 1, null));
+    }
+}
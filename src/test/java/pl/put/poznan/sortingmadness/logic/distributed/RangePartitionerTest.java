@@ -0,0 +1,82 @@
+package pl.put.poznan.sortingmadness.logic.distributed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangePartitionerTest {
+    private final RangePartitioner<Integer> partitioner = new RangePartitioner<>(Comparator.naturalOrder(), 200, new Random(7));
+
+    @Test
+    void shouldSplitIntoDisjointRangesThatConcatenateToSortedOrder() {
+        List<Integer> data = randomValues(10_000, 1_000_000, 1);
+
+        List<Integer> splitters = partitioner.splitters(data, 4);
+        List<List<Integer>> partitions = partitioner.partition(data, splitters);
+        List<List<Integer>> sortedParts = partitions.stream().map(RangePartitionerTest::sorted).collect(Collectors.toList());
+
+        assertEquals(3, splitters.size());
+        assertEquals(4, partitions.size());
+        assertFalse(RangePartitioner.overlapping(sortedParts, Comparator.naturalOrder()));
+        assertEquals(sorted(data), RangePartitioner.concatenate(sortedParts));
+        assertTrue(RangePartitioner.largest(partitions) < 2 * data.size() / 4);
+    }
+
+    @Test
+    void shouldKeepEqualValuesInOnePartitionAndDropDuplicateSplitters() {
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            data.add(i % 10 == 0 ? 1 : 5);
+        }
+
+        List<Integer> splitters = partitioner.splitters(data, 4);
+        List<List<Integer>> partitions = partitioner.partition(data, splitters);
+
+        assertTrue(splitters.size() <= 2);
+        assertEquals(1, partitions.stream().filter(partition -> partition.contains(5)).count());
+    }
+
+    @Test
+    void shouldMergeOverlappingChunks() {
+        List<Integer> data = randomValues(1000, 50, 2);
+
+        List<List<Integer>> sortedParts = RangePartitioner.chunks(data, 3).stream()
+                .map(RangePartitionerTest::sorted)
+                .collect(Collectors.toList());
+
+        assertEquals(3, sortedParts.size());
+        assertTrue(RangePartitioner.overlapping(sortedParts, Comparator.naturalOrder()));
+        assertEquals(sorted(data), RangePartitioner.merge(sortedParts, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void shouldMergeStablyByPartOrder() {
+        Comparator<int[]> byKey = Comparator.comparingInt(pair -> pair[0]);
+        List<List<int[]>> parts = List.of(
+                List.of(new int[]{1, 0}, new int[]{2, 1}),
+                List.of(new int[]{1, 2}, new int[]{2, 3}));
+
+        List<int[]> merged = RangePartitioner.merge(parts, byKey);
+
+        assertEquals(List.of(0, 2, 1, 3), merged.stream().map(pair -> pair[1]).collect(Collectors.toList()));
+    }
+
+    private static List<Integer> randomValues(int count, int bound, long seed) {
+        Random random = new Random(seed);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(random.nextInt(bound));
+        }
+        return values;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+}
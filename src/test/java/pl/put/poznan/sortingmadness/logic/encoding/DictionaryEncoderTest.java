@@ -0,0 +1,117 @@
+package pl.put.poznan.sortingmadness.logic.encoding;
+
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class DictionaryEncoderTest {
+    private static final List<String> STATUSES = List.of("pending", "active", "closed", "archived");
+    private static final List<String> COUNTRIES = List.of("PL", "DE", "FR", "CZ", "SK", "LT");
+
+    @Test
+    void shouldCountingSortWhenAllKeysAreEncoded() {
+        List<Map<String, Comparable>> data = records(3000, 1);
+        List<String> keys = List.of("status", "country");
+
+        DictionaryEncoder encoder = DictionaryEncoder.analyze(data, keys);
+        assertNotNull(encoder);
+        assertTrue(encoder.coversAllKeys());
+
+        Comparator<Map<String, Comparable>> order = Comparator.comparing((Map<String, Comparable> record) -> (String) record.get("status"))
+                .thenComparing(record -> (String) record.get("country"));
+        assertEquals(stableSort(data, order), encoder.countingSort(data, "ASC").get("sortedData"));
+        assertEquals(stableSort(data, order.reversed()), encoder.countingSort(data, "DESC").get("sortedData"));
+    }
+
+    @Test
+    void shouldSortEncodedProxiesWithStrategyAndRestoreOriginalRecords() {
+        List<Map<String, Comparable>> data = records(2000, 2);
+        List<String> keys = List.of("country", "score");
+
+        Map<String, Object> result = new SortingMadness().sortData(new ArrayList<>(data), keys, "merge", "ASC", 0);
+
+        List<Map<String, Comparable>> sorted = (List<Map<String, Comparable>>) result.get("sortedData");
+        Comparator<Map<String, Comparable>> order = Comparator.comparing((Map<String, Comparable> record) -> (String) record.get("country"))
+                .thenComparing(record -> (Integer) record.get("score"));
+        assertEquals(stableSort(data, order), sorted);
+        assertTrue(sorted.stream().allMatch(record -> data.stream().anyMatch(original -> original == record)));
+        assertFalse(result.containsKey("backend"));
+    }
+
+    @Test
+    void shouldCountingSortOnlyWhenCountingIsSelectedOrRequested() {
+        List<Map<String, Comparable>> data = records(3000, 4);
+        List<String> keys = List.of("status", "country");
+        SortingMadness sortingMadness = new SortingMadness();
+
+        assertEquals("counting", SortingSelector.selectAlgorithmMap(data, keys, false, 0));
+        assertNotEquals("counting", SortingSelector.selectAlgorithmMap(data, keys, false, 100));
+        assertEquals("dictionary-counting", sortingMadness.sortData(new ArrayList<>(data), keys, "counting", "ASC", 0).get("backend"));
+
+        Map<String, Object> merged = sortingMadness.sortData(new ArrayList<>(data), keys, "merge", "ASC", 0);
+        assertFalse(merged.containsKey("backend"));
+        Comparator<Map<String, Comparable>> order = Comparator.comparing((Map<String, Comparable> record) -> (String) record.get("status"))
+                .thenComparing(record -> (String) record.get("country"));
+        assertEquals(stableSort(data, order), merged.get("sortedData"));
+    }
+
+    @Test
+    void shouldReuseEncoderFromSelectionForSorting() {
+        List<Map<String, Comparable>> data = records(3000, 5);
+        List<String> keys = List.of("status", "country");
+        DictionaryEncoder encoder = DictionaryEncoder.analyze(data, keys);
+        SortingMadness sortingMadness = new SortingMadness();
+
+        String algorithm = SortingSelector.selectAlgorithmMap(data, keys, true, 0, encoder);
+        Map<String, Object> result = sortingMadness.sortData(new ArrayList<>(data), keys, algorithm, "DESC", 0, null, encoder);
+
+        assertEquals("counting", algorithm);
+        assertEquals("dictionary-counting", result.get("backend"));
+        Comparator<Map<String, Comparable>> order = Comparator.comparing((Map<String, Comparable> record) -> (String) record.get("status"))
+                .thenComparing(record -> (String) record.get("country"));
+        assertEquals(stableSort(data, order.reversed()), result.get("sortedData"));
+        assertNotEquals("counting", SortingSelector.selectAlgorithmMap(data, keys, true, 0, null));
+    }
+
+    @Test
+    void shouldSkipSmallNonTextOrHighCardinalityKeys() {
+        List<Map<String, Comparable>> data = records(2000, 3);
+        List<Map<String, Comparable>> unique = new ArrayList<>();
+        for (int i = 0; i < DictionaryEncoder.MAX_CARDINALITY + 1; i++) {
+            unique.add(Map.of("id", "id-" + i));
+        }
+
+        assertNull(DictionaryEncoder.analyze(data.subList(0, 10), List.of("status")));
+        assertNull(DictionaryEncoder.analyze(data, List.of("score")));
+        assertNull(DictionaryEncoder.analyze(unique, List.of("id")));
+        assertEquals(List.of("status"), DictionaryEncoder.analyze(data, List.of("score", "status")).encodedKeys());
+    }
+
+    private static List<Map<String, Comparable>> records(int count, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Comparable>> data = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            data.add(Map.of(
+                    "status", STATUSES.get(random.nextInt(STATUSES.size())),
+                    "country", COUNTRIES.get(random.nextInt(COUNTRIES.size())),
+                    "score", random.nextInt(100),
+                    "id", i));
+        }
+        return data;
+    }
+
+    private static List<Map<String, Comparable>> stableSort(List<Map<String, Comparable>> data, Comparator<Map<String, Comparable>> order) {
+        List<Map<String, Comparable>> sorted = new ArrayList<>(data);
+        sorted.sort(order);
+        return sorted;
+    }
+}
@@ -0,0 +1,121 @@
+package pl.put.poznan.sortingmadness.logic.offheap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class OffHeapDatasetTest {
+
+    @AfterEach
+    void restoreDefaults() {
+        OffHeapMemory.configure(Integer.MAX_VALUE, 0);
+    }
+
+    @Test
+    void shouldRadixSortMixedIntegersKeepingTheirTypes() {
+        OffHeapMemory.configure(10, 1 << 20);
+        Random random = new Random(1);
+        List<Comparable> data = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            data.add(value == (int) value ? (Comparable) (int) value : (Comparable) value);
+        }
+
+        Map<String, Object> result = OffHeapDataset.trySort(data, "asc", null);
+
+        assertEquals("offheap-radix", result.get("backend"));
+        List<Comparable> sorted = (List<Comparable>) result.get("sortedData");
+        assertEquals(data.stream().sorted(Comparator.comparingLong(value -> ((Number) value).longValue())).collect(Collectors.toList()), sorted);
+        assertEquals(0, OffHeapMemory.getUsedBytes());
+    }
+
+    @Test
+    void shouldQuickSortDoublesInPlaceWhenScratchBufferDoesNotFit() {
+        int n = 3000;
+        OffHeapMemory.configure(10, n * Long.BYTES + 100);
+        Random random = new Random(2);
+        List<Comparable> data = new ArrayList<>();
+        for (int i = 0; i < n - 4; i++) {
+            data.add((random.nextDouble() - 0.5) * 1e6);
+        }
+        data.addAll(List.of(-0.0, 0.0, Double.NEGATIVE_INFINITY, Double.NaN));
+
+        Map<String, Object> result = OffHeapDataset.trySort(data, "desc", null);
+
+        assertEquals("offheap-quick", result.get("backend"));
+        List<Comparable> expected = new ArrayList<>(data);
+        expected.sort(Collections.reverseOrder());
+        assertEquals(expected, result.get("sortedData"));
+    }
+
+    @Test
+    void shouldReuseBuffersWithinLimitAcrossSorts() {
+        int n = 1000;
+        OffHeapMemory.configure(10, 2L * n * Long.BYTES);
+        List<Comparable> data = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            data.add(n - i);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            Map<String, Object> result = OffHeapDataset.trySort(data, "asc", null);
+
+            assertEquals("offheap-radix", result.get("backend"));
+            assertEquals(1, ((List<Comparable>) result.get("sortedData")).get(0));
+            assertEquals(0, OffHeapMemory.getUsedBytes());
+            assertEquals(2L * n * Long.BYTES, OffHeapMemory.getAllocatedBytes());
+        }
+        assertEquals("offheap-radix", OffHeapDataset.trySort(data.subList(0, n / 2), "asc", null).get("backend"));
+        assertEquals(2L * n * Long.BYTES, OffHeapMemory.getAllocatedBytes());
+    }
+
+    @Test
+    void shouldDeclineSmallNonNumericOrOverLimitData() {
+        OffHeapMemory.configure(3, 16);
+
+        assertFalse(OffHeapDataset.isEligible(List.of(3, 1)));
+        assertTrue(OffHeapDataset.isEligible(List.of(3, 2, 1)));
+        assertFalse(OffHeapDataset.isEligible(List.of("b", "a", "c")));
+        assertNull(OffHeapDataset.trySort(List.of("b", "a", "c"), "asc", null));
+        assertNull(OffHeapDataset.trySort(List.of(1, 2.0, 3), "asc", null));
+        assertNull(OffHeapDataset.trySort(List.of(3, 2, 1), "asc", null));
+        assertEquals(0, OffHeapMemory.getUsedBytes());
+    }
+
+    @Test
+    void shouldSortOffHeapOnlyWhenSelectedOrRequested() {
+        OffHeapMemory.configure(100, 1 << 20);
+        SortingMadness sortingMadness = new SortingMadness();
+        List<Comparable> data = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            data.add(199 - i);
+        }
+
+        assertEquals("offheap", SortingSelector.selectAlgorithmList(data, false, 0));
+        assertNotEquals("offheap", SortingSelector.selectAlgorithmList(data, false, 50));
+        assertFalse(sortingMadness.sortDataList(new ArrayList<>(data), "quick", "ASC", 0).containsKey("backend"));
+        assertEquals("offheap-radix", sortingMadness.sortDataList(new ArrayList<>(data), "offheap", "ASC", 0).get("backend"));
+        assertEquals("offheap-radix", sortingMadness.sortDataList(List.of(3, 1, 2), "radix", "ASC", 0).get("backend"));
+        assertThrows(IllegalArgumentException.class, () -> sortingMadness.sortDataList(List.of("b", "a"), "offheap", "ASC", 0));
+        assertThrows(IllegalArgumentException.class, () -> sortingMadness.sortDataList(new ArrayList<>(data), "offheap", "ASC", 10));
+
+        OffHeapMemory.configure(100, 0);
+        Map<String, Object> onHeap = sortingMadness.sortDataList(new ArrayList<>(data), "offheap", "DESC", 0);
+        assertEquals("quick", onHeap.get("backend"));
+        List<Comparable> expected = new ArrayList<>(data);
+        expected.sort(Collections.reverseOrder());
+        assertEquals(expected, onHeap.get("sortedData"));
+    }
+}
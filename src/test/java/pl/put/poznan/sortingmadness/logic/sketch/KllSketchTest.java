@@ -0,0 +1,92 @@
+package pl.put.poznan.sortingmadness.logic.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KllSketchTest {
+    private static final int N = 100_000;
+
+    @Test
+    void shouldEstimateQuantilesAndRanksWithinErrorBound() {
+        KllSketch sketch = sketchOf(shuffledRange(0, N, 41));
+        // The bound holds with 99% probability; twice the bound keeps the test deterministic in practice.
+        double tolerance = 2 * sketch.getNormalizedRankError(false);
+
+        assertFalse(sketch.isExact());
+        assertTrue(sketch.getRetained() < 2000, "retained " + sketch.getRetained());
+        assertEquals(0, sketch.getMin());
+        assertEquals(N - 1, sketch.getMax());
+        for (double fraction : new double[]{0.01, 0.25, 0.5, 0.9, 0.99}) {
+            double trueRank = (sketch.getQuantile(fraction) + 1) / N;
+            assertEquals(fraction, trueRank, tolerance, "quantile " + fraction);
+            assertEquals(fraction, sketch.getRank(fraction * N - 1), tolerance, "rank of " + (fraction * N - 1));
+        }
+    }
+
+    @Test
+    void shouldBeExactBeforeFirstCompaction() {
+        KllSketch sketch = sketchOf(shuffledRange(1, 101, 43));
+
+        assertTrue(sketch.isExact());
+        assertEquals(0, sketch.getNormalizedRankError(false));
+        assertEquals(50, sketch.getQuantile(0.5));
+        assertEquals(95, sketch.getQuantile(0.95));
+        assertEquals(0.3, sketch.getRank(30));
+        assertArrayEquals(new long[]{9, 40, 51}, sketch.getHistogram(new double[]{10, 50}));
+    }
+
+    @Test
+    void shouldMergeSerializedSketches() {
+        List<Double> values = shuffledRange(0, N, 47);
+        KllSketch first = sketchOf(values.subList(0, N / 2));
+        KllSketch second = sketchOf(values.subList(N / 2, N));
+
+        KllSketch merged = KllSketch.fromBytes(first.toBytes());
+        merged.merge(KllSketch.fromBytes(second.toBytes()));
+
+        double tolerance = 2 * merged.getNormalizedRankError(false);
+        assertEquals(N, merged.getN());
+        assertEquals(0, merged.getMin());
+        assertEquals(N - 1, merged.getMax());
+        assertEquals(0.5, (merged.getQuantile(0.5) + 1) / N, tolerance);
+        long[] histogram = merged.getHistogram(new double[]{N / 4.0, N / 2.0});
+        assertEquals(N, histogram[0] + histogram[1] + histogram[2]);
+        assertEquals(0.25, (double) histogram[1] / N, 2 * merged.getNormalizedRankError(true));
+    }
+
+    @Test
+    void shouldRejectInvalidInput() {
+        KllSketch sketch = sketchOf(shuffledRange(0, 10, 53));
+        byte[] bytes = sketch.toBytes();
+
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(200).getQuantile(0.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.update(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> sketch.getHistogram(new double[]{5, 5}));
+        assertThrows(IllegalArgumentException.class, () -> KllSketch.fromBytes(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    private static KllSketch sketchOf(List<Double> values) {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        for (double value : values) {
+            sketch.update(value);
+        }
+        return sketch;
+    }
+
+    private static List<Double> shuffledRange(int from, int to, long seed) {
+        List<Double> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(seed));
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package pl.put.poznan.sortingmadness.logic.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillingSortBufferTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void shouldSortInMemoryWhenDataFits() {
+        try (SpillingSortBuffer<Integer> buffer = new SpillingSortBuffer<>(10, Comparator.naturalOrder(),
+                SpillingSortBufferTest::sorted, spillDirectory, objectMapper)) {
+            List.of(3, 1, 2).forEach(buffer::add);
+
+            assertEquals(List.of(1, 2, 3), drain(buffer.finish()));
+            assertEquals(0, buffer.getSpilledRuns());
+        }
+    }
+
+    @Test
+    void shouldMergeSpilledRunsAndDeleteThemOnClose() throws Exception {
+        Random random = new Random(42);
+        List<Integer> input = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            input.add(random.nextInt(100));
+        }
+
+        SpillingSortBuffer<Integer> buffer = new SpillingSortBuffer<>(64, Comparator.naturalOrder(),
+                SpillingSortBufferTest::sorted, spillDirectory, objectMapper);
+        input.forEach(buffer::add);
+        List<Integer> result = drain(buffer.finish());
+
+        assertEquals(sorted(input), result);
+        assertEquals(16, buffer.getSpilledRuns());
+        buffer.close();
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldKeepEqualRecordsInInputOrderAcrossRuns() {
+        Comparator<Map<String, Object>> byKey = Comparator.comparing(record -> (Integer) record.get("key"));
+        List<Map<String, Object>> input = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            input.add(Map.of("key", i % 3, "position", i));
+        }
+
+        try (SpillingSortBuffer<Map<String, Object>> buffer = new SpillingSortBuffer<>(7, byKey,
+                run -> run.stream().sorted(byKey).collect(Collectors.toList()), spillDirectory, objectMapper)) {
+            input.forEach(buffer::add);
+            List<Map<String, Object>> result = drain(buffer.finish());
+
+            assertEquals(input.stream().sorted(byKey).collect(Collectors.toList()), result);
+        }
+    }
+
+    private static <T extends Comparable<T>> List<T> sorted(List<T> values) {
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static <T> List<T> drain(Iterator<T> iterator) {
+        List<T> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,156 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairSortSchedulerTest {
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private FairSortScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void shouldAlternateClientsSendingSmallSorts() throws Exception {
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 1, 0, 5000, 1, 50, "");
+        blockWorker("blocker", 10);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (String client : List.of("greedy", "polite")) {
+            int count = client.equals("greedy") ? 20 : 5;
+            for (int i = 0; i < count; i++) {
+                futures.add(scheduler.admit(client, 10).submit(() -> order.add(client)));
+            }
+        }
+        gate.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // The polite client's five small sorts run within the first ten, not after the greedy client's twenty.
+        assertEquals(5, Collections.frequency(order.subList(0, 10), "polite"), order.toString());
+    }
+
+    @Test
+    void shouldCountSmallSortsAgainstClientLimits() throws Exception {
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 2, 1, 5000, 1, 2, "");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Runnable sort = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            await(gate);
+            running.decrementAndGet();
+        };
+
+        Future<?> first = scheduler.admit("client", 10).submit(sort);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<?> second = scheduler.admit("client", 10).submit(sort);
+        Future<?> third = scheduler.admit("client", 10).submit(sort);
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> scheduler.admit("client", 10));
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(1, scheduler.getRunning());
+        assertEquals(2, scheduler.getQueued());
+
+        // Other clients are not affected and run on the idle workers.
+        CountDownLatch other = new CountDownLatch(1);
+        scheduler.admit("other", 10).submit(other::countDown);
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+
+        gate.countDown();
+        for (Future<?> future : List.of(first, second, third)) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void shouldAdmitNoMoreThanQueueLimitUnderContention() throws Exception {
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 1, 0, 5000, 1, 5, "");
+        blockWorker("client", 100_000);
+
+        int threads = 16;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread sender = new Thread(() -> {
+                try {
+                    barrier.await();
+                    scheduler.admit("client", 100_000).submit(() -> { });
+                    admitted.incrementAndGet();
+                } catch (AdmissionRejectedException e) {
+                    rejected.incrementAndGet();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            sender.start();
+            senders.add(sender);
+        }
+        for (Thread sender : senders) {
+            sender.join(5000);
+        }
+
+        assertEquals(5, admitted.get());
+        assertEquals(threads - 5, rejected.get());
+        assertEquals(5, scheduler.getQueued());
+    }
+
+    /**
+     * Occupies the only worker until the test opens the gate.
+     */
+    @Test
+    void shouldReleaseReservationOfUnusedAdmission() throws Exception {
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 1, 0, 5000, 1, 1, "");
+
+        FairSortScheduler.ClientExecutor unused = scheduler.admit("client", 10);
+        assertThrows(AdmissionRejectedException.class, () -> scheduler.admit("client", 10));
+        unused.cancelReservation();
+        unused.cancelReservation();
+
+        CountDownLatch ran = new CountDownLatch(1);
+        FairSortScheduler.ClientExecutor used = scheduler.admit("client", 10);
+        used.submit(ran::countDown);
+        // Cancelling after the task was handed over must not free its place a second time.
+        used.cancelReservation();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> unused.submit(ran::countDown));
+    }
+
+    private void blockWorker(String client, long cost) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.admit(client, cost).submit(() -> {
+            started.countDown();
+            await(gate);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
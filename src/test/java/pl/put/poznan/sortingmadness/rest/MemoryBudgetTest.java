@@ -0,0 +1,158 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class MemoryBudgetTest {
+
+    @Test
+    void shouldEstimateCopiesPerSortingParameter() {
+        MemoryBudget memoryBudget = budget(1_000_000, 0);
+        SortingRequest list = new SortingRequest();
+        list.setDataList(List.of(5, 3, 1, 4, 2, 9, 8, 7, 6, 0));
+        SortingRequest records = new SortingRequest();
+        records.setData(List.of(Map.of("a", 1, "b", 2), Map.of("a", 3, "b", 4)));
+        records.setSortingParameters(List.of(new SortingRequest.SortingParameter(), new SortingRequest.SortingParameter()));
+
+        // Converted data plus a working copy and a result per parameter.
+        assertEquals(10 * 8 * 3, memoryBudget.estimate(list));
+        assertEquals(4 * 8 * 5, memoryBudget.estimate(records));
+        assertEquals(10 * 8, memoryBudget.estimateResult(list));
+        assertEquals(4 * 8 * 2, memoryBudget.estimateResult(records));
+    }
+
+    @Test
+    void shouldTrackReservationsAndReleaseThemOnce() {
+        MemoryBudget memoryBudget = budget(1000, 0);
+
+        MemoryBudget.Permit first = memoryBudget.acquire(600);
+        MemoryBudget.Permit second = memoryBudget.acquire(400);
+        assertEquals(1000, memoryBudget.getUsedBytes());
+
+        second.shrinkTo(100);
+        second.shrinkTo(300);
+        assertEquals(700, memoryBudget.getUsedBytes());
+        assertEquals(100, second.getBytes());
+
+        first.close();
+        first.close();
+        second.close();
+        assertEquals(0, memoryBudget.getUsedBytes());
+        assertEquals(0, first.getBytes());
+    }
+
+    @Test
+    void shouldRejectWith429WhenBudgetStaysExhaustedAnd413WhenRequestNeverFits() {
+        MemoryBudget memoryBudget = budget(1000, 0);
+        MemoryBudget.Permit held = memoryBudget.acquire(800);
+
+        AdmissionRejectedException busy = assertThrows(AdmissionRejectedException.class, () -> memoryBudget.acquire(300));
+        assertEquals(1, busy.getRetryAfterSeconds());
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class, () -> memoryBudget.acquire(1001));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, tooLarge.getStatus());
+        assertEquals(800, memoryBudget.getUsedBytes());
+        held.close();
+    }
+
+    @Test
+    void shouldWaitForReleasedBudget() throws Exception {
+        MemoryBudget memoryBudget = budget(1000, 5000);
+        MemoryBudget.Permit held = memoryBudget.acquire(800);
+
+        CompletableFuture<MemoryBudget.Permit> waiting = CompletableFuture.supplyAsync(() -> memoryBudget.acquire(300));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (memoryBudget.getWaiting() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, memoryBudget.getWaiting());
+        held.close();
+
+        MemoryBudget.Permit admitted = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(300, memoryBudget.getUsedBytes());
+        assertEquals(0, memoryBudget.getWaiting());
+        admitted.close();
+    }
+
+    @Test
+    void shouldRejectImmediatelyWithoutWaitingWhenAcquiringNow() {
+        MemoryBudget memoryBudget = budget(1000, 5000);
+        MemoryBudget.Permit held = memoryBudget.acquire(800);
+
+        long start = System.nanoTime();
+        assertThrows(AdmissionRejectedException.class, () -> memoryBudget.acquireNow(300));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, memoryBudget.getWaiting());
+
+        held.close();
+        MemoryBudget.Permit admitted = memoryBudget.acquireNow(300);
+        assertEquals(300, memoryBudget.getUsedBytes());
+        admitted.close();
+    }
+
+    @Test
+    void shouldAnswerSortRequestsWith429AndRetryAfterOr413() throws Exception {
+        MemoryBudget memoryBudget = budget(1000, 0);
+        FairSortScheduler scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 1, 1, 5000, 2, 50, "");
+        SortExecution execution = new SortExecution(memoryBudget, scheduler, 30_000, 300_000);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new SortingMadnessController(mock(SortingService.class), memoryBudget, execution))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        try {
+            MemoryBudget.Permit held = memoryBudget.acquire(900);
+            // 10 values x 8 bytes x 3 copies = 240 bytes: fits the budget, but not what is left of it.
+            MvcResult busy = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"dataList\":[1,2,3,4,5,6,7,8,9,10]}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            busy.getAsyncResult(5000);
+            mockMvc.perform(asyncDispatch(busy))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.error").value("Too Many Requests"));
+            held.close();
+
+            // 50 values need 1200 bytes, more than the whole budget: retrying would not help.
+            MvcResult tooLarge = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"dataList\":" + numbers(50) + "}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            tooLarge.getAsyncResult(5000);
+            mockMvc.perform(asyncDispatch(tooLarge))
+                    .andExpect(status().isPayloadTooLarge())
+                    .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+            assertEquals(0, memoryBudget.getUsedBytes());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static MemoryBudget budget(long budgetBytes, long queueTimeoutMillis) {
+        return new MemoryBudget(new SimpleMeterRegistry(), budgetBytes, 8, queueTimeoutMillis, 1, 0);
+    }
+
+    private static String numbers(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append(count - i);
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,124 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ServerTimingTest {
+    private static final String BODY = "{\"dataList\":[3,1,2],"
+            + "\"sortingParameters\":[{\"sortingAlgorithms\":\"quick\",\"directions\":\"ASC\"}]}";
+
+    private FairSortScheduler scheduler;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1_000_000, 8, 0, 1, 0);
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 2, 1, 5000, 2, 50, "");
+        SortExecution execution = new SortExecution(memoryBudget, scheduler, 30_000, 300_000);
+        SortingService sortingService = new SortingService(new SortingMadness(), new SortingSelector(), new SimpleMeterRegistry(), false);
+        mockMvc = MockMvcBuilders.standaloneSetup(new SyncSortingController(sortingService, memoryBudget, execution))
+                .setControllerAdvice(new ServerTimingAdvice(), new GlobalExceptionHandler())
+                .addFilters(new ServerTimingFilter())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void shouldReportPhasesOfAsyncSort() throws Exception {
+        MvcResult result = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().doesNotExist(ServerTimingAdvice.SERVER_TIMING_HEADER))
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String header = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"quick-ASC\":{\"sortedData\":[1,2,3]}}"))
+                .andReturn().getResponse().getHeader(ServerTimingAdvice.SERVER_TIMING_HEADER);
+
+        assertEquals(List.of("bind", "queue", "admission", "validate", "select", "copy", "sort", "total"), phases(header));
+    }
+
+    @Test
+    void shouldReportPhasesOfSyncSort() throws Exception {
+        String header = mockMvc.perform(post("/sort/sync").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"quick-ASC\":{\"sortedData\":[1,2,3]}}"))
+                .andReturn().getResponse().getHeader(ServerTimingAdvice.SERVER_TIMING_HEADER);
+
+        assertEquals(List.of("bind", "validate", "select", "copy", "sort", "total"), phases(header));
+    }
+
+    @Test
+    void shouldExposeTimingsInBodyOnRequest() throws Exception {
+        MvcResult result = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY.replace("{", "{\"includeTimings\":true,")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.timings.queue").isNumber())
+                .andExpect(jsonPath("$.timings.sort").isNumber())
+                .andExpect(jsonPath("$.timings.total").isNumber());
+    }
+
+    private static List<String> phases(String header) {
+        assertNotNull(header);
+        List<String> phases = new ArrayList<>();
+        for (String metric : header.split(", ")) {
+            String[] parts = metric.split(";dur=");
+            assertEquals(2, parts.length, metric);
+            assertTrue(Double.parseDouble(parts[1]) >= 0, metric);
+            phases.add(parts[0]);
+        }
+        return phases;
+    }
+
+    /**
+     * Kontroler sortowania z dodatkowym punktem końcowym sortującym w wątku żądania,
+     * aby sprawdzić nagłówek odpowiedzi zapisywanej bez ponownego przekazania żądania.
+     */
+    static class SyncSortingController extends SortingMadnessController {
+        private final SortingService sortingService;
+
+        SyncSortingController(SortingService sortingService, MemoryBudget memoryBudget, SortExecution execution) {
+            super(sortingService, memoryBudget, execution);
+            this.sortingService = sortingService;
+        }
+
+        @PostMapping(path = "/sync", produces = "application/json")
+        public Map<String, Object> sortSync(@RequestBody SortingRequest request,
+                                            @RequestAttribute(SortTimings.REQUEST_ATTRIBUTE) SortTimings timings) {
+            timings.recordSince("bind", timings.getRequestStart());
+            return sortingService.sort(request, timings, new SortingContext());
+        }
+    }
+}
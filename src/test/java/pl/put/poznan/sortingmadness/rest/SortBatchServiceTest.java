@@ -0,0 +1,147 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pl.put.poznan.sortingmadness.logic.SortWorkspace;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+import pl.put.poznan.sortingmadness.logic.SortingMadness;
+import pl.put.poznan.sortingmadness.logic.SortingSelector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SortBatchServiceTest {
+    private SortBatchService batchService;
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReportFailedItemsWithoutAffectingOthers() {
+        SortingService sortingService = new SortingService(new SortingMadness(), new SortingSelector(), new SimpleMeterRegistry(), false);
+        batchService = new SortBatchService(sortingService, new SimpleMeterRegistry(), 2, 100);
+        SortingRequest missingKey = new SortingRequest();
+        missingKey.setData(List.of(Map.of("a", 2), Map.of("a", 1)));
+        missingKey.setKeysToSort(List.of("b"));
+        missingKey.setSortingParameters(List.of(quickAscending()));
+
+        List<SortingRequest> requests = Arrays.asList(list(3, 1, 2), null, list(), missingKey, list(9, 7, 8));
+        Map<String, Object> response = batchService.sortAll(requests, new SortingContext(), Duration.ofSeconds(30));
+
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+        assertEquals(2, response.get("succeeded"));
+        assertEquals(3, response.get("failed"));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get("index"));
+        }
+        assertEquals(List.of("succeeded", "failed", "failed", "failed", "succeeded"),
+                List.of(status(results, 0), status(results, 1), status(results, 2), status(results, 3), status(results, 4)));
+        assertEquals("Invalid Request", results.get(1).get("error"));
+        assertEquals("Invalid Request", results.get(3).get("error"));
+        assertTrue(results.get(0).get("result").toString().contains("[1, 2, 3]"), results.get(0).toString());
+        assertTrue(results.get(4).get("result").toString().contains("[7, 8, 9]"), results.get(4).toString());
+    }
+
+    @Test
+    void shouldReuseWorkspacePerThread() {
+        SortingService sortingService = mock(SortingService.class);
+        SortingMadness sortingMadness = new SortingMadness();
+        when(sortingService.getSortingMadness()).thenReturn(sortingMadness);
+        Set<SortWorkspace> workspaces = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+        when(sortingService.sort(any(), any(), any(), any())).thenAnswer(invocation -> {
+            workspaces.add(invocation.getArgument(3));
+            return Map.of();
+        });
+        batchService = new SortBatchService(sortingService, new SimpleMeterRegistry(), 1, 100);
+        List<SortingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(list(i, 1));
+        }
+
+        batchService.sortAll(requests, new SortingContext(), Duration.ofSeconds(30));
+        batchService.sortAll(requests, new SortingContext(), Duration.ofSeconds(30));
+
+        assertEquals(1, workspaces.size());
+        SortWorkspace workspace = workspaces.iterator().next();
+        // The service's sorter and strategy instances are shared, and the copy buffer is reused unless a result holds on to it.
+        assertSame(sortingMadness, workspace.getSortingMadness());
+        assertSame(new SortingMadness().getStrategy("quick"), workspace.getSortingMadness().getStrategy("quick"));
+        List<Integer> buffer = workspace.copyOf(List.of(3, 1, 2));
+        workspace.reclaim(Map.of("sortedData", List.of(1, 2, 3)));
+        assertSame(buffer, workspace.copyOf(List.of(5, 4)));
+        workspace.reclaim(Map.of("sortedData", buffer));
+        assertNotSame(buffer, workspace.copyOf(List.of(5, 4)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldAbortRunningItemsWhenBatchIsCancelled() throws Exception {
+        SortingService sortingService = mock(SortingService.class);
+        CountDownLatch started = new CountDownLatch(2);
+        when(sortingService.sort(any(), any(), any(), any())).thenAnswer(invocation -> {
+            SortingContext context = invocation.getArgument(2);
+            started.countDown();
+            while (true) {
+                context.throwIfCancelled();
+                LockSupport.parkNanos(1_000_000);
+            }
+        });
+        batchService = new SortBatchService(sortingService, new SimpleMeterRegistry(), 2, 100);
+        SortingContext batchContext = new SortingContext();
+
+        List<SortingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            requests.add(list(i, 1));
+        }
+
+        CompletableFuture<Map<String, Object>> response = CompletableFuture.supplyAsync(
+                () -> batchService.sortAll(requests, batchContext, Duration.ofMinutes(1)));
+        // Both halves of the batch are sorting when the client goes away.
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        batchContext.cancel(SortingCancelledException.Reason.CANCELLED);
+
+        Map<String, Object> result = response.get(5, TimeUnit.SECONDS);
+        assertEquals(16, result.get("failed"));
+        verify(sortingService, times(2)).sort(any(), any(), any(), any());
+        for (Map<String, Object> item : (List<Map<String, Object>>) result.get("results")) {
+            assertEquals("Sort Cancelled", item.get("error"));
+        }
+    }
+
+    private static SortingRequest list(Object... values) {
+        SortingRequest request = new SortingRequest();
+        request.setDataList(Arrays.asList(values));
+        request.setSortingParameters(List.of(quickAscending()));
+        return request;
+    }
+
+    private static SortingRequest.SortingParameter quickAscending() {
+        SortingRequest.SortingParameter parameter = new SortingRequest.SortingParameter();
+        parameter.setSortingAlgorithms("quick");
+        parameter.setDirections("ASC");
+        return parameter;
+    }
+
+    private static Object status(List<Map<String, Object>> results, int index) {
+        return results.get(index).get("status");
+    }
+}
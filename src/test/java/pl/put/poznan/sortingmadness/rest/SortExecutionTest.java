@@ -0,0 +1,151 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class SortExecutionTest {
+    private final SortingService sortingService = mock(SortingService.class);
+    private final MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1_000_000, 8, 0, 1, 0);
+    private FairSortScheduler scheduler;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new FairSortScheduler(new SimpleMeterRegistry(), 2, 1, 5000, 2, 50, "");
+        SortExecution execution = new SortExecution(memoryBudget, scheduler, 30_000, 300_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new SortingMadnessController(sortingService, memoryBudget, execution))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void shouldReturnSortResultWithinBudget() throws Exception {
+        when(sortingService.sort(any(), any(), any())).thenReturn(Map.of("quick-ASC", List.of(1, 2, 3)));
+
+        MvcResult result = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dataList\":[3,1,2]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"quick-ASC\":[1,2,3]}"));
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    void shouldReturn503WhenTimeBudgetExpires() throws Exception {
+        when(sortingService.sort(any(), any(), any())).thenAnswer(invocation -> {
+            SortingContext context = invocation.getArgument(2);
+            while (true) {
+                // A long CPU-bound sort reaching its checkpoints; it does not react to interrupts.
+                context.throwIfCancelled();
+                LockSupport.parkNanos(1_000_000);
+            }
+        });
+
+        MvcResult result = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dataList\":[3,1,2],\"timeoutMillis\":50}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Sort Timeout"))
+                .andExpect(jsonPath("$.message").value("Sorting exceeded its time budget and was aborted."));
+    }
+
+    @Test
+    void shouldReleaseQueueReservationWhenRequestEndsBeforeAsyncProcessing() {
+        FairSortScheduler strict = new FairSortScheduler(new SimpleMeterRegistry(), 1, 0, 5000, 1, 1, "");
+        SortExecution execution = new SortExecution(memoryBudget, strict, 30_000, 300_000);
+        try {
+            for (int i = 0; i < 2; i++) {
+                // A request whose handler returned the task, but which failed before Spring MVC started it.
+                ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    execution.submit("client", 3, 24, 1000, new SortTimings(System.nanoTime()), context -> "unused");
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+                attributes.requestCompleted();
+            }
+            assertNotNull(strict.admit("client", 3));
+        } finally {
+            strict.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCancelSortWhenClientDisconnects() throws Exception {
+        CompletableFuture<SortingContext> started = new CompletableFuture<>();
+        CompletableFuture<SortingCancelledException> aborted = new CompletableFuture<>();
+        when(sortingService.sort(any(), any(), any())).thenAnswer(invocation -> {
+            SortingContext context = invocation.getArgument(2);
+            started.complete(context);
+            try {
+                while (true) {
+                    context.throwIfCancelled();
+                    LockSupport.parkNanos(1_000_000);
+                }
+            } catch (SortingCancelledException e) {
+                aborted.complete(e);
+                throw e;
+            }
+        });
+
+        MvcResult result = mockMvc.perform(post("/sort").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dataList\":[3,1,2]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        SortingContext context = started.get(5, TimeUnit.SECONDS);
+        assertFalse(context.isCancelled());
+
+        // What the container does when the client goes away: an I/O error, then completion of the async request.
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+        asyncContext.complete();
+
+        SortingCancelledException exception = aborted.get(5, TimeUnit.SECONDS);
+        assertEquals(SortingCancelledException.Reason.CANCELLED, exception.getReason());
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+}
@@ -0,0 +1,169 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SortJobServiceTest {
+    private final SortingService sortingService = mock(SortingService.class);
+    private final MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1_000_000, 8, 0, 1, 0);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SortJobService jobService;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldRunJobAndRetainOnlyResultMemory() throws InterruptedException {
+        jobService = service(2, 10, 600);
+        when(sortingService.sort(any(), any(), any())).thenReturn(Map.of("sortedData", List.of(1, 2, 3)));
+        SortingRequest request = request(10);
+
+        SortJob job = jobService.submit(request);
+        awaitDone(job);
+
+        assertSame(job, jobService.get(job.getId()));
+        assertEquals(SortJob.State.SUCCEEDED, job.getState());
+        assertEquals(Map.of("sortedData", List.of(1, 2, 3)), job.getResult());
+        assertEquals(1.0, job.toStatus().get("progress"));
+        // 10 values x 8 bytes: three copies while sorting, one retained with the result.
+        assertEquals(80, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    void shouldPurgeExpiredJobsInBackground() throws InterruptedException {
+        jobService = service(1, 10, 1);
+        when(sortingService.sort(any(), any(), any())).thenReturn(Map.of());
+
+        SortJob job = jobService.submit(request(10));
+        awaitDone(job);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (memoryBudget.getUsedBytes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, memoryBudget.getUsedBytes());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> jobService.get(job.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void shouldMarkFailedJobsAndReleaseMemory() throws InterruptedException {
+        jobService = service(1, 10, 600);
+        when(sortingService.sort(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Key not found"))
+                .thenThrow(new OutOfMemoryError("Java heap space"));
+
+        SortJob failed = jobService.submit(request(10));
+        awaitDone(failed);
+        SortJob fatal = jobService.submit(request(10));
+        awaitDone(fatal);
+
+        assertEquals(SortJob.State.FAILED, failed.getState());
+        assertEquals("Key not found", failed.getError());
+        // Fatal errors still propagate to the worker, but the job does not stay RUNNING.
+        assertEquals(SortJob.State.FAILED, fatal.getState());
+        assertEquals("Java heap space", fatal.getError());
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    void shouldCancelQueuedJobAndRejectSecondCancel() throws InterruptedException {
+        jobService = service(1, 10, 600);
+        blockSorting();
+
+        SortJob running = jobService.submit(request(10));
+        SortJob queued = jobService.submit(request(10));
+        jobService.cancel(queued.getId());
+
+        assertEquals(SortJob.State.CANCELLED, queued.getState());
+        assertEquals(240, memoryBudget.getUsedBytes());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> jobService.cancel(queued.getId()));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+
+        jobService.cancel(running.getId());
+        awaitDone(running);
+        assertEquals(SortJob.State.CANCELLED, running.getState());
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    void shouldRejectJobsWhenQueueIsFull() {
+        jobService = service(1, 1, 600);
+        blockSorting();
+
+        jobService.submit(request(10));
+        jobService.submit(request(10));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> jobService.submit(request(10)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(480, memoryBudget.getUsedBytes());
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(new SortingRequest()));
+    }
+
+    @Test
+    void shouldRejectJobsWithoutWaitingWhenMemoryBudgetIsExhausted() {
+        jobService = service(1, 10, 600);
+        MemoryBudget.Permit held = memoryBudget.acquire(memoryBudget.getBudgetBytes() - 100);
+
+        assertThrows(AdmissionRejectedException.class, () -> jobService.submit(request(10)));
+
+        held.close();
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    private SortJobService service(int poolSize, int queueCapacity, long retentionSeconds) {
+        when(sortingService.size(any())).thenCallRealMethod();
+        return new SortJobService(sortingService, memoryBudget, new SimpleMeterRegistry(), poolSize, queueCapacity, retentionSeconds, 60);
+    }
+
+    /**
+     * Makes sorts wait until the test ends or the job is cancelled, as a long sort would.
+     */
+    private void blockSorting() {
+        when(sortingService.sort(any(), any(), any())).thenAnswer(invocation -> {
+            SortingContext context = invocation.getArgument(2);
+            while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                context.throwIfCancelled();
+            }
+            return Map.of();
+        });
+    }
+
+    private static SortingRequest request(int values) {
+        SortingRequest request = new SortingRequest();
+        request.setDataList(values(values));
+        return request;
+    }
+
+    private static List<Object> values(int count) {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = count - i;
+        }
+        return List.of(values);
+    }
+
+    private static void awaitDone(SortJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isDone(), "job " + job.getState());
+    }
+}
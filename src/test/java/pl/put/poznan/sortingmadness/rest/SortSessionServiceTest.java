@@ -0,0 +1,145 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.put.poznan.sortingmadness.logic.SortingCancelledException;
+import pl.put.poznan.sortingmadness.logic.SortingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortSessionServiceTest {
+    private final MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1_000_000, 8, 0, 1, 0);
+    private final List<SortSessionService> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(SortSessionService::shutdown);
+    }
+
+    @Test
+    void shouldReserveMemoryUntilSessionIsClosed() {
+        SortSessionService sessionService = service(10, 600);
+
+        Map<String, Object> firstPage = sessionService.create(request(100), null);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), firstPage.get("sortedData"));
+        assertEquals(100 * 8, memoryBudget.getUsedBytes());
+        sessionService.close((String) firstPage.get("session"));
+        assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    void shouldReleaseExpiredSessions() throws InterruptedException {
+        SortSessionService sessionService = service(1, 0);
+        String expired = (String) sessionService.create(request(100), null).get("session");
+        Thread.sleep(5);
+
+        sessionService.create(request(100), null);
+
+        assertEquals(100 * 8, memoryBudget.getUsedBytes());
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> sessionService.page(expired, 1));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatus());
+    }
+
+    @Test
+    void shouldPurgeExpiredSessionsInBackground() throws InterruptedException {
+        SortSessionService sessionService = service(1, 0);
+        sessionService.create(request(100), null);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (memoryBudget.getUsedBytes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, memoryBudget.getUsedBytes());
+        assertNotNull(sessionService.create(request(100), null).get("session"));
+    }
+
+    @Test
+    void shouldKeepSessionUsableWhenPageIsCancelled() {
+        SortSessionService sessionService = service(1, 600);
+        String id = (String) sessionService.create(request(100), null).get("session");
+        SortingContext cancelled = new SortingContext();
+        cancelled.cancel(SortingCancelledException.Reason.TIMEOUT);
+
+        assertThrows(SortingCancelledException.class, () -> sessionService.page(id, 2, cancelled));
+
+        assertEquals(5, sessionService.pageSize(id));
+        assertEquals(List.of(5, 6, 7, 8, 9), sessionService.page(id, 2, new SortingContext()).get("sortedData"));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> sessionService.pageSize("missing"));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatus());
+    }
+
+    @Test
+    void shouldNotExceedSessionLimitUnderConcurrentCreation() throws Exception {
+        SortSessionService sessionService = service(3, 600);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 16; i++) {
+                Callable<Boolean> create = () -> {
+                    start.await();
+                    try {
+                        sessionService.create(request(10), null);
+                        return true;
+                    } catch (ResponseStatusException e) {
+                        return false;
+                    }
+                };
+                results.add(pool.submit(create));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                created += result.get() ? 1 : 0;
+            }
+            assertEquals(3, created);
+            assertEquals(3 * 10 * 8, memoryBudget.getUsedBytes());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReleaseSlotAndMemoryWhenCreationFails() {
+        SortSessionService sessionService = service(1, 600);
+        SortingContext cancelled = new SortingContext();
+        cancelled.cancel(SortingCancelledException.Reason.CANCELLED);
+
+        assertThrows(SortingCancelledException.class, () -> sessionService.create(request(10), cancelled));
+
+        assertEquals(0, memoryBudget.getUsedBytes());
+        assertNotNull(sessionService.create(request(10), null).get("session"));
+    }
+
+    private SortSessionService service(int maxSessions, long idleSeconds) {
+        SortSessionService sessionService = new SortSessionService(new SimpleMeterRegistry(), memoryBudget, maxSessions, 1000, idleSeconds);
+        services.add(sessionService);
+        return sessionService;
+    }
+
+    private static SortSessionRequest request(int size) {
+        List<Object> dataList = new ArrayList<>();
+        for (int i = size - 1; i >= 0; i--) {
+            dataList.add(i);
+        }
+        SortSessionRequest request = new SortSessionRequest();
+        request.setDataList(dataList);
+        request.setPageSize(5);
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package pl.put.poznan.sortingmadness.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import pl.put.poznan.sortingmadness.app.SortingMadnessApplication;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {SortingMadnessApplication.class, StartupWarmupTest.ReadinessProbe.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "sorting.warmup.enabled=true",
+                "sorting.warmup.rounds=1",
+                "sorting.warmup.size=20",
+                "sorting.warmup.requests=4"
+        })
+class StartupWarmupTest {
+
+    @Autowired
+    private ReadinessProbe probe;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    @Test
+    void shouldPublishReadinessOnlyAfterWarmup() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertEquals(1.0, probe.completedWhenReady.get());
+    }
+
+    @Test
+    void shouldRecordWarmupMetrics() {
+        assertEquals(1.0, meterRegistry.get("sorting.warmup.completed").gauge().value());
+        assertTrue(meterRegistry.get("sorting.warmup.strategies").gauge().value() > 0);
+        assertEquals(1, meterRegistry.get("sorting.warmup.duration").timer().count());
+        assertEquals(4.0, meterRegistry.get("sorting.warmup.invocations").tag("stage", "http").counter().count());
+        double strategyInvocations = meterRegistry.get("sorting.warmup.invocations").tag("stage", "strategy").counters()
+                .stream().mapToDouble(Counter::count).sum();
+        assertTrue(strategyInvocations > 0);
+    }
+
+    @Test
+    void shouldRestoreLogLevelsAfterWarmup() {
+        assertNull(loggingSystem.getLoggerConfiguration("pl.put.poznan.sortingmadness.logic").getConfiguredLevel());
+        assertNull(loggingSystem.getLoggerConfiguration(SortingMadnessController.class.getName()).getConfiguredLevel());
+    }
+
+    /**
+     * Zapamiętuje stan metryki {@code sorting.warmup.completed} w chwili zgłoszenia gotowości.
+     */
+    @TestConfiguration
+    static class ReadinessProbe {
+        private final AtomicReference<Double> completedWhenReady = new AtomicReference<>();
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @EventListener
+        public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                completedWhenReady.set(meterRegistry.get("sorting.warmup.completed").gauge().value());
+            }
+        }
+    }
+}